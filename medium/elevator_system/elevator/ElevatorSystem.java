@@ -3,20 +3,55 @@ package elevator;
 import elevator.components.Direction;
 import elevator.components.ElevatorCar;
 import elevator.components.ElevatorStatus;
+import elevator.dispatch.DestinationDispatchController;
+import elevator.dispatch.DestinationGroupingSolver;
 import elevator.dispatch.DispatchingStrategy;
 import elevator.dispatch.ElevatorDispatch;
+import elevator.dispatch.ElevatorDispatchController;
+import elevator.dispatch.IdleCarParker;
+import elevator.metrics.TripLatencies;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
 
 public class ElevatorSystem {
 
     private final List<ElevatorCar> elevators;
     private final ElevatorDispatch dispatchController;
+    private final LongSupplier nanoClock;
+    private IdleCarParker idleCarParker;
 
     public ElevatorSystem(List<ElevatorCar> elevators, DispatchingStrategy strategy) {
+        this(elevators, strategy, System::nanoTime);
+    }
+
+    // nanoClock timestamps calls and stops for the latency histograms; tests and replays can supply their own
+    public ElevatorSystem(List<ElevatorCar> elevators, DispatchingStrategy strategy, LongSupplier nanoClock) {
         this.elevators = elevators;
         this.dispatchController = new ElevatorDispatch(strategy);
+        this.nanoClock = nanoClock;
+        for (ElevatorCar elevator : elevators) {
+            elevator.recordLatencies(dispatchController.getStrategyLatencies(), nanoClock);
+        }
+    }
+
+    // Wait and ride time histograms across the whole fleet, labelled with the dispatching strategy
+    public TripLatencies getStrategyLatencies() {
+        return dispatchController.getStrategyLatencies();
+    }
+
+    public TripLatencies getElevatorLatencies(int index) {
+        return elevators.get(index).getLatencies();
+    }
+
+    public void resetLatencies() {
+        dispatchController.getStrategyLatencies().reset();
+        for (ElevatorCar elevator : elevators) {
+            elevator.getLatencies().reset();
+        }
     }
 
     public List<ElevatorStatus> getAllElevatorStatuses() {
@@ -27,8 +62,61 @@ public class ElevatorSystem {
         return statuses;
     }
 
-    public void requestElevator(int currentFloor, Direction direction) {
-        dispatchController.dispatchElevatorCar(currentFloor, direction, elevators);
+    // Allocation-free snapshot for pollers: fills packedStatuses[i] with car i's status (decode with
+    // ElevatorStatus.floorOf/directionOf) and returns the number of cars written
+    public int getAllElevatorStatuses(int[] packedStatuses) {
+        int count = elevators.size();
+        if (packedStatuses.length < count) {
+            throw new IllegalArgumentException("Need room for " + count + " statuses, got " + packedStatuses.length);
+        }
+        for (int i = 0; i < count; i++) {
+            packedStatuses[i] = elevators.get(i).getPackedStatus();
+        }
+        return count;
+    }
+
+    public int getElevatorCount() {
+        return elevators.size();
+    }
+
+    // Returns the car that was given the call, or null if the strategy could not place it
+    public ElevatorCar requestElevator(int currentFloor, Direction direction) {
+        return dispatchController.dispatchElevatorCar(currentFloor, direction, elevators);
+    }
+
+    // Controller to register with each floor's HallwayButtonPanel; floors are numbered 0 to floorCount - 1
+    public ElevatorDispatchController createDispatchController(int floorCount) {
+        return new ElevatorDispatchController(floorCount, elevators, dispatchController, nanoClock);
+    }
+
+    // Destination-dispatch halls: calls made within batchWindow of each other are grouped by the solver,
+    // which must answer within DestinationDispatchController.DEFAULT_SOLVE_DEADLINE. carLoad reports the
+    // passengers aboard each car plus those already assigned to it and not yet picked up.
+    public DestinationDispatchController createDestinationDispatchController(DestinationGroupingSolver solver,
+                                                                             Duration batchWindow,
+                                                                             ToIntFunction<ElevatorCar> carLoad) {
+        return new DestinationDispatchController(elevators, solver, batchWindow,
+                DestinationDispatchController.DEFAULT_SOLVE_DEADLINE, carLoad, nanoClock);
+    }
+
+    // Learn hall-call rates from every dispatched call and let parkIdleElevator reposition idle cars; the
+    // parker's forecast must cover every floor the cars are on
+    public void enableIdleCarParking(IdleCarParker parker) {
+        int floorCount = parker.getForecast().getFloorCount();
+        for (ElevatorCar elevator : elevators) {
+            if (elevator.getCurrentFloor() >= floorCount) {
+                throw new IllegalArgumentException("Car at floor " + elevator.getCurrentFloor()
+                        + " is outside the forecast's " + floorCount + " floors");
+            }
+        }
+        this.idleCarParker = parker;
+        dispatchController.setIdleCarParker(parker);
+    }
+
+    // For the control loop to call when a car runs out of stops; returns the floor the car was sent to,
+    // or -1 if it stays (parking disabled, nothing learned yet, or already where it is needed)
+    public int parkIdleElevator(ElevatorCar car) {
+        return idleCarParker == null ? -1 : idleCarParker.park(car, elevators);
     }
 
     public void selectFloor(ElevatorCar car, int destinationFloor) {
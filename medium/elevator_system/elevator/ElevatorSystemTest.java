@@ -3,10 +3,40 @@ package elevator;
 import elevator.components.Direction;
 import elevator.components.ElevatorCar;
 import elevator.components.ElevatorStatus;
+import elevator.components.HallwayButtonPanel;
+import elevator.dispatch.DestinationCall;
+import elevator.dispatch.DestinationDispatchController;
+import elevator.dispatch.DestinationGroupingSolver;
+import elevator.dispatch.ElevatorDispatchController;
+import elevator.dispatch.EstimatedTimeToArrivalStrategy;
 import elevator.dispatch.FirstComeFirstServeStrategy;
+import elevator.dispatch.HallCallForecast;
+import elevator.dispatch.IdleCarParker;
+import elevator.dispatch.ShortestSeekTimeFirstStrategy;
+import elevator.metrics.LatencyHistogram;
+import elevator.metrics.TripLatencies;
+import elevator.simulation.ElevatorSimulator;
+import elevator.simulation.SimulationResult;
+import elevator.simulation.SimulationScenario;
+import elevator.simulation.StrategyComparison;
+import elevator.simulation.TimingWheel;
+import elevator.simulation.TraceReader;
+import elevator.simulation.TraceReplay;
+import elevator.simulation.TraceWriter;
+import elevator.simulation.TrafficPattern;
+import elevator.simulation.TripTimeDistribution;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -101,4 +131,733 @@ public class ElevatorSystemTest {
         System.out.println("✓ All requests completed successfully");
         System.out.println("=== Elevator System Test Completed Successfully ===\n");
     }
+
+    @Test
+    public void testLookSchedulingServesStopsInSweepOrder() {
+        System.out.println("\n=== Testing LOOK Stop Scheduling ===");
+        ElevatorCar car = new ElevatorCar(5);
+        ElevatorSystem elevatorSystem = new ElevatorSystem(List.of(car), new FirstComeFirstServeStrategy());
+
+        // Requests arrive in an order that would make a FIFO car zig-zag: 5 -> 10 -> 2 -> 9 -> 3
+        for (int floor : new int[]{10, 2, 9, 3}) {
+            elevatorSystem.selectFloor(car, floor);
+        }
+        assertEquals(Direction.UP, car.getCurrentDirection(), "First request is above, so the car heads up");
+
+        List<Integer> servedFloors = new ArrayList<>();
+        int floorsTravelled = 0;
+        while (!car.isIdle()) {
+            int before = car.getCurrentFloor();
+            car.moveUntilNextFloor();
+            floorsTravelled += Math.abs(car.getCurrentFloor() - before);
+            servedFloors.add(car.getCurrentFloor());
+            car.nextDestination();
+        }
+        assertEquals(List.of(9, 10, 3, 2), servedFloors, "Up sweep first, then the down sweep");
+        assertEquals(13, floorsTravelled, "One reversal instead of FIFO's 26 floors of travel");
+        System.out.println("✓ Served " + servedFloors + " travelling " + floorsTravelled + " floors");
+
+        System.out.println("\n--- Hall Calls Wait For Their Direction ---");
+        // Car at 2 heading up to 12; an UP call at 1 and a DOWN call at 7 are both left for later sweeps
+        elevatorSystem.selectFloor(car, 12);
+        car.addFloorRequest(7, Direction.DOWN);
+        car.addFloorRequest(1, Direction.UP);
+        servedFloors.clear();
+        while (!car.isIdle()) {
+            car.moveUntilNextFloor();
+            servedFloors.add(car.getCurrentFloor());
+            car.nextDestination();
+        }
+        assertEquals(List.of(12, 7, 1), servedFloors);
+        System.out.println("✓ Passed the DOWN call at 7 on the way up and served it on the way down");
+
+        System.out.println("\n--- Floors Are Numbered From 0 ---");
+        assertThrows(IllegalArgumentException.class, () -> car.addFloorRequest(-1));
+        assertThrows(IllegalArgumentException.class, () -> car.addFloorRequest(-2, Direction.UP));
+        assertThrows(IllegalArgumentException.class, () -> new ElevatorCar(-1));
+        assertTrue(car.isIdle(), "A rejected floor leaves no stop behind");
+        System.out.println("✓ Negative floors are rejected; a building numbers its lowest basement 0");
+        System.out.println("=== LOOK Scheduling Test Completed Successfully ===\n");
+    }
+
+    @Test
+    public void testEstimatedTimeToArrivalDispatching() {
+        System.out.println("\n=== Testing ETA-Cost Dispatching ===");
+        // Car A is close but has a stop on every floor ahead of it; car B is idle further away
+        ElevatorCar busyCar = new ElevatorCar(10);
+        for (int floor = 11; floor < 20; floor++) {
+            busyCar.addFloorRequest(floor);
+        }
+        ElevatorCar idleCar = new ElevatorCar(0);
+        List<ElevatorCar> cars = List.of(busyCar, idleCar);
+        EstimatedTimeToArrivalStrategy strategy = new EstimatedTimeToArrivalStrategy(2.0, 10.0);
+
+        assertSame(busyCar, new ShortestSeekTimeFirstStrategy().selectElevator(cars, 20, Direction.UP));
+        assertEquals(10 * 2.0 + 9 * 10.0, strategy.estimateSeconds(busyCar, 20, Direction.UP), 0.001,
+                "Ten floors plus nine door stops");
+        assertEquals(40.0, strategy.estimateSeconds(idleCar, 20, Direction.UP), 0.001);
+        assertSame(idleCar, strategy.selectElevator(cars, 20, Direction.UP),
+                "Queued stops make the nearer car slower to arrive");
+        System.out.println("✓ Chose the idle car over the nearer car with nine stops queued");
+
+        // Down call below a car sweeping up: the car turns at its highest stop, then comes down
+        assertEquals((19 - 10 + 19 - 5) * 2.0 + 9 * 10.0, strategy.estimateSeconds(busyCar, 5, Direction.DOWN), 0.001);
+        busyCar.moveUntilNextFloor();
+        busyCar.nextDestination();
+        assertEquals((19 - 11 + 19 - 5) * 2.0 + 8 * 10.0, strategy.estimateSeconds(busyCar, 5, Direction.DOWN), 0.001,
+                "Cached route should refresh after the car moves and serves a stop");
+        long version = busyCar.getPlanVersion();
+        busyCar.moveOneStep();  // Reaches 12 but has not served it yet
+        assertEquals(version, busyCar.getPlanVersion(), "Moving alone leaves the cached stops valid");
+        assertEquals((19 - 12 + 19 - 5) * 2.0 + 8 * 10.0, strategy.estimateSeconds(busyCar, 5, Direction.DOWN), 0.001,
+                "The position comes from the car's status, not the cache");
+        System.out.println("✓ Estimates follow the LOOK route and refresh when the car's plan changes");
+
+        System.out.println("\n--- Batch Spreads Calls Across Cars ---");
+        List<ElevatorCar> lobbyCars = List.of(new ElevatorCar(0), new ElevatorCar(0));
+        ElevatorCar[] assignments = new ElevatorCar[2];
+        strategy.selectElevators(lobbyCars, new int[]{8, 9}, new Direction[]{Direction.DOWN, Direction.DOWN}, 2,
+                assignments);
+        assertNotSame(assignments[0], assignments[1], "Second call should not wait behind the first call's stop");
+        System.out.println("✓ Two calls in one batch went to two different cars");
+
+        System.out.println("\n--- Scoring 50 Cars ---");
+        List<ElevatorCar> fleet = new ArrayList<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 50; i++) {
+            ElevatorCar car = new ElevatorCar(random.nextInt(120));
+            for (int stop = 0; stop < 8; stop++) {
+                car.addFloorRequest(random.nextInt(120), random.nextBoolean() ? Direction.UP : Direction.DOWN);
+            }
+            fleet.add(car);
+        }
+        int calls = 100_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            assertNotNull(strategy.selectElevator(fleet, i % 120, i % 2 == 0 ? Direction.UP : Direction.DOWN));
+        }
+        long nanosPerCall = (System.nanoTime() - start) / calls;
+        System.out.println("✓ Picked a car among 50 in " + nanosPerCall + " ns per call");
+        System.out.println("=== ETA-Cost Dispatching Test Completed Successfully ===\n");
+    }
+
+    @Test
+    public void testHallCallPipeline() throws InterruptedException {
+        System.out.println("\n=== Testing Hall Call Dispatch Pipeline ===");
+        int floorCount = 120;
+        Set<String> dispatchedCalls = ConcurrentHashMap.newKeySet();
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        List<ElevatorCar> cars = List.of(new ElevatorCar(0), new ElevatorCar(60));
+        ElevatorSystem elevatorSystem = new ElevatorSystem(cars, new FirstComeFirstServeStrategy() {
+            @Override
+            public void selectElevators(List<ElevatorCar> elevators, int[] floors, Direction[] directions,
+                                        int count, ElevatorCar[] assignments) {
+                batchSizes.add(count);
+                for (int i = 0; i < count; i++) {
+                    dispatchedCalls.add(floors[i] + "-" + directions[i]);
+                }
+                super.selectElevators(elevators, floors, directions, count, assignments);
+            }
+        });
+        ElevatorDispatchController controller = elevatorSystem.createDispatchController(floorCount);
+        List<HallwayButtonPanel> panels = new ArrayList<>();
+        for (int floor = 0; floor < floorCount; floor++) {
+            HallwayButtonPanel panel = new HallwayButtonPanel(floor);
+            panel.addObserver(controller);
+            panels.add(panel);
+        }
+
+        System.out.println("\n--- Duplicate Presses Are Coalesced ---");
+        for (int i = 0; i < 1000; i++) {
+            panels.get(5).pressButton(Direction.UP);
+        }
+        panels.get(5).pressButton(Direction.DOWN);
+        assertEquals(2, controller.dispatchPendingCalls(), "1000 presses of one button should queue a single call");
+        assertEquals(List.of(2), batchSizes, "Strategy should run once for the whole batch");
+        assertEquals(Set.of("5-UP", "5-DOWN"), dispatchedCalls);
+        System.out.println("✓ 1001 presses on floor 5 became 2 calls dispatched in one batch");
+
+        System.out.println("\n--- A Lit Button Stays Lit Until A Car Serves It ---");
+        panels.get(5).pressButton(Direction.UP);
+        assertEquals(0, controller.dispatchPendingCalls(), "A car is already on its way to 5 UP");
+        for (ElevatorCar car : cars) {
+            while (!car.isIdle()) {
+                car.moveOneStep();
+            }
+        }
+        panels.get(5).pressButton(Direction.UP);
+        assertEquals(1, controller.dispatchPendingCalls(), "Once served, the button can call a car again");
+        for (ElevatorCar car : cars) {
+            while (!car.isIdle()) {
+                car.moveOneStep();
+            }
+        }
+        System.out.println("✓ Re-pressing a dispatched call sends no second car; after service it calls one again");
+
+        System.out.println("\n--- A Call No Car Can Take Waits For The Next Batch ---");
+        List<ElevatorCar> climbing = List.of(new ElevatorCar(0), new ElevatorCar(2));
+        for (ElevatorCar car : climbing) {
+            car.addFloorRequest(9);
+        }
+        ElevatorDispatchController rushHour = new ElevatorSystem(climbing, new ShortestSeekTimeFirstStrategy())
+                .createDispatchController(10);
+        rushHour.update(5, Direction.DOWN);
+        assertEquals(1, rushHour.dispatchPendingCalls(), "Every car is sweeping up, so SSTF places nothing");
+        rushHour.update(5, Direction.DOWN);
+        assertEquals(1, rushHour.dispatchPendingCalls(), "The unplaced call stays lit and is offered again");
+        assertTrue(climbing.stream().noneMatch(car -> car.countStops(Direction.DOWN, 0, 9) > 0));
+        for (ElevatorCar car : climbing) {
+            while (!car.isIdle()) {
+                car.moveOneStep();
+            }
+        }
+        assertEquals(1, rushHour.dispatchPendingCalls(), "Once a car is free it takes the carried call");
+        assertEquals(1, climbing.stream().filter(car -> car.countStops(Direction.DOWN, 5, 5) == 1).count());
+        assertEquals(0, rushHour.dispatchPendingCalls());
+        System.out.println("✓ A down call with every car going up was kept and served once a car came free");
+
+        System.out.println("\n--- Stops Added From Another Thread While The Car Moves ---");
+        ElevatorCar shared = new ElevatorCar(0);
+        Thread caller = new Thread(() -> {
+            for (int i = 0; i < 100_000; i++) {
+                shared.addFloorRequest((i * 37) % floorCount, i % 2 == 0 ? Direction.UP : Direction.DOWN);
+            }
+        });
+        caller.start();
+        while (caller.isAlive()) {
+            shared.moveOneStep();
+        }
+        caller.join();
+        for (int step = 0; step < 10 * floorCount && !shared.isIdle(); step++) {
+            shared.moveOneStep();
+        }
+        assertTrue(shared.isIdle(), "Every stop added concurrently should be served");
+        assertEquals(0, shared.countStops(Direction.UP, 0, floorCount) + shared.countStops(Direction.DOWN, 0, floorCount));
+        System.out.println("✓ Stop counts stay consistent with the stops while two threads use the car");
+
+        System.out.println("\n--- Rush-Hour Burst From Several Threads ---");
+        dispatchedCalls.clear();
+        controller.start();
+        int threads = 4;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int round = 0; round < 50; round++) {
+                    for (int floor = 1; floor < floorCount; floor++) {
+                        panels.get(floor).pressButton(Direction.DOWN);
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (dispatchedCalls.size() < floorCount - 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        controller.close();
+        assertEquals(floorCount - 1, dispatchedCalls.size(), "Every floor's DOWN call should be dispatched");
+        System.out.println("✓ " + (threads * 50 * (floorCount - 1)) + " presses dispatched as "
+                + dispatchedCalls.size() + " distinct calls");
+        System.out.println("=== Hall Call Pipeline Test Completed Successfully ===\n");
+    }
+
+    @Test
+    public void testDiscreteEventSimulation() {
+        System.out.println("\n=== Testing Discrete-Event Simulator ===");
+
+        System.out.println("\n--- Timing Wheel Fires Timers In Deadline Order ---");
+        TimingWheel<TestTimer> wheel = new TimingWheel<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            // Mix of near timers and ones that have to cascade down from the coarser levels
+            wheel.schedule(new TestTimer(), i % 10 == 0 ? random.nextInt(20_000_000) : random.nextInt(300));
+        }
+        long previous = -1;
+        int fired = 0;
+        TestTimer timer;
+        while ((timer = wheel.poll()) != null) {
+            assertEquals(timer.getDeadline(), wheel.getCurrentTick(), "Timer fired at the wrong tick");
+            assertTrue(timer.getDeadline() >= previous, "Timers fired out of order");
+            previous = timer.getDeadline();
+            fired++;
+        }
+        assertEquals(10_000, fired);
+        System.out.println("✓ 10000 timers fired in order, last at tick " + previous);
+
+        System.out.println("\n--- Strategies Compared On Lunch Traffic ---");
+        List<SimulationResult> results = ElevatorSimulator.runAll(List.of(
+                new SimulationScenario("SSTF", TrafficPattern.LUNCH, 20, 8, 16,
+                        ShortestSeekTimeFirstStrategy::new, 20_000, 40, 42L),
+                new SimulationScenario("ETA", TrafficPattern.LUNCH, 20, 8, 16,
+                        () -> new EstimatedTimeToArrivalStrategy(ElevatorSimulator.SECONDS_PER_FLOOR,
+                                ElevatorSimulator.DOOR_DWELL_SECONDS), 20_000, 40, 42L)));
+        for (SimulationResult result : results) {
+            System.out.println(result);
+            assertEquals(20_000, result.getDelivered(), "Every passenger should reach their floor");
+            assertEquals(0, result.getUndelivered());
+            TripTimeDistribution waits = result.getWaitTimes();
+            assertTrue(waits.getPercentileSeconds(0.5) <= waits.getPercentileSeconds(0.99));
+            assertTrue(waits.getPercentileSeconds(0.99) <= waits.getMaxSeconds());
+            assertTrue(result.getJourneyTimes().getMeanSeconds() > waits.getMeanSeconds(),
+                    "A journey includes the wait plus the ride");
+        }
+        assertTrue(results.get(1).getWaitTimes().getMeanSeconds() < results.get(0).getWaitTimes().getMeanSeconds(),
+                "Scoring cars by arrival time should beat nearest-car dispatch");
+
+        System.out.println("\n--- Random Choices Replay From The Scenario's Seed ---");
+        List<SimulationResult> fcfsRuns = ElevatorSimulator.runAll(List.of(
+                new SimulationScenario("FCFS", TrafficPattern.LUNCH, 20, 8, 16,
+                        seeded -> new FirstComeFirstServeStrategy(seeded), 5_000, 40, 7L),
+                new SimulationScenario("FCFS", TrafficPattern.LUNCH, 20, 8, 16,
+                        seeded -> new FirstComeFirstServeStrategy(seeded), 5_000, 40, 7L)));
+        assertEquals(fcfsRuns.get(0).getWaitTimes().getMeanSeconds(), fcfsRuns.get(1).getWaitTimes().getMeanSeconds());
+        assertEquals(fcfsRuns.get(0).getJourneyTimes().getMaxSeconds(), fcfsRuns.get(1).getJourneyTimes().getMaxSeconds());
+        assertEquals(fcfsRuns.get(0).getEvents(), fcfsRuns.get(1).getEvents());
+        System.out.println("✓ Two FCFS runs with the same seed dispatched identically");
+        System.out.println("=== Discrete-Event Simulator Test Completed Successfully ===\n");
+    }
+
+    @Test
+    public void testPackedStatusSnapshots() {
+        System.out.println("\n=== Testing Allocation-Free Status Snapshots ===");
+        List<ElevatorCar> cars = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            cars.add(new ElevatorCar(i));
+        }
+        ElevatorSystem elevatorSystem = new ElevatorSystem(cars, new ShortestSeekTimeFirstStrategy());
+        cars.get(0).addFloorRequest(5);
+        cars.get(10).addFloorRequest(2);
+        cars.get(0).moveOneStep();
+        cars.get(10).moveOneStep();
+
+        int[] snapshot = new int[elevatorSystem.getElevatorCount()];
+        assertEquals(64, elevatorSystem.getAllElevatorStatuses(snapshot));
+        List<ElevatorStatus> statuses = elevatorSystem.getAllElevatorStatuses();
+        for (int i = 0; i < snapshot.length; i++) {
+            assertEquals(statuses.get(i).getCurrentFloor(), ElevatorStatus.floorOf(snapshot[i]));
+            assertEquals(statuses.get(i).getCurrentDirection(), ElevatorStatus.directionOf(snapshot[i]));
+        }
+        assertEquals(1, ElevatorStatus.floorOf(snapshot[0]));
+        assertEquals(Direction.UP, ElevatorStatus.directionOf(snapshot[0]));
+        assertEquals(9, ElevatorStatus.floorOf(snapshot[10]));
+        assertEquals(Direction.DOWN, ElevatorStatus.directionOf(snapshot[10]));
+        assertSame(cars.get(3).getStatus(), cars.get(3).getStatus(), "Unchanged car should reuse its status object");
+        assertThrows(IllegalArgumentException.class, () -> elevatorSystem.getAllElevatorStatuses(new int[10]));
+
+        System.out.println("\n--- Polling And Moving Do Not Allocate ---");
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+            long threadId = Thread.currentThread().getId();
+            long checksum = 0;
+            for (int round = 0; round < 2; round++) {  // First round warms up the JIT
+                long before = allocations.getThreadAllocatedBytes(threadId);
+                for (int i = 0; i < 100_000; i++) {
+                    ElevatorCar car = cars.get(i & 63);
+                    car.addFloorRequest((i * 7) % 100);
+                    car.moveOneStep();
+                    elevatorSystem.getAllElevatorStatuses(snapshot);
+                    checksum += snapshot[i & 63];
+                }
+                long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+                System.out.println("  round " + round + ": " + allocated + " bytes for 100000 move + poll cycles");
+                if (round == 1) {
+                    assertTrue(allocated < 64 * 1024, "Moving and polling should not allocate per call");
+                }
+            }
+            assertNotEquals(0, checksum);
+        }
+        System.out.println("=== Status Snapshot Test Completed Successfully ===\n");
+    }
+
+    @Test
+    public void testDestinationDispatch() throws Exception {
+        System.out.println("\n=== Testing Destination Dispatch ===");
+
+        System.out.println("\n--- Shared Destinations Ride Together ---");
+        List<ElevatorCar> cars = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            cars.add(new ElevatorCar(0));
+        }
+        DestinationGroupingSolver solver = new DestinationGroupingSolver(1.5, 8.0, 20);
+        List<DestinationCall> calls = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            calls.add(new DestinationCall(0, 10 + (i % 4) * 10));  // Lobby crowd bound for 10, 20, 30 and 40
+        }
+        ElevatorCar[] assignments = solver.solve(cars, new int[cars.size()], calls, System.nanoTime() + 50_000_000L);
+        Map<Integer, Set<ElevatorCar>> carsByDestination = new HashMap<>();
+        Map<ElevatorCar, Integer> loads = new HashMap<>();
+        for (int i = 0; i < calls.size(); i++) {
+            assertNotNull(assignments[i], "Every call should get a car");
+            carsByDestination.computeIfAbsent(calls.get(i).getDestinationFloor(), f -> new HashSet<>()).add(assignments[i]);
+            loads.merge(assignments[i], 1, Integer::sum);
+        }
+        for (Map.Entry<Integer, Set<ElevatorCar>> entry : carsByDestination.entrySet()) {
+            assertEquals(1, entry.getValue().size(), "Everyone bound for floor " + entry.getKey() + " shares a car");
+        }
+        loads.values().forEach(load -> assertTrue(load <= 20, "Car capacity exceeded"));
+        System.out.println("✓ 40 calls to 4 floors grouped into " + loads.size() + " cars");
+        assertThrows(IllegalArgumentException.class, () -> new DestinationCall(5, 5));
+
+        System.out.println("\n--- Cars Start From The Load They Already Carry ---");
+        List<DestinationCall> party = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            party.add(new DestinationCall(0, 10));
+        }
+        // The first car has 18 aboard or on their way to it, so the party of 5 only fits in the second
+        ElevatorCar[] partyAssignments = solver.solve(cars, new int[]{18, 0, 0, 0}, party, System.nanoTime() + 50_000_000L);
+        for (ElevatorCar assigned : partyAssignments) {
+            assertNotNull(assigned, "The party fits in an empty car");
+            assertNotSame(cars.get(0), assigned, "A car must not be filled past its capacity");
+        }
+        ElevatorCar[] noRoom = solver.solve(cars, new int[]{20, 20, 20, 20}, party, System.nanoTime() + 50_000_000L);
+        assertTrue(Arrays.stream(noRoom).allMatch(Objects::isNull), "Full cars take no one");
+        System.out.println("✓ Passengers already committed to a car count against its capacity");
+
+        System.out.println("\n--- Large Batches Meet The 50 ms Deadline ---");
+        Random random = new Random(3);
+        List<ElevatorCar> fleet = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ElevatorCar car = new ElevatorCar(random.nextInt(120));
+            for (int stop = 0; stop < 5; stop++) {
+                car.addFloorRequest(random.nextInt(120));
+            }
+            fleet.add(car);
+        }
+        long worstNanos = 0;
+        for (int round = 0; round < 30; round++) {
+            List<DestinationCall> batch = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                int origin = random.nextInt(120);
+                batch.add(new DestinationCall(origin, (origin + 1 + random.nextInt(119)) % 120));
+            }
+            long start = System.nanoTime();
+            ElevatorCar[] batchAssignments = solver.solve(fleet, new int[fleet.size()], batch, start + 50_000_000L);
+            long elapsed = System.nanoTime() - start;
+            assertEquals(1000, Arrays.stream(batchAssignments).filter(Objects::nonNull).count());
+            if (round >= 20) {
+                worstNanos = Math.max(worstNanos, elapsed);  // Earlier rounds warm up the JIT
+            }
+        }
+        System.out.println("✓ 1000 calls on 100 cars solved in at most " + worstNanos / 1000 + " us");
+        assertTrue(worstNanos < 100_000_000L, "Solver should answer within its 50 ms deadline plus scheduling slack");
+
+        System.out.println("\n--- A Spent Deadline Still Places Every Call ---");
+        List<DestinationCall> late = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int origin = random.nextInt(120);
+            late.add(new DestinationCall(origin, (origin + 1 + random.nextInt(119)) % 120));
+        }
+        long lateStart = System.nanoTime();
+        ElevatorCar[] lateAssignments = solver.solve(fleet, new int[fleet.size()], late, lateStart - 1);
+        long lateNanos = System.nanoTime() - lateStart;
+        Map<ElevatorCar, Integer> lateLoads = new HashMap<>();
+        for (ElevatorCar assigned : lateAssignments) {
+            assertNotNull(assigned, "Every call should still get a car");
+            lateLoads.merge(assigned, 1, Integer::sum);
+        }
+        lateLoads.values().forEach(load -> assertTrue(load <= 20, "Car capacity exceeded"));
+        System.out.println("✓ 1000 calls placed in " + lateNanos / 1000 + " us with no time left to estimate");
+        assertTrue(lateNanos < worstNanos + 10_000_000L, "Past the deadline the solver should only place calls");
+
+        System.out.println("\n--- Kiosk Calls Are Batched By The Dispatcher Thread ---");
+        ElevatorSystem elevatorSystem = new ElevatorSystem(cars, new ShortestSeekTimeFirstStrategy());
+        try (DestinationDispatchController controller =
+                     elevatorSystem.createDestinationDispatchController(solver, Duration.ofMillis(20), car -> 0)) {
+            controller.start();
+            DestinationCall first = controller.requestElevator(5, 12);
+            DestinationCall second = controller.requestElevator(5, 12);
+            ElevatorCar car = first.getAssignment().get(5, TimeUnit.SECONDS);
+            assertSame(car, second.getAssignment().get(5, TimeUnit.SECONDS));
+            assertEquals(1, car.countStops(Direction.UP, 5, 5), "Assigned car should head to the hall floor");
+            assertEquals(0, car.countStops(Direction.UP, 12, 12), "Destination is registered only on boarding");
+        }
+
+        System.out.println("\n--- Up-Peak Capacity Versus Conventional Hall Calls ---");
+        List<SimulationResult> results = ElevatorSimulator.runAll(List.of(
+                new SimulationScenario("ETA", TrafficPattern.UP_PEAK, 20, 8, 20,
+                        () -> new EstimatedTimeToArrivalStrategy(ElevatorSimulator.SECONDS_PER_FLOOR,
+                                ElevatorSimulator.DOOR_DWELL_SECONDS), 20_000, 40, 1L),
+                new SimulationScenario("Destination dispatch", TrafficPattern.UP_PEAK, 20, 8, 20, 20_000, 40, 1L)));
+        results.forEach(System.out::println);
+        assertEquals(20_000, results.get(1).getDelivered());
+        assertTrue(results.get(1).getWaitTimes().getMeanSeconds() < results.get(0).getWaitTimes().getMeanSeconds(),
+                "Grouping lobby passengers by destination should cut up-peak waits");
+        System.out.println("=== Destination Dispatch Test Completed Successfully ===\n");
+    }
+
+    @Test
+    public void testTripLatencyHistograms() {
+        System.out.println("\n=== Testing Wait And Ride Time Histograms ===");
+
+        System.out.println("\n--- Log Buckets Keep Percentiles Within 1/64 ---");
+        LatencyHistogram histogram = new LatencyHistogram(TripLatencies.HIGHEST_TRACKABLE_MILLIS);
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        System.out.println("✓ " + snapshot);
+        assertEquals(100_000, snapshot.getCount());
+        assertEquals(100_000, snapshot.getMax());
+        assertEquals(50_000, snapshot.getValueAtPercentile(0.50), 50_000 / 64.0);
+        assertEquals(99_000, snapshot.getValueAtPercentile(0.99), 99_000 / 64.0);
+        assertEquals(50_000, snapshot.getMean(), 50_000 / 64.0);
+        histogram.record(TripLatencies.HIGHEST_TRACKABLE_MILLIS * 4);
+        assertEquals(TripLatencies.HIGHEST_TRACKABLE_MILLIS * 4, histogram.snapshot().getMax(),
+                "Out-of-range values still raise the maximum");
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount());
+        assertEquals(100_000, snapshot.getCount(), "Snapshots are unaffected by a reset");
+
+        System.out.println("\n--- Per Car And Per Strategy Recording ---");
+        long[] clock = {0};
+        List<ElevatorCar> cars = List.of(new ElevatorCar(0), new ElevatorCar(20));
+        ElevatorSystem elevatorSystem = new ElevatorSystem(cars, new ShortestSeekTimeFirstStrategy(), () -> clock[0]);
+        ElevatorCar car = elevatorSystem.requestElevator(5, Direction.UP);
+        assertSame(cars.get(0), car);
+        elevatorSystem.requestElevator(5, Direction.UP);  // Repeated press keeps the first call's time
+        while (!car.isIdle()) {
+            clock[0] += 1_000_000_000L;  // One second per step
+            car.moveOneStep();
+        }
+        elevatorSystem.selectFloor(car, 8);
+        while (!car.isIdle()) {
+            clock[0] += 1_000_000_000L;
+            car.moveOneStep();
+        }
+        LatencyHistogram.Snapshot waits = elevatorSystem.getElevatorLatencies(0).snapshotWaitTimes();
+        LatencyHistogram.Snapshot rides = elevatorSystem.getElevatorLatencies(0).snapshotRideTimes();
+        assertEquals(1, waits.getCount());
+        assertEquals(6_000, waits.getMax(), "Five floors plus the step that opens the doors");
+        assertEquals(1, rides.getCount());
+        assertEquals(4_000, rides.getMax());
+        assertEquals(0, elevatorSystem.getElevatorLatencies(1).snapshotWaitTimes().getCount());
+        TripLatencies strategyLatencies = elevatorSystem.getStrategyLatencies();
+        assertEquals("ShortestSeekTimeFirstStrategy", strategyLatencies.getName());
+        assertEquals(1, strategyLatencies.snapshotWaitTimes().getCount());
+        assertEquals(1, strategyLatencies.snapshotRideTimes().getCount());
+        System.out.println("✓ " + strategyLatencies);
+        elevatorSystem.resetLatencies();
+        assertEquals(0, strategyLatencies.snapshotWaitTimes().getCount());
+        assertEquals(0, elevatorSystem.getElevatorLatencies(0).snapshotRideTimes().getCount());
+
+        System.out.println("\n--- Waits Start At The Press, Not At Dispatch ---");
+        clock[0] = 0;
+        ElevatorCar queued = new ElevatorCar(0);
+        ElevatorSystem queuedSystem = new ElevatorSystem(List.of(queued), new ShortestSeekTimeFirstStrategy(),
+                () -> clock[0]);
+        ElevatorDispatchController hallController = queuedSystem.createDispatchController(10);
+        hallController.update(5, Direction.UP);
+        clock[0] += 3_000_000_000L;  // The call sits in the queue for three seconds
+        assertEquals(1, hallController.dispatchPendingCalls());
+        while (!queued.isIdle()) {
+            clock[0] += 1_000_000_000L;
+            queued.moveOneStep();
+        }
+        assertEquals(9_000, queued.getLatencies().snapshotWaitTimes().getMax(),
+                "Three seconds queued, then five floors plus the step that opens the doors");
+        queuedSystem.resetLatencies();
+        DestinationDispatchController kiosk = queuedSystem.createDestinationDispatchController(
+                new DestinationGroupingSolver(1.0, 1.0, 20), Duration.ofMillis(20), c -> 0);
+        kiosk.requestElevator(0, 7);
+        clock[0] += 2_000_000_000L;  // Batch window and solve
+        assertEquals(1, kiosk.dispatchPendingCalls());
+        while (!queued.isIdle()) {
+            clock[0] += 1_000_000_000L;
+            queued.moveOneStep();
+        }
+        assertEquals(8_000, queued.getLatencies().snapshotWaitTimes().getMax(),
+                "Two seconds waiting for the batch, then five floors down plus the step that opens the doors");
+        System.out.println("✓ Hall and destination calls are timed from when they were made");
+
+        System.out.println("\n--- Recording Does Not Allocate ---");
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+            long threadId = Thread.currentThread().getId();
+            for (int round = 0; round < 2; round++) {  // First round warms up the JIT
+                long before = allocations.getThreadAllocatedBytes(threadId);
+                long start = System.nanoTime();
+                for (int i = 0; i < 100_000; i++) {
+                    car.addFloorRequest((i * 7) % 100, Direction.UP);
+                    car.addFloorRequest((i * 13) % 100);
+                    car.moveOneStep();
+                }
+                long elapsed = System.nanoTime() - start;
+                long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+                System.out.println("  round " + round + ": " + allocated + " bytes, "
+                        + elapsed / 100_000 + " ns per call + ride + step");
+                if (round == 1) {
+                    assertTrue(allocated < 64 * 1024, "Recording latencies should not allocate per stop");
+                }
+            }
+            assertTrue(strategyLatencies.snapshotWaitTimes().getCount() > 0);
+        }
+        System.out.println("=== Latency Histogram Test Completed Successfully ===\n");
+    }
+
+    @Test
+    public void testPredictiveIdleParking() {
+        System.out.println("\n=== Testing Predictive Idle-Car Parking ===");
+
+        System.out.println("\n--- Rates Are Learned Per Time Of Day ---");
+        long hour = Duration.ofHours(1).toMillis();
+        long day = 24 * hour;
+        HallCallForecast forecast = new HallCallForecast(20, 96, Duration.ofDays(7));
+        for (int d = 0; d < 3; d++) {
+            for (int i = 0; i < 100; i++) {
+                forecast.recordCall(0, d * day + 8 * hour + i * 9_000);      // 100 lobby calls from 08:00 to 08:15
+                forecast.recordCall(15, d * day + 17 * hour + i * 9_000);    // 100 calls on floor 15 from 17:00
+            }
+        }
+        long morning = 3 * day + 8 * hour + 5 * 60_000;
+        long evening = 3 * day + 17 * hour + 5 * 60_000;
+        assertEquals(400, forecast.getRate(0, morning), 60, "100 calls per quarter hour is 400 per hour");
+        assertEquals(0, forecast.getRate(15, morning), 1e-9);
+        assertEquals(400, forecast.getRate(15, evening), 60);
+        assertEquals(0, forecast.getRate(0, evening), 1e-9);
+        System.out.println("✓ Lobby at 08:05: " + Math.round(forecast.getRate(0, morning)) + " calls/hour");
+
+        System.out.println("\n--- Idle Cars Move To Expected Demand ---");
+        long[] now = {morning};
+        List<ElevatorCar> cars = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            cars.add(new ElevatorCar(19));
+        }
+        ElevatorSystem elevatorSystem = new ElevatorSystem(cars, new EstimatedTimeToArrivalStrategy(1.5, 8.0));
+        assertEquals(-1, elevatorSystem.parkIdleElevator(cars.get(0)), "Parking is off until enabled");
+        elevatorSystem.enableIdleCarParking(new IdleCarParker(forecast, () -> now[0]));
+        for (ElevatorCar car : cars) {
+            assertEquals(0, elevatorSystem.parkIdleElevator(car), "Morning demand is all at the lobby");
+            assertTrue(car.isParking());
+        }
+        assertEquals(-1, elevatorSystem.parkIdleElevator(cars.get(0)), "A parking car is not idle");
+        ElevatorSystem tallerBuilding = new ElevatorSystem(List.of(new ElevatorCar(25)),
+                new EstimatedTimeToArrivalStrategy(1.5, 8.0));
+        assertThrows(IllegalArgumentException.class,
+                () -> tallerBuilding.enableIdleCarParking(new IdleCarParker(forecast, () -> now[0])),
+                "A 20-floor forecast cannot park a car on floor 25");
+
+        System.out.println("\n--- A Real Call Cancels The Parking Move ---");
+        ElevatorCar car = cars.get(0);
+        car.moveOneStep();
+        elevatorSystem.selectFloor(car, 10);
+        assertFalse(car.isParking());
+        while (!car.isIdle()) {
+            car.moveOneStep();
+        }
+        assertEquals(10, car.getCurrentFloor(), "Car should go to the requested floor, not on to the lobby");
+        now[0] = evening;
+        assertEquals(15, elevatorSystem.parkIdleElevator(car), "Evening demand is on floor 15");
+
+        System.out.println("\n--- Parking Cuts Up-Peak Waits In Simulation ---");
+        SimulationScenario unparked = new SimulationScenario("ETA", TrafficPattern.UP_PEAK, 20, 8, 20,
+                () -> new EstimatedTimeToArrivalStrategy(ElevatorSimulator.SECONDS_PER_FLOOR,
+                        ElevatorSimulator.DOOR_DWELL_SECONDS), 5_000, 10, 1L);
+        List<SimulationResult> results = ElevatorSimulator.runAll(List.of(unparked, unparked.withIdleParking()));
+        results.forEach(System.out::println);
+        assertEquals("ETA+park", results.get(1).getScenario().getName());
+        assertEquals(5_000, results.get(1).getDelivered());
+        assertTrue(results.get(1).getWaitTimes().getMeanSeconds() < results.get(0).getWaitTimes().getMeanSeconds() / 2,
+                "Parking idle cars at the lobby should at least halve up-peak waits");
+        System.out.println("=== Idle Parking Test Completed Successfully ===\n");
+    }
+
+    @Test
+    public void testTraceReplay() throws Exception {
+        System.out.println("\n=== Testing Traffic Trace Replay ===");
+        Path trace = Files.createTempFile("elevator", ".elvt");
+        try {
+            System.out.println("\n--- Records Round-Trip Through The Streaming Reader ---");
+            Random random = new Random(11);
+            int[][] expected = new int[50_000][];
+            long time = 0;
+            try (TraceWriter writer = new TraceWriter(trace, 120, 1_700_000_000_000L)) {
+                for (int i = 0; i < expected.length; i++) {
+                    time += random.nextInt(i % 1000 == 0 ? 1_000_000_000 : 5_000);
+                    int floor = random.nextInt(120);
+                    if (i % 7 == 0) {
+                        expected[i] = new int[]{floor, -1, i % 2};
+                        writer.writeHallCall(time, floor, i % 2 == 0 ? Direction.UP : Direction.DOWN);
+                    } else {
+                        int destination = (floor + 1 + random.nextInt(119)) % 120;
+                        expected[i] = new int[]{floor, destination};
+                        writer.writeTrip(time, floor, destination);
+                    }
+                }
+                assertThrows(IllegalArgumentException.class, () -> writer.writeTrip(0, 1, 2), "Time must not go back");
+                assertThrows(IllegalArgumentException.class, () -> writer.writeTrip(Long.MAX_VALUE, 1, 1));
+            }
+            long bytes = Files.size(trace);
+            System.out.println("✓ 50000 records in " + bytes + " bytes");
+            assertTrue(bytes < 50_000 * 8, "Records should be a few bytes each");
+            try (TraceReader reader = new TraceReader(trace)) {
+                assertEquals(120, reader.getFloorCount());
+                assertEquals(1_700_000_000_000L, reader.getStartEpochMillis());
+                TraceReader.Event record = new TraceReader.Event();
+                for (int[] trip : expected) {
+                    assertTrue(reader.next(record));
+                    assertEquals(trip[0], record.getFloor());
+                    assertEquals(trip[1], record.getDestination());
+                    if (trip[1] < 0) {
+                        assertEquals(trip[2] == 0 ? Direction.UP : Direction.DOWN, record.getDirection());
+                    }
+                }
+                assertEquals(time, record.getTimeMillis());
+                assertFalse(reader.next(record));
+            }
+            byte[] content = Files.readAllBytes(trace);
+            Files.write(trace, Arrays.copyOf(content, content.length - 1));
+            assertThrows(IOException.class, () -> {
+                try (TraceReader reader = new TraceReader(trace)) {
+                    TraceReader.Event record = new TraceReader.Event();
+                    while (reader.next(record)) {
+                        // Drain to the truncated last record
+                    }
+                }
+            });
+            Files.write(trace, new byte[]{1, 2, 3});
+            assertThrows(IOException.class, () -> new TraceReader(trace).close());
+
+            System.out.println("\n--- Two Strategies On The Same Recording ---");
+            TraceReplay.recordPattern(trace, TrafficPattern.LUNCH, 20, 5_000, 40, 5L);
+            StrategyComparison comparison = TraceReplay.compare(trace, 8, 16, 0,
+                    "SSTF", ShortestSeekTimeFirstStrategy::new,
+                    "ETA", () -> new EstimatedTimeToArrivalStrategy(ElevatorSimulator.SECONDS_PER_FLOOR,
+                            ElevatorSimulator.DOOR_DWELL_SECONDS));
+            System.out.println(comparison);
+            assertEquals(5_000, comparison.getBaseline().getDelivered());
+            assertEquals(5_000, comparison.getCandidate().getDelivered());
+            assertTrue(comparison.getWaitDeltaSeconds(0.90) < 0, "ETA should beat SSTF at p90 on lunch traffic");
+            assertTrue(comparison.getWaitDistributionDistance() > 0);
+            assertFalse(comparison.isRegression(0));
+            assertTrue(new StrategyComparison(comparison.getCandidate(), comparison.getBaseline()).isRegression(1.0),
+                    "Going back from ETA to SSTF is a regression");
+            StrategyComparison same = TraceReplay.compare(trace, 8, 16, 0, "SSTF", ShortestSeekTimeFirstStrategy::new,
+                    "SSTF again", ShortestSeekTimeFirstStrategy::new);
+            assertEquals(0.0, same.getWaitDistributionDistance(), "Replays are deterministic");
+            assertFalse(same.isRegression(0));
+
+            System.out.println("\n--- Paced Replay And Unanswered Hall Calls ---");
+            try (TraceWriter writer = new TraceWriter(trace, 20, 0)) {
+                writer.writeHallCall(0, 5, Direction.UP);   // Someone pressed and took the stairs
+                writer.writeTrip(60_000, 5, 10);            // The next passenger must still get a car
+                writer.writeTrip(300_000, 0, 19);
+            }
+            SimulationResult paced = ElevatorSimulator.runAll(List.of(SimulationScenario.replay("1000x", trace, 2, 8,
+                    ShortestSeekTimeFirstStrategy::new, 1000))).get(0);
+            System.out.println(paced);
+            assertEquals(2, paced.getDelivered());
+            assertEquals(0, paced.getUndelivered());
+            assertTrue(paced.getWallClockDuration().toMillis() >= 300 - 20,
+                    "300 simulated seconds at 1000x should take about 300 ms");
+        } finally {
+            Files.deleteIfExists(trace);
+        }
+        System.out.println("=== Trace Replay Test Completed Successfully ===\n");
+    }
+
+    private static final class TestTimer extends TimingWheel.Timer {
+    }
 }
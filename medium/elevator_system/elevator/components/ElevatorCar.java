@@ -1,80 +1,406 @@
 package elevator.components;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import elevator.metrics.TripLatencies;
+import elevator.observer.ElevatorObserver;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.LongSupplier;
+
+// Stops are served in LOOK order: the car keeps sweeping in its current direction while there are
+// stops ahead, then reverses. Up-stops and down-stops are bitsets indexed by floor, so adding,
+// finding the next stop and clearing a stop are a few word operations rather than a queue scan.
+// Floors are therefore numbered from 0 up: a building with basements numbers its lowest basement 0, and
+// a negative floor is rejected with IllegalArgumentException.
+// A dispatcher thread may add stops while the control loop moves the car, so the stops, their counts
+// and request times are guarded by the car's own lock; the packed status is read without it.
 public class ElevatorCar {
-    private ElevatorStatus status;
-    private final Queue<Integer> targetFloors;
+    // Floor and direction packed by ElevatorStatus.pack: moving writes one int instead of allocating a
+    // status, and a reader on another thread always sees a floor and direction that belong together
+    private volatile int packedStatus;
+    private ElevatorStatus statusView;  // Last status object handed out by getStatus, reused until the car changes
+    private final BitSet upStops;    // Floors to stop at while travelling up (UP hall calls, car calls above)
+    private final BitSet downStops;  // Floors to stop at while travelling down
+    private int upStopCount;
+    private int downStopCount;
+    // Per sweep (0 = up, 1 = down), a Fenwick tree over floors counting stops, updated as stops are
+    // added and cleared, so counting the stops between two floors is O(log floors)
+    private final int[][] stopTrees = {new int[1], new int[1]};
+    private long planVersion;        // Bumped whenever the stops change; moving does not change it
+
+    // When each pending stop was requested, indexed [sweep][floor] with sweep 0 = up and 1 = down;
+    // NOT_REQUESTED where there is no hall call (or no car call) behind the stop
+    private static final long NOT_REQUESTED = Long.MIN_VALUE;
+    private final long[][] hallCallTimes = {new long[0], new long[0]};
+    private final long[][] carCallTimes = {new long[0], new long[0]};
+    private final TripLatencies latencies = new TripLatencies("car");
+    private TripLatencies strategyLatencies;  // Also fed every value, if the car belongs to a dispatcher
+    private LongSupplier nanoClock = System::nanoTime;
+    private int parkingFloor = -1;  // Floor an otherwise idle car is repositioning to, or -1
+    // Floor an idle car waits at, its parking floor while parking, or -1 while it has calls to serve;
+    // written under the lock whenever the stops change, read without it so parking can scan the fleet
+    private volatile int restingFloor;
+    // Copied on add, so notifying them on every served call is an array walk that allocates nothing
+    private volatile ElevatorObserver[] hallCallServedObservers = new ElevatorObserver[0];
 
     public ElevatorCar(int startingFloor) {
-        this.status = new ElevatorStatus(startingFloor, Direction.IDLE);
-        this.targetFloors = new LinkedList<>();
+        if (startingFloor < 0) {
+            throw new IllegalArgumentException("Floors are numbered from 0");
+        }
+        this.packedStatus = ElevatorStatus.pack(startingFloor, Direction.IDLE);
+        this.restingFloor = startingFloor;
+        this.upStops = new BitSet();
+        this.downStops = new BitSet();
+    }
+
+    // Wait and ride times of the stops this car has served
+    public TripLatencies getLatencies() {
+        return latencies;
+    }
+
+    // Called by ElevatorSystem so the dispatcher's per-strategy histograms see this car's trips too
+    public synchronized void recordLatencies(TripLatencies strategyLatencies, LongSupplier nanoClock) {
+        this.strategyLatencies = strategyLatencies;
+        this.nanoClock = nanoClock;
+    }
+
+    // Told the floor and direction of every hall call the car picks up, on the thread moving the car
+    public synchronized void addHallCallServedObserver(ElevatorObserver observer) {
+        ElevatorObserver[] observers = Arrays.copyOf(hallCallServedObservers, hallCallServedObservers.length + 1);
+        observers[observers.length - 1] = observer;
+        hallCallServedObservers = observers;
     }
 
     public ElevatorStatus getStatus() {
-        return status;
+        int packed = packedStatus;
+        ElevatorStatus view = statusView;
+        if (view == null || ElevatorStatus.pack(view.getCurrentFloor(), view.getCurrentDirection()) != packed) {
+            view = ElevatorStatus.unpack(packed);
+            statusView = view;
+        }
+        return view;
+    }
+
+    public int getPackedStatus() {
+        return packedStatus;
+    }
+
+    // Car call from inside the elevator: served on whichever sweep passes the floor first
+    public synchronized void addFloorRequest(int floor) {
+        int currentFloor = getCurrentFloor();
+        Direction direction;
+        if (floor > currentFloor) {
+            direction = Direction.UP;
+        } else if (floor < currentFloor) {
+            direction = Direction.DOWN;
+        } else {
+            direction = getCurrentDirection() == Direction.DOWN ? Direction.DOWN : Direction.UP;
+        }
+        addStop(floor, direction, carCallTimes, nanoClock.getAsLong());
+    }
+
+    // Hall call: the passenger wants to travel in the given direction, so stop on that sweep
+    public void addFloorRequest(int floor, Direction direction) {
+        addFloorRequest(floor, direction, nanoClock.getAsLong());
+    }
+
+    // Hall call made at calledAtNanos, on the clock given to recordLatencies; the wait is measured from
+    // the press rather than from when the dispatcher got round to assigning this car
+    public synchronized void addFloorRequest(int floor, Direction direction, long calledAtNanos) {
+        addStop(floor, direction, hallCallTimes, calledAtNanos);
+    }
+
+    // Reposition an idle car where calls are expected; the move is dropped as soon as a real call arrives
+    public synchronized void parkAt(int floor) {
+        if (isIdle() && floor != getCurrentFloor()) {
+            addStop(floor, floor > getCurrentFloor() ? Direction.UP : Direction.DOWN, null, 0);
+            parkingFloor = floor;
+            restingFloor = floor;
+        }
     }
 
-    public void addFloorRequest(int floor) {
-        if (!targetFloors.contains(floor)) {
-            targetFloors.offer(floor);
+    // True while the car's only stop is a parking move
+    public synchronized boolean isParking() {
+        return parkingFloor >= 0;
+    }
+
+    public int getRestingFloor() {
+        return restingFloor;
+    }
+
+    private void addStop(int floor, Direction direction, long[][] requestTimes, long requestedAt) {
+        if (floor < 0) {
+            throw new IllegalArgumentException("Floors are numbered from 0");
+        }
+        if (parkingFloor >= 0) {
+            cancelParking();
+        }
+        boolean wasIdle = isIdle();
+        if (direction == Direction.DOWN) {
+            if (!downStops.get(floor)) {
+                countStop(1, floor, 1);
+                downStops.set(floor);
+                downStopCount++;
+                planVersion++;
+            }
+        } else if (!upStops.get(floor)) {
+            countStop(0, floor, 1);
+            upStops.set(floor);
+            upStopCount++;
+            planVersion++;
+        }
+        // A repeated request keeps the earliest time, so the wait covers the first passenger's
+        if (requestTimes != null) {
+            stampRequest(requestTimes, direction == Direction.DOWN ? 1 : 0, floor, requestedAt);
+        }
+        if (wasIdle) {
             updateDirection(floor);
         }
+        restingFloor = -1;
+    }
+
+    private void cancelParking() {
+        BitSet stops = upStops.get(parkingFloor) ? upStops : downStops;
+        stops.clear(parkingFloor);
+        if (stops == upStops) {
+            upStopCount--;
+        } else {
+            downStopCount--;
+        }
+        countStop(stops == upStops ? 0 : 1, parkingFloor, -1);
+        planVersion++;
+        parkingFloor = -1;
+        packedStatus = ElevatorStatus.pack(getCurrentFloor(), Direction.IDLE);
+    }
+
+    private void stampRequest(long[][] requestTimes, int sweep, int floor, long requestedAt) {
+        long[] times = requestTimes[sweep];
+        if (floor >= times.length) {
+            int oldLength = times.length;
+            times = Arrays.copyOf(times, Math.max(floor + 1, oldLength * 2));
+            Arrays.fill(times, oldLength, times.length, NOT_REQUESTED);
+            requestTimes[sweep] = times;
+        }
+        if (times[floor] == NOT_REQUESTED || requestedAt < times[floor]) {
+            times[floor] = requestedAt;
+        }
+    }
+
+    // The car has stopped at the floor: a hall call there has been picked up and a car call has arrived
+    private void recordServed(int sweep, int floor) {
+        long[] calls = hallCallTimes[sweep];
+        long[] rides = carCallTimes[sweep];
+        long calledAt = floor < calls.length ? calls[floor] : NOT_REQUESTED;
+        long boardedAt = floor < rides.length ? rides[floor] : NOT_REQUESTED;
+        if (calledAt == NOT_REQUESTED && boardedAt == NOT_REQUESTED) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        if (calledAt != NOT_REQUESTED) {
+            recordWait(now - calledAt);
+            calls[floor] = NOT_REQUESTED;
+            Direction direction = sweep == 0 ? Direction.UP : Direction.DOWN;
+            for (ElevatorObserver observer : hallCallServedObservers) {
+                observer.update(floor, direction);
+            }
+        }
+        if (boardedAt != NOT_REQUESTED) {
+            recordRide(now - boardedAt);
+            rides[floor] = NOT_REQUESTED;
+        }
+    }
+
+    private void recordWait(long nanos) {
+        latencies.recordWaitNanos(nanos);
+        if (strategyLatencies != null) {
+            strategyLatencies.recordWaitNanos(nanos);
+        }
+    }
+
+    private void recordRide(long nanos) {
+        latencies.recordRideNanos(nanos);
+        if (strategyLatencies != null) {
+            strategyLatencies.recordRideNanos(nanos);
+        }
     }
 
     public int getCurrentFloor() {
-        return status.getCurrentFloor();
+        return ElevatorStatus.floorOf(packedStatus);
     }
 
     public Direction getCurrentDirection() {
-        return status.getCurrentDirection();
+        return ElevatorStatus.directionOf(packedStatus);
+    }
+
+    public synchronized boolean isIdle() {
+        return upStopCount == 0 && downStopCount == 0;
+    }
+
+    // Number of stops queued for the given sweep, kept up to date as stops are added and served
+    public synchronized int getStopCount(Direction sweep) {
+        return sweep == Direction.DOWN ? downStopCount : upStopCount;
+    }
+
+    // Stops of the given sweep between two floors, both inclusive
+    public synchronized int countStops(Direction sweep, int fromFloor, int toFloor) {
+        int from = Math.max(0, fromFloor);
+        if (toFloor < from) {
+            return 0;
+        }
+        if (from == toFloor) {
+            return (sweep == Direction.DOWN ? downStops : upStops).get(from) ? 1 : 0;
+        }
+        int index = sweep == Direction.DOWN ? 1 : 0;
+        return stopsUpTo(index, toFloor) - stopsUpTo(index, from - 1);
+    }
+
+    // Adds delta to the floor's count in the sweep's tree, growing the tree first if needed; call before
+    // setting a new stop's bit, as growing rebuilds the tree from the bits
+    private void countStop(int sweep, int floor, int delta) {
+        int[] tree = stopTrees[sweep];
+        if (floor + 1 >= tree.length) {
+            tree = new int[Math.max(floor + 2, tree.length * 2)];
+            stopTrees[sweep] = tree;
+            BitSet stops = sweep == 0 ? upStops : downStops;
+            for (int stop = stops.nextSetBit(0); stop >= 0; stop = stops.nextSetBit(stop + 1)) {
+                addToTree(tree, stop, 1);
+            }
+        }
+        addToTree(tree, floor, delta);
+    }
+
+    private static void addToTree(int[] tree, int floor, int delta) {
+        for (int i = floor + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
     }
 
-    public boolean isIdle() {
-        return targetFloors.isEmpty();
+    // Stops of the sweep on floors 0 to floor inclusive
+    private int stopsUpTo(int sweep, int floor) {
+        int[] tree = stopTrees[sweep];
+        int count = 0;
+        for (int i = Math.min(floor + 1, tree.length - 1); i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    // Highest floor with a stop of either kind, or -1 if idle
+    public synchronized int getHighestStop() {
+        return Math.max(upStops.length(), downStops.length()) - 1;
+    }
+
+    // Lowest floor with a stop of either kind, or -1 if idle
+    public synchronized int getLowestStop() {
+        int up = upStops.nextSetBit(0);
+        int down = downStops.nextSetBit(0);
+        return up < 0 ? down : down < 0 ? up : Math.min(up, down);
+    }
+
+    // Lets dispatch strategies cache per-car route data and refresh it only after the stops change; the
+    // floor and direction come from the packed status instead
+    public synchronized long getPlanVersion() {
+        return planVersion;
+    }
+
+    // The floor the car is heading to, or -1 if it has no stops
+    public synchronized int getNextStop() {
+        if (getCurrentDirection() == Direction.DOWN) {
+            int stop = nextStopBelow();
+            return stop >= 0 ? stop : nextStopAbove();
+        }
+        int stop = nextStopAbove();
+        return stop >= 0 ? stop : nextStopBelow();
     }
 
     private void updateDirection(int targetFloor) {
-        if (status.getCurrentFloor() < targetFloor) {
-            status = new ElevatorStatus(status.getCurrentFloor(), Direction.UP);
-        } else if (status.getCurrentFloor() > targetFloor) {
-            status = new ElevatorStatus(status.getCurrentFloor(), Direction.DOWN);
+        int currentFloor = getCurrentFloor();
+        if (currentFloor < targetFloor) {
+            packedStatus = ElevatorStatus.pack(currentFloor, Direction.UP);
+        } else if (currentFloor > targetFloor) {
+            packedStatus = ElevatorStatus.pack(currentFloor, Direction.DOWN);
         }
     }
 
-    public void moveOneStep() {
-        if (targetFloors.isEmpty()) return;
+    public synchronized void moveOneStep() {
+        int nextFloor = getNextStop();
+        if (nextFloor < 0) return;
 
-        int nextFloor = targetFloors.peek();
-        if (status.getCurrentFloor() < nextFloor) {
-            status = new ElevatorStatus(status.getCurrentFloor() + 1, Direction.UP);
-        } else if (status.getCurrentFloor() > nextFloor) {
-            status = new ElevatorStatus(status.getCurrentFloor() - 1, Direction.DOWN);
+        int currentFloor = getCurrentFloor();
+        if (currentFloor < nextFloor) {
+            packedStatus = ElevatorStatus.pack(currentFloor + 1, Direction.UP);
+        } else if (currentFloor > nextFloor) {
+            packedStatus = ElevatorStatus.pack(currentFloor - 1, Direction.DOWN);
         } else {
-            targetFloors.poll();
-            if (targetFloors.isEmpty()) {
-                status = new ElevatorStatus(status.getCurrentFloor(), Direction.IDLE);
+            clearStop(nextFloor);
+            if (isIdle()) {
+                packedStatus = ElevatorStatus.pack(currentFloor, Direction.IDLE);
             }
         }
     }
 
-    public boolean isAtDestination() {
-        return !targetFloors.isEmpty() && status.getCurrentFloor() == targetFloors.peek();
+    public synchronized boolean isAtDestination() {
+        return !isIdle() && getCurrentFloor() == getNextStop();
     }
 
-    public void nextDestination() {
+    public synchronized void nextDestination() {
         if (isAtDestination()) {
-            targetFloors.poll();
+            clearStop(getCurrentFloor());
         }
     }
 
-    public void moveUntilNextFloor() {
-        if (!targetFloors.isEmpty()) {
-            int nextFloor = targetFloors.peek();
-            while (status.getCurrentFloor() != nextFloor) {
+    public synchronized void moveUntilNextFloor() {
+        if (!isIdle()) {
+            int nextFloor = getNextStop();
+            while (getCurrentFloor() != nextFloor) {
                 moveOneStep();
             }
         }
     }
+
+    // Sweeping up: the nearest up-stop at or above the car, else the highest down-stop above it,
+    // which is where the car turns around
+    private int nextStopAbove() {
+        int currentFloor = getCurrentFloor();
+        int stop = upStops.nextSetBit(currentFloor);
+        if (stop >= 0) {
+            return stop;
+        }
+        int highestDownStop = downStops.length() - 1;
+        return highestDownStop >= currentFloor ? highestDownStop : -1;
+    }
+
+    // Sweeping down: the nearest down-stop at or below the car, else the lowest up-stop below it
+    private int nextStopBelow() {
+        int currentFloor = getCurrentFloor();
+        int stop = downStops.previousSetBit(currentFloor);
+        if (stop >= 0) {
+            return stop;
+        }
+        int lowestUpStop = upStops.nextSetBit(0);
+        return lowestUpStop >= 0 && lowestUpStop <= currentFloor ? lowestUpStop : -1;
+    }
+
+    // Serve the stop belonging to the current sweep first; a stop in the other set waits for the reverse sweep
+    private void clearStop(int floor) {
+        BitSet sweep = getCurrentDirection() == Direction.DOWN ? downStops : upStops;
+        BitSet stops = sweep.get(floor) ? sweep : sweep == upStops ? downStops : upStops;
+        if (stops.get(floor)) {
+            stops.clear(floor);
+            if (stops == upStops) {
+                upStopCount--;
+            } else {
+                downStopCount--;
+            }
+            countStop(stops == upStops ? 0 : 1, floor, -1);
+            planVersion++;
+            recordServed(stops == upStops ? 0 : 1, floor);
+            if (floor == parkingFloor) {
+                parkingFloor = -1;
+            }
+            if (isIdle()) {
+                restingFloor = floor;
+            }
+        }
+    }
 }
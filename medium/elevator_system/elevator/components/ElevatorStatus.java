@@ -1,6 +1,11 @@
 package elevator.components;
 
+// Floor and direction of a car. Cars keep their status packed into a single int (see pack), so a
+// status can be copied, compared and published in one primitive write without allocating.
 public class ElevatorStatus {
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int DIRECTION_BITS = 2;
+    private static final int DIRECTION_MASK = (1 << DIRECTION_BITS) - 1;
 
     private final int currentFloor;
     private final Direction currentDirection;
@@ -17,4 +22,21 @@ public class ElevatorStatus {
     public Direction getCurrentDirection() {
         return currentDirection;
     }
+
+    // Floor in the high 30 bits, direction ordinal in the low 2
+    public static int pack(int floor, Direction direction) {
+        return floor << DIRECTION_BITS | direction.ordinal();
+    }
+
+    public static int floorOf(int packedStatus) {
+        return packedStatus >> DIRECTION_BITS;
+    }
+
+    public static Direction directionOf(int packedStatus) {
+        return DIRECTIONS[packedStatus & DIRECTION_MASK];
+    }
+
+    public static ElevatorStatus unpack(int packedStatus) {
+        return new ElevatorStatus(floorOf(packedStatus), directionOf(packedStatus));
+    }
 }
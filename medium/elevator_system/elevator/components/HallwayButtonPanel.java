@@ -2,8 +2,8 @@ package elevator.components;
 
 import elevator.observer.ElevatorObserver;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 // Observable Subject: HallwayButtonPanel
 public class HallwayButtonPanel {
@@ -12,7 +12,7 @@ public class HallwayButtonPanel {
 
     public HallwayButtonPanel(int floor) {
         this.floor = floor;
-        this.observers = new ArrayList<>();
+        this.observers = new CopyOnWriteArrayList<>();  // Presses iterate without locking
     }
 
     public void pressButton(Direction direction) {
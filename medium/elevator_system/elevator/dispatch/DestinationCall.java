@@ -0,0 +1,51 @@
+package elevator.dispatch;
+
+import elevator.components.Direction;
+import elevator.components.ElevatorCar;
+
+import java.util.concurrent.CompletableFuture;
+
+// A passenger's destination entered at the hall kiosk; completes with the car they should take
+// (null if no car had room in the batch, in which case the kiosk asks them to enter it again)
+public class DestinationCall {
+    private final int originFloor;
+    private final int destinationFloor;
+    private final long calledAtNanos;  // When the destination was entered, for the wait histograms
+    private final CompletableFuture<ElevatorCar> assignment = new CompletableFuture<>();
+
+    public DestinationCall(int originFloor, int destinationFloor) {
+        this(originFloor, destinationFloor, System.nanoTime());
+    }
+
+    public DestinationCall(int originFloor, int destinationFloor, long calledAtNanos) {
+        if (originFloor < 0 || destinationFloor < 0) {
+            throw new IllegalArgumentException("Floors are numbered from 0");
+        }
+        if (originFloor == destinationFloor) {
+            throw new IllegalArgumentException("Destination must differ from the hall floor " + originFloor);
+        }
+        this.originFloor = originFloor;
+        this.destinationFloor = destinationFloor;
+        this.calledAtNanos = calledAtNanos;
+    }
+
+    public int getOriginFloor() {
+        return originFloor;
+    }
+
+    public int getDestinationFloor() {
+        return destinationFloor;
+    }
+
+    public long getCalledAtNanos() {
+        return calledAtNanos;
+    }
+
+    public Direction getDirection() {
+        return destinationFloor > originFloor ? Direction.UP : Direction.DOWN;
+    }
+
+    public CompletableFuture<ElevatorCar> getAssignment() {
+        return assignment;
+    }
+}
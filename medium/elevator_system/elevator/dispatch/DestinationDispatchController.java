@@ -0,0 +1,122 @@
+package elevator.dispatch;
+
+import elevator.components.ElevatorCar;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+// Destination dispatch: passengers enter their destination at the hall and are told which car to take.
+// Calls are collected for a short batch window and assigned together, so passengers heading to the
+// same floor can be put in the same car. Like ElevatorDispatchController, batches are dispatched
+// either by a background thread (start/close) or by whichever loop calls dispatchPendingCalls.
+public class DestinationDispatchController implements AutoCloseable {
+    public static final Duration DEFAULT_SOLVE_DEADLINE = Duration.ofMillis(50);
+
+    private final List<ElevatorCar> elevators;
+    private final DestinationGroupingSolver solver;
+    private final long batchWindowNanos;
+    private final long solveDeadlineNanos;
+    private final ToIntFunction<ElevatorCar> carLoad;  // Passengers aboard or assigned and still waiting
+    private final LongSupplier nanoClock;              // Stamps each call; the same clock the cars measure waits on
+    private final ConcurrentLinkedQueue<DestinationCall> pendingCalls = new ConcurrentLinkedQueue<>();
+    private volatile Thread dispatcherThread;
+    private volatile boolean running;
+
+    public DestinationDispatchController(List<ElevatorCar> elevators, DestinationGroupingSolver solver,
+                                         Duration batchWindow, Duration solveDeadline,
+                                         ToIntFunction<ElevatorCar> carLoad, LongSupplier nanoClock) {
+        this.elevators = elevators;
+        this.solver = solver;
+        this.batchWindowNanos = batchWindow.toNanos();
+        this.solveDeadlineNanos = solveDeadline.toNanos();
+        this.carLoad = carLoad;
+        this.nanoClock = nanoClock;
+    }
+
+    // Called from the hall kiosk; the returned call completes once its batch has been assigned
+    public DestinationCall requestElevator(int originFloor, int destinationFloor) {
+        DestinationCall call = new DestinationCall(originFloor, destinationFloor, nanoClock.getAsLong());
+        pendingCalls.add(call);
+        Thread dispatcher = dispatcherThread;
+        if (dispatcher != null) {
+            LockSupport.unpark(dispatcher);
+        }
+        return call;
+    }
+
+    // Assign every queued call as one batch and send each chosen car to its passengers' hall floor.
+    // The destination is registered when the passenger boards, so the car does not visit it first.
+    public int dispatchPendingCalls() {
+        List<DestinationCall> batch = new ArrayList<>();
+        DestinationCall call;
+        while ((call = pendingCalls.poll()) != null) {
+            batch.add(call);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        long deadlineNanos = System.nanoTime() + solveDeadlineNanos;  // Covers reading the loads as well as the solve
+        int[] loads = new int[elevators.size()];
+        for (int car = 0; car < loads.length; car++) {
+            loads[car] = carLoad.applyAsInt(elevators.get(car));
+        }
+        ElevatorCar[] assignments = solver.solve(elevators, loads, batch, deadlineNanos);
+        for (int i = 0; i < batch.size(); i++) {
+            DestinationCall assigned = batch.get(i);
+            if (assignments[i] != null) {
+                assignments[i].addFloorRequest(assigned.getOriginFloor(), assigned.getDirection(),
+                        assigned.getCalledAtNanos());
+            }
+            assigned.getAssignment().complete(assignments[i]);
+        }
+        return batch.size();
+    }
+
+    // Dispatch on a background thread: the first call of a batch opens the window, and everything
+    // that arrives before it closes is solved together. The cars then take stops from this thread while
+    // the control loop moves them, which ElevatorCar allows by guarding its stops with its own lock.
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(() -> {
+            while (running) {
+                if (pendingCalls.isEmpty()) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                long windowEnd = System.nanoTime() + batchWindowNanos;
+                long remaining;
+                while (running && (remaining = windowEnd - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(this, remaining);
+                }
+                dispatchPendingCalls();
+            }
+        }, "destination-dispatcher");
+        thread.setDaemon(true);
+        dispatcherThread = thread;
+        thread.start();
+    }
+
+    @Override
+    public synchronized void close() {
+        Thread thread = dispatcherThread;
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dispatcherThread = null;
+    }
+}
@@ -0,0 +1,272 @@
+package elevator.dispatch;
+
+import elevator.components.Direction;
+import elevator.components.ElevatorCar;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns a batch of destination calls to cars, grouping passengers who share a destination.
+ *
+ * Calls with the same origin and destination form a group that always rides together. A car's cost
+ * for the batch is the waiting time of its passengers (the car's estimated arrival at each origin)
+ * plus a door dwell for every stop the batch adds to the car, paid by every batch passenger in it.
+ * Stops the car already makes are free, which pulls passengers bound for the same floor into the
+ * same car. Groups are placed greedily, largest first, and the plan is then improved by moving single
+ * groups between cars until no move lowers the total cost or the deadline passes.
+ *
+ * The deadline bounds the whole solve, not just the improvement. Once it passes, arrival estimates
+ * for the remaining origins fall back to straight travel time, stops the cars already make are no
+ * longer looked up (they count as new), and the remaining groups go to the next car with room in
+ * turn instead of being priced against every car. Every group that fits still gets a car.
+ *
+ * Each car starts from the load it is already committed to, the passengers aboard and those assigned
+ * by earlier batches who have not boarded yet, so a batch never fills a car past its capacity and the
+ * riders already committed to a car also pay for the stops the batch adds.
+ */
+public class DestinationGroupingSolver {
+    private final EstimatedTimeToArrivalStrategy arrivalEstimates;
+    private final double secondsPerFloor;
+    private final double doorDwellSeconds;
+    private final int carCapacity;
+
+    public DestinationGroupingSolver(double secondsPerFloor, double doorDwellSeconds, int carCapacity) {
+        if (carCapacity <= 0) {
+            throw new IllegalArgumentException("Car capacity must be positive");
+        }
+        this.arrivalEstimates = new EstimatedTimeToArrivalStrategy(secondsPerFloor, doorDwellSeconds);
+        this.secondsPerFloor = secondsPerFloor;
+        this.doorDwellSeconds = doorDwellSeconds;
+        this.carCapacity = carCapacity;
+    }
+
+    // Returns the car for each call, aligned with calls; null where no car had room. carLoads holds each
+    // car's committed load, aligned with elevators. Work past deadlineNanos (a System.nanoTime value)
+    // is cut short as described above, keeping the best plan found so far.
+    public ElevatorCar[] solve(List<ElevatorCar> elevators, int[] carLoads, List<DestinationCall> calls,
+                               long deadlineNanos) {
+        if (carLoads.length != elevators.size()) {
+            throw new IllegalArgumentException("Need one load per car");
+        }
+        List<Group> groups = groupCalls(calls);
+        Plan plan = new Plan(elevators, carLoads, groups, deadlineNanos);
+        groups.sort((a, b) -> Integer.compare(b.size(), a.size()));
+
+        int nextCar = 0;  // Round-robin position once the deadline has passed
+        for (Group group : groups) {
+            int best = -1;
+            if (System.nanoTime() < deadlineNanos) {
+                double bestCost = Double.MAX_VALUE;
+                for (int car = 0; car < elevators.size(); car++) {
+                    if (plan.hasRoom(car, group)) {
+                        double cost = plan.addCost(car, group);
+                        if (cost < bestCost) {
+                            best = car;
+                            bestCost = cost;
+                        }
+                    }
+                }
+            } else {
+                for (int tried = 0; tried < elevators.size() && best < 0; tried++) {
+                    int car = (nextCar + tried) % elevators.size();
+                    if (plan.hasRoom(car, group)) {
+                        best = car;
+                        nextCar = car + 1;
+                    }
+                }
+            }
+            if (best >= 0) {
+                plan.add(best, group);
+            }
+        }
+
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadlineNanos) {
+            improved = false;
+            for (Group group : groups) {
+                if (group.car < 0) {
+                    continue;
+                }
+                if (System.nanoTime() >= deadlineNanos) {
+                    break;
+                }
+                int current = group.car;
+                double saving = plan.removeSaving(current, group);
+                int best = -1;
+                double bestGain = 1e-9;
+                for (int car = 0; car < elevators.size(); car++) {
+                    if (car != current && plan.hasRoom(car, group)) {
+                        double gain = saving - plan.addCost(car, group);
+                        if (gain > bestGain) {
+                            best = car;
+                            bestGain = gain;
+                        }
+                    }
+                }
+                if (best >= 0) {
+                    plan.remove(current, group);
+                    plan.add(best, group);
+                    improved = true;
+                }
+            }
+        }
+
+        ElevatorCar[] assignments = new ElevatorCar[calls.size()];
+        for (Group group : groups) {
+            if (group.car >= 0) {
+                for (int call : group.calls) {
+                    assignments[call] = elevators.get(group.car);
+                }
+            }
+        }
+        return assignments;
+    }
+
+    // Same origin and destination ride together; groups larger than a car are split
+    private List<Group> groupCalls(List<DestinationCall> calls) {
+        Map<Long, Group> open = new HashMap<>();
+        List<Group> groups = new ArrayList<>();
+        for (int i = 0; i < calls.size(); i++) {
+            DestinationCall call = calls.get(i);
+            long key = (long) call.getOriginFloor() << 32 | call.getDestinationFloor();
+            Group group = open.get(key);
+            if (group == null || group.size() == carCapacity) {
+                group = new Group(call);
+                open.put(key, group);
+                groups.add(group);
+            }
+            group.calls.add(i);
+        }
+        return groups;
+    }
+
+    private static final class Group {
+        private final int originStop;       // floor * 2 + sweep (0 up, 1 down)
+        private final int destinationStop;
+        private final Direction direction;
+        private final List<Integer> calls = new ArrayList<>();
+        private double[] etas;              // Estimated seconds for each car to reach the origin
+        private int car = -1;
+
+        private Group(DestinationCall call) {
+            int sweep = call.getDirection() == Direction.UP ? 0 : 1;
+            this.originStop = call.getOriginFloor() * 2 + sweep;
+            this.destinationStop = call.getDestinationFloor() * 2 + sweep;
+            this.direction = call.getDirection();
+        }
+
+        private int size() {
+            return calls.size();
+        }
+    }
+
+    // Per-car batch state; a car's cost is sum(size * eta) + dwell * newStops * load, where load counts
+    // the passengers committed before the batch as well as the batch groups placed in the car
+    private final class Plan {
+        private final List<ElevatorCar> elevators;
+        private final int[] load;
+        private final int[] newStops;
+        private final double[] waitSeconds;
+        private final int[][] stopUses;  // Per car, batch groups using each stop; -1 marks a stop the car already makes
+
+        private Plan(List<ElevatorCar> elevators, int[] carLoads, List<Group> groups, long deadlineNanos) {
+            this.elevators = elevators;
+            int cars = elevators.size();
+            this.load = carLoads.clone();
+            this.newStops = new int[cars];
+            this.waitSeconds = new double[cars];
+            int stopCount = 0;
+            Map<Integer, double[]> etaByOrigin = new HashMap<>();
+            for (Group group : groups) {
+                stopCount = Math.max(stopCount, Math.max(group.originStop, group.destinationStop) + 1);
+                group.etas = etaByOrigin.computeIfAbsent(group.originStop, stop -> {
+                    boolean estimate = System.nanoTime() < deadlineNanos;
+                    double[] etas = new double[cars];
+                    for (int car = 0; car < cars; car++) {
+                        ElevatorCar elevator = elevators.get(car);
+                        etas[car] = estimate
+                                ? arrivalEstimates.estimateSeconds(elevator, stop >> 1, group.direction)
+                                : Math.abs((stop >> 1) - elevator.getCurrentFloor()) * secondsPerFloor;
+                    }
+                    return etas;
+                });
+            }
+            this.stopUses = new int[cars][stopCount];
+            boolean[] batchStop = new boolean[stopCount];
+            for (Group group : groups) {
+                batchStop[group.originStop] = true;
+                batchStop[group.destinationStop] = true;
+            }
+            for (int stop = 0; stop < stopCount && System.nanoTime() < deadlineNanos; stop++) {
+                if (batchStop[stop]) {
+                    for (int car = 0; car < cars; car++) {
+                        markExistingStop(car, stop);
+                    }
+                }
+            }
+        }
+
+        private boolean hasRoom(int car, Group group) {
+            return load[car] + group.size() <= carCapacity;
+        }
+
+        private double cost(double wait, int stops, int passengers) {
+            return wait + doorDwellSeconds * stops * passengers;
+        }
+
+        private double addCost(int car, Group group) {
+            int stops = newStops[car] + (stopUses[car][group.originStop] == 0 ? 1 : 0)
+                    + (stopUses[car][group.destinationStop] == 0 ? 1 : 0);
+            double wait = waitSeconds[car] + group.size() * group.etas[car];
+            return cost(wait, stops, load[car] + group.size()) - cost(waitSeconds[car], newStops[car], load[car]);
+        }
+
+        private double removeSaving(int car, Group group) {
+            int stops = newStops[car] - (stopUses[car][group.originStop] == 1 ? 1 : 0)
+                    - (stopUses[car][group.destinationStop] == 1 ? 1 : 0);
+            double wait = waitSeconds[car] - group.size() * group.etas[car];
+            return cost(waitSeconds[car], newStops[car], load[car]) - cost(wait, stops, load[car] - group.size());
+        }
+
+        private void add(int car, Group group) {
+            group.car = car;
+            load[car] += group.size();
+            waitSeconds[car] += group.size() * group.etas[car];
+            useStop(car, group.originStop, 1);
+            useStop(car, group.destinationStop, 1);
+        }
+
+        private void remove(int car, Group group) {
+            group.car = -1;
+            load[car] -= group.size();
+            waitSeconds[car] -= group.size() * group.etas[car];
+            useStop(car, group.originStop, -1);
+            useStop(car, group.destinationStop, -1);
+        }
+
+        // A stop costs a dwell only while it exists because of this batch
+        private void useStop(int car, int stop, int delta) {
+            int uses = stopUses[car][stop];
+            if (uses < 0) {
+                return;  // The car stops there anyway
+            }
+            if (uses == 0 && delta > 0) {
+                newStops[car]++;
+            } else if (uses == 1 && delta < 0) {
+                newStops[car]--;
+            }
+            stopUses[car][stop] = uses + delta;
+        }
+
+        private void markExistingStop(int car, int stop) {
+            int floor = stop >> 1;
+            Direction sweep = (stop & 1) == 0 ? Direction.UP : Direction.DOWN;
+            if (elevators.get(car).countStops(sweep, floor, floor) > 0) {
+                stopUses[car][stop] = -1;
+            }
+        }
+    }
+}
@@ -7,4 +7,13 @@ import java.util.List;
 
 public interface DispatchingStrategy {
     ElevatorCar selectElevator(List<ElevatorCar> elevators, int floor, Direction direction);
+
+    // Select cars for a batch of hall calls in one pass; assignments[i] receives the car for call i.
+    // Every call in the batch sees the cars as they were when the batch started.
+    default void selectElevators(List<ElevatorCar> elevators, int[] floors, Direction[] directions, int count,
+                                 ElevatorCar[] assignments) {
+        for (int i = 0; i < count; i++) {
+            assignments[i] = selectElevator(elevators, floors[i], directions[i]);
+        }
+    }
 }
@@ -2,21 +2,63 @@ package elevator.dispatch;
 
 import elevator.components.Direction;
 import elevator.components.ElevatorCar;
+import elevator.metrics.TripLatencies;
+import elevator.observer.ElevatorObserver;
 
 import java.util.List;
 
 public class ElevatorDispatch {
 
     private final DispatchingStrategy strategy;
+    private ElevatorCar[] assignments = new ElevatorCar[0];  // Reused across batches
+    private final TripLatencies strategyLatencies;
+    private IdleCarParker idleCarParker;  // Learns from every dispatched call when parking is enabled
 
     public ElevatorDispatch(DispatchingStrategy strategy) {
         this.strategy = strategy;
+        this.strategyLatencies = new TripLatencies(strategy == null ? "none" : strategy.getClass().getSimpleName());
     }
 
-    public void dispatchElevatorCar(int floor, Direction direction, List<ElevatorCar> elevators) {
+    // Wait and ride times of every car dispatched by this strategy
+    public TripLatencies getStrategyLatencies() {
+        return strategyLatencies;
+    }
+
+    public void setIdleCarParker(IdleCarParker idleCarParker) {
+        this.idleCarParker = idleCarParker;
+    }
+
+    public ElevatorCar dispatchElevatorCar(int floor, Direction direction, List<ElevatorCar> elevators) {
+        if (idleCarParker != null) {
+            idleCarParker.recordCall(floor);
+        }
         ElevatorCar selectedElevator = strategy.selectElevator(elevators, floor, direction);
         if (selectedElevator != null) {
-            selectedElevator.addFloorRequest(floor);
+            selectedElevator.addFloorRequest(floor, direction);
+        }
+        return selectedElevator;
+    }
+
+    // Dispatch a batch of hall calls, running the strategy once for the whole batch; calledAtNanos holds
+    // when each call was made, so the cars measure waits from the press. Calls no car could take are
+    // reported to unassigned; a caller that offers them again gets them learned only once, when a car
+    // finally takes them.
+    public void dispatchElevatorCars(int[] floors, Direction[] directions, long[] calledAtNanos, int count,
+                                     List<ElevatorCar> elevators, ElevatorObserver unassigned) {
+        if (assignments.length < count) {
+            assignments = new ElevatorCar[floors.length];
+        }
+        strategy.selectElevators(elevators, floors, directions, count, assignments);
+        for (int i = 0; i < count; i++) {
+            if (assignments[i] != null) {
+                if (idleCarParker != null) {
+                    idleCarParker.recordCall(floors[i]);
+                }
+                assignments[i].addFloorRequest(floors[i], directions[i], calledAtNanos[i]);
+            } else {
+                unassigned.update(floors[i], directions[i]);
+            }
+            assignments[i] = null;
         }
     }
 }
@@ -1,12 +1,111 @@
 package elevator.dispatch;
 
 import elevator.components.Direction;
+import elevator.components.ElevatorCar;
 import elevator.observer.ElevatorObserver;
 
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
 // Observer Implementation: ElevatorDispatchController
-public class ElevatorDispatchController implements ElevatorObserver {
+// Hall calls are queued without blocking the button thread and dispatched in batches, either by a
+// dedicated dispatcher thread (start/close) or by whichever loop calls dispatchPendingCalls. A call
+// stays lit until the car it was given serves it, so pressing again meanwhile sends no second car. A
+// call the strategy could not place (say every car is sweeping the other way) is carried into the next
+// batch, so it is offered again once the cars have moved.
+public class ElevatorDispatchController implements ElevatorObserver, AutoCloseable {
+    private static final long RETRY_INTERVAL_NANOS = 10_000_000;  // Dispatcher's pause while only unplaced calls wait
+
+    private final HallCallQueue hallCalls;
+    private final ElevatorDispatch dispatch;
+    private final List<ElevatorCar> elevators;
+    private final int[] batchFloors;
+    private final Direction[] batchDirections;
+    private final long[] batchCalledAt;
+    private final LongSupplier nanoClock;  // Stamps each press; the same clock the cars measure waits on
+    private int unassignedCount;           // Calls of the last batch no car could take; dispatcher only
+    private volatile Thread dispatcherThread;
+    private volatile boolean running;
+
+    // Floors are numbered 0 to floorCount - 1
+    public ElevatorDispatchController(int floorCount, List<ElevatorCar> elevators, ElevatorDispatch dispatch,
+                                      LongSupplier nanoClock) {
+        this.hallCalls = new HallCallQueue(floorCount);
+        this.dispatch = dispatch;
+        this.elevators = elevators;
+        this.batchFloors = new int[hallCalls.capacity()];
+        this.batchDirections = new Direction[hallCalls.capacity()];
+        this.batchCalledAt = new long[hallCalls.capacity()];
+        this.nanoClock = nanoClock;
+        for (ElevatorCar elevator : elevators) {
+            elevator.addHallCallServedObserver(hallCalls::served);
+        }
+    }
+
     @Override
     public void update(int floor, Direction direction) {
-        // Logic to handle the floor request
+        // Never blocks: a CAS on the call's state, a slot claim, and at most one unpark
+        if (hallCalls.offer(floor, direction, nanoClock.getAsLong())) {
+            Thread dispatcher = dispatcherThread;
+            if (dispatcher != null) {
+                LockSupport.unpark(dispatcher);
+            }
+        }
+    }
+
+    // Drain every queued call and hand them to the dispatcher as one batch; must be called from one thread.
+    // Returns the batch size, which includes calls carried over from earlier batches.
+    public int dispatchPendingCalls() {
+        unassignedCount = 0;
+        int count = hallCalls.drain(batchFloors, batchDirections, batchCalledAt);
+        if (count > 0) {
+            dispatch.dispatchElevatorCars(batchFloors, batchDirections, batchCalledAt, count, elevators,
+                    this::carryOver);
+        }
+        return count;
+    }
+
+    private void carryOver(int floor, Direction direction) {
+        unassignedCount++;
+        hallCalls.requeue(floor, direction);
+    }
+
+    // Run dispatching on a background thread. The cars then take stops from this thread while the
+    // control loop moves them, which ElevatorCar allows by guarding its stops with its own lock.
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(() -> {
+            while (running) {
+                int count = dispatchPendingCalls();
+                if (count == 0) {
+                    LockSupport.park(this);  // Producers unpark us after publishing a call
+                } else if (count == unassignedCount) {
+                    LockSupport.parkNanos(this, RETRY_INTERVAL_NANOS);  // Give the cars time to move
+                }
+            }
+        }, "elevator-dispatcher");
+        thread.setDaemon(true);
+        dispatcherThread = thread;
+        thread.start();
+    }
+
+    @Override
+    public synchronized void close() {
+        Thread thread = dispatcherThread;
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dispatcherThread = null;
     }
 }
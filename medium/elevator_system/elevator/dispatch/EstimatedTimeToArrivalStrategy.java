@@ -0,0 +1,164 @@
+package elevator.dispatch;
+
+import elevator.components.Direction;
+import elevator.components.ElevatorCar;
+import elevator.components.ElevatorStatus;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks the car with the lowest estimated time to arrive at the hall call.
+ *
+ * The estimate follows the car's LOOK route: floors travelled until the car reaches the call on a
+ * sweep in the call's direction, plus a door dwell for every stop it makes first. The car's highest
+ * and lowest stops are cached per car and only reread when its plan version changes, which happens
+ * when stops are added or served but not as the car moves; the floor and direction come from the
+ * packed status. Stops between two floors are counted from the car's per-sweep counts in O(log
+ * floors), so scoring a call is closed-form arithmetic per car rather than a step-by-step simulation
+ * of each car's queue.
+ *
+ * The strategy is shared by requestElevator callers and the dispatcher thread, so the route cache and
+ * batch counts are kept per thread; each thread warms its own cache and no lock is taken per call.
+ */
+public class EstimatedTimeToArrivalStrategy implements DispatchingStrategy {
+    private final double secondsPerFloor;
+    private final double doorDwellSeconds;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public EstimatedTimeToArrivalStrategy(double secondsPerFloor, double doorDwellSeconds) {
+        this.secondsPerFloor = secondsPerFloor;
+        this.doorDwellSeconds = doorDwellSeconds;
+    }
+
+    @Override
+    public ElevatorCar selectElevator(List<ElevatorCar> elevators, int floor, Direction direction) {
+        int best = selectIndex(elevators, floor, direction, null);
+        return best < 0 ? null : elevators.get(best);
+    }
+
+    // Calls earlier in the batch count as extra stops for the car they were given, so a burst of
+    // calls spreads across cars instead of piling onto the one that looked best at the start
+    @Override
+    public void selectElevators(List<ElevatorCar> elevators, int[] floors, Direction[] directions, int count,
+                                ElevatorCar[] assignments) {
+        Scratch state = scratch.get();
+        if (state.batchStops.length < elevators.size()) {
+            state.batchStops = new int[elevators.size()];
+        }
+        int[] batchStops = state.batchStops;
+        for (int i = 0; i < count; i++) {
+            int best = selectIndex(elevators, floors[i], directions[i], batchStops);
+            if (best >= 0) {
+                assignments[i] = elevators.get(best);
+                batchStops[best]++;
+            }
+        }
+        Arrays.fill(batchStops, 0, elevators.size(), 0);
+    }
+
+    public double estimateSeconds(ElevatorCar car, int floor, Direction direction) {
+        return estimateSeconds(car, floor, direction, 0);
+    }
+
+    private int selectIndex(List<ElevatorCar> elevators, int floor, Direction direction, int[] extraStops) {
+        int best = -1;
+        double bestSeconds = Double.MAX_VALUE;
+        for (int i = 0; i < elevators.size(); i++) {
+            double seconds = estimateSeconds(elevators.get(i), floor, direction,
+                    extraStops == null ? 0 : extraStops[i]);
+            if (seconds < bestSeconds) {
+                best = i;
+                bestSeconds = seconds;
+            }
+        }
+        return best;
+    }
+
+    private double estimateSeconds(ElevatorCar car, int floor, Direction direction, int extraStops) {
+        RoutePlan plan = routePlan(car);
+        int packed = car.getPackedStatus();
+        int current = ElevatorStatus.floorOf(packed);
+        if (plan.idle) {
+            return Math.abs(floor - current) * secondsPerFloor + extraStops * doorDwellSeconds;
+        }
+        int top = Math.max(current, plan.highestStop);
+        int bottom = Math.min(current, plan.lowestStop);
+        // LOOK keeps going the way the car faces while it has a stop that way, at or past its floor
+        boolean goingUp = ElevatorStatus.directionOf(packed) == Direction.DOWN
+                ? plan.lowestStop > current
+                : plan.highestStop >= current;
+        int stopsOnCurrentSweep = goingUp
+                ? car.countStops(Direction.UP, current, top)
+                : car.countStops(Direction.DOWN, bottom, current);
+
+        int floors;
+        int stops;
+        if (goingUp) {
+            if (direction != Direction.DOWN && floor >= current) {
+                // Reached on the current up sweep
+                floors = floor - current;
+                stops = car.countStops(Direction.UP, current, floor - 1);
+            } else if (direction == Direction.DOWN) {
+                // Up to the turnaround, then down to the call
+                int turn = Math.max(top, floor);
+                floors = (turn - current) + (turn - floor);
+                stops = stopsOnCurrentSweep + car.countStops(Direction.DOWN, floor + 1, turn);
+            } else {
+                // Up to the turnaround, all the way down, then back up to the call
+                int turn = Math.min(bottom, floor);
+                floors = (top - current) + (top - turn) + (floor - turn);
+                stops = stopsOnCurrentSweep + car.getStopCount(Direction.DOWN)
+                        + car.countStops(Direction.UP, turn, floor - 1);
+            }
+        } else {
+            if (direction != Direction.UP && floor <= current) {
+                floors = current - floor;
+                stops = car.countStops(Direction.DOWN, floor + 1, current);
+            } else if (direction == Direction.UP) {
+                int turn = Math.min(bottom, floor);
+                floors = (current - turn) + (floor - turn);
+                stops = stopsOnCurrentSweep + car.countStops(Direction.UP, turn, floor - 1);
+            } else {
+                int turn = Math.max(top, floor);
+                floors = (current - bottom) + (turn - bottom) + (turn - floor);
+                stops = stopsOnCurrentSweep + car.getStopCount(Direction.UP)
+                        + car.countStops(Direction.DOWN, floor + 1, turn);
+            }
+        }
+        return floors * secondsPerFloor + (stops + extraStops) * doorDwellSeconds;
+    }
+
+    private RoutePlan routePlan(ElevatorCar car) {
+        RoutePlan plan = scratch.get().routePlans.computeIfAbsent(car, c -> new RoutePlan());
+        if (plan.version != car.getPlanVersion() || !plan.initialized) {
+            plan.refresh(car);
+        }
+        return plan;
+    }
+
+    // One thread's route cache, plus the stops it has handed out earlier in the batch it is selecting for
+    private static final class Scratch {
+        private final Map<ElevatorCar, RoutePlan> routePlans = new IdentityHashMap<>();
+        private int[] batchStops = new int[0];
+    }
+
+    // Stops of one car, valid while the car's plan version is unchanged; independent of where the car is
+    private static final class RoutePlan {
+        private boolean initialized;
+        private long version;
+        private boolean idle;
+        private int highestStop;
+        private int lowestStop;
+
+        private void refresh(ElevatorCar car) {
+            initialized = true;
+            version = car.getPlanVersion();  // Read first: a change after it bumps the version again
+            idle = car.isIdle();
+            highestStop = car.getHighestStop();
+            lowestStop = car.getLowestStop();
+        }
+    }
+}
@@ -4,8 +4,20 @@ import elevator.components.Direction;
 import elevator.components.ElevatorCar;
 
 import java.util.List;
+import java.util.Random;
 
 public class FirstComeFirstServeStrategy implements DispatchingStrategy {
+    private final Random random;  // Picks a car when none is idle or heading the caller's way
+
+    public FirstComeFirstServeStrategy() {
+        this(new Random());
+    }
+
+    // A seeded Random makes the fallback picks, and so whole simulation runs, reproducible
+    public FirstComeFirstServeStrategy(Random random) {
+        this.random = random;
+    }
+
     @Override
     public ElevatorCar selectElevator(List<ElevatorCar> elevators, int floor, Direction direction) {
         for (ElevatorCar elevator : elevators) {
@@ -13,6 +25,6 @@ public class FirstComeFirstServeStrategy implements DispatchingStrategy {
                 return elevator;
             }
         }
-        return elevators.get((int) (Math.random() * elevators.size()));
+        return elevators.get(random.nextInt(elevators.size()));
     }
 }
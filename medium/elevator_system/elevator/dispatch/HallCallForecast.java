@@ -0,0 +1,128 @@
+package elevator.dispatch;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+// Hall-call rates per floor and time-of-day bucket, learned from the stream of dispatched calls.
+// Each (bucket, floor) cell is an exponentially decayed call count, and each bucket an equally decayed
+// amount of time it has been observed; their ratio is a calls-per-hour rate in which last week's
+// traffic counts half as much as today's (for a one-week half-life). Decay is applied lazily from the
+// cell's last update, so recording a call is O(1) and nothing runs between calls.
+//
+// Times are milliseconds since a local midnight, so the bucket of a timestamp is its time of day.
+// Calls are recorded on the dispatching threads while the control loop reads rates, so every method
+// that touches the counts holds the forecast's lock.
+public class HallCallForecast {
+    private static final long MILLIS_PER_DAY = Duration.ofDays(1).toMillis();
+    private static final double MILLIS_PER_HOUR = Duration.ofHours(1).toMillis();
+
+    private final int floorCount;
+    private final int bucketsPerDay;
+    private final long bucketMillis;
+    private final double decayPerMilli;       // ln 2 / half-life
+    private final long minimumExposureMillis; // A bucket observed for less than this borrows the latest bucket's rates
+    private final double[][] calls;           // [bucket][floor] decayed call counts, as of lastCall
+    private final long[][] lastCall;
+    private final double[] exposure;          // [bucket] decayed observed milliseconds, as of lastExposure
+    private final long[] lastExposure;
+    private long lastSeen = -1;               // Latest timestamp seen, to credit exposure up to
+    private int lastMatureBucket = -1;        // Latest bucket observed for at least minimumExposureMillis
+
+    public HallCallForecast(int floorCount, int bucketsPerDay, Duration halfLife) {
+        if (floorCount <= 0 || bucketsPerDay <= 0 || MILLIS_PER_DAY % bucketsPerDay != 0) {
+            throw new IllegalArgumentException("Need at least one floor and a whole number of buckets per day");
+        }
+        if (halfLife.isNegative() || halfLife.isZero()) {
+            throw new IllegalArgumentException("Half-life must be positive");
+        }
+        this.floorCount = floorCount;
+        this.bucketsPerDay = bucketsPerDay;
+        this.bucketMillis = MILLIS_PER_DAY / bucketsPerDay;
+        this.decayPerMilli = Math.log(2) / halfLife.toMillis();
+        this.minimumExposureMillis = Math.min(bucketMillis, Duration.ofMinutes(5).toMillis());
+        this.calls = new double[bucketsPerDay][floorCount];
+        this.lastCall = new long[bucketsPerDay][floorCount];
+        this.exposure = new double[bucketsPerDay];
+        this.lastExposure = new long[bucketsPerDay];
+    }
+
+    public int getFloorCount() {
+        return floorCount;
+    }
+
+    public synchronized void recordCall(int floor, long nowMillis) {
+        if (floor < 0 || floor >= floorCount) {
+            return;  // Outside the floors this forecast was built for
+        }
+        advance(nowMillis);
+        int bucket = bucketOf(nowMillis);
+        calls[bucket][floor] = decay(calls[bucket][floor], lastCall[bucket][floor], nowMillis) + 1;
+        lastCall[bucket][floor] = nowMillis;
+    }
+
+    // Expected calls per hour at each floor over the coming bucket: the rates learned for this time of day
+    // and the next bucket, averaged. Buckets not yet observed long enough fall back to the most recent
+    // bucket's rates, so a fresh forecast is useful as soon as traffic starts.
+    public synchronized void fillExpectedRates(long nowMillis, double[] callsPerHour) {
+        advance(nowMillis);
+        int bucket = bucketOf(nowMillis);
+        Arrays.fill(callsPerHour, 0, floorCount, 0);
+        addRates(resolve(bucket), nowMillis, 0.5, callsPerHour);
+        addRates(resolve((bucket + 1) % bucketsPerDay), nowMillis, 0.5, callsPerHour);
+    }
+
+    // Learned rate for one floor in the bucket holding the given time of day, or 0 before any traffic
+    public synchronized double getRate(int floor, long nowMillis) {
+        advance(nowMillis);
+        int bucket = bucketOf(nowMillis);
+        double observed = decay(exposure[bucket], lastExposure[bucket], nowMillis);
+        return observed <= 0 ? 0
+                : decay(calls[bucket][floor], lastCall[bucket][floor], nowMillis) / observed * MILLIS_PER_HOUR;
+    }
+
+    private int resolve(int bucket) {
+        return exposure[bucket] >= minimumExposureMillis || lastMatureBucket < 0 ? bucket : lastMatureBucket;
+    }
+
+    private void addRates(int bucket, long nowMillis, double weight, double[] callsPerHour) {
+        double observed = decay(exposure[bucket], lastExposure[bucket], nowMillis);
+        if (observed <= 0) {
+            return;
+        }
+        double scale = weight * MILLIS_PER_HOUR / observed;
+        for (int floor = 0; floor < floorCount; floor++) {
+            callsPerHour[floor] += decay(calls[bucket][floor], lastCall[bucket][floor], nowMillis) * scale;
+        }
+    }
+
+    // Credit the time since the last timestamp to the buckets it covered
+    private void advance(long nowMillis) {
+        if (lastSeen < 0 || nowMillis <= lastSeen) {
+            lastSeen = Math.max(lastSeen, nowMillis);
+            return;
+        }
+        long from = lastSeen;
+        if (nowMillis - from > MILLIS_PER_DAY) {
+            from = nowMillis - MILLIS_PER_DAY;  // Every bucket was seen in a longer gap; the last day dominates
+        }
+        while (from < nowMillis) {
+            int bucket = bucketOf(from);
+            long end = Math.min(nowMillis, (from / bucketMillis + 1) * bucketMillis);
+            exposure[bucket] = decay(exposure[bucket], lastExposure[bucket], end) + (end - from);
+            lastExposure[bucket] = end;
+            if (exposure[bucket] >= minimumExposureMillis) {
+                lastMatureBucket = bucket;
+            }
+            from = end;
+        }
+        lastSeen = nowMillis;
+    }
+
+    private int bucketOf(long millis) {
+        return (int) (Math.floorMod(millis, MILLIS_PER_DAY) / bucketMillis);
+    }
+
+    private double decay(double value, long since, long nowMillis) {
+        return value == 0 || nowMillis <= since ? value : value * Math.exp(-decayPerMilli * (nowMillis - since));
+    }
+}
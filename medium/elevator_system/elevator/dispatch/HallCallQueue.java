@@ -0,0 +1,116 @@
+package elevator.dispatch;
+
+import elevator.components.Direction;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free multi-producer, single-consumer queue of hall calls that coalesces duplicates.
+ *
+ * Each (floor, direction) pair has a state: idle, queued, or dispatched to a car. A press only
+ * enqueues when it moves the pair from idle to queued, so repeated presses of a lit button cost one
+ * failed CAS and never touch the ring. The button stays lit after the call is drained, and the pair
+ * only goes back to idle when a car serves it, so pressing it again while a
+ * car is on its way does not send a second one. A call no car could take is queued again rather than
+ * dropped, keeping its original press time. Because at most one entry per pair can be in the
+ * ring, a ring of 2 * floorCount slots can never overflow, and producers never wait for space. The
+ * winning press also records when it happened, so the wait is measured from the press rather than
+ * from the dispatch.
+ */
+public class HallCallQueue {
+    private final int floorCount;
+    private static final int IDLE = 0;
+    private static final int QUEUED = 1;
+    private static final int DISPATCHED = 2;
+
+    private final AtomicIntegerArray state;    // IDLE, QUEUED or DISPATCHED per (floor, direction)
+    private final AtomicIntegerArray slots;    // Encoded call + 1; 0 means empty or not yet published
+    private final AtomicLongArray calledAt;    // Time of the press that queued each (floor, direction)
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;                         // Only touched by the consumer
+
+    public HallCallQueue(int floorCount) {
+        if (floorCount <= 0) {
+            throw new IllegalArgumentException("Floor count must be positive");
+        }
+        this.floorCount = floorCount;
+        this.state = new AtomicIntegerArray(floorCount * 2);
+        this.calledAt = new AtomicLongArray(floorCount * 2);
+        int capacity = Integer.highestOneBit(floorCount * 2 - 1) << 1;
+        this.slots = new AtomicIntegerArray(Math.max(2, capacity));
+        this.mask = slots.length() - 1;
+    }
+
+    // Returns false if the same call is already queued or on its way, whose earlier time then stands
+    public boolean offer(int floor, Direction direction, long calledAtNanos) {
+        int call = encode(floor, direction);
+        if (!state.compareAndSet(call, IDLE, QUEUED)) {
+            return false;
+        }
+        calledAt.lazySet(call, calledAtNanos);  // Published by the slot write below
+        publish(call);
+        return true;
+    }
+
+    // A drained call no car could take goes back in the ring for the next batch, with its press time;
+    // the button stays lit meanwhile
+    public void requeue(int floor, Direction direction) {
+        int call = encode(floor, direction);
+        if (state.compareAndSet(call, DISPATCHED, QUEUED)) {
+            publish(call);
+        }
+    }
+
+    private void publish(int call) {
+        long slot = tail.getAndIncrement();
+        slots.lazySet((int) (slot & mask), call + 1);
+    }
+
+    // Consumer side: move up to floors.length queued calls into the given arrays and return how many
+    public int drain(int[] floors, Direction[] directions, long[] calledAtNanos) {
+        int count = 0;
+        while (count < floors.length) {
+            int index = (int) (head & mask);
+            int value = slots.get(index);
+            if (value == 0) {
+                break;  // Empty, or a producer has claimed the slot but not published its call yet
+            }
+            // Free the slot before the call can go idle, so a re-press always finds its slot free
+            slots.lazySet(index, 0);
+            head++;
+            int call = value - 1;
+            calledAtNanos[count] = calledAt.get(call);
+            state.set(call, DISPATCHED);
+            floors[count] = call >> 1;
+            directions[count] = (call & 1) == 0 ? Direction.UP : Direction.DOWN;
+            count++;
+        }
+        return count;
+    }
+
+    // A car has picked up the call: the next press queues it again. A call that is still queued is left
+    // alone, as is a floor outside this queue's building.
+    public void served(int floor, Direction direction) {
+        if (floor >= 0 && floor < floorCount && direction != Direction.IDLE) {
+            state.compareAndSet(floor * 2 + (direction == Direction.UP ? 0 : 1), DISPATCHED, IDLE);
+        }
+    }
+
+    // Largest number of calls that can be queued at once
+    public int capacity() {
+        return floorCount * 2;
+    }
+
+    private int encode(int floor, Direction direction) {
+        if (floor < 0 || floor >= floorCount) {
+            throw new IllegalArgumentException("Floor " + floor + " is outside 0.." + (floorCount - 1));
+        }
+        if (direction == Direction.IDLE) {
+            throw new IllegalArgumentException("Hall calls must be UP or DOWN");
+        }
+        return floor * 2 + (direction == Direction.UP ? 0 : 1);
+    }
+}
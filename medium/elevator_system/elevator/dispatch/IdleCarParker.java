@@ -0,0 +1,138 @@
+package elevator.dispatch;
+
+import elevator.components.ElevatorCar;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+// Sends idle cars to where hall calls are expected. The idle fleet is spread over the forecast demand
+// by quantile: with k idle cars, the targets are the floors at the 1/2k, 3/2k, ... points of the
+// cumulative expected call rate, which on a single shaft line keeps every call close to some parked
+// car and puts most of the fleet at the lobby during up-peak. Cars already parked keep their targets;
+// only the car that just became idle is moved, so the fleet does not reshuffle on every arrival.
+//
+// The idle and parking cars are paired with the targets in floor order, which on a single line keeps
+// the total travel to the targets smallest. The rates, targets and pairing are worked out once per
+// time step and reused by every car that becomes idle in that step, rather than once per car.
+// Cars may go idle on several control threads, so park holds the parker's lock; recording calls only
+// takes the forecast's own.
+public class IdleCarParker {
+    private final HallCallForecast forecast;
+    private final LongSupplier localTimeMillis;  // Milliseconds since a local midnight
+    private final double[] rates;
+    private final int[] carsBelowFloor;  // Counting sort of the resting cars by floor
+    private long ratesAtMillis = Long.MIN_VALUE;
+    private int[] targets = new int[0];
+    private long plannedAtMillis = Long.MIN_VALUE;
+    private ElevatorCar[] plannedCars = new ElevatorCar[0];  // Idle or parking cars, lowest resting floor first
+    private int[] restingFloors = new int[0];                // Per fleet position; -1 for a busy car
+    private int plannedCount;                                // Cars paired with targets[0..plannedCount)
+
+    public IdleCarParker(HallCallForecast forecast, LongSupplier localTimeMillis) {
+        this.forecast = forecast;
+        this.localTimeMillis = localTimeMillis;
+        this.rates = new double[forecast.getFloorCount()];
+        this.carsBelowFloor = new int[forecast.getFloorCount() + 1];
+    }
+
+    public HallCallForecast getForecast() {
+        return forecast;
+    }
+
+    // Fed by ElevatorDispatch with every hall call it dispatches
+    public void recordCall(int floor) {
+        forecast.recordCall(floor, localTimeMillis.getAsLong());
+    }
+
+    // Park the car if it is idle; returns the floor it was sent to, or -1 if it stays where it is
+    public synchronized int park(ElevatorCar car, List<ElevatorCar> elevators) {
+        if (!car.isIdle()) {
+            return -1;
+        }
+        long nowMillis = localTimeMillis.getAsLong();
+        int slot = nowMillis == plannedAtMillis ? plannedSlot(car) : -1;
+        if (slot < 0) {
+            plan(nowMillis, elevators);  // First car this step, or one that went idle after the plan
+            slot = plannedSlot(car);
+        }
+        if (slot < 0) {
+            return -1;  // Nothing learned yet
+        }
+        int target = targets[slot];
+        if (target == car.getCurrentFloor()) {
+            return -1;
+        }
+        car.parkAt(target);
+        return target;
+    }
+
+    // Pair every idle or parking car with a quantile target, both in floor order
+    private void plan(long nowMillis, List<ElevatorCar> elevators) {
+        plannedAtMillis = nowMillis;
+        if (ratesAtMillis != nowMillis) {
+            forecast.fillExpectedRates(nowMillis, rates);
+            ratesAtMillis = nowMillis;
+        }
+        int fleetSize = elevators.size();
+        if (plannedCars.length < fleetSize) {
+            plannedCars = new ElevatorCar[fleetSize];
+            restingFloors = new int[fleetSize];
+        }
+        Arrays.fill(carsBelowFloor, 0);
+        int count = 0;
+        for (int i = 0; i < fleetSize; i++) {
+            int rest = elevators.get(i).getRestingFloor();
+            if (rest >= rates.length) {
+                rest = -1;  // Above the forecast's floors, so there is no target it could be paired with
+            }
+            restingFloors[i] = rest;
+            if (rest >= 0) {
+                carsBelowFloor[rest + 1]++;
+                count++;
+            }
+        }
+        for (int floor = 1; floor < carsBelowFloor.length; floor++) {
+            carsBelowFloor[floor] += carsBelowFloor[floor - 1];
+        }
+        for (int i = 0; i < fleetSize; i++) {
+            if (restingFloors[i] >= 0) {
+                plannedCars[carsBelowFloor[restingFloors[i]]++] = elevators.get(i);
+            }
+        }
+        plannedCount = fillTargets(count) ? count : 0;
+    }
+
+    private int plannedSlot(ElevatorCar car) {
+        for (int i = 0; i < plannedCount; i++) {
+            if (plannedCars[i] == car) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Quantile targets for count cars over the expected rates; false if no calls are expected anywhere
+    private boolean fillTargets(int count) {
+        double total = 0;
+        for (double rate : rates) {
+            total += rate;
+        }
+        if (total <= 0 || count == 0) {
+            return false;
+        }
+        if (targets.length < count) {
+            targets = new int[count];
+        }
+        double cumulative = 0;
+        int floor = 0;
+        for (int i = 0; i < count; i++) {
+            double quantile = total * (2 * i + 1) / (2.0 * count);
+            while (floor < rates.length - 1 && cumulative + rates[floor] < quantile) {
+                cumulative += rates[floor++];
+            }
+            targets[i] = floor;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,134 @@
+package elevator.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Log-bucketed histogram in the style of HdrHistogram: every power of two is split into 64 linear
+// sub-buckets, so any recorded value is reported within 1/64 (about 1.6%) of its true value while
+// the whole range up to the highest trackable value fits in a fixed array of a few hundred slots.
+// Recording is one index computation and one atomic increment, safe from any number of threads.
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;                            // Top bits kept per value
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;        // Linear slots below 2^7
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;        // Slots added per power of two
+
+    private final long highestTrackableValue;
+    private final AtomicLongArray counts;
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram(long highestTrackableValue) {
+        if (highestTrackableValue < SUB_BUCKET_COUNT) {
+            throw new IllegalArgumentException("Highest trackable value must be at least " + SUB_BUCKET_COUNT);
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.counts = new AtomicLongArray(indexOf(highestTrackableValue) + 1);
+    }
+
+    // Negative values count as 0; values above the trackable range land in the top bucket but still
+    // raise the reported maximum
+    public void record(long value) {
+        long clamped = Math.max(0, Math.min(value, highestTrackableValue));
+        counts.getAndIncrement(indexOf(clamped));
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    // Copy of the counts at this moment; values recorded while the copy is taken may or may not be included
+    public Snapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, max.get());
+    }
+
+    // Values recorded concurrently with a reset may be kept or dropped
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        max.set(0);
+    }
+
+    // Values below 128 map to themselves; above that, the position of the highest set bit picks the
+    // power of two and the next six bits pick the slot within it
+    static int indexOf(long value) {
+        int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return shift * SUB_BUCKET_HALF + (int) (value >>> shift);
+    }
+
+    // Smallest value that falls into the slot
+    static long lowestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF - 1;
+        return (long) (index - shift * SUB_BUCKET_HALF) << shift;
+    }
+
+    // Largest value that falls into the slot
+    static long highestValueAt(int index) {
+        return lowestValueAt(index + 1) - 1;
+    }
+
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long max;
+
+        private Snapshot(long[] counts, long max) {
+            this.counts = counts;
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            this.count = total;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        // Mean of the slot midpoints, accurate to the histogram's precision
+        public double getMean() {
+            if (count == 0) {
+                return 0;
+            }
+            double sum = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    sum += counts[i] * ((lowestValueAt(i) + highestValueAt(i)) / 2.0);
+                }
+            }
+            return sum / count;
+        }
+
+        // Nearest-rank percentile, e.g. 0.99 for p99; reported as the top of the slot holding that rank
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueAt(i), max);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.0f p50=%d p90=%d p99=%d max=%d", count, getMean(),
+                    getValueAtPercentile(0.50), getValueAtPercentile(0.90), getValueAtPercentile(0.99), max);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package elevator.metrics;
+
+// Wait time (hall call registered until a car stops for it) and ride time (car call registered until
+// the car stops at that floor) histograms in milliseconds. A car keeps one of these for itself and
+// records every value into its dispatcher's as well, giving per-car and per-strategy views.
+public class TripLatencies {
+    public static final long HIGHEST_TRACKABLE_MILLIS = 1L << 24;  // About 4.6 hours
+
+    private final String name;
+    private final LatencyHistogram waitTimes = new LatencyHistogram(HIGHEST_TRACKABLE_MILLIS);
+    private final LatencyHistogram rideTimes = new LatencyHistogram(HIGHEST_TRACKABLE_MILLIS);
+
+    public TripLatencies(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void recordWaitNanos(long nanos) {
+        waitTimes.record(nanos / 1_000_000);
+    }
+
+    public void recordRideNanos(long nanos) {
+        rideTimes.record(nanos / 1_000_000);
+    }
+
+    public LatencyHistogram.Snapshot snapshotWaitTimes() {
+        return waitTimes.snapshot();
+    }
+
+    public LatencyHistogram.Snapshot snapshotRideTimes() {
+        return rideTimes.snapshot();
+    }
+
+    public void reset() {
+        waitTimes.reset();
+        rideTimes.reset();
+    }
+
+    @Override
+    public String toString() {
+        return name + "\n  wait ms " + snapshotWaitTimes() + "\n  ride ms " + snapshotRideTimes();
+    }
+}
@@ -1,9 +1,13 @@
 package elevator.observer;
 
 import elevator.components.Direction;
+import elevator.components.ElevatorCar;
 import elevator.dispatch.ElevatorDispatchController;
 import elevator.ElevatorSystem;
 import elevator.components.HallwayButtonPanel;
+import elevator.dispatch.ShortestSeekTimeFirstStrategy;
+
+import java.util.List;
 
 // Example Usage
 class ObserverPatternExample {
@@ -14,10 +18,13 @@ class ObserverPatternExample {
     }
 
     public static void main(String[] args) {
+        ElevatorSystem elevatorSystem = new ElevatorSystem(List.of(new ElevatorCar(0), new ElevatorCar(0)),
+                new ShortestSeekTimeFirstStrategy());
         HallwayButtonPanel hallwayButtonPanel = new HallwayButtonPanel(5);
-        ElevatorDispatchController controller = new ElevatorDispatchController();
+        ElevatorDispatchController controller = elevatorSystem.createDispatchController(10);
 
         hallwayButtonPanel.addObserver(controller);
-        hallwayButtonPanel.pressButton(Direction.UP);
+        hallwayButtonPanel.pressButton(Direction.UP);  // Queued; returns immediately
+        controller.dispatchPendingCalls();            // Assigns the call to a car
     }
 }
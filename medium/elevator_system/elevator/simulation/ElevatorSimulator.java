@@ -0,0 +1,524 @@
+package elevator.simulation;
+
+import elevator.ElevatorSystem;
+import elevator.components.Direction;
+import elevator.components.ElevatorCar;
+import elevator.dispatch.DestinationCall;
+import elevator.dispatch.DestinationDispatchController;
+import elevator.dispatch.DestinationGroupingSolver;
+import elevator.dispatch.EstimatedTimeToArrivalStrategy;
+import elevator.dispatch.FirstComeFirstServeStrategy;
+import elevator.dispatch.HallCallForecast;
+import elevator.dispatch.IdleCarParker;
+import elevator.dispatch.ShortestSeekTimeFirstStrategy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Discrete-event simulation of an ElevatorSystem under passenger traffic.
+ *
+ * Time advances in 100 ms ticks on a hierarchical timing wheel, and only cars that have somewhere
+ * to go hold a pending event, so an idle fleet costs nothing and a busy one costs O(1) per floor
+ * travelled. Passengers press the hall button (coalesced while it is lit), board whichever car stops
+ * at their floor heading their way, and press their destination inside the car; every dispatch goes
+ * through ElevatorSystem.requestElevator and the strategy under test. In destination-dispatch
+ * scenarios passengers instead enter their destination at the hall, calls are solved in batches by
+ * the DestinationDispatchController, and each passenger waits for the car they were given. With idle
+ * parking, a car that runs out of stops asks the system where to wait, and parks without opening
+ * its doors unless someone is there to board.
+ * Scenarios share no state, so runAll spreads them across cores.
+ */
+public class ElevatorSimulator {
+    public static final double SECONDS_PER_TICK = 0.1;
+    public static final double SECONDS_PER_FLOOR = 1.5;
+    public static final double DOOR_DWELL_SECONDS = 8.0;
+
+    private static final long NANOS_PER_TICK = Math.round(SECONDS_PER_TICK * 1_000_000_000L);
+    private static final long MILLIS_PER_TICK = Math.round(SECONDS_PER_TICK * 1000);
+    private static final long TICKS_PER_FLOOR = Math.round(SECONDS_PER_FLOOR / SECONDS_PER_TICK);
+    private static final long DOOR_DWELL_TICKS = Math.round(DOOR_DWELL_SECONDS / SECONDS_PER_TICK);
+    private static final long CALL_RETRY_TICKS = 50;             // Re-press after 5 s if a call was left behind
+    private static final long DRAIN_LIMIT_TICKS = 4 * 36_000;    // Give up 4 simulated hours after the last arrival
+    private static final long DESTINATION_BATCH_TICKS = 10;      // Destination calls are solved once a second
+
+    private static final int ARRIVAL = 0;
+    private static final int CAR_STEP = 1;
+    private static final int CALL_RETRY = 2;
+    private static final int DESTINATION_BATCH = 3;
+
+    private final SimulationScenario scenario;
+    private final TimingWheel<Event> wheel = new TimingWheel<>();
+    private final Random random;
+    private final int floorCount;
+    private final List<ElevatorCar> cars = new ArrayList<>();
+    private final Map<ElevatorCar, Integer> carIndexes = new IdentityHashMap<>();
+    private final ElevatorSystem elevatorSystem;
+    private final DestinationDispatchController destinationDispatch;  // Null for conventional hall buttons
+    private final List<Passenger> unassigned = new ArrayList<>();     // Destination calls waiting for the next batch
+    private final List<List<ArrayDeque<Passenger>>> assignedWaiting;  // Per car, by hall call, when destination dispatching
+    private final Event batchEvent = new Event(DESTINATION_BATCH, -1);
+    private boolean batchScheduled;
+    private final List<ArrayDeque<Passenger>> waiting;  // Indexed by floor * 2 + (0 for up, 1 for down)
+    private final boolean[] callLit;                 // Hall button lit: a car has been asked to come
+    private final int[] openCar;                     // Car loading at each hall call right now, or -1
+    private final int[] openCall;                    // Hall call each car is loading, or -1
+    private final boolean[] retryPending;
+    private final List<List<List<Passenger>>> riders;  // Per car, passengers by destination floor
+    private final int[] load;
+    private final Event[] carEvents;                 // One reusable step event per car
+    private final boolean[] carScheduled;
+    private final TripTimeDistribution waitTimes = new TripTimeDistribution(SECONDS_PER_TICK);
+    private final TripTimeDistribution journeyTimes = new TripTimeDistribution(SECONDS_PER_TICK);
+    private final int[] trip = new int[2];
+    private long generated;
+    private long inSystem;
+    private long events;
+
+    public ElevatorSimulator(SimulationScenario scenario) {
+        this.scenario = scenario;
+        this.random = new Random(scenario.getSeed());
+        this.floorCount = scenario.getFloorCount();
+        int carCount = scenario.getCarCount();
+        this.carEvents = new Event[carCount];
+        this.carScheduled = new boolean[carCount];
+        this.riders = new ArrayList<>(carCount);
+        this.load = new int[carCount];
+        for (int i = 0; i < carCount; i++) {
+            // Spread the fleet over the building to start with
+            ElevatorCar car = new ElevatorCar((int) ((long) i * floorCount / carCount));
+            cars.add(car);
+            carIndexes.put(car, i);
+            carEvents[i] = new Event(CAR_STEP, i);
+            List<List<Passenger>> byFloor = new ArrayList<>(floorCount);
+            for (int floor = 0; floor < floorCount; floor++) {
+                byFloor.add(new ArrayList<>());
+            }
+            riders.add(byFloor);
+        }
+        // Latency histograms are stamped in simulated time rather than wall-clock time
+        this.elevatorSystem = new ElevatorSystem(cars, scenario.createStrategy(),
+                () -> wheel.getCurrentTick() * NANOS_PER_TICK);
+        this.destinationDispatch = scenario.isDestinationDispatch()
+                ? elevatorSystem.createDestinationDispatchController(
+                        new DestinationGroupingSolver(SECONDS_PER_FLOOR, DOOR_DWELL_SECONDS, scenario.getCarCapacity()),
+                        Duration.ofMillis(Math.round(DESTINATION_BATCH_TICKS * SECONDS_PER_TICK * 1000)),
+                        this::committedLoad)
+                : null;
+        if (scenario.isIdleParking()) {
+            // Quarter-hour buckets; runs start at midnight in simulated time
+            elevatorSystem.enableIdleCarParking(new IdleCarParker(
+                    new HallCallForecast(floorCount, 96, Duration.ofDays(7)),
+                    () -> wheel.getCurrentTick() * MILLIS_PER_TICK));
+        }
+        this.assignedWaiting = new ArrayList<>(Collections.nCopies(carCount, null));
+        this.waiting = new ArrayList<>(floorCount * 2);
+        for (int i = 0; i < floorCount * 2; i++) {
+            waiting.add(new ArrayDeque<>());
+        }
+        this.callLit = new boolean[floorCount * 2];
+        this.openCar = new int[floorCount * 2];
+        Arrays.fill(openCar, -1);
+        this.openCall = new int[carCount];
+        Arrays.fill(openCall, -1);
+        this.retryPending = new boolean[floorCount * 2];
+    }
+
+    public SimulationResult run() {
+        long wallStart = System.nanoTime();
+        try (TraceReader trace = scenario.getTrace() == null ? null : new TraceReader(scenario.getTrace())) {
+            TraceReader.Event record = new TraceReader.Event();
+            Event arrival = new Event(ARRIVAL, -1);
+            boolean arriving = scheduleNextArrival(arrival, 0, trace, record);
+            long deadline = arriving ? Long.MAX_VALUE : DRAIN_LIMIT_TICKS;
+            double speedup = scenario.getReplaySpeedup();
+            long pacedTick = 0;
+
+            Event event;
+            while ((event = wheel.poll()) != null) {
+                long now = wheel.getCurrentTick();
+                if (now > deadline) {
+                    break;
+                }
+                if (speedup > 0 && now > pacedTick) {
+                    pacedTick = now;
+                    pace(wallStart, now, speedup);
+                }
+                events++;
+                switch (event.type) {
+                    case ARRIVAL:
+                        if (trace == null) {
+                            scenario.getPattern().sampleTrip(random, floorCount, trip);
+                            passengerArrives(trip[0], trip[1], now);
+                        } else {
+                            replayRecord(record, now);
+                        }
+                        if (!scheduleNextArrival(arrival, now, trace, record)) {
+                            arriving = false;
+                            deadline = now + DRAIN_LIMIT_TICKS;
+                        }
+                        break;
+                    case CAR_STEP:
+                        stepCar(event.index, now);
+                        break;
+                    case DESTINATION_BATCH:
+                        assignDestinationCalls(now);
+                        break;
+                    default:
+                        retryPending[event.index] = false;
+                        if (!waiting.get(event.index).isEmpty()) {
+                            requestCar(event.index, now);
+                        }
+                        break;
+                }
+                if (!arriving && inSystem == 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replay " + scenario.getTrace(), e);
+        }
+
+        long ticks = wheel.getCurrentTick();
+        return new SimulationResult(scenario, waitTimes, journeyTimes, inSystem,
+                Duration.ofMillis(Math.round(ticks * SECONDS_PER_TICK * 1000)),
+                Duration.ofNanos(System.nanoTime() - wallStart), events);
+    }
+
+    // Schedules the next generated passenger or trace record; false once traffic has run out
+    private boolean scheduleNextArrival(Event arrival, long now, TraceReader trace, TraceReader.Event record)
+            throws IOException {
+        if (trace == null) {
+            if (generated == scenario.getPassengers()) {
+                return false;
+            }
+            wheel.schedule(arrival, now + nextArrivalDelay());
+            return true;
+        }
+        if (!trace.next(record)) {
+            return false;
+        }
+        wheel.schedule(arrival, Math.max(now, record.getTimeMillis() / MILLIS_PER_TICK));
+        return true;
+    }
+
+    // Holds the run back so simulated time moves at most speedup times faster than the wall clock
+    private static void pace(long wallStart, long tick, double speedup) {
+        long due = wallStart + (long) (tick * NANOS_PER_TICK / speedup);
+        long ahead = due - System.nanoTime();
+        if (ahead > 0) {
+            LockSupport.parkNanos(ahead);
+        }
+    }
+
+    private void replayRecord(TraceReader.Event record, long now) {
+        if (record.isTrip()) {
+            passengerArrives(record.getFloor(), record.getDestination(), now);
+        } else if (destinationDispatch == null) {
+            // A press nobody boards on still brings a car; destination halls have no such buttons
+            pressHallButton(record.getFloor() * 2 + (record.getDirection() == Direction.UP ? 0 : 1), now);
+        }
+    }
+
+    // Run independent scenarios in parallel, one simulator per scenario; results keep the input order
+    public static List<SimulationResult> runAll(List<SimulationScenario> scenarios) {
+        int threads = Math.max(1, Math.min(scenarios.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SimulationResult>> futures = new ArrayList<>();
+            for (SimulationScenario scenario : scenarios) {
+                futures.add(executor.submit(() -> new ElevatorSimulator(scenario).run()));
+            }
+            List<SimulationResult> results = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Scenario " + scenarios.get(i).getName() + " failed", e.getCause());
+                }
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for scenarios", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Every traffic peak against every built-in strategy, ETA with idle parking, and destination dispatch:
+    // floors, cars and passengers per scenario
+    public static void main(String[] args) {
+        int floors = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        int carCount = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        long passengers = args.length > 2 ? Long.parseLong(args[2]) : 1_000_000;
+        List<SimulationScenario> scenarios = new ArrayList<>();
+        for (TrafficPattern pattern : TrafficPattern.values()) {
+            scenarios.add(new SimulationScenario(pattern + "/FCFS", pattern, floors, carCount, 20,
+                    random -> new FirstComeFirstServeStrategy(random), passengers, carCount * 0.5, 42L));
+            scenarios.add(new SimulationScenario(pattern + "/SSTF", pattern, floors, carCount, 20,
+                    ShortestSeekTimeFirstStrategy::new, passengers, carCount * 0.5, 42L));
+            SimulationScenario eta = new SimulationScenario(pattern + "/ETA", pattern, floors, carCount, 20,
+                    () -> new EstimatedTimeToArrivalStrategy(SECONDS_PER_FLOOR, DOOR_DWELL_SECONDS),
+                    passengers, carCount * 0.5, 42L);
+            scenarios.add(eta);
+            scenarios.add(eta.withIdleParking());
+            scenarios.add(new SimulationScenario(pattern + "/DD", pattern, floors, carCount, 20,
+                    passengers, carCount * 0.5, 42L));
+        }
+        long start = System.nanoTime();
+        for (SimulationResult result : runAll(scenarios)) {
+            System.out.println(result);
+        }
+        System.out.printf("%d scenarios in %d ms%n", scenarios.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void passengerArrives(int origin, int destination, long now) {
+        generated++;
+        inSystem++;
+        int call = origin * 2 + (destination > origin ? 0 : 1);
+        Passenger passenger = new Passenger(origin, destination, now);
+        if (destinationDispatch != null) {
+            queueDestinationCall(passenger, now);
+            return;
+        }
+        int car = openCar[call];
+        if (car >= 0 && load[car] < scenario.getCarCapacity()) {
+            boardPassenger(car, passenger, now);  // Walks straight into a car loading in their direction
+            return;
+        }
+        waiting.get(call).add(passenger);
+        pressHallButton(call, now);
+    }
+
+    private void pressHallButton(int call, long now) {
+        if (!callLit[call]) {
+            callLit[call] = true;
+            requestCar(call, now);
+        }
+    }
+
+    private void requestCar(int call, long now) {
+        ElevatorCar car = elevatorSystem.requestElevator(call >> 1, (call & 1) == 0 ? Direction.UP : Direction.DOWN);
+        if (car == null) {
+            scheduleRetry(call, now + CALL_RETRY_TICKS);  // No car would take it yet; press again later
+        } else {
+            wake(carIndexes.get(car), now);
+        }
+    }
+
+    private void queueDestinationCall(Passenger passenger, long now) {
+        passenger.destinationCall = destinationDispatch.requestElevator(passenger.origin, passenger.destination);
+        unassigned.add(passenger);
+        if (!batchScheduled) {
+            batchScheduled = true;
+            wheel.schedule(batchEvent, now + DESTINATION_BATCH_TICKS);
+        }
+    }
+
+    // Solve the batch and queue each passenger at the car they were given; the rest try the next batch
+    private void assignDestinationCalls(long now) {
+        batchScheduled = false;
+        destinationDispatch.dispatchPendingCalls();
+        List<Passenger> batch = new ArrayList<>(unassigned);
+        unassigned.clear();
+        for (Passenger passenger : batch) {
+            ElevatorCar car = passenger.destinationCall.getAssignment().getNow(null);
+            if (car == null) {
+                queueDestinationCall(passenger, now);
+                continue;
+            }
+            int index = carIndexes.get(car);
+            int call = passenger.origin * 2 + (passenger.destination > passenger.origin ? 0 : 1);
+            assignedQueue(index, call).add(passenger);
+            wake(index, now);
+        }
+    }
+
+    private ArrayDeque<Passenger> assignedQueue(int index, int call) {
+        List<ArrayDeque<Passenger>> byCall = assignedWaiting.get(index);
+        if (byCall == null) {
+            byCall = new ArrayList<>(Collections.nCopies(floorCount * 2, null));
+            assignedWaiting.set(index, byCall);
+        }
+        ArrayDeque<Passenger> queue = byCall.get(call);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            byCall.set(call, queue);
+        }
+        return queue;
+    }
+
+    // Passengers aboard the car plus those assigned to it and still waiting at their hall floor
+    private int committedLoad(ElevatorCar car) {
+        int index = carIndexes.get(car);
+        int committed = load[index];
+        List<ArrayDeque<Passenger>> byCall = assignedWaiting.get(index);
+        if (byCall != null) {
+            for (ArrayDeque<Passenger> queue : byCall) {
+                committed += queue == null ? 0 : queue.size();
+            }
+        }
+        return committed;
+    }
+
+    // Who this car picks up at a hall call: anyone there, or only the passengers assigned to it
+    private ArrayDeque<Passenger> boardingQueue(int index, int call) {
+        return destinationDispatch == null ? waiting.get(call) : assignedQueue(index, call);
+    }
+
+    private void wake(int index, long now) {
+        if (!carScheduled[index]) {
+            carScheduled[index] = true;
+            wheel.schedule(carEvents[index], now);
+        }
+    }
+
+    private void stepCar(int index, long now) {
+        ElevatorCar car = cars.get(index);
+        if (openCall[index] >= 0) {
+            openCar[openCall[index]] = -1;  // Doors close
+            openCall[index] = -1;
+        }
+        if (car.isIdle() && elevatorSystem.parkIdleElevator(car) < 0) {
+            carScheduled[index] = false;  // Sleeps until a dispatch wakes it
+            return;
+        }
+        if (!car.isAtDestination()) {
+            car.moveOneStep();
+            wheel.schedule(carEvents[index], now + TICKS_PER_FLOOR);
+            return;
+        }
+
+        int floor = car.getCurrentFloor();
+        boolean parked = car.isParking();  // Arrived at its parking floor; doors stay shut unless someone boards
+        List<Passenger> arriving = riders.get(index).get(floor);
+        if (!arriving.isEmpty()) {
+            for (Passenger passenger : arriving) {
+                journeyTimes.record(now - passenger.arrivalTick);
+            }
+            load[index] -= arriving.size();
+            inSystem -= arriving.size();
+            arriving.clear();
+        }
+
+        // Strategies do not see car load, so a full car can be sent to a hall call it cannot take;
+        // like a load-weighing controller, it then passes the floor when nobody got off
+        boolean full = load[index] == scenario.getCarCapacity();
+        car.nextDestination();
+        if (!full) {
+            int boarding = boardingCall(index, car, floor);
+            if (boarding >= 0) {
+                board(index, boarding, now);
+                if (destinationDispatch == null) {
+                    openCar[boarding] = index;
+                    openCall[index] = boarding;
+                }
+            }
+        }
+        while (car.isAtDestination()) {
+            car.nextDestination();  // Turnaround stop at this floor, already served above
+        }
+        long departure = full || (parked && openCall[index] < 0) ? now : now + DOOR_DWELL_TICKS;
+        for (int call = floor * 2; call <= floor * 2 + 1; call++) {
+            if (destinationDispatch != null) {
+                // Passengers given this car whose stop it no longer has (it was full) enter their call again
+                ArrayDeque<Passenger> queue = assignedQueue(index, call);
+                Direction sweep = (call & 1) == 0 ? Direction.UP : Direction.DOWN;
+                while (!queue.isEmpty() && car.countStops(sweep, floor, floor) == 0) {
+                    queueDestinationCall(queue.poll(), now);
+                }
+            } else if (!waiting.get(call).isEmpty()) {
+                // Anyone still waiting here (car full, or heading the other way) presses again once the car has left
+                scheduleRetry(call, departure + 1);
+            } else {
+                callLit[call] = false;  // A press nobody was waiting behind is answered by the car stopping
+            }
+        }
+        wheel.schedule(carEvents[index], departure);
+    }
+
+    // The hall call this stop serves: the way the car leaves next, or whichever way someone is waiting if idle
+    private int boardingCall(int index, ElevatorCar car, int floor) {
+        int up = floor * 2;
+        int down = up + 1;
+        if (car.isIdle()) {
+            return !boardingQueue(index, up).isEmpty() ? up : !boardingQueue(index, down).isEmpty() ? down : -1;
+        }
+        int next = car.getNextStop();
+        if (next > floor) {
+            return up;
+        } else if (next < floor) {
+            return down;
+        }
+        return car.getCurrentDirection() == Direction.DOWN ? up : down;  // Reverses here
+    }
+
+    private void board(int index, int call, long now) {
+        ArrayDeque<Passenger> queue = boardingQueue(index, call);
+        while (!queue.isEmpty() && load[index] < scenario.getCarCapacity()) {
+            boardPassenger(index, queue.poll(), now);
+        }
+        if (queue.isEmpty() && destinationDispatch == null) {
+            callLit[call] = false;
+        }
+    }
+
+    private void boardPassenger(int index, Passenger passenger, long now) {
+        waitTimes.record(now - passenger.arrivalTick);
+        riders.get(index).get(passenger.destination).add(passenger);
+        load[index]++;
+        elevatorSystem.selectFloor(cars.get(index), passenger.destination);
+    }
+
+    private void scheduleRetry(int call, long tick) {
+        if (!retryPending[call]) {
+            retryPending[call] = true;
+            Event retry = new Event(CALL_RETRY, call);
+            wheel.schedule(retry, tick);
+        }
+    }
+
+    // Exponential inter-arrival times give a Poisson arrival process
+    private long nextArrivalDelay() {
+        double meanTicks = 60.0 / SECONDS_PER_TICK / scenario.getArrivalsPerMinute();
+        return (long) (-meanTicks * Math.log(1 - random.nextDouble()));
+    }
+
+    private static final class Passenger {
+        private final int origin;
+        private final int destination;
+        private final long arrivalTick;
+        private DestinationCall destinationCall;
+
+        private Passenger(int origin, int destination, long arrivalTick) {
+            this.origin = origin;
+            this.destination = destination;
+            this.arrivalTick = arrivalTick;
+        }
+    }
+
+    private static final class Event extends TimingWheel.Timer {
+        private final int type;
+        private final int index;  // Car index for CAR_STEP, hall call for CALL_RETRY
+
+        private Event(int type, int index) {
+            this.type = type;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package elevator.simulation;
+
+import java.time.Duration;
+
+public class SimulationResult {
+    private final SimulationScenario scenario;
+    private final TripTimeDistribution waitTimes;     // Hall call to boarding
+    private final TripTimeDistribution journeyTimes;  // Hall call to arrival at the destination
+    private final long undelivered;
+    private final Duration simulatedDuration;
+    private final Duration wallClockDuration;
+    private final long events;
+
+    SimulationResult(SimulationScenario scenario, TripTimeDistribution waitTimes, TripTimeDistribution journeyTimes,
+                     long undelivered, Duration simulatedDuration, Duration wallClockDuration, long events) {
+        this.scenario = scenario;
+        this.waitTimes = waitTimes;
+        this.journeyTimes = journeyTimes;
+        this.undelivered = undelivered;
+        this.simulatedDuration = simulatedDuration;
+        this.wallClockDuration = wallClockDuration;
+        this.events = events;
+    }
+
+    public SimulationScenario getScenario() {
+        return scenario;
+    }
+
+    public TripTimeDistribution getWaitTimes() {
+        return waitTimes;
+    }
+
+    public TripTimeDistribution getJourneyTimes() {
+        return journeyTimes;
+    }
+
+    public long getDelivered() {
+        return journeyTimes.getCount();
+    }
+
+    // Passengers still waiting or riding when the run hit its time limit
+    public long getUndelivered() {
+        return undelivered;
+    }
+
+    public Duration getSimulatedDuration() {
+        return simulatedDuration;
+    }
+
+    public Duration getWallClockDuration() {
+        return wallClockDuration;
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d trips (%d undelivered), %s simulated in %d ms, %d events%n"
+                        + "  wait    %s%n  journey %s",
+                scenario.getName(), getDelivered(), undelivered, simulatedDuration, wallClockDuration.toMillis(),
+                events, waitTimes, journeyTimes);
+    }
+}
@@ -0,0 +1,176 @@
+package elevator.simulation;
+
+import elevator.dispatch.DispatchingStrategy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// One simulation run: building, fleet, traffic and the strategy under test
+public class SimulationScenario {
+    private final String name;
+    private final TrafficPattern pattern;
+    private final int floorCount;
+    private final int carCount;
+    private final int carCapacity;
+    // Strategies keep per-car state, so one per run; null for destination dispatch. Given a Random seeded
+    // from the scenario, so a strategy that picks at random replays the same way every run.
+    private final Function<Random, DispatchingStrategy> strategyFactory;
+    private final long passengers;
+    private final double arrivalsPerMinute;
+    private final long seed;
+    private final boolean idleParking;  // Idle cars are sent where the learned forecast expects calls
+    private final Path trace;           // Recorded traffic replayed instead of the pattern, or null
+    private final double replaySpeedup; // Simulated seconds per wall-clock second when replaying; 0 is unpaced
+
+    public SimulationScenario(String name, TrafficPattern pattern, int floorCount, int carCount, int carCapacity,
+                              Supplier<DispatchingStrategy> strategyFactory, long passengers,
+                              double arrivalsPerMinute, long seed) {
+        this(name, pattern, floorCount, carCount, carCapacity, passengers, arrivalsPerMinute, seed,
+                ignoringRandom(strategyFactory), false, null, 0);
+    }
+
+    // For strategies that make random choices: the factory gets a Random seeded from the scenario's seed
+    public SimulationScenario(String name, TrafficPattern pattern, int floorCount, int carCount, int carCapacity,
+                              Function<Random, DispatchingStrategy> strategyFactory, long passengers,
+                              double arrivalsPerMinute, long seed) {
+        this(name, pattern, floorCount, carCount, carCapacity, passengers, arrivalsPerMinute, seed,
+                requireStrategy(strategyFactory), false, null, 0);
+    }
+
+    // Destination dispatch: passengers enter their destination at the hall and calls are grouped in batches
+    public SimulationScenario(String name, TrafficPattern pattern, int floorCount, int carCount, int carCapacity,
+                              long passengers, double arrivalsPerMinute, long seed) {
+        this(name, pattern, floorCount, carCount, carCapacity, passengers, arrivalsPerMinute, seed, null, false, null, 0);
+    }
+
+    private SimulationScenario(String name, TrafficPattern pattern, int floorCount, int carCount, int carCapacity,
+                               long passengers, double arrivalsPerMinute, long seed,
+                               Function<Random, DispatchingStrategy> strategyFactory, boolean idleParking,
+                               Path trace, double replaySpeedup) {
+        if (floorCount < 3 || carCount <= 0 || carCapacity <= 0) {
+            throw new IllegalArgumentException("Need at least 3 floors and one car with room for a passenger");
+        }
+        if (trace == null && (passengers <= 0 || arrivalsPerMinute <= 0)) {
+            throw new IllegalArgumentException("Passenger count and arrival rate must be positive");
+        }
+        if (replaySpeedup < 0) {
+            throw new IllegalArgumentException("Replay speedup must be positive, or 0 for unpaced");
+        }
+        this.name = name;
+        this.pattern = pattern;
+        this.floorCount = floorCount;
+        this.carCount = carCount;
+        this.carCapacity = carCapacity;
+        this.strategyFactory = strategyFactory;
+        this.passengers = passengers;
+        this.arrivalsPerMinute = arrivalsPerMinute;
+        this.seed = seed;
+        this.idleParking = idleParking;
+        this.trace = trace;
+        this.replaySpeedup = replaySpeedup;
+    }
+
+    // Replays a recorded trace (see TraceWriter) against the strategy, in a building with the trace's floor
+    // count. speedup caps simulated time at that multiple of wall-clock time, e.g. 1000 replays an hour of
+    // traffic in 3.6 s; 0 replays as fast as the simulator can go.
+    public static SimulationScenario replay(String name, Path trace, int carCount, int carCapacity,
+                                            Supplier<DispatchingStrategy> strategyFactory, double speedup) {
+        return replay(name, trace, carCount, carCapacity, ignoringRandom(strategyFactory), speedup);
+    }
+
+    // Replays with a strategy that makes random choices; its Random is seeded the same for every replay
+    public static SimulationScenario replay(String name, Path trace, int carCount, int carCapacity,
+                                            Function<Random, DispatchingStrategy> strategyFactory, double speedup) {
+        int floorCount;
+        try (TraceReader reader = new TraceReader(trace)) {
+            floorCount = reader.getFloorCount();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new SimulationScenario(name, null, floorCount, carCount, carCapacity, 0, 0, 0,
+                requireStrategy(strategyFactory), false, trace, speedup);
+    }
+
+    // The same run with predictive idle-car parking switched on, named with a "+park" suffix
+    public SimulationScenario withIdleParking() {
+        if (isDestinationDispatch()) {
+            throw new IllegalStateException("Idle parking learns from hall calls, which destination dispatch has none of");
+        }
+        return new SimulationScenario(name + "+park", pattern, floorCount, carCount, carCapacity, passengers,
+                arrivalsPerMinute, seed, strategyFactory, true, trace, replaySpeedup);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Null when replaying a trace
+    public TrafficPattern getPattern() {
+        return pattern;
+    }
+
+    public int getFloorCount() {
+        return floorCount;
+    }
+
+    public int getCarCount() {
+        return carCount;
+    }
+
+    public int getCarCapacity() {
+        return carCapacity;
+    }
+
+    // Null for destination-dispatch scenarios, which have no hall buttons to dispatch
+    public DispatchingStrategy createStrategy() {
+        return strategyFactory == null ? null : strategyFactory.apply(new Random(seed));
+    }
+
+    public boolean isDestinationDispatch() {
+        return strategyFactory == null;
+    }
+
+    public boolean isIdleParking() {
+        return idleParking;
+    }
+
+    public Path getTrace() {
+        return trace;
+    }
+
+    public double getReplaySpeedup() {
+        return replaySpeedup;
+    }
+
+    // Generated passengers; 0 when replaying a trace, which ends when the recording does
+    public long getPassengers() {
+        return passengers;
+    }
+
+    public double getArrivalsPerMinute() {
+        return arrivalsPerMinute;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    private static Function<Random, DispatchingStrategy> requireStrategy(
+            Function<Random, DispatchingStrategy> strategyFactory) {
+        if (strategyFactory == null) {
+            throw new IllegalArgumentException("Conventional scenarios need a dispatching strategy");
+        }
+        return strategyFactory;
+    }
+
+    private static Function<Random, DispatchingStrategy> ignoringRandom(Supplier<DispatchingStrategy> strategyFactory) {
+        if (strategyFactory == null) {
+            throw new IllegalArgumentException("Conventional scenarios need a dispatching strategy");
+        }
+        return random -> strategyFactory.get();
+    }
+}
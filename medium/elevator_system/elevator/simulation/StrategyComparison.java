@@ -0,0 +1,80 @@
+package elevator.simulation;
+
+// How a candidate strategy's wait and journey times differ from a baseline's on the same traffic.
+// Positive deltas mean the candidate is slower.
+public class StrategyComparison {
+    private static final double[] PERCENTILES = {0.50, 0.90, 0.99};
+
+    private final SimulationResult baseline;
+    private final SimulationResult candidate;
+
+    public StrategyComparison(SimulationResult baseline, SimulationResult candidate) {
+        this.baseline = baseline;
+        this.candidate = candidate;
+    }
+
+    public SimulationResult getBaseline() {
+        return baseline;
+    }
+
+    public SimulationResult getCandidate() {
+        return candidate;
+    }
+
+    public double getWaitDeltaSeconds(double percentile) {
+        return candidate.getWaitTimes().getPercentileSeconds(percentile)
+                - baseline.getWaitTimes().getPercentileSeconds(percentile);
+    }
+
+    public double getJourneyDeltaSeconds(double percentile) {
+        return candidate.getJourneyTimes().getPercentileSeconds(percentile)
+                - baseline.getJourneyTimes().getPercentileSeconds(percentile);
+    }
+
+    public double getMeanWaitDeltaSeconds() {
+        return candidate.getWaitTimes().getMeanSeconds() - baseline.getWaitTimes().getMeanSeconds();
+    }
+
+    // Kolmogorov-Smirnov distance between the two wait time distributions
+    public double getWaitDistributionDistance() {
+        return baseline.getWaitTimes().maxCumulativeDifference(candidate.getWaitTimes());
+    }
+
+    public double getJourneyDistributionDistance() {
+        return baseline.getJourneyTimes().maxCumulativeDifference(candidate.getJourneyTimes());
+    }
+
+    // True if any reported wait or journey percentile got slower by more than toleranceSeconds,
+    // or the candidate left passengers the baseline delivered
+    public boolean isRegression(double toleranceSeconds) {
+        if (candidate.getUndelivered() > baseline.getUndelivered()) {
+            return true;
+        }
+        for (double percentile : PERCENTILES) {
+            if (getWaitDeltaSeconds(percentile) > toleranceSeconds
+                    || getJourneyDeltaSeconds(percentile) > toleranceSeconds) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(String.format("%s -> %s%n",
+                baseline.getScenario().getName(), candidate.getScenario().getName()));
+        report.append(String.format("  wait    mean %+.1fs", getMeanWaitDeltaSeconds()));
+        for (double percentile : PERCENTILES) {
+            report.append(String.format(" p%d %+.1fs", Math.round(percentile * 100), getWaitDeltaSeconds(percentile)));
+        }
+        report.append(String.format(" KS=%.3f%n  journey", getWaitDistributionDistance()));
+        report.append(String.format("      mean %+.1fs", candidate.getJourneyTimes().getMeanSeconds()
+                - baseline.getJourneyTimes().getMeanSeconds()));
+        for (double percentile : PERCENTILES) {
+            report.append(String.format(" p%d %+.1fs", Math.round(percentile * 100),
+                    getJourneyDeltaSeconds(percentile)));
+        }
+        report.append(String.format(" KS=%.3f", getJourneyDistributionDistance()));
+        return report.toString();
+    }
+}
@@ -0,0 +1,100 @@
+package elevator.simulation;
+
+/**
+ * Hierarchical timing wheel of simulation timers (Varghese & Lauck, as used by the Linux kernel).
+ *
+ * Four levels of 256 slots cover 2^32 ticks. A timer due within 256 ticks goes straight into the
+ * level-0 slot for its tick; later timers wait in a coarser level and are cascaded down when the
+ * wheel reaches their block. Scheduling and expiry are O(1) regardless of how many timers are
+ * pending, which is what lets a simulation keep millions of passengers and car moves in flight.
+ */
+public class TimingWheel<T extends TimingWheel.Timer> {
+    private static final int BITS = 8;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    // Base class for anything the wheel can hold; the intrusive link avoids a node per timer
+    public abstract static class Timer {
+        private long deadline;
+        private Timer next;
+
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+
+    private final Timer[][] slots = new Timer[LEVELS][SLOTS];
+    private long currentTick;
+    private int size;
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Timers scheduled in the past fire at the current tick
+    public void schedule(T timer, long deadline) {
+        Timer entry = timer;
+        entry.deadline = Math.max(deadline, currentTick);
+        insert(entry);
+        size++;
+    }
+
+    // Remove and return the next due timer, advancing time as needed; null once the wheel is empty
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        if (size == 0) {
+            return null;
+        }
+        while (true) {
+            int slot = (int) (currentTick & MASK);
+            Timer timer = slots[0][slot];
+            if (timer != null) {
+                slots[0][slot] = timer.next;
+                timer.next = null;
+                size--;
+                return (T) timer;
+            }
+            currentTick++;
+            if ((currentTick & MASK) == 0) {
+                cascade(1);
+            }
+        }
+    }
+
+    private void insert(Timer timer) {
+        long delta = timer.deadline - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        if (delta >= 1L << (BITS * LEVELS)) {
+            throw new IllegalArgumentException("Deadline too far ahead: " + timer.deadline);
+        }
+        int slot = (int) ((timer.deadline >>> (BITS * level)) & MASK);
+        timer.next = slots[level][slot];
+        slots[level][slot] = timer;
+    }
+
+    // Entering a new block at this level: move the timers of that block down to finer levels
+    private void cascade(int level) {
+        if (level >= LEVELS) {
+            return;
+        }
+        int slot = (int) ((currentTick >>> (BITS * level)) & MASK);
+        if (slot == 0) {
+            cascade(level + 1);  // The coarser level also rolled over; refill this level first
+        }
+        Timer timer = slots[level][slot];
+        slots[level][slot] = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            insert(timer);
+            timer = next;
+        }
+    }
+}
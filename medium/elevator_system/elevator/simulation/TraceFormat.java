@@ -0,0 +1,50 @@
+package elevator.simulation;
+
+import java.nio.ByteBuffer;
+
+// Binary layout of a traffic trace, shared by TraceWriter and TraceReader.
+//
+// Header (18 bytes, big-endian): magic "ELVT", version (short), floor count (int), start of the
+// recording in epoch milliseconds (long).
+// Records, in non-decreasing time order:
+//   kind (byte) | milliseconds since the previous record (varint) | floor (varint) [| destination (varint)]
+// TRIP records a passenger who called a car at the floor and selected the destination on boarding;
+// HALL_UP and HALL_DOWN record a button press nobody boarded on. Varints are unsigned LEB128, so a
+// typical trip takes four or five bytes.
+final class TraceFormat {
+    static final int MAGIC = 0x454C5654;  // "ELVT"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 18;
+    static final int MAX_RECORD_BYTES = 1 + 10 + 5 + 5;
+
+    static final byte TRIP = 0;
+    static final byte HALL_UP = 1;
+    static final byte HALL_DOWN = 2;
+
+    private TraceFormat() {
+    }
+
+    static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    // Caller guarantees MAX_RECORD_BYTES are available or the trace has ended
+    static long getVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                throw new IllegalStateException("Trace ends in the middle of a record");
+            }
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint in trace");
+    }
+}
@@ -0,0 +1,134 @@
+package elevator.simulation;
+
+import elevator.components.Direction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Streams a trace through one 64 KiB buffer, so a multi-gigabyte recording replays in constant memory.
+// next fills a caller-owned Event rather than allocating one per record.
+public class TraceReader implements AutoCloseable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final int floorCount;
+    private final long startEpochMillis;
+    private boolean endOfFile;
+    private long timeMillis;
+
+    public TraceReader(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        buffer.limit(0);  // Nothing read yet
+        try {
+            fill();
+            if (buffer.remaining() < TraceFormat.HEADER_BYTES || buffer.getInt() != TraceFormat.MAGIC) {
+                throw new IOException(path + " is not an elevator trace");
+            }
+            short version = buffer.getShort();
+            if (version != TraceFormat.VERSION) {
+                throw new IOException(path + " has trace version " + version + ", expected " + TraceFormat.VERSION);
+            }
+            this.floorCount = buffer.getInt();
+            this.startEpochMillis = buffer.getLong();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getFloorCount() {
+        return floorCount;
+    }
+
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    // Reads the next record into event; false at the end of the trace
+    public boolean next(Event event) throws IOException {
+        if (buffer.remaining() < TraceFormat.MAX_RECORD_BYTES && !endOfFile) {
+            fill();
+        }
+        if (!buffer.hasRemaining()) {
+            return false;
+        }
+        try {
+            byte kind = buffer.get();
+            timeMillis += TraceFormat.getVarint(buffer);
+            event.timeMillis = timeMillis;
+            event.floor = (int) TraceFormat.getVarint(buffer);
+            switch (kind) {
+                case TraceFormat.TRIP:
+                    event.destination = (int) TraceFormat.getVarint(buffer);
+                    event.direction = event.destination > event.floor ? Direction.UP : Direction.DOWN;
+                    break;
+                case TraceFormat.HALL_UP:
+                case TraceFormat.HALL_DOWN:
+                    event.destination = -1;
+                    event.direction = kind == TraceFormat.HALL_UP ? Direction.UP : Direction.DOWN;
+                    break;
+                default:
+                    throw new IOException(path + ": unknown record kind " + kind);
+            }
+        } catch (IllegalStateException e) {
+            throw new IOException(path + ": " + e.getMessage(), e);
+        }
+        if (event.floor >= floorCount || event.destination >= floorCount) {
+            throw new IOException(path + ": floor outside the recorded building at " + timeMillis + " ms");
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Moves unread bytes to the front and tops the buffer up from the file
+    private void fill() throws IOException {
+        buffer.compact();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                endOfFile = true;
+                break;
+            }
+        }
+        buffer.flip();
+    }
+
+    // One record; reused across calls to next
+    public static final class Event {
+        private long timeMillis;
+        private int floor;
+        private int destination;
+        private Direction direction;
+
+        // Milliseconds since the start of the recording
+        public long getTimeMillis() {
+            return timeMillis;
+        }
+
+        public int getFloor() {
+            return floor;
+        }
+
+        // Destination selected on boarding, or -1 for a hall call nobody boarded on
+        public int getDestination() {
+            return destination;
+        }
+
+        public boolean isTrip() {
+            return destination >= 0;
+        }
+
+        public Direction getDirection() {
+            return direction;
+        }
+    }
+}
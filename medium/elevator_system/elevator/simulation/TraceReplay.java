@@ -0,0 +1,95 @@
+package elevator.simulation;
+
+import elevator.dispatch.DispatchingStrategy;
+import elevator.dispatch.EstimatedTimeToArrivalStrategy;
+import elevator.dispatch.FirstComeFirstServeStrategy;
+import elevator.dispatch.ShortestSeekTimeFirstStrategy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Regression check for dispatching changes: replays one recorded trace against a baseline and a
+ * candidate strategy in parallel and reports how the candidate's latency distributions moved.
+ *
+ * <pre>
+ * # Synthesise a trace from a traffic pattern: path, pattern, floors, passengers, arrivals per minute
+ * java elevator.simulation.TraceReplay record lunch.elvt LUNCH 20 100000 40
+ * # Replay it: path, baseline, candidate, cars, car capacity, speedup (0 = unpaced)
+ * java elevator.simulation.TraceReplay compare lunch.elvt SSTF ETA 8 16 1000
+ * </pre>
+ */
+public class TraceReplay {
+    private TraceReplay() {
+    }
+
+    public static StrategyComparison compare(Path trace, int carCount, int carCapacity, double speedup,
+                                             String baselineName, Supplier<DispatchingStrategy> baseline,
+                                             String candidateName, Supplier<DispatchingStrategy> candidate) {
+        return compare(trace, carCount, carCapacity, speedup, baselineName, random -> baseline.get(),
+                candidateName, random -> candidate.get());
+    }
+
+    // For strategies that make random choices: each gets a Random seeded the same way on every replay
+    public static StrategyComparison compare(Path trace, int carCount, int carCapacity, double speedup,
+                                             String baselineName, Function<Random, DispatchingStrategy> baseline,
+                                             String candidateName, Function<Random, DispatchingStrategy> candidate) {
+        List<SimulationResult> results = ElevatorSimulator.runAll(List.of(
+                SimulationScenario.replay(baselineName, trace, carCount, carCapacity, baseline, speedup),
+                SimulationScenario.replay(candidateName, trace, carCount, carCapacity, candidate, speedup)));
+        return new StrategyComparison(results.get(0), results.get(1));
+    }
+
+    // Writes the passengers a traffic pattern would generate, with Poisson arrivals, as a trace
+    public static void recordPattern(Path trace, TrafficPattern pattern, int floorCount, long passengers,
+                                     double arrivalsPerMinute, long seed) throws IOException {
+        Random random = new Random(seed);
+        int[] trip = new int[2];
+        double meanMillis = 60_000.0 / arrivalsPerMinute;
+        long timeMillis = 0;
+        try (TraceWriter writer = new TraceWriter(trace, floorCount, System.currentTimeMillis())) {
+            for (long i = 0; i < passengers; i++) {
+                timeMillis += (long) (-meanMillis * Math.log(1 - random.nextDouble()));
+                pattern.sampleTrip(random, floorCount, trip);
+                writer.writeTrip(timeMillis, trip[0], trip[1]);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 6 && args[0].equals("record")) {
+            recordPattern(Paths.get(args[1]), TrafficPattern.valueOf(args[2]), Integer.parseInt(args[3]),
+                    Long.parseLong(args[4]), Double.parseDouble(args[5]), 42L);
+        } else if (args.length >= 6 && args[0].equals("compare")) {
+            double speedup = args.length > 6 ? Double.parseDouble(args[6]) : 0;
+            StrategyComparison comparison = compare(Paths.get(args[1]), Integer.parseInt(args[4]),
+                    Integer.parseInt(args[5]), speedup, args[2], strategy(args[2]), args[3], strategy(args[3]));
+            System.out.println(comparison.getBaseline());
+            System.out.println(comparison.getCandidate());
+            System.out.println(comparison);
+        } else {
+            System.err.println("usage: record <trace> <pattern> <floors> <passengers> <arrivals/min>");
+            System.err.println("       compare <trace> <baseline> <candidate> <cars> <capacity> [speedup]");
+            System.exit(2);
+        }
+    }
+
+    private static Function<Random, DispatchingStrategy> strategy(String name) {
+        switch (name) {
+            case "FCFS":
+                return FirstComeFirstServeStrategy::new;
+            case "SSTF":
+                return random -> new ShortestSeekTimeFirstStrategy();
+            case "ETA":
+                return random -> new EstimatedTimeToArrivalStrategy(ElevatorSimulator.SECONDS_PER_FLOOR,
+                        ElevatorSimulator.DOOR_DWELL_SECONDS);
+            default:
+                throw new IllegalArgumentException("Unknown strategy " + name + "; expected FCFS, SSTF or ETA");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package elevator.simulation;
+
+import elevator.components.Direction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Appends records to a new trace file through one reusable buffer; see TraceFormat for the layout
+public class TraceWriter implements AutoCloseable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final int floorCount;
+    private long lastMillis;
+    private long records;
+
+    // Times passed to the write methods are milliseconds since startEpochMillis
+    public TraceWriter(Path path, int floorCount, long startEpochMillis) throws IOException {
+        if (floorCount < 2) {
+            throw new IllegalArgumentException("A building needs at least two floors");
+        }
+        this.floorCount = floorCount;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        buffer.putInt(TraceFormat.MAGIC).putShort(TraceFormat.VERSION).putInt(floorCount).putLong(startEpochMillis);
+    }
+
+    // A passenger pressed the hall button at origin and, once aboard, selected destination
+    public void writeTrip(long timeMillis, int origin, int destination) throws IOException {
+        checkFloor(origin);
+        checkFloor(destination);
+        if (origin == destination) {
+            throw new IllegalArgumentException("Trip must go to another floor, got " + origin + " to " + destination);
+        }
+        writeHeader(TraceFormat.TRIP, timeMillis, origin);
+        TraceFormat.putVarint(buffer, destination);
+    }
+
+    // A hall button press that nobody boarded on
+    public void writeHallCall(long timeMillis, int floor, Direction direction) throws IOException {
+        checkFloor(floor);
+        if (direction == Direction.IDLE) {
+            throw new IllegalArgumentException("Hall calls go up or down");
+        }
+        writeHeader(direction == Direction.UP ? TraceFormat.HALL_UP : TraceFormat.HALL_DOWN, timeMillis, floor);
+    }
+
+    public long getRecordCount() {
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeHeader(byte kind, long timeMillis, int floor) throws IOException {
+        if (timeMillis < lastMillis) {
+            throw new IllegalArgumentException("Records must be in time order: " + timeMillis + " after " + lastMillis);
+        }
+        if (buffer.remaining() < TraceFormat.MAX_RECORD_BYTES) {
+            flush();
+        }
+        buffer.put(kind);
+        TraceFormat.putVarint(buffer, timeMillis - lastMillis);
+        TraceFormat.putVarint(buffer, floor);
+        lastMillis = timeMillis;
+        records++;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void checkFloor(int floor) {
+        if (floor < 0 || floor >= floorCount) {
+            throw new IllegalArgumentException("Floor " + floor + " outside 0.." + (floorCount - 1));
+        }
+    }
+}
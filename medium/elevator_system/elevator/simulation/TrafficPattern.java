@@ -0,0 +1,35 @@
+package elevator.simulation;
+
+import java.util.Random;
+
+// Origin/destination mix of the classic elevator traffic peaks; floor 0 is the lobby
+public enum TrafficPattern {
+    UP_PEAK(0.90, 0.0),     // Morning: almost everyone enters at the lobby
+    DOWN_PEAK(0.0, 0.90),   // Evening: almost everyone leaves via the lobby
+    LUNCH(0.40, 0.40);      // Out to lunch and back, with some inter-floor trips
+
+    private final double fromLobby;
+    private final double toLobby;
+
+    TrafficPattern(double fromLobby, double toLobby) {
+        this.fromLobby = fromLobby;
+        this.toLobby = toLobby;
+    }
+
+    // Fills trip[0] with the origin and trip[1] with a different destination floor
+    void sampleTrip(Random random, int floorCount, int[] trip) {
+        double r = random.nextDouble();
+        int upper = 1 + random.nextInt(floorCount - 1);
+        if (r < fromLobby) {
+            trip[0] = 0;
+            trip[1] = upper;
+        } else if (r < fromLobby + toLobby) {
+            trip[0] = upper;
+            trip[1] = 0;
+        } else {
+            trip[0] = upper;
+            int other = 1 + random.nextInt(floorCount - 2);
+            trip[1] = other >= upper ? other + 1 : other;  // Any other upper floor
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package elevator.simulation;
+
+import java.util.Arrays;
+
+// Counts of trip times at simulator tick resolution; millions of samples cost one array slot per tick
+public class TripTimeDistribution {
+    private final double secondsPerTick;
+    private long[] counts = new long[1024];
+    private long count;
+    private long sumTicks;
+    private int maxTicks;
+
+    TripTimeDistribution(double secondsPerTick) {
+        this.secondsPerTick = secondsPerTick;
+    }
+
+    void record(long ticks) {
+        int index = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(0, ticks));
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length * 2));
+        }
+        counts[index]++;
+        count++;
+        sumTicks += index;
+        maxTicks = Math.max(maxTicks, index);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanSeconds() {
+        return count == 0 ? 0 : sumTicks * secondsPerTick / count;
+    }
+
+    public double getMaxSeconds() {
+        return maxTicks * secondsPerTick;
+    }
+
+    // Nearest-rank percentile, e.g. 0.99 for p99
+    public double getPercentileSeconds(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int ticks = 0; ticks <= maxTicks; ticks++) {
+            seen += counts[ticks];
+            if (seen >= rank) {
+                return ticks * secondsPerTick;
+            }
+        }
+        return maxTicks * secondsPerTick;
+    }
+
+    // Largest gap between the two cumulative distributions (the Kolmogorov-Smirnov statistic): 0 when
+    // identical, 1 when every trip in one is shorter than every trip in the other
+    public double maxCumulativeDifference(TripTimeDistribution other) {
+        if (count == 0 || other.count == 0) {
+            return count == other.count ? 0 : 1;
+        }
+        double largest = 0;
+        long seen = 0;
+        long otherSeen = 0;
+        for (int ticks = 0; ticks <= Math.max(maxTicks, other.maxTicks); ticks++) {
+            seen += ticks < counts.length ? counts[ticks] : 0;
+            otherSeen += ticks < other.counts.length ? other.counts[ticks] : 0;
+            largest = Math.max(largest, Math.abs((double) seen / count - (double) otherSeen / other.count));
+        }
+        return largest;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("mean=%.1fs p50=%.1fs p90=%.1fs p99=%.1fs max=%.1fs", getMeanSeconds(),
+                getPercentileSeconds(0.50), getPercentileSeconds(0.90), getPercentileSeconds(0.99), getMaxSeconds());
+    }
+}
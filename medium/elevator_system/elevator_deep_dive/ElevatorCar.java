@@ -7,12 +7,16 @@ import java.util.Set;
 public class ElevatorCar {
     private ElevatorStatus status;
     private final Queue<Integer> targetFloors;
-    private final Set<Integer> accessibleFloors;
+    private final long[] accessibleFloors;  // FloorMask of the floors this car may stop at, fixed for its lifetime
 
-    public ElevatorCar(int startingFloor, Set<Integer> accessibleFloors) {
+    public ElevatorCar(int startingFloor, long[] accessibleFloors) {
         this.status = new ElevatorStatus(startingFloor, Direction.IDLE);
         this.targetFloors = new LinkedList<>();
-        this.accessibleFloors = accessibleFloors;
+        this.accessibleFloors = accessibleFloors.clone();
+    }
+
+    public ElevatorCar(int startingFloor, Set<Integer> accessibleFloors) {
+        this(startingFloor, FloorMask.of(accessibleFloors.stream().mapToInt(Integer::intValue).toArray()));
     }
 
     public ElevatorStatus getStatus() {
@@ -20,7 +24,7 @@ public class ElevatorCar {
     }
 
     public void addFloorRequest(int floor) {
-        if (accessibleFloors.contains(floor) && !targetFloors.contains(floor)) {
+        if (canAccess(floor) && !targetFloors.contains(floor)) {
             targetFloors.offer(floor);
             updateDirection(floor);
         }
@@ -38,8 +42,13 @@ public class ElevatorCar {
         return targetFloors.isEmpty();
     }
 
-    public Set<Integer> getAccessibleFloors() {
-        return accessibleFloors;
+    public boolean canAccess(int floor) {
+        return FloorMask.contains(accessibleFloors, floor);
+    }
+
+    // Copy of the car's FloorMask
+    public long[] getAccessibleFloors() {
+        return accessibleFloors.clone();
     }
 
     private void updateDirection(int targetFloor) {
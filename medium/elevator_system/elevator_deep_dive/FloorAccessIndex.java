@@ -0,0 +1,70 @@
+package elevator.dispatch;
+
+import elevator.components.ElevatorCar;
+import elevator.components.FloorMask;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+// For every floor, the positions in the fleet of the cars allowed to stop there. Built once per fleet
+// (a car's accessible floors never change), so dispatch walks only the eligible cars for a call
+// instead of testing every car's accessible floors. The index keeps its own copy of the car references, so
+// a fleet list that is mutated in place (a car added, removed or swapped) no longer matches it.
+public class FloorAccessIndex {
+    private static final int[] NO_CARS = new int[0];
+
+    private final ElevatorCar[] fleet;
+    private final int[][] carsByFloor;
+
+    public FloorAccessIndex(List<ElevatorCar> fleet) {
+        this.fleet = fleet.toArray(new ElevatorCar[0]);
+        long[][] masks = new long[fleet.size()][];
+        int highestFloor = -1;
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] = fleet.get(i).getAccessibleFloors();
+            highestFloor = Math.max(highestFloor, FloorMask.highestFloor(masks[i]));
+        }
+        int[] counts = new int[highestFloor + 1];
+        for (long[] mask : masks) {
+            forEachFloor(mask, floor -> counts[floor]++);
+        }
+        this.carsByFloor = new int[highestFloor + 1][];
+        for (int floor = 0; floor <= highestFloor; floor++) {
+            carsByFloor[floor] = counts[floor] == 0 ? NO_CARS : new int[counts[floor]];
+            counts[floor] = 0;
+        }
+        for (int i = 0; i < masks.length; i++) {
+            int car = i;
+            forEachFloor(masks[i], floor -> carsByFloor[floor][counts[floor]++] = car);
+        }
+    }
+
+    // True if the list still holds exactly the cars, in the same positions, this index was built from;
+    // a reference compare per car, far cheaper than rereading every car's floor mask
+    public boolean isFor(List<ElevatorCar> elevators) {
+        if (elevators.size() != fleet.length) {
+            return false;
+        }
+        for (int i = 0; i < fleet.length; i++) {
+            if (elevators.get(i) != fleet[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Fleet positions of the cars that serve the floor; callers must not modify the array
+    public int[] eligibleCars(int floor) {
+        return floor >= 0 && floor < carsByFloor.length ? carsByFloor[floor] : NO_CARS;
+    }
+
+    private static void forEachFloor(long[] mask, IntConsumer action) {
+        for (int word = 0; word < mask.length; word++) {
+            long bits = mask[word];
+            while (bits != 0) {
+                action.accept(word * 64 + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+    }
+}
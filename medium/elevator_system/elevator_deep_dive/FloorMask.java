@@ -0,0 +1,97 @@
+package elevator.components;
+
+// Sets of floors as long[] bitmasks: floor f is bit f % 64 of word f / 64. A 120-floor tower fits in two
+// words, and a membership test is a shift and an AND instead of a hash lookup on a boxed Integer.
+public final class FloorMask {
+    private FloorMask() {
+    }
+
+    public static long[] of(int... floors) {
+        int highest = -1;
+        for (int floor : floors) {
+            checkFloor(floor);
+            highest = Math.max(highest, floor);
+        }
+        long[] mask = new long[(highest >> 6) + 1];
+        for (int floor : floors) {
+            mask[floor >> 6] |= 1L << floor;
+        }
+        return mask;
+    }
+
+    // Every floor from fromFloor to toFloor inclusive
+    public static long[] range(int fromFloor, int toFloor) {
+        checkFloor(fromFloor);
+        if (toFloor < fromFloor) {
+            throw new IllegalArgumentException("Empty floor range " + fromFloor + ".." + toFloor);
+        }
+        long[] mask = new long[(toFloor >> 6) + 1];
+        for (int word = fromFloor >> 6; word <= toFloor >> 6; word++) {
+            long bits = -1L;
+            if (word == fromFloor >> 6) {
+                bits &= -1L << fromFloor;
+            }
+            if (word == toFloor >> 6) {
+                bits &= -1L >>> (63 - (toFloor & 63));
+            }
+            mask[word] = bits;
+        }
+        return mask;
+    }
+
+    public static long[] union(long[] a, long[] b) {
+        long[] longer = a.length >= b.length ? a : b;
+        long[] shorter = longer == a ? b : a;
+        long[] mask = longer.clone();
+        for (int i = 0; i < shorter.length; i++) {
+            mask[i] |= shorter[i];
+        }
+        return mask;
+    }
+
+    public static boolean contains(long[] mask, int floor) {
+        int word = floor >> 6;
+        return floor >= 0 && word < mask.length && (mask[word] & (1L << floor)) != 0;
+    }
+
+    public static boolean intersects(long[] a, long[] b) {
+        for (int word = 0; word < Math.min(a.length, b.length); word++) {
+            if ((a[word] & b[word]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Highest floor in the mask, or -1 if it is empty
+    public static int highestFloor(long[] mask) {
+        for (int word = mask.length - 1; word >= 0; word--) {
+            if (mask[word] != 0) {
+                return word * 64 + 63 - Long.numberOfLeadingZeros(mask[word]);
+            }
+        }
+        return -1;
+    }
+
+    // Floor served by both masks that is closest to the given floor, or -1 if they share none
+    public static int closestCommonFloor(long[] a, long[] b, int nearFloor) {
+        int best = -1;
+        for (int word = 0; word < Math.min(a.length, b.length); word++) {
+            long common = a[word] & b[word];
+            while (common != 0) {
+                int floor = word * 64 + Long.numberOfTrailingZeros(common);
+                if (best < 0 || Math.abs(floor - nearFloor) < Math.abs(best - nearFloor)) {
+                    best = floor;
+                }
+                common &= common - 1;
+            }
+        }
+        return best;
+    }
+
+    private static void checkFloor(int floor) {
+        if (floor < 0) {
+            throw new IllegalArgumentException("Floors are numbered from 0");
+        }
+    }
+}
@@ -1,21 +1,29 @@
-package elevator.components;
-import elevator.components.ElevatorCar;
+package elevator.dispatch;
+
 import elevator.components.Direction;
-import elevator.components.DispatchingStrategy;
+import elevator.components.ElevatorCar;
 
 import java.util.List;
 
 public class ShortestSeekTimeFirstStrategy implements DispatchingStrategy {
+    private FloorAccessIndex accessIndex;  // Rebuilt only when the fleet's cars change
+
     @Override
     public ElevatorCar selectElevator(List<ElevatorCar> elevators, int floor, Direction direction) {
+        FloorAccessIndex index = accessIndex;
+        if (index == null || !index.isFor(elevators)) {
+            index = new FloorAccessIndex(elevators);
+            accessIndex = index;
+        }
+
         ElevatorCar bestElevator = null;
         int shortestDistance = Integer.MAX_VALUE;
 
-        for (ElevatorCar elevator : elevators) {
+        // Only cars that can stop at the floor are considered
+        for (int carIndex : index.eligibleCars(floor)) {
+            ElevatorCar elevator = elevators.get(carIndex);
             int distance = Math.abs(elevator.getCurrentFloor() - floor);
-            if ((elevator.isIdle() || elevator.getCurrentDirection() == direction) 
-                && elevator.getAccessibleFloors().contains(floor) 
-                && distance < shortestDistance) {
+            if ((elevator.isIdle() || elevator.getCurrentDirection() == direction) && distance < shortestDistance) {
                 bestElevator = elevator;
                 shortestDistance = distance;
             }
@@ -23,4 +31,4 @@ public class ShortestSeekTimeFirstStrategy implements DispatchingStrategy {
 
         return bestElevator;
     }
-} 
+}
@@ -0,0 +1,78 @@
+package elevator.dispatch;
+
+import elevator.components.ElevatorCar;
+import elevator.components.FloorMask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plans trips through a zoned tower, where express cars only serve a band of floors plus the sky
+ * lobbies that connect it to other bands.
+ *
+ * Cars serving the same floors form one zone. Two zones connect wherever their floor masks overlap,
+ * and a breadth-first search over zones finds the route with the fewest car changes; at each change
+ * the passenger uses the shared floor nearest to where they are.
+ */
+public class SkyLobbyPlanner {
+    private final List<long[]> zones = new ArrayList<>();
+
+    public SkyLobbyPlanner(List<ElevatorCar> fleet) {
+        for (ElevatorCar car : fleet) {
+            long[] mask = car.getAccessibleFloors();
+            if (zones.stream().noneMatch(zone -> Arrays.equals(zone, mask))) {
+                zones.add(mask);
+            }
+        }
+    }
+
+    // Floors where the passenger boards or changes cars, ending with the destination, e.g.
+    // [0, 60, 95] for lobby -> sky lobby 60 -> floor 95; null if no combination of cars connects them
+    public int[] planTrip(int originFloor, int destinationFloor) {
+        int zoneCount = zones.size();
+        int[] previousZone = new int[zoneCount];
+        Arrays.fill(previousZone, -2);  // -2 unvisited, -1 starting zone
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int zone = 0; zone < zoneCount; zone++) {
+            if (FloorMask.contains(zones.get(zone), originFloor)) {
+                previousZone[zone] = -1;
+                queue.add(zone);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int zone = queue.poll();
+            if (FloorMask.contains(zones.get(zone), destinationFloor)) {
+                return route(zone, previousZone, originFloor, destinationFloor);
+            }
+            for (int next = 0; next < zoneCount; next++) {
+                if (previousZone[next] == -2 && FloorMask.intersects(zones.get(zone), zones.get(next))) {
+                    previousZone[next] = zone;
+                    queue.add(next);
+                }
+            }
+        }
+        return null;
+    }
+
+    public int getZoneCount() {
+        return zones.size();
+    }
+
+    private int[] route(int lastZone, int[] previousZone, int originFloor, int destinationFloor) {
+        List<Integer> path = new ArrayList<>();
+        for (int zone = lastZone; zone >= 0; zone = previousZone[zone]) {
+            path.add(0, zone);
+        }
+        int[] floors = new int[path.size() + 1];
+        floors[0] = originFloor;
+        for (int leg = 1; leg < path.size(); leg++) {
+            floors[leg] = FloorMask.closestCommonFloor(zones.get(path.get(leg - 1)), zones.get(path.get(leg)),
+                    floors[leg - 1]);
+        }
+        floors[path.size()] = destinationFloor;
+        return floors;
+    }
+}
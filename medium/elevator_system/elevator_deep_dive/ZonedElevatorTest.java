@@ -0,0 +1,122 @@
+package elevator;
+
+import elevator.components.Direction;
+import elevator.components.ElevatorCar;
+import elevator.components.FloorMask;
+import elevator.dispatch.FloorAccessIndex;
+import elevator.dispatch.ShortestSeekTimeFirstStrategy;
+import elevator.dispatch.SkyLobbyPlanner;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs with the deep-dive ElevatorCar and ShortestSeekTimeFirstStrategy swapped into the elevator module
+public class ZonedElevatorTest {
+
+    @Test
+    public void testFloorMask() {
+        System.out.println("\n=== Testing Floor Masks ===");
+
+        long[] lowRise = FloorMask.of(0, 1, 2, 63, 64);
+        assertEquals(2, lowRise.length);
+        assertTrue(FloorMask.contains(lowRise, 63));
+        assertTrue(FloorMask.contains(lowRise, 64));
+        assertFalse(FloorMask.contains(lowRise, 3));
+        assertFalse(FloorMask.contains(lowRise, -1));
+        assertFalse(FloorMask.contains(lowRise, 200));
+        assertEquals(64, FloorMask.highestFloor(lowRise));
+        assertEquals(-1, FloorMask.highestFloor(new long[2]));
+        System.out.println("✓ Floors either side of a word boundary are set and found");
+
+        long[] band = FloorMask.range(60, 130);
+        assertEquals(3, band.length);
+        assertFalse(FloorMask.contains(band, 59));
+        for (int floor = 60; floor <= 130; floor++) {
+            assertTrue(FloorMask.contains(band, floor));
+        }
+        assertFalse(FloorMask.contains(band, 131));
+        assertEquals(130, FloorMask.highestFloor(band));
+        assertEquals(1, FloorMask.range(5, 5).length);
+        assertThrows(IllegalArgumentException.class, () -> FloorMask.range(10, 9));
+        assertThrows(IllegalArgumentException.class, () -> FloorMask.of(-1));
+        System.out.println("✓ Ranges cover exactly their floors across three words");
+
+        long[] union = FloorMask.union(FloorMask.of(3), band);
+        assertTrue(FloorMask.contains(union, 3));
+        assertTrue(FloorMask.contains(union, 100));
+        assertTrue(FloorMask.intersects(lowRise, band));
+        assertFalse(FloorMask.intersects(FloorMask.of(1), band));
+        System.out.println("✓ Union and intersection work on masks of different lengths");
+
+        long[] lobbies = FloorMask.of(0, 60, 90);
+        assertEquals(60, FloorMask.closestCommonFloor(lobbies, band, 70));
+        assertEquals(90, FloorMask.closestCommonFloor(lobbies, band, 85));
+        assertEquals(-1, FloorMask.closestCommonFloor(FloorMask.of(1, 2), band, 0));
+        System.out.println("✓ Closest shared floor is found, or -1 when there is none");
+    }
+
+    @Test
+    public void testFloorAccessIndex() {
+        System.out.println("\n=== Testing Floor Access Index ===");
+
+        ElevatorCar local = new ElevatorCar(0, FloorMask.range(0, 30));
+        ElevatorCar express = new ElevatorCar(0, FloorMask.union(FloorMask.of(0), FloorMask.range(60, 90)));
+        ElevatorCar service = new ElevatorCar(0, FloorMask.range(0, 90));
+        List<ElevatorCar> fleet = new ArrayList<>(List.of(local, express, service));
+        FloorAccessIndex index = new FloorAccessIndex(fleet);
+
+        assertArrayEquals(new int[]{0, 1, 2}, index.eligibleCars(0));
+        assertArrayEquals(new int[]{0, 2}, index.eligibleCars(20));
+        assertArrayEquals(new int[]{2}, index.eligibleCars(45));
+        assertArrayEquals(new int[]{1, 2}, index.eligibleCars(75));
+        assertEquals(0, index.eligibleCars(91).length);
+        assertEquals(0, index.eligibleCars(-1).length);
+        System.out.println("✓ Each floor lists exactly the cars allowed to stop there");
+
+        assertTrue(index.isFor(fleet));
+        assertTrue(index.isFor(List.of(local, express, service)));
+        fleet.set(1, new ElevatorCar(0, FloorMask.range(0, 90)));
+        assertFalse(index.isFor(fleet));
+        fleet.remove(1);
+        assertFalse(index.isFor(fleet));
+        System.out.println("✓ The index stops matching once the fleet list is changed in place");
+
+        // SSTF must rebuild after an in-place change instead of using stale car positions
+        ShortestSeekTimeFirstStrategy strategy = new ShortestSeekTimeFirstStrategy();
+        List<ElevatorCar> cars = new ArrayList<>(List.of(local, express));
+        assertSame(express, strategy.selectElevator(cars, 75, Direction.UP));
+        cars.remove(express);
+        assertNull(strategy.selectElevator(cars, 75, Direction.UP));
+        cars.add(service);
+        assertSame(service, strategy.selectElevator(cars, 75, Direction.UP));
+        System.out.println("✓ Dispatch follows cars added to and removed from the same list");
+    }
+
+    @Test
+    public void testSkyLobbyPlanner() {
+        System.out.println("\n=== Testing Sky Lobby Planner ===");
+
+        // Low rise 0-30, shuttle 0 <-> 60, high rise 60-100; two cars share the low-rise zone
+        List<ElevatorCar> fleet = List.of(
+                new ElevatorCar(0, FloorMask.range(0, 30)),
+                new ElevatorCar(0, FloorMask.range(0, 30)),
+                new ElevatorCar(0, FloorMask.of(0, 60)),
+                new ElevatorCar(60, FloorMask.range(60, 100)));
+        SkyLobbyPlanner planner = new SkyLobbyPlanner(fleet);
+        assertEquals(3, planner.getZoneCount());
+        System.out.println("✓ Cars with identical floors form one zone");
+
+        assertArrayEquals(new int[]{10, 25}, planner.planTrip(10, 25));
+        assertArrayEquals(new int[]{0, 60, 95}, planner.planTrip(0, 95));
+        assertArrayEquals(new int[]{10, 0, 60, 95}, planner.planTrip(10, 95));
+        assertArrayEquals(new int[]{95, 60, 0, 10}, planner.planTrip(95, 10));
+        System.out.println("✓ Trips change cars at the shared floors with the fewest changes");
+
+        assertNull(planner.planTrip(10, 45));
+        assertNull(planner.planTrip(45, 10));
+        System.out.println("✓ Unreachable floors give no plan");
+    }
+}
@@ -4,24 +4,43 @@ import movie_ticket.location.Cinema;
 import movie_ticket.location.Seat;
 import movie_ticket.showing.Movie;
 import movie_ticket.showing.Screening;
+import movie_ticket.showing.SeatAvailability;
+import movie_ticket.ticket.BookingJournal;
+import movie_ticket.ticket.Order;
 import movie_ticket.ticket.Ticket;
 import movie_ticket.ticket.ScreeningManager;
+import movie_ticket.ticket.SeatLockManager;
+import movie_ticket.ticket.WaitingRoom;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
-// Manages the complete movie booking system operations
-public class MovieBookingSystem {
-    
+// Manages the complete movie booking system operations. Holds expire on a background thread started by
+// the first hold; close the system to stop it. A journal from enableJournal is closed by its caller.
+public class MovieBookingSystem implements AutoCloseable {
+    // How long a seat stays held while the customer pays
+    private static final Duration SEAT_HOLD_DURATION = Duration.ofMinutes(10);
+
     private final List<Movie> movies;
     private final List<Cinema> cinemas;
     private final ScreeningManager screeningManager;
+    private final SeatLockManager seatLockManager;
+    private WaitingRoom waitingRoom;  // Optional admission control in front of every way of taking seats
 
     public MovieBookingSystem() {
+        this(SEAT_HOLD_DURATION);
+    }
+
+    // Holds last the given time instead of the default 10 minutes
+    public MovieBookingSystem(Duration seatHoldDuration) {
         this.movies = new ArrayList<>();
         this.cinemas = new ArrayList<>();
         this.screeningManager = new ScreeningManager();
+        this.seatLockManager = new SeatLockManager(seatHoldDuration);
     }
 
     public void addMovie(Movie movie) {
@@ -54,17 +73,145 @@ public class MovieBookingSystem {
         return screeningManager.getAvailableSeats(screening);
     }
 
-    // Books a ticket for a specific seat at a screening
-    public void bookTicket(Screening screening, Seat seat) {
-        BigDecimal price = seat.getPricingStrategy().getPrice();
-        Ticket ticket = new Ticket(screening, seat, price);
-        screeningManager.addTicket(screening, ticket);
+    // Returns the screening's current seat map: an immutable snapshot, read without locking
+    public SeatAvailability.Snapshot getSeatMap(Screening screening) {
+        return screening.getSeatAvailability().getSnapshot();
+    }
+
+    // Returns the seat map only if it changed since the version the client already has, else null
+    public SeatAvailability.Snapshot getSeatMapIfChanged(Screening screening, long knownVersion) {
+        return screening.getSeatAvailability().getSnapshotIfChanged(knownVersion);
+    }
+
+    // Books a ticket for a specific seat at a screening; throws IllegalStateException if it is already sold.
+    // Behind a waiting room, use the overload taking an admission token.
+    public Ticket bookTicket(Screening screening, Seat seat) {
+        return bookTicket(screening, seat, null);
+    }
+
+    // Books a ticket for a customer admitted with the given token; throws IllegalStateException if the
+    // token has not been admitted to the screening's waiting room
+    public Ticket bookTicket(Screening screening, Seat seat, String admissionToken) {
+        checkAdmitted(screening, admissionToken);
+        return screeningManager.bookSeat(screening, seat);
+    }
+
+    // Books every seat of the order or none; throws SeatsUnavailableException naming the seats already taken.
+    // Behind a waiting room, use the overload taking an admission token.
+    public Order bookOrder(Screening screening, List<Seat> seats) {
+        return bookOrder(screening, seats, null);
+    }
+
+    public Order bookOrder(Screening screening, List<Seat> seats, String admissionToken) {
+        checkAdmitted(screening, admissionToken);
+        return screeningManager.bookOrder(screening, seats);
+    }
+
+    // Books the best count adjacent seats left in one row; empty if no row has that many together.
+    // Behind a waiting room, use the overload taking an admission token.
+    public List<Ticket> bookBestAvailable(Screening screening, int count) {
+        return bookBestAvailable(screening, count, null);
+    }
+
+    public List<Ticket> bookBestAvailable(Screening screening, int count, String admissionToken) {
+        checkAdmitted(screening, admissionToken);
+        return screeningManager.bookBestAvailable(screening, count);
+    }
+
+    // Puts a waiting room in front of seat holds and direct bookings: customers join a screening's line,
+    // and every call that takes seats must carry their admission token until they are admitted. The
+    // overloads without a token then throw IllegalStateException.
+    public void setWaitingRoom(WaitingRoom waitingRoom) {
+        this.waitingRoom = waitingRoom;
+    }
+
+    // Joins the screening's waiting room; throws IllegalStateException if there is none
+    public WaitingRoom.Admission joinWaitingRoom(Screening screening) {
+        if (waitingRoom == null) {
+            throw new IllegalStateException("No waiting room is set up");
+        }
+        return waitingRoom.join(screening);
+    }
+
+    // Holds a seat for the user while they pay; false if it is already held or sold. Behind a waiting
+    // room, use the overload taking an admission token.
+    public boolean holdSeat(Screening screening, Seat seat, String userId) {
+        return holdSeat(screening, seat, userId, null);
+    }
+
+    // Holds a seat for a user admitted with the given token; throws IllegalStateException if the token has
+    // not been admitted. The token only gates the hold: the hold, its journal record and the later
+    // checkout are under the user id, so tokens never end up in the journal.
+    public boolean holdSeat(Screening screening, Seat seat, String userId, String admissionToken) {
+        checkAdmitted(screening, admissionToken);
+        return seatLockManager.lockSeat(screening, seat, userId);
+    }
+
+    private void checkAdmitted(Screening screening, String admissionToken) {
+        WaitingRoom room = waitingRoom;
+        if (room == null) {
+            return;
+        }
+        if (admissionToken == null) {
+            throw new IllegalStateException("Seats for this screening can only be taken with an admission token");
+        }
+        if (!room.isAdmitted(screening, admissionToken)) {
+            throw new IllegalStateException("Admission " + admissionToken + " has not been admitted to the screening");
+        }
+    }
+
+    // Gives a held seat back before its hold expires
+    public boolean releaseSeat(Screening screening, Seat seat, String userId) {
+        return seatLockManager.unlockSeat(screening, seat, userId);
+    }
+
+    // Books a seat the user holds; throws IllegalStateException if the hold has expired
+    public Ticket bookHeldSeat(Screening screening, Seat seat, String userId) {
+        return screeningManager.bookHeldSeat(screening, seat, seatLockManager, userId);
+    }
+
+    // Seats held right now, across all screenings
+    public int getHeldSeatCount() {
+        return seatLockManager.getLockedSeatCount();
     }
 
     public void addScreening(Movie movie, Screening screening) {
         screeningManager.addScreening(movie, screening);
     }
 
+    // Adds a whole programme of screenings in one go
+    public void addScreenings(List<Screening> screenings) {
+        screeningManager.addScreenings(screenings);
+    }
+
+    // Returns the screenings starting in [from, to), earliest first
+    public List<Screening> getScreeningsBetween(LocalDateTime from, LocalDateTime to) {
+        return screeningManager.getScreeningsBetween(from, to);
+    }
+
+    // Returns the cinema's screenings starting in [from, to), earliest first
+    public List<Screening> getScreeningsInCinema(Cinema cinema, LocalDateTime from, LocalDateTime to) {
+        return screeningManager.getScreeningsInCinema(cinema, from, to);
+    }
+
+    // Cancels a sold ticket and puts its seat back on sale
+    public void cancelTicket(Ticket ticket) {
+        screeningManager.cancelTicket(ticket);
+    }
+
+    // Journals every seat change to the directory and snapshots the seat maps at the given interval.
+    // If the directory holds a journal from an earlier run, the seats of the screenings added so far
+    // (recreated under their old ids) are restored from it first, together with a ticket for every seat
+    // sold, so recovered sales can be counted and cancelled; seats that were only held come back free.
+    public BookingJournal enableJournal(Path directory, Duration snapshotInterval) throws IOException {
+        BookingJournal journal = BookingJournal.open(directory);
+        screeningManager.restoreTickets(journal.restore(screeningManager.getAllScreenings()));
+        screeningManager.setJournal(journal);
+        seatLockManager.setJournal(journal);
+        journal.startSnapshots(snapshotInterval);
+        return journal;
+    }
+
     // Returns the number of tickets sold for a screening
     public int getTicketCount(Screening screening) {
         return screeningManager.getTicketsForScreening(screening).size();
@@ -74,5 +221,11 @@ public class MovieBookingSystem {
     public List<Ticket> getTicketsForScreening(Screening screening) {
         return screeningManager.getTicketsForScreening(screening);
     }
+
+    // Stops the hold expiry thread; holds placed afterwards are only released by releaseSeat or a sale
+    @Override
+    public void close() {
+        seatLockManager.close();
+    }
 }
 
@@ -5,15 +5,51 @@ import movie_ticket.location.Layout;
 import movie_ticket.location.Room;
 import movie_ticket.location.Seat;
 import movie_ticket.rate.NormalRate;
+import movie_ticket.rate.PremiumRate;
+import movie_ticket.rate.VIPRate;
 import movie_ticket.showing.Movie;
 import movie_ticket.showing.Screening;
+import movie_ticket.showing.SeatAvailability;
+import movie_ticket.simulation.LoadBenchmark;
+import movie_ticket.simulation.LoadReport;
+import movie_ticket.ticket.BookingJournal;
+import movie_ticket.ticket.Order;
+import movie_ticket.ticket.ScreeningManager;
+import movie_ticket.ticket.SeatLockManager;
+import movie_ticket.ticket.SeatsUnavailableException;
+import movie_ticket.ticket.Ticket;
+import movie_ticket.ticket.WaitingRoom;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class MovieBookingSystemTest {
     @Test
@@ -73,4 +109,915 @@ public class MovieBookingSystemTest {
         System.out.println("✓ Verified: Ticket price is $10.00");
         System.out.println("=== Movie Booking System Test Completed Successfully ===\n");
     }
+
+    @Test
+    public void testSeatBitmapAvailability() {
+        System.out.println("\n=== Testing Seat Bitmap Availability ===");
+        MovieBookingSystem bookingSystem = new MovieBookingSystem();
+        // 70 columns span two words per row
+        Room room = new Room("IMAX", new Layout(12, 70));
+        for (Seat seat : room.getLayout().getAllSeats()) {
+            seat.setPricingStrategy(new NormalRate(BigDecimal.valueOf(12.00)));
+        }
+        Movie movie = new Movie("Test Movie", "Test Description", 120);
+        Screening screening = new Screening(movie, room, LocalDateTime.now(), LocalDateTime.now().plusMinutes(120));
+        bookingSystem.addMovie(movie);
+        bookingSystem.addScreening(movie, screening);
+
+        bookingSystem.bookTicket(screening, room.getLayout().getSeatByPosition(0, 0));
+        bookingSystem.bookTicket(screening, room.getLayout().getSeatByPosition(0, 63));
+        bookingSystem.bookTicket(screening, room.getLayout().getSeatByPosition(0, 64));
+        bookingSystem.bookTicket(screening, room.getLayout().getSeatByPosition(11, 69));
+
+        SeatAvailability availability = screening.getSeatAvailability();
+        assertEquals(2, availability.getWordsPerRow());
+        assertEquals(12 * 70 - 4, availability.getAvailableCount());
+        assertTrue(availability.isBooked(0, 63));
+        assertFalse(availability.isBooked(0, 62));
+        assertEquals((1L << 63) | 1L, availability.getRowWord(0, 0));
+        assertEquals((1L << 6) - 2, availability.getAvailableWord(0, 1), "Only columns 65 to 69 of the second word");
+        assertFalse(bookingSystem.getScreeningManager().isSeatAvailable(screening, room.getLayout().getSeatByPosition(11, 69)));
+        assertTrue(bookingSystem.getScreeningManager().isSeatAvailable(screening, room.getLayout().getSeatByPosition(5, 5)));
+        System.out.println("✓ Booked seats are single bits in row-aligned words");
+
+        List<Seat> available = bookingSystem.getAvailableSeats(screening);
+        assertEquals(12 * 70 - 4, available.size());
+        assertFalse(available.contains(room.getLayout().getSeatByPosition(0, 64)));
+        assertEquals(room.getLayout().getSeatByPosition(0, 1), available.get(0), "Seats are listed row by row");
+        assertThrows(IllegalArgumentException.class,
+                () -> room.getLayout().addSeat("X", 12, 0, new Seat("X", null)));
+        System.out.println("✓ Available seats come straight from the free bits");
+        System.out.println("=== Seat Bitmap Test Completed Successfully ===\n");
+    }
+
+    // jcstress-style: many short rounds in which every thread races for every seat of fresh screenings,
+    // then each round's outcome is checked; any oversold seat fails the test
+    @Test
+    public void testConcurrentBookingNeverOversells() throws Exception {
+        System.out.println("\n=== Testing Lock-Free Concurrent Booking ===");
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int rounds = 200;
+        Room room = new Room("1", new Layout(4, 40));  // 160 seats, rows straddle no word boundary
+        for (Seat seat : room.getLayout().getAllSeats()) {
+            seat.setPricingStrategy(new NormalRate(BigDecimal.TEN));
+        }
+        List<Seat> seats = room.getLayout().getAllSeats();
+        Movie movie = new Movie("Premiere", "Drama", 120);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < rounds; round++) {
+                MovieBookingSystem bookingSystem = new MovieBookingSystem();
+                Screening[] screenings = new Screening[2];  // Two screenings race side by side
+                for (int i = 0; i < screenings.length; i++) {
+                    screenings[i] = new Screening(movie, room, LocalDateTime.now(), LocalDateTime.now().plusHours(2));
+                    bookingSystem.addScreening(movie, screenings[i]);
+                }
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger wins = new AtomicInteger();
+                AtomicInteger losses = new AtomicInteger();
+                List<Future<?>> actors = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    long seed = round * 31L + t;
+                    actors.add(pool.submit(() -> {
+                        List<Seat> order = new ArrayList<>(seats);
+                        Collections.shuffle(order, new Random(seed));
+                        start.await();
+                        for (Seat seat : order) {
+                            for (Screening screening : screenings) {
+                                try {
+                                    bookingSystem.bookTicket(screening, seat);
+                                    wins.incrementAndGet();
+                                } catch (IllegalStateException alreadySold) {
+                                    losses.incrementAndGet();
+                                }
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> actor : actors) {
+                    actor.get();
+                }
+                for (Screening screening : screenings) {
+                    List<Ticket> tickets = bookingSystem.getTicketsForScreening(screening);
+                    assertEquals(seats.size(), tickets.size(), "Every seat sold exactly once in round " + round);
+                    assertEquals(seats.size(), tickets.stream().map(Ticket::getSeat).distinct().count(),
+                            "Oversold seat in round " + round);
+                    assertEquals(0, screening.getSeatAvailability().getAvailableCount());
+                }
+                assertEquals(2 * seats.size(), wins.get());
+                assertEquals((threads - 1) * 2 * seats.size(), losses.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        System.out.println("✓ " + rounds + " rounds of " + threads + " threads racing for 2 x " + seats.size()
+                + " seats: no seat sold twice");
+        System.out.println("=== Concurrent Booking Test Completed Successfully ===\n");
+    }
+
+    @Test
+    public void testSeatHoldsExpireOnTime() throws Exception {
+        System.out.println("\n=== Testing Seat Holds ===");
+        MovieBookingSystem bookingSystem = new MovieBookingSystem();
+        Room room = new Room("1", new Layout(40, 50));
+        for (Seat seat : room.getLayout().getAllSeats()) {
+            seat.setPricingStrategy(new NormalRate(BigDecimal.TEN));
+        }
+        Movie movie = new Movie("Premiere", "Drama", 120);
+        Screening screening = new Screening(movie, room, LocalDateTime.now(), LocalDateTime.now().plusHours(2));
+        bookingSystem.addScreening(movie, screening);
+        Seat first = room.getLayout().getSeatByPosition(0, 0);
+        Seat second = room.getLayout().getSeatByPosition(0, 1);
+
+        System.out.println("\n--- Hold, Release and Book ---");
+        assertTrue(bookingSystem.holdSeat(screening, first, "alice"));
+        assertFalse(bookingSystem.holdSeat(screening, first, "bob"), "A held seat cannot be held again");
+        assertThrows(IllegalStateException.class, () -> bookingSystem.bookTicket(screening, first));
+        assertFalse(bookingSystem.getAvailableSeats(screening).contains(first));
+        assertThrows(IllegalStateException.class, () -> bookingSystem.bookHeldSeat(screening, first, "bob"));
+        assertFalse(bookingSystem.releaseSeat(screening, first, "bob"));
+        assertTrue(bookingSystem.releaseSeat(screening, first, "alice"));
+        assertTrue(bookingSystem.getAvailableSeats(screening).contains(first));
+        assertTrue(bookingSystem.holdSeat(screening, second, "bob"));
+        Ticket ticket = bookingSystem.bookHeldSeat(screening, second, "bob");
+        assertEquals(second, ticket.getSeat());
+        assertEquals(1, bookingSystem.getTicketCount(screening));
+        assertFalse(bookingSystem.releaseSeat(screening, second, "bob"), "A sold seat is no longer held");
+        assertTrue(screening.getSeatAvailability().isBooked(0, 1));
+        bookingSystem.close();  // Stops the expiry thread the first hold started
+        System.out.println("✓ Held seats are unavailable to others and convert into a ticket without a gap");
+
+        System.out.println("\n--- Expiry on a Simulated Clock ---");
+        long tick = Duration.ofMillis(100).toNanos();
+        AtomicLong clock = new AtomicLong();
+        SeatLockManager locks = new SeatLockManager(Duration.ofMinutes(2), Duration.ofMillis(100), clock::get);
+        assertTrue(locks.lockSeat(screening, first, "alice"));
+        clock.set(Duration.ofSeconds(30).toNanos() + 1);
+        Seat third = room.getLayout().getSeatByPosition(1, 0);
+        assertTrue(locks.lockSeat(screening, third, "carol"));
+        clock.set(Duration.ofMinutes(2).toNanos() - tick / 2);
+        assertEquals(0, locks.expireHolds(clock.get()), "No hold expires early, even after a lap of the wheel");
+        assertTrue(locks.isLocked(screening, first));
+        clock.set(Duration.ofMinutes(2).toNanos());
+        assertEquals(1, locks.expireHolds(clock.get()));
+        assertFalse(locks.isLocked(screening, first));
+        assertFalse(screening.getSeatAvailability().isBooked(0, 0), "The seat goes back to the bitmap");
+        assertFalse(locks.confirmLock(screening, first, "alice"), "An expired hold cannot be confirmed");
+        clock.set(Duration.ofSeconds(150).toNanos() + tick);
+        assertEquals(1, locks.expireHolds(clock.get()));
+        assertEquals(0, locks.getLockedSeatCount());
+        System.out.println("✓ Holds expire within one 100 ms tick of their deadline, never before");
+
+        System.out.println("\n--- Expiry Thread ---");
+        try (SeatLockManager timed = new SeatLockManager(Duration.ofMillis(200), Duration.ofMillis(10), System::nanoTime)) {
+            timed.start();
+            long heldAt = System.nanoTime();
+            assertTrue(timed.lockSeat(screening, first, "alice"));
+            while (timed.isLocked(screening, first) && System.nanoTime() - heldAt < Duration.ofSeconds(5).toNanos()) {
+                Thread.sleep(5);
+            }
+            long heldMillis = (System.nanoTime() - heldAt) / 1_000_000;
+            assertFalse(timed.isLocked(screening, first));
+            assertTrue(heldMillis >= 200, "Released after " + heldMillis + " ms");
+            assertFalse(screening.getSeatAvailability().isBooked(0, 0));
+            System.out.println("✓ A 200 ms hold was released after " + heldMillis + " ms");
+        }
+
+        System.out.println("\n--- Hold Throughput ---");
+        int screeningCount = 100;
+        Screening[] screenings = new Screening[screeningCount];
+        for (int i = 0; i < screeningCount; i++) {
+            screenings[i] = new Screening(movie, room, LocalDateTime.now(), LocalDateTime.now().plusHours(2));
+        }
+        List<Seat> seats = room.getLayout().getAllSeats();
+        SeatLockManager bulk = new SeatLockManager(Duration.ofMinutes(10), Duration.ofMillis(100), System::nanoTime);
+        long start = System.nanoTime();
+        for (Seat seat : seats) {
+            for (Screening show : screenings) {
+                assertTrue(bulk.lockSeat(show, seat, "user"));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        int holds = screeningCount * seats.size();
+        double holdsPerSecond = holds * 1e9 / elapsed;
+        assertEquals(holds, bulk.getLockedSeatCount());
+        start = System.nanoTime();
+        assertEquals(holds, bulk.expireHolds(System.nanoTime() + Duration.ofMinutes(10).toNanos() + tick));
+        long expiryMillis = (System.nanoTime() - start) / 1_000_000;
+        for (Screening show : screenings) {
+            assertEquals(seats.size(), show.getSeatAvailability().getAvailableCount());
+        }
+        System.out.println("✓ " + holds + " holds at " + (long) holdsPerSecond + " holds/s, all expired in "
+                + expiryMillis + " ms");
+        System.out.println("=== Seat Hold Test Completed Successfully ===\n");
+    }
+
+    @Test
+    public void testBestAvailableBlock() throws Exception {
+        System.out.println("\n=== Testing Best Available Seats ===");
+        Room room = new Room("1", new Layout(25, 40));  // 1000 seats
+        for (Seat seat : room.getLayout().getAllSeats()) {
+            seat.setPricingStrategy(new NormalRate(BigDecimal.TEN));
+        }
+        Movie movie = new Movie("Premiere", "Drama", 120);
+        MovieBookingSystem bookingSystem = new MovieBookingSystem();
+        Screening screening = new Screening(movie, room, LocalDateTime.now(), LocalDateTime.now().plusHours(2));
+        bookingSystem.addScreening(movie, screening);
+
+        System.out.println("\n--- Middle of the Room First ---");
+        List<Ticket> party = bookingSystem.bookBestAvailable(screening, 4);
+        assertEquals(4, party.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(12, party.get(i).getSeat().getRow());
+            assertEquals(18 + i, party.get(i).getSeat().getColumn());
+        }
+        List<Ticket> next = bookingSystem.bookBestAvailable(screening, 4);
+        assertEquals(1, Math.abs(next.get(0).getSeat().getRow() - 12), "A centred block one row away beats the edge of the middle row");
+        assertEquals(18, next.get(0).getSeat().getColumn());
+        assertTrue(bookingSystem.bookBestAvailable(screening, 41).isEmpty());
+        assertEquals(8, bookingSystem.getTicketCount(screening));
+        System.out.println("✓ Blocks are taken from the centre of the middle row outwards");
+
+        System.out.println("\n--- Runs Across Words and All-or-Nothing Claims ---");
+        SeatAvailability wide = new SeatAvailability(1, 100);
+        for (int column = 0; column < 100; column++) {
+            if (column < 60 || column >= 68) {
+                wide.book(0, column);
+            }
+        }
+        assertEquals(60, wide.findFreeRun(0, 8, 0));
+        assertEquals(-1, wide.findFreeRun(0, 9, 50));
+        wide.release(0, 99);
+        wide.book(0, 66);
+        assertFalse(wide.bookRange(0, 60, 8), "One taken seat fails the whole block");
+        assertEquals(8, wide.getAvailableCount(), "Words claimed before the conflict are given back");
+        assertTrue(wide.bookRange(0, 60, 6));
+        assertEquals(2, wide.getAvailableCount());
+        System.out.println("✓ Runs straddling a word boundary are found and claimed as one block");
+
+        System.out.println("\n--- Optimal Against Brute Force ---");
+        ScreeningManager manager = bookingSystem.getScreeningManager();
+        Random random = new Random(42);
+        for (int trial = 0; trial < 300; trial++) {
+            Screening show = new Screening(movie, room, LocalDateTime.now(), LocalDateTime.now().plusHours(2));
+            double density = random.nextDouble();
+            for (Seat seat : room.getLayout().getAllSeats()) {
+                if (random.nextDouble() < density) {
+                    show.getSeatAvailability().book(seat.getRow(), seat.getColumn());
+                }
+            }
+            int count = 1 + random.nextInt(8);
+            double bestScore = Double.MAX_VALUE;
+            for (int row = 0; row < 25; row++) {
+                for (int start = 0; start + count <= 40; start++) {
+                    boolean free = true;
+                    for (int column = start; column < start + count && free; column++) {
+                        free = !show.getSeatAvailability().isBooked(row, column);
+                    }
+                    if (free) {
+                        bestScore = Math.min(bestScore, blockScore(row, start, count));
+                    }
+                }
+            }
+            List<Seat> found = manager.findBestAvailable(show, count);
+            if (bestScore == Double.MAX_VALUE) {
+                assertTrue(found.isEmpty());
+            } else {
+                assertEquals(count, found.size());
+                assertEquals(bestScore, blockScore(found.get(0).getRow(), found.get(0).getColumn(), count), 1e-9);
+            }
+        }
+        System.out.println("✓ 300 random fills: the chosen block always has the best possible score");
+
+        System.out.println("\n--- Search Time on a 1000-Seat Layout ---");
+        Screening busy = new Screening(movie, room, LocalDateTime.now(), LocalDateTime.now().plusHours(2));
+        for (Seat seat : room.getLayout().getAllSeats()) {
+            if (random.nextDouble() < 0.7) {
+                busy.getSeatAvailability().book(seat.getRow(), seat.getColumn());
+            }
+        }
+        int searches = 20_000;
+        int found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < searches; i++) {
+            found += manager.findBestAvailable(busy, 1 + (i & 3)).size();
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / searches;
+        assertTrue(found > 0);
+        System.out.printf("✓ Average search %.2f us with 70%% of seats sold%n", micros);
+
+        System.out.println("\n--- Concurrent Block Booking ---");
+        Screening rush = new Screening(movie, room, LocalDateTime.now(), LocalDateTime.now().plusHours(2));
+        bookingSystem.addScreening(movie, rush);
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> buyers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                buyers.add(pool.submit(() -> {
+                    int blocks = 0;
+                    List<Ticket> block;
+                    while (!(block = bookingSystem.bookBestAvailable(rush, 4)).isEmpty()) {
+                        for (int i = 1; i < block.size(); i++) {
+                            assertEquals(block.get(0).getSeat().getRow(), block.get(i).getSeat().getRow());
+                            assertEquals(block.get(0).getSeat().getColumn() + i, block.get(i).getSeat().getColumn());
+                        }
+                        blocks++;
+                    }
+                    return blocks;
+                }));
+            }
+            int blocks = 0;
+            for (Future<Integer> buyer : buyers) {
+                blocks += buyer.get();
+            }
+            List<Ticket> tickets = bookingSystem.getTicketsForScreening(rush);
+            assertEquals(4 * blocks, tickets.size());
+            assertEquals(tickets.size(), tickets.stream().map(Ticket::getSeat).distinct().count());
+            assertEquals(1000 - tickets.size(), rush.getSeatAvailability().getAvailableCount());
+            assertTrue(manager.findBestAvailable(rush, 4).isEmpty());
+        } finally {
+            pool.shutdownNow();
+        }
+        System.out.println("✓ " + threads + " threads sold " + bookingSystem.getTicketCount(rush)
+                + " seats in blocks of 4 with no seat sold twice");
+        System.out.println("=== Best Available Test Completed Successfully ===\n");
+    }
+
+    private static double blockScore(int row, int start, int count) {
+        double rowOffset = row - 12.0;
+        double columnOffset = start + (count - 1) / 2.0 - 19.5;
+        return rowOffset * rowOffset + columnOffset * columnOffset;
+    }
+
+    @Test
+    public void testOrdersBookAllOrNothing() throws Exception {
+        System.out.println("\n=== Testing All-or-Nothing Orders ===");
+        Room room = new Room("1", new Layout(4, 100));  // Rows span two words
+        for (Seat seat : room.getLayout().getAllSeats()) {
+            seat.setPricingStrategy(new NormalRate(BigDecimal.TEN));
+        }
+        Layout layout = room.getLayout();
+        Movie movie = new Movie("Premiere", "Drama", 120);
+        MovieBookingSystem bookingSystem = new MovieBookingSystem();
+        Screening screening = new Screening(movie, room, LocalDateTime.now(), LocalDateTime.now().plusHours(2));
+        bookingSystem.addScreening(movie, screening);
+
+        System.out.println("\n--- Booking and Rolling Back ---");
+        Order order = bookingSystem.bookOrder(screening,
+                List.of(layout.getSeatByPosition(0, 63), layout.getSeatByPosition(3, 64), layout.getSeatByPosition(3, 0)));
+        assertEquals(3, order.getAllTickets().size());
+        assertEquals(0, BigDecimal.valueOf(30).compareTo(order.calculateTotalPrice()));
+        // Words are claimed in order: rows 1 and 2 are claimed before row 3 turns out to be taken
+        List<Seat> conflicting = List.of(layout.getSeatByPosition(1, 5), layout.getSeatByPosition(3, 64),
+                layout.getSeatByPosition(2, 99), layout.getSeatByPosition(3, 0));
+        SeatsUnavailableException failure = assertThrows(SeatsUnavailableException.class,
+                () -> bookingSystem.bookOrder(screening, conflicting));
+        assertEquals(List.of(layout.getSeatByPosition(3, 64), layout.getSeatByPosition(3, 0)), failure.getUnavailableSeats());
+        assertFalse(screening.getSeatAvailability().isBooked(1, 5), "Seats claimed before the conflict are given back");
+        assertFalse(screening.getSeatAvailability().isBooked(2, 99));
+        assertEquals(3, screening.getSeatAvailability().getBookedCount());
+        assertThrows(IllegalArgumentException.class, () -> bookingSystem.bookOrder(screening,
+                List.of(layout.getSeatByPosition(1, 1), layout.getSeatByPosition(1, 1))));
+        assertEquals(3, bookingSystem.getTicketCount(screening));
+        System.out.println("✓ A conflicting order books nothing and names the seats that were taken");
+
+        System.out.println("\n--- Overlapping Orders Under Contention ---");
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        List<Seat> seats = layout.getAllSeats();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 50; round++) {
+                Screening show = new Screening(movie, room, LocalDateTime.now(), LocalDateTime.now().plusHours(2));
+                bookingSystem.addScreening(movie, show);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<List<Order>>> buyers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    Random random = new Random(round * 31L + t);
+                    buyers.add(pool.submit(() -> {
+                        List<Order> placed = new ArrayList<>();
+                        start.await();
+                        for (int attempt = 0; attempt < 100; attempt++) {
+                            List<Seat> wanted = new ArrayList<>();
+                            int size = 2 + random.nextInt(5);
+                            Set<Seat> picked = new HashSet<>();
+                            while (picked.size() < size) {
+                                picked.add(seats.get(random.nextInt(seats.size())));
+                            }
+                            wanted.addAll(picked);
+                            try {
+                                placed.add(bookingSystem.bookOrder(show, wanted));
+                            } catch (SeatsUnavailableException taken) {
+                                assertFalse(taken.getUnavailableSeats().isEmpty());
+                            }
+                        }
+                        return placed;
+                    }));
+                }
+                start.countDown();
+                int orderedSeats = 0;
+                for (Future<List<Order>> buyer : buyers) {
+                    for (Order placed : buyer.get()) {
+                        orderedSeats += placed.getAllTickets().size();
+                    }
+                }
+                List<Ticket> tickets = bookingSystem.getTicketsForScreening(show);
+                assertEquals(orderedSeats, tickets.size(), "Only whole orders are sold");
+                assertEquals(tickets.size(), tickets.stream().map(Ticket::getSeat).distinct().count());
+                assertEquals(tickets.size(), show.getSeatAvailability().getBookedCount(), "Failed orders leave no seat behind");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        System.out.println("✓ 50 rounds of " + threads + " threads placing overlapping orders: no partial or double sales");
+        System.out.println("=== All-or-Nothing Order Test Completed Successfully ===\n");
+    }
+
+    @Test
+    public void testWaitingRoomAdmitsInOrder() throws Exception {
+        System.out.println("\n=== Testing Waiting Room ===");
+        Room room = new Room("1", new Layout(10, 10));
+        for (Seat seat : room.getLayout().getAllSeats()) {
+            seat.setPricingStrategy(new NormalRate(BigDecimal.TEN));
+        }
+        Movie movie = new Movie("Premiere", "Drama", 120);
+        Screening premiere = new Screening(movie, room, LocalDateTime.now(), LocalDateTime.now().plusHours(2));
+        Screening matinee = new Screening(movie, room, LocalDateTime.now(), LocalDateTime.now().plusHours(2));
+        AtomicLong clock = new AtomicLong();
+        WaitingRoom waitingRoom = new WaitingRoom(2, Duration.ofMinutes(5), clock::get);
+        try (MovieBookingSystem bookingSystem = new MovieBookingSystem()) {
+            bookingSystem.addScreening(movie, premiere);
+            bookingSystem.setWaitingRoom(waitingRoom);
+
+            System.out.println("\n--- Admission in Arrival Order ---");
+            WaitingRoom.Admission[] line = new WaitingRoom.Admission[5];
+            for (int i = 0; i < line.length; i++) {
+                line[i] = bookingSystem.joinWaitingRoom(premiere);
+            }
+            assertEquals(WaitingRoom.Status.ADMITTED, line[0].getStatus());
+            assertEquals(WaitingRoom.Status.ADMITTED, line[1].getStatus());
+            for (int i = 2; i < line.length; i++) {
+                assertEquals(WaitingRoom.Status.WAITING, line[i].getStatus());
+                assertEquals(i - 1, line[i].getPosition());
+            }
+            assertEquals(Duration.ofSeconds(150), line[2].getEstimatedWait(), "One of two 5-minute sessions ahead");
+            assertEquals(WaitingRoom.Status.ADMITTED, waitingRoom.join(matinee).getStatus(), "Each screening has its own limit");
+            Seat seat = room.getLayout().getSeatByPosition(5, 5);
+            assertThrows(IllegalStateException.class,
+                    () -> bookingSystem.holdSeat(premiere, seat, "carol", line[2].getToken()));
+            assertTrue(bookingSystem.holdSeat(premiere, seat, "alice", line[0].getToken()));
+            bookingSystem.bookHeldSeat(premiere, seat, "alice");
+            System.out.println("✓ The first two customers are admitted; the rest see their place and wait");
+
+            System.out.println("\n--- Every Booking Path Needs Admission ---");
+            Seat direct = room.getLayout().getSeatByPosition(6, 6);
+            assertThrows(IllegalStateException.class, () -> bookingSystem.holdSeat(premiere, direct, "dave"),
+                    "Holding without a token skips the line");
+            assertThrows(IllegalStateException.class, () -> bookingSystem.bookTicket(premiere, direct));
+            assertThrows(IllegalStateException.class, () -> bookingSystem.bookOrder(premiere, List.of(direct)));
+            assertThrows(IllegalStateException.class, () -> bookingSystem.bookBestAvailable(premiere, 2));
+            assertThrows(IllegalStateException.class, () -> bookingSystem.bookTicket(premiere, direct, line[2].getToken()));
+            assertThrows(IllegalStateException.class,
+                    () -> bookingSystem.bookOrder(premiere, List.of(direct), line[2].getToken()));
+            assertThrows(IllegalStateException.class, () -> bookingSystem.bookBestAvailable(premiere, 2, line[2].getToken()));
+            assertEquals(1, bookingSystem.getTicketCount(premiere), "Rejected calls take no seats");
+            bookingSystem.bookTicket(premiere, direct, line[1].getToken());
+            bookingSystem.bookOrder(premiere, List.of(room.getLayout().getSeatByPosition(7, 7)), line[1].getToken());
+            assertEquals(2, bookingSystem.bookBestAvailable(premiere, 2, line[1].getToken()).size());
+            assertEquals(5, bookingSystem.getTicketCount(premiere));
+            System.out.println("✓ Direct bookings, orders and best-available blocks are gated like holds");
+
+            System.out.println("\n--- Leaving, Giving Up and Expiry ---");
+            clock.set(Duration.ofMinutes(1).toNanos());
+            waitingRoom.leave(premiere, line[0].getToken());
+            assertTrue(waitingRoom.isAdmitted(premiere, line[2].getToken()));
+            WaitingRoom.Admission third = waitingRoom.check(premiere, line[3].getToken());
+            assertEquals(1, third.getPosition());
+            assertTrue(third.getEstimatedWait().compareTo(line[2].getEstimatedWait()) < 0,
+                    "A short session brings the estimate down");
+            waitingRoom.leave(premiere, line[3].getToken());
+            assertEquals(WaitingRoom.Status.EXPIRED, waitingRoom.check(premiere, line[3].getToken()).getStatus());
+            clock.set(Duration.ofMinutes(5).toNanos());
+            assertFalse(waitingRoom.isAdmitted(premiere, line[1].getToken()), "Sessions end when their lifetime runs out");
+            assertTrue(waitingRoom.isAdmitted(premiere, line[4].getToken()), "Customers who gave up are passed over");
+            assertEquals(0, waitingRoom.getWaitingCount(premiere));
+            System.out.println("✓ Free sessions go to the next customer still waiting");
+        }
+
+        System.out.println("\n--- Concurrency Limit Under Load ---");
+        int limit = 3;
+        WaitingRoom busyRoom = new WaitingRoom(limit, Duration.ofMinutes(5));
+        int threads = 8;
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> customers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                customers.add(pool.submit(() -> {
+                    for (int visit = 0; visit < 200; visit++) {
+                        String token = busyRoom.join(premiere).getToken();
+                        while (!busyRoom.isAdmitted(premiere, token)) {
+                            Thread.yield();
+                        }
+                        peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                        Thread.yield();  // Stay in the session for a moment
+                        active.decrementAndGet();
+                        busyRoom.leave(premiere, token);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> customer : customers) {
+                customer.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue(peak.get() <= limit, "Peak of " + peak.get() + " sessions");
+        System.out.println("✓ " + threads + " threads x 200 visits never had more than " + peak.get() + " sessions at once");
+        System.out.println("=== Waiting Room Test Completed Successfully ===\n");
+    }
+
+    @Test
+    public void testScreeningIndexes() {
+        System.out.println("\n=== Testing Screening Indexes ===");
+        MovieBookingSystem bookingSystem = new MovieBookingSystem();
+        Cinema[] cinemas = new Cinema[3];
+        List<Room> rooms = new ArrayList<>();
+        for (int c = 0; c < cinemas.length; c++) {
+            cinemas[c] = new Cinema("Cinema " + c, "City");
+            for (int r = 0; r < 4; r++) {
+                Room room = new Room(c + "-" + r, new Layout(2, 2));
+                cinemas[c].addRoom(room);
+                rooms.add(room);
+            }
+            bookingSystem.addCinema(cinemas[c]);
+        }
+        Movie[] movies = {new Movie("Premiere", "Drama", 120), new Movie("Sequel", "Action", 100)};
+
+        System.out.println("\n--- Bulk Load ---");
+        LocalDateTime opening = LocalDateTime.of(2025, 1, 1, 0, 0);
+        Random random = new Random(7);
+        List<Screening> programme = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            LocalDateTime start = opening.plusMinutes(random.nextInt(60 * 24 * 60));  // Over 60 days
+            programme.add(new Screening(movies[i & 1], rooms.get(random.nextInt(rooms.size())), start, start.plusHours(2)));
+        }
+        long loadStart = System.nanoTime();
+        bookingSystem.addScreenings(programme);
+        long loadMillis = (System.nanoTime() - loadStart) / 1_000_000;
+        LocalDateTime late = opening.plusDays(10).plusHours(20);
+        Screening extra = new Screening(movies[0], rooms.get(0), late, late.plusHours(2));
+        bookingSystem.addScreening(movies[0], extra);
+        programme.add(extra);
+        assertEquals(10_001, bookingSystem.getScreeningsForMovie(movies[0]).size());
+        System.out.println("✓ Loaded " + programme.size() + " screenings in " + loadMillis + " ms");
+
+        System.out.println("\n--- Range Queries Against a Full Scan ---");
+        Comparator<Screening> byStart = Comparator.comparing(Screening::getStartTime)
+                .thenComparingInt(Screening::getId);
+        for (int query = 0; query < 200; query++) {
+            LocalDateTime from = opening.plusMinutes(random.nextInt(60 * 24 * 62) - 60 * 24);
+            LocalDateTime to = from.plusMinutes(random.nextInt(60 * 24 * 3));
+            Cinema cinema = cinemas[query % cinemas.length];
+            List<Screening> expectedAll = programme.stream()
+                    .filter(s -> !s.getStartTime().isBefore(from) && s.getStartTime().isBefore(to))
+                    .sorted(byStart).collect(Collectors.toList());
+            List<Screening> expectedInCinema = expectedAll.stream()
+                    .filter(s -> cinema.getRooms().contains(s.getRoom())).collect(Collectors.toList());
+            assertEquals(expectedAll, bookingSystem.getScreeningsBetween(from, to));
+            assertEquals(expectedInCinema, bookingSystem.getScreeningsInCinema(cinema, from, to));
+        }
+        List<Screening> evening = bookingSystem.getScreeningsBetween(late, late.plusMinutes(1));
+        assertTrue(evening.contains(extra), "A single add lands in its day in order");
+        assertTrue(bookingSystem.getScreeningsBetween(late, late).isEmpty());
+        System.out.println("✓ 200 random windows match a full scan, by time and by cinema");
+
+        System.out.println("\n--- Query Time ---");
+        int queries = 10_000;
+        int found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            LocalDateTime from = opening.plusHours(i % (24 * 60));
+            found += bookingSystem.getScreeningsInCinema(cinemas[i % 3], from, from.plusHours(3)).size();
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / queries;
+        assertTrue(found > 0);
+        System.out.printf("✓ Three-hour cinema query in %.2f us on average (%.1f screenings each)%n",
+                micros, (double) found / queries);
+        System.out.println("=== Screening Index Test Completed Successfully ===\n");
+    }
+
+    @Test
+    public void testSeatMapSnapshots() throws Exception {
+        System.out.println("\n=== Testing Seat Map Snapshots ===");
+        Room room = new Room("1", new Layout(6, 80));
+        for (Seat seat : room.getLayout().getAllSeats()) {
+            seat.setPricingStrategy(new NormalRate(BigDecimal.TEN));
+        }
+        Layout layout = room.getLayout();
+        Movie movie = new Movie("Premiere", "Drama", 120);
+        MovieBookingSystem bookingSystem = new MovieBookingSystem();
+        Screening screening = new Screening(movie, room, LocalDateTime.now(), LocalDateTime.now().plusHours(2));
+        bookingSystem.addScreening(movie, screening);
+
+        System.out.println("\n--- Versions as ETags ---");
+        SeatAvailability.Snapshot empty = bookingSystem.getSeatMap(screening);
+        assertEquals(480, empty.getAvailableCount());
+        assertNull(bookingSystem.getSeatMapIfChanged(screening, empty.getVersion()), "Nothing to resend");
+        bookingSystem.bookTicket(screening, layout.getSeatByPosition(2, 70));
+        SeatAvailability.Snapshot afterTicket = bookingSystem.getSeatMapIfChanged(screening, empty.getVersion());
+        assertNotNull(afterTicket);
+        assertTrue(afterTicket.getVersion() > empty.getVersion());
+        assertTrue(afterTicket.isBooked(2, 70));
+        assertFalse(empty.isBooked(2, 70), "Published snapshots never change");
+        bookingSystem.bookOrder(screening, List.of(layout.getSeatByPosition(0, 0), layout.getSeatByPosition(5, 79)));
+        assertThrows(SeatsUnavailableException.class, () -> bookingSystem.bookOrder(screening,
+                List.of(layout.getSeatByPosition(1, 1), layout.getSeatByPosition(2, 70))));
+        SeatAvailability.Snapshot afterOrders = bookingSystem.getSeatMap(screening);
+        assertEquals(3, afterOrders.getBookedCount(), "A rolled-back order leaves no trace in the map");
+        assertFalse(afterOrders.isBooked(1, 1));
+        assertEquals(1L << (79 - 64), afterOrders.getRowWord(5, 1));
+        assertSame(afterOrders, bookingSystem.getSeatMap(screening), "Unchanged maps are not copied again");
+        Thread.sleep(2);  // A restart takes at least a few milliseconds
+        SeatAvailability restarted = new SeatAvailability(6, 80);
+        long[] words = new long[6 * restarted.getWordsPerRow()];
+        for (int row = 0; row < 6; row++) {
+            for (int word = 0; word < restarted.getWordsPerRow(); word++) {
+                words[row * restarted.getWordsPerRow() + word] = afterOrders.getRowWord(row, word);
+            }
+        }
+        restarted.restore(words);
+        SeatAvailability.Snapshot recovered = restarted.getSnapshotIfChanged(afterOrders.getVersion());
+        assertNotNull(recovered, "A version from before a restart must not pass as current");
+        assertTrue(recovered.getVersion() > afterOrders.getVersion());
+        System.out.println("✓ Each change moves the version on; unchanged maps are neither rebuilt nor resent");
+
+        System.out.println("\n--- Readers During Bookings ---");
+        Screening rush = new Screening(movie, room, LocalDateTime.now(), LocalDateTime.now().plusHours(2));
+        bookingSystem.addScreening(movie, rush);
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            Future<Integer> reader = pool.submit(() -> {
+                long lastVersion = -1;
+                int lastBooked = -1;
+                int maps = 0;
+                while (!done.get()) {
+                    SeatAvailability.Snapshot map = bookingSystem.getSeatMapIfChanged(rush, lastVersion);
+                    if (map != null) {
+                        assertTrue(map.getVersion() > lastVersion, "Versions only move forward");
+                        assertTrue(map.getBookedCount() >= lastBooked, "Seats only get sold here");
+                        lastVersion = map.getVersion();
+                        lastBooked = map.getBookedCount();
+                        maps++;
+                    }
+                }
+                return maps;
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                writers.add(pool.submit(() -> {
+                    while (!bookingSystem.bookBestAvailable(rush, 3).isEmpty()) {
+                        Thread.yield();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            done.set(true);
+            int maps = reader.get();
+            SeatAvailability.Snapshot last = bookingSystem.getSeatMap(rush);
+            assertEquals(rush.getSeatAvailability().getBookedCount(), last.getBookedCount());
+            assertEquals(bookingSystem.getTicketCount(rush), last.getBookedCount());
+            System.out.println("✓ A reader saw " + maps + " new maps while the room sold out, every one consistent");
+        } finally {
+            pool.shutdownNow();
+        }
+        System.out.println("=== Seat Map Snapshot Test Completed Successfully ===\n");
+    }
+
+    @Test
+    public void testFlyweightLayout() {
+        System.out.println("\n=== Testing Flyweight Layout ===");
+        Layout layout = new Layout(25, 40);
+        for (Seat seat : layout.getAllSeats()) {
+            BigDecimal price = seat.getRow() >= 20 ? BigDecimal.valueOf(20) : BigDecimal.valueOf(10.00);
+            seat.setPricingStrategy(seat.getRow() >= 20 ? new VIPRate(price) : new NormalRate(price));
+        }
+        layout.getSeatByPosition(0, 0).setPricingStrategy(new NormalRate(new BigDecimal("10.0")));
+
+        System.out.println("\n--- Shared Pricing Tiers ---");
+        assertEquals(3, layout.getPricingTiers().size(), "Unpriced, normal and VIP");
+        assertNull(layout.getPricingTiers().get(0));
+        assertEquals(layout.getPricingTier(0, 0), layout.getPricingTier(19, 39));
+        assertNotEquals(layout.getPricingTier(0, 0), layout.getPricingTier(24, 0));
+        assertSame(layout.getPricingStrategy(24, 39), layout.getSeatByPosition(24, 0).getPricingStrategy());
+        assertEquals(0, BigDecimal.valueOf(20).compareTo(layout.getSeatByPosition(24, 5).getPricingStrategy().getPrice()));
+        System.out.println("✓ 1000 seats share " + (layout.getPricingTiers().size() - 1) + " pricing strategies");
+
+        System.out.println("\n--- Lookups Without Copies ---");
+        assertSame(layout.getAllSeats(), layout.getAllSeats());
+        assertThrows(UnsupportedOperationException.class, () -> layout.getAllSeats().set(0, null));
+        assertEquals(1000, layout.getAllSeats().size());
+        assertEquals(layout.getSeatByPosition(3, 7), layout.getAllSeats().get(3 * 40 + 7), "Row-major order");
+        assertEquals(layout.getSeatByPosition(3, 7), layout.getSeatByNumber("3-7"));
+        assertNotSame(layout.getSeatByPosition(3, 7), layout.getSeatByPosition(3, 7), "Seats are views made on demand");
+        assertEquals(1000, new HashSet<>(layout.getAllSeats()).size(), "One seat per position");
+        assertEquals("3-7", layout.getSeatByPosition(3, 7).getSeatNumber());
+        assertNull(layout.getSeatByNumber("30-7"));
+        assertNull(layout.getSeatByPosition(25, 0));
+        Seat aisle = new Seat("A1", new PremiumRate(BigDecimal.valueOf(15)));
+        Seat view = layout.getSeatByPosition(0, 1);
+        Set<Seat> reserved = new HashSet<>(Collections.singleton(aisle));
+        layout.addSeat("A1", 0, 1, aisle);
+        assertTrue(reserved.contains(aisle), "Placing a seat keeps its hash");
+        assertSame(aisle, layout.getSeatByNumber("A1"));
+        assertSame(aisle, layout.getSeatByPosition(0, 1));
+        assertNull(layout.getSeatByNumber("0-1"));
+        assertNotEquals(aisle, view, "A placed seat keeps identity equality");
+        assertEquals(0, BigDecimal.valueOf(15).compareTo(layout.getPricingStrategy(0, 1).getPrice()));
+        layout.addSeat("A1B", 0, 1, new Seat("A1B", new NormalRate(BigDecimal.ONE)));
+        assertNull(layout.getSeatByNumber("A1"));
+        assertEquals(0, BigDecimal.valueOf(15).compareTo(aisle.getPricingStrategy().getPrice()), "A replaced seat keeps its price");
+        assertTrue(reserved.contains(aisle), "Replacing a seat keeps its hash");
+        System.out.println("✓ Position and number lookups are O(1); seats are views and getAllSeats is a read-only view");
+
+        System.out.println("\n--- One Layout for Many Rooms ---");
+        Room left = new Room("L", layout);
+        Room right = new Room("R", layout);
+        Movie movie = new Movie("Premiere", "Drama", 120);
+        MovieBookingSystem bookingSystem = new MovieBookingSystem();
+        Screening inLeft = new Screening(movie, left, LocalDateTime.now(), LocalDateTime.now().plusHours(2));
+        Screening inRight = new Screening(movie, right, LocalDateTime.now(), LocalDateTime.now().plusHours(2));
+        bookingSystem.addScreening(movie, inLeft);
+        bookingSystem.addScreening(movie, inRight);
+        Seat seat = layout.getSeatByPosition(22, 20);
+        assertEquals(0, BigDecimal.valueOf(20).compareTo(bookingSystem.bookTicket(inLeft, seat).getPrice()));
+        assertTrue(bookingSystem.getAvailableSeats(inRight).contains(seat), "Seat plans are shared, sales are not");
+        System.out.println("✓ Rooms built to the same plan share one layout");
+        System.out.println("=== Flyweight Layout Test Completed Successfully ===\n");
+    }
+
+    @Test
+    public void testBookingJournalRecovers() throws Exception {
+        System.out.println("\n=== Testing Booking Journal ===");
+        Path directory = Files.createTempDirectory("booking-journal");
+        try {
+            Room room = new Room("1", new Layout(5, 10));
+            for (Seat seat : room.getLayout().getAllSeats()) {
+                seat.setPricingStrategy(new NormalRate(BigDecimal.TEN));
+            }
+            Layout layout = room.getLayout();
+            Movie movie = new Movie("Premiere", "Drama", 120);
+            LocalDateTime start = LocalDateTime.now().plusDays(1);
+            Screening screening = new Screening(movie, room, start, start.plusHours(2));
+            boolean[][] sold = new boolean[5][10];
+            int soldCount = 0;
+            try (MovieBookingSystem bookingSystem = new MovieBookingSystem()) {
+                bookingSystem.addScreening(movie, screening);
+                BookingJournal journal = bookingSystem.enableJournal(directory, Duration.ofHours(1));
+
+                System.out.println("\n--- Journaling Seat Changes ---");
+                Ticket cancelled = bookingSystem.bookTicket(screening, layout.getSeatByPosition(0, 0));
+                bookingSystem.bookOrder(screening, List.of(layout.getSeatByPosition(1, 0), layout.getSeatByPosition(1, 1)));
+                assertTrue(bookingSystem.holdSeat(screening, layout.getSeatByPosition(0, 1), "alice"));
+                bookingSystem.bookHeldSeat(screening, layout.getSeatByPosition(0, 1), "alice");
+                assertTrue(bookingSystem.holdSeat(screening, layout.getSeatByPosition(0, 2), "bob"));
+                assertTrue(bookingSystem.holdSeat(screening, layout.getSeatByPosition(0, 3), "carol"));
+                assertTrue(bookingSystem.releaseSeat(screening, layout.getSeatByPosition(0, 3), "carol"));
+                bookingSystem.cancelTicket(cancelled);
+                assertFalse(screening.getSeatAvailability().isBooked(0, 0), "A cancelled seat is back on sale");
+                assertThrows(IllegalStateException.class, () -> bookingSystem.cancelTicket(cancelled));
+                assertEquals(4, journal.getTakenCount(screening.getId()), "Three sold seats and bob's hold");
+                journal.writeSnapshot();
+                assertEquals(journal.getAppendedBytes(), journal.getSnapshotOffset());
+                assertEquals(2, bookingSystem.bookBestAvailable(screening, 2).size());
+                for (int row = 0; row < 5; row++) {
+                    for (int column = 0; column < 10; column++) {
+                        sold[row][column] = screening.getSeatAvailability().isBooked(row, column);
+                    }
+                }
+                sold[0][2] = false;  // Only held
+                for (boolean[] row : sold) {
+                    for (boolean seat : row) {
+                        soldCount += seat ? 1 : 0;
+                    }
+                }
+                journal.close();
+            }
+            System.out.println("✓ Sales, holds, releases and cancellations are appended to the log");
+
+            System.out.println("\n--- Recovery from Snapshot and Log Tail ---");
+            try (MovieBookingSystem restarted = new MovieBookingSystem()) {
+                Screening recreated = new Screening(screening.getId(), movie, room, start, start.plusHours(2));
+                restarted.addScreening(movie, recreated);
+                BookingJournal reopened = restarted.enableJournal(directory, Duration.ofHours(1));
+                try {
+                    assertEquals(2, reopened.getReplayedOnOpen(), "Only the records after the snapshot are replayed");
+                    for (int row = 0; row < 5; row++) {
+                        for (int column = 0; column < 10; column++) {
+                            assertEquals(sold[row][column], recreated.getSeatAvailability().isBooked(row, column),
+                                    "Seat " + row + "-" + column);
+                        }
+                    }
+                    List<Ticket> recovered = restarted.getTicketsForScreening(recreated);
+                    assertEquals(soldCount, recovered.size(), "Every sale comes back as a ticket");
+                    Ticket alices = recovered.stream()
+                            .filter(t -> t.getSeat().getRow() == 0 && t.getSeat().getColumn() == 1).findFirst().orElseThrow();
+                    assertEquals(0, BigDecimal.TEN.compareTo(alices.getPrice()), "Priced from the layout");
+                    restarted.cancelTicket(alices);
+                    assertFalse(recreated.getSeatAvailability().isBooked(0, 1), "A recovered sale can be cancelled");
+                    assertEquals(soldCount - 1, restarted.getTicketCount(recreated));
+                    assertTrue(restarted.holdSeat(recreated, layout.getSeatByPosition(0, 2), "dave"),
+                            "A seat only held before the restart is free again");
+                    assertThrows(IllegalStateException.class, () -> restarted.bookTicket(recreated, layout.getSeatByPosition(1, 1)));
+                    System.out.println("✓ Seats sold before the restart stay sold as tickets; abandoned holds are released");
+
+                    System.out.println("\n--- Analytics from the Log ---");
+                    Map<BookingJournal.EventType, Integer> counts = new EnumMap<>(BookingJournal.EventType.class);
+                    reopened.forEachEvent((type, screeningId, row, column, timestampMillis, userHash) -> {
+                        assertEquals(screening.getId(), screeningId);
+                        counts.merge(type, 1, Integer::sum);
+                    });
+                    assertEquals(6, counts.get(BookingJournal.EventType.BOOK).intValue());
+                    assertEquals(4, counts.get(BookingJournal.EventType.HOLD).intValue());
+                    assertEquals(2, counts.get(BookingJournal.EventType.RELEASE).intValue(), "Carol's release and bob's on recovery");
+                    assertEquals(2, counts.get(BookingJournal.EventType.CANCEL).intValue(), "Before and after the restart");
+                    System.out.println("✓ Event counts: " + counts);
+                } finally {
+                    reopened.close();
+                }
+            }
+
+            System.out.println("\n--- Torn Record ---");
+            Path torn = directory.resolve("torn");
+            try (BookingJournal log = BookingJournal.open(torn)) {
+                for (int column = 0; column < 4; column++) {
+                    log.append(BookingJournal.EventType.BOOK, screening, 4, column, null);
+                }
+            }
+            try (FileChannel file = FileChannel.open(torn.resolve("bookings.log"), StandardOpenOption.WRITE)) {
+                file.write(ByteBuffer.allocate(4), 2 * 32 + 28);  // The third record's checksum
+            }
+            try (BookingJournal log = BookingJournal.open(torn)) {
+                assertEquals(2, log.getReplayedOnOpen(), "Replay stops at the torn record");
+                log.append(BookingJournal.EventType.BOOK, screening, 3, 0, null);
+            }
+            try (BookingJournal log = BookingJournal.open(torn)) {
+                assertEquals(3, log.getReplayedOnOpen());
+                Set<Integer> booked = new HashSet<>();
+                log.forEachEvent((type, screeningId, row, column, timestampMillis, userHash) ->
+                        booked.add(row * 10 + column));
+                assertEquals(Set.of(40, 41, 30), booked, "The record after the torn one is never replayed");
+            }
+            System.out.println("✓ Records past a torn one are dropped on recovery");
+
+            System.out.println("\n--- Recovery Time ---");
+            Path large = directory.resolve("large");
+            Room hall = new Room("2", new Layout(20, 50));
+            Screening busy = new Screening(movie, hall, start, start.plusHours(2));
+            int events = 500_000;
+            try (BookingJournal log = BookingJournal.open(large)) {
+                for (int i = 0; i < events; i++) {
+                    int seat = (i >> 1) % 1000;
+                    log.append(i % 2 == 0 ? BookingJournal.EventType.BOOK : BookingJournal.EventType.CANCEL,
+                            busy, seat / 50, seat % 50, null);
+                }
+                log.append(BookingJournal.EventType.BOOK, busy, 7, 7, null);
+            }
+            long started = System.nanoTime();
+            try (BookingJournal log = BookingJournal.open(large)) {
+                long millis = (System.nanoTime() - started) / 1_000_000;
+                assertEquals(events + 1, log.getReplayedOnOpen());
+                assertEquals(1, log.getTakenCount(busy.getId()));
+                System.out.println("✓ Replayed " + (events + 1) + " events without a snapshot in " + millis + " ms");
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+        System.out.println("=== Booking Journal Test Completed Successfully ===\n");
+    }
+
+    @Test
+    public void testLoadHarness() throws Exception {
+        System.out.println("\n=== Testing Load Harness ===");
+        // A small run; timing and contention vary with the machine, so only the invariants are checked.
+        // LoadBenchmark.main runs the full 100k-customer rush.
+        LoadReport report = LoadBenchmark.run(2_000, 8, 20, 7L);
+        System.out.println(report);
+        assertEquals(2_000, report.getUsers());
+        assertEquals(report.getUsers(), report.getCheckedOut() + report.getReleased() + report.getWalkedAway()
+                + report.getGaveUp() + report.getSoldOut(), "Every customer's session ends one way");
+        assertEquals(0, report.getOversellViolations());
+        System.out.println("✓ Every session is accounted for and no seat is sold twice");
+        System.out.println("=== Load Harness Test Completed Successfully ===\n");
+    }
 }
@@ -1,58 +1,169 @@
 package movie_ticket.location;
 
+import movie_ticket.rate.PricingStrategy;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
 // Represents the seating layout of a cinema room.
+//
+// A layout stores no seat objects for its own positions. Each position holds a small tier index into a
+// table of distinct pricing strategies, so a room of a thousand seats at three prices holds three
+// strategy objects and a short per seat. Seats are views created on demand from their row and column,
+// which read and write the position's tier and compare equal when they stand for the same position.
+// Only seats placed with addSeat, such as renamed aisle seats, are kept as objects.
+//
+// Layouts are mutable: prices can be changed and seats replaced, and every room sharing a layout sees
+// the change. Set a layout up before its rooms go on sale.
 public class Layout {
+    private static final int MAX_TIERS = Short.MAX_VALUE;
+
     private final int rows;
     private final int columns;
-    
-    // Maps seat numbers (e.g., "0-0") to Seat objects for direct access
-    private final Map<String, Seat> seatsByNumber;
-    
-    // Nested map for position-based access (row → column → seat)
-    private final Map<Integer, Map<Integer, Seat>> seatsByPosition;
+    private final List<Seat> allSeats;   // Read-only view over every position, handed out without copying
+    private final short[] pricingTiers;  // [row * columns + column] index into tiers; 0 while unpriced
+    private volatile PricingStrategy[] tiers = {null};  // Distinct strategies, replaced whole when one is added
+
+    // Seats placed with addSeat, by position; every other position is served by a view
+    private final Map<Integer, Seat> placedSeats;
+    // Placed seats whose number is not the default "row-column" form; the others are found by parsing
+    private final Map<String, Seat> renamedSeats;
 
     public Layout(int rows, int columns) {
+        if (rows < 0 || columns < 0) {
+            throw new IllegalArgumentException("Layout size cannot be negative");
+        }
         this.rows = rows;
         this.columns = columns;
-        this.seatsByNumber = new HashMap<>();
-        this.seatsByPosition = new HashMap<>();
-        initializeLayout();
+        this.allSeats = new SeatList();
+        this.pricingTiers = new short[rows * columns];
+        this.placedSeats = new HashMap<>();
+        this.renamedSeats = new HashMap<>();
     }
 
-    // Creates seats for all positions with default null pricing
-    private void initializeLayout() {
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < columns; j++) {
-                String seatNumber = i + "-" + j;
-                addSeat(seatNumber, i, j, new Seat(seatNumber, null));
-            }
+    // Puts the seat at the position, replacing the seat there; the seat keeps its price. A seat placed
+    // before keeps the price it had here, while views of the position now stand for the new seat. A view
+    // of another position is not moved: a new seat with its number and price is placed instead.
+    public void addSeat(String seatNumber, int row, int column, Seat seat) {
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            throw new IllegalArgumentException("Seat " + seatNumber + " at (" + row + ", " + column
+                    + ") is outside the " + rows + "x" + columns + " layout");
+        }
+        if (seat.isView()) {
+            seat = new Seat(seat.getSeatNumber(), seat.getPricingStrategy());
+        }
+        int index = row * columns + column;
+        PricingStrategy pricing = seat.getPricingStrategy();
+        Seat replaced = placedSeats.get(index);
+        if (replaced != null && replaced != seat) {
+            renamedSeats.remove(replaced.getSeatNumber(), replaced);
+            replaced.detach();
         }
+        if (!seatNumber.equals(row + "-" + column)) {
+            renamedSeats.put(seatNumber, seat);
+        }
+        placedSeats.put(index, seat);
+        seat.attach(this, row, column);
+        setPricingStrategy(row, column, pricing);
     }
 
-    public void addSeat(String seatNumber, int row, int column, Seat seat) {
-        // Store seat in number-based lookup map
-        seatsByNumber.put(seatNumber, seat);
-        // Store seat in position-based lookup map
-        seatsByPosition
-                .computeIfAbsent(row, k -> new HashMap<>())
-                .put(column, seat);
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
     }
 
     public Seat getSeatByNumber(String seatNumber) {
-        return seatsByNumber.get(seatNumber);
+        Seat renamed = renamedSeats.get(seatNumber);
+        if (renamed != null) {
+            return renamed;
+        }
+        int dash = seatNumber.indexOf('-');
+        try {
+            Seat seat = getSeatByPosition(Integer.parseInt(seatNumber.substring(0, dash)),
+                    Integer.parseInt(seatNumber.substring(dash + 1)));
+            return seat != null && seat.getSeatNumber().equals(seatNumber) ? seat : null;
+        } catch (RuntimeException notRowColumn) {
+            return null;
+        }
     }
 
-    // Gets a seat by its row and column position
+    // Gets a seat by its row and column position: the seat placed there, or a view of the position
     public Seat getSeatByPosition(int row, int column) {
-        Map<Integer, Seat> rowSeats = seatsByPosition.get(row);
-        return (rowSeats != null) ? rowSeats.get(column) : null;
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            return null;
+        }
+        if (!placedSeats.isEmpty()) {
+            Seat placed = placedSeats.get(row * columns + column);
+            if (placed != null) {
+                return placed;
+            }
+        }
+        return new Seat(this, row, column);
     }
 
+    // All seats in row-major order, as a read-only view that creates each seat as it is read
     public List<Seat> getAllSeats() {
-        return List.copyOf(seatsByNumber.values());
+        return allSeats;
+    }
+
+    // Index of the position's price in getPricingTiers, or 0 if no price is set
+    public int getPricingTier(int row, int column) {
+        return pricingTiers[row * columns + column];
+    }
+
+    public PricingStrategy getPricingStrategy(int row, int column) {
+        return tiers[pricingTiers[row * columns + column]];
+    }
+
+    // Distinct prices in use; entry 0 stands for "no price set"
+    public List<PricingStrategy> getPricingTiers() {
+        return Collections.unmodifiableList(Arrays.asList(tiers));
+    }
+
+    // Equal strategies share one tier, so setting the same rate seat by seat does not grow the table
+    public void setPricingStrategy(int row, int column, PricingStrategy pricingStrategy) {
+        pricingTiers[row * columns + column] = (short) tierOf(pricingStrategy);
+    }
+
+    private synchronized int tierOf(PricingStrategy pricingStrategy) {
+        if (pricingStrategy == null) {
+            return 0;
+        }
+        PricingStrategy[] current = tiers;
+        for (int tier = 1; tier < current.length; tier++) {
+            if (current[tier].equals(pricingStrategy)) {
+                return tier;
+            }
+        }
+        if (current.length > MAX_TIERS) {
+            throw new IllegalStateException("A layout supports at most " + MAX_TIERS + " distinct prices");
+        }
+        PricingStrategy[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = pricingStrategy;
+        tiers = grown;
+        return current.length;
+    }
+
+    private final class SeatList extends AbstractList<Seat> implements RandomAccess {
+        @Override
+        public Seat get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Seat " + index + " outside a layout of " + size());
+            }
+            return getSeatByPosition(index / columns, index % columns);
+        }
+
+        @Override
+        public int size() {
+            return rows * columns;
+        }
     }
 }
@@ -2,24 +2,92 @@ package movie_ticket.location;
 
 import movie_ticket.rate.PricingStrategy;
 
+// A seat in a layout holds no price of its own: its pricing is read from and written to the layout's
+// shared pricing tiers. A seat outside any layout keeps its price itself. Views a layout creates on
+// demand are equal when they stand for the same position, so they are interchangeable; their position
+// never changes. A seat built with the public constructor keeps identity equality, even once it is
+// placed in or taken out of a layout, so its hash stays put while it sits in a set or map.
 public class Seat {
-    private final String seatNumber;
-    private PricingStrategy pricingStrategy;
+    private final String seatNumber;  // Null for a layout's view of a position, numbered "row-column"
+    private final boolean view;       // Created by a layout for one position; never attached or detached
+    private PricingStrategy pricingStrategy;  // Only used while the seat belongs to no layout
+    private Layout layout;
+    private int row = -1;     // Position in the layout, set when the seat is added to one
+    private int column = -1;
 
     public Seat(String seatNumber, PricingStrategy pricingStrategy) {
         this.seatNumber = seatNumber;
         this.pricingStrategy = pricingStrategy;
+        this.view = false;
+    }
+
+    // View of a layout position, created by the layout on demand
+    Seat(Layout layout, int row, int column) {
+        this.seatNumber = null;
+        this.view = true;
+        this.layout = layout;
+        this.row = row;
+        this.column = column;
     }
 
     public String getSeatNumber() {
-        return seatNumber;
+        return seatNumber != null ? seatNumber : row + "-" + column;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    boolean isView() {
+        return view;
+    }
+
+    void attach(Layout layout, int row, int column) {
+        this.layout = layout;
+        this.row = row;
+        this.column = column;
+        this.pricingStrategy = null;
+    }
+
+    // Taken out of its layout by a replacement: keeps the price it had there
+    void detach() {
+        this.pricingStrategy = getPricingStrategy();
+        this.layout = null;
+        this.row = -1;
+        this.column = -1;
     }
 
     public PricingStrategy getPricingStrategy() {
-        return pricingStrategy;
+        return layout != null ? layout.getPricingStrategy(row, column) : pricingStrategy;
     }
 
     public void setPricingStrategy(PricingStrategy pricingStrategy) {
-        this.pricingStrategy = pricingStrategy;
+        if (layout != null) {
+            layout.setPricingStrategy(row, column, pricingStrategy);
+        } else {
+            this.pricingStrategy = pricingStrategy;
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!view || !(other instanceof Seat)) {
+            return false;
+        }
+        Seat seat = (Seat) other;
+        return seat.view && layout == seat.layout && row == seat.row && column == seat.column;
+    }
+
+    @Override
+    public int hashCode() {
+        return !view ? System.identityHashCode(this)
+                : System.identityHashCode(layout) * 31 + row * layout.getColumns() + column;
     }
 }
@@ -13,4 +13,14 @@ public class NormalRate implements PricingStrategy {
     public BigDecimal getPrice() {
         return price;
     }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof NormalRate && price.compareTo(((NormalRate) other).price) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return price.stripTrailingZeros().hashCode();
+    }
 }
@@ -13,4 +13,14 @@ public class PremiumRate implements PricingStrategy {
     public BigDecimal getPrice() {
         return price;
     }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof PremiumRate && price.compareTo(((PremiumRate) other).price) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return price.stripTrailingZeros().hashCode();
+    }
 }
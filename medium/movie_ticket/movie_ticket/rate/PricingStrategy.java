@@ -2,6 +2,7 @@ package movie_ticket.rate;
 
 import java.math.BigDecimal;
 
+// Rates are values: equal prices of the same kind compare equal, so they share a pricing tier in a layout
 public interface PricingStrategy {
     BigDecimal getPrice();
 }
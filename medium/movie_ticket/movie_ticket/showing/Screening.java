@@ -4,19 +4,38 @@ import movie_ticket.location.Room;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
 
 // Represents a scheduled screening of a movie in a specific cinema room.
 public class Screening {
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    // Dense number unique within the process, used to pack (screening, seat) into one long key
+    private final int id;
     private final Movie movie;
     private final Room room;
     private final LocalDateTime startTime;
     private final LocalDateTime endTime;
+    // Seats sold for this screening, laid out like the room
+    private final SeatAvailability seatAvailability;
 
     public Screening(Movie movie, Room room, LocalDateTime startTime, LocalDateTime endTime) {
+        this(NEXT_ID.getAndIncrement(), movie, room, startTime, endTime);
+    }
+
+    // Recreates a screening under the id it had before a restart, so journaled bookings find it again
+    public Screening(int id, Movie movie, Room room, LocalDateTime startTime, LocalDateTime endTime) {
+        NEXT_ID.accumulateAndGet(id + 1, Math::max);
+        this.id = id;
         this.movie = movie;
         this.room = room;
         this.startTime = startTime;
         this.endTime = endTime;
+        this.seatAvailability = new SeatAvailability(room.getLayout().getRows(), room.getLayout().getColumns());
+    }
+
+    public int getId() {
+        return id;
     }
 
     public Movie getMovie() {
@@ -35,6 +54,10 @@ public class Screening {
         return endTime;
     }
 
+    public SeatAvailability getSeatAvailability() {
+        return seatAvailability;
+    }
+
     public Duration getDuration() {
         return Duration.between(startTime, endTime);
     }
@@ -0,0 +1,421 @@
+package movie_ticket.showing;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// Booked seats of one screening as a bitmap. Every row starts on a fresh long, and column c of a row
+// is bit c % 64 of the row's word c / 64, so checking a seat is one shift and mask, and a row of up
+// to 64 seats renders from a single word.
+//
+// Seats are claimed with a compare-and-set on their word, so concurrent bookings never lock: two
+// buyers racing for one seat see exactly one CAS succeed, and buyers of different screenings never
+// touch the same memory.
+//
+// Seat maps are served as immutable snapshots built on the read side. A booking, release or order only
+// counts itself in a striped counter once its words are claimed; the next reader sums the counter, and
+// copies the bitmap only if the count moved since the cached snapshot. Writers never copy the map, and
+// busy writers count in separate cells rather than all on one word. A read therefore costs a sum over
+// the counter's cells, plus one O(seats) copy after a change.
+//
+// The snapshot's version is the count added to an epoch taken from the wall clock when the map is
+// created, so it tells a client whether the map it already has is still current, even across a restart:
+// a map recreated later starts above every version the old one handed out, as long as it saw fewer
+// than about a million changes per millisecond it was up.
+public class SeatAvailability {
+    private static final int[] NO_SEATS = new int[0];
+    private static final int EPOCH_SHIFT = 20;  // Versions per millisecond of epoch
+
+    private final int rows;
+    private final int columns;
+    private final int wordsPerRow;
+    private final AtomicLongArray booked;
+    private final LongAdder changes = new LongAdder();  // Counted after each change to the bitmap
+    private final long epoch;                           // First version; later than any earlier map's versions
+    private final AtomicReference<Snapshot> snapshot;   // Latest snapshot built by a reader
+
+    public SeatAvailability(int rows, int columns) {
+        if (rows < 0 || columns < 0) {
+            throw new IllegalArgumentException("Layout size cannot be negative");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.wordsPerRow = (columns + 63) >>> 6;
+        this.booked = new AtomicLongArray(rows * wordsPerRow);
+        this.epoch = System.currentTimeMillis() << EPOCH_SHIFT;
+        this.snapshot = new AtomicReference<>(new Snapshot(epoch, rows, columns, new long[rows * wordsPerRow]));
+    }
+
+    // The current seat map; never older than the last change that completed before the call. Served from
+    // the cached snapshot while no change has been counted since it was built.
+    public Snapshot getSnapshot() {
+        long version = epoch + changes.sum();
+        Snapshot cached = snapshot.get();
+        if (cached.getVersion() == version) {
+            return cached;
+        }
+        // Read the count before copying, so the copy contains at least the changes its version counts
+        long[] words = new long[booked.length()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = booked.get(i);
+        }
+        Snapshot built = new Snapshot(version, rows, columns, words);
+        while (cached.getVersion() < version && !snapshot.compareAndSet(cached, built)) {
+            cached = snapshot.get();  // Another reader cached one first; keep whichever is newer
+        }
+        return built;
+    }
+
+    // The current seat map, or null if its version is still the given one, so it need not be sent again
+    public Snapshot getSnapshotIfChanged(long knownVersion) {
+        if (epoch + changes.sum() == knownVersion) {
+            return null;
+        }
+        return getSnapshot();
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public boolean isBooked(int row, int column) {
+        return (booked.get(wordIndex(row, column)) & (1L << column)) != 0;
+    }
+
+    // Claims the seat; false if someone else already holds it. Retries only when another seat in the
+    // same word changed underneath us.
+    public boolean book(int row, int column) {
+        int index = wordIndex(row, column);
+        long bit = 1L << column;
+        while (true) {
+            long word = booked.get(index);
+            if ((word & bit) != 0) {
+                return false;
+            }
+            if (booked.compareAndSet(index, word, word | bit)) {
+                changed();
+                return true;
+            }
+        }
+    }
+
+    // Frees the seat again; false if it was not booked
+    public boolean release(int row, int column) {
+        int index = wordIndex(row, column);
+        long bit = 1L << column;
+        while (true) {
+            long word = booked.get(index);
+            if ((word & bit) == 0) {
+                return false;
+            }
+            if (booked.compareAndSet(index, word, word & ~bit)) {
+                changed();
+                return true;
+            }
+        }
+    }
+
+    // Claims count adjacent seats of a row starting at fromColumn, all or none. Words are claimed left
+    // to right, each with one CAS; if a seat turns out to be taken, the words already claimed are given
+    // back and the call returns false.
+    public boolean bookRange(int row, int fromColumn, int count) {
+        checkRange(row, fromColumn, count);
+        int first = fromColumn >>> 6;
+        int last = (fromColumn + count - 1) >>> 6;
+        for (int word = first; word <= last; word++) {
+            int index = row * wordsPerRow + word;
+            long mask = rangeMask(word, fromColumn, count);
+            while (true) {
+                long current = booked.get(index);
+                if ((current & mask) != 0) {
+                    for (int claimed = first; claimed < word; claimed++) {
+                        clearBits(row * wordsPerRow + claimed, rangeMask(claimed, fromColumn, count));
+                    }
+                    if (word > first) {
+                        changed();  // A reader may have copied the words we gave back
+                    }
+                    return false;
+                }
+                if (booked.compareAndSet(index, current, current | mask)) {
+                    break;
+                }
+            }
+        }
+        changed();
+        return true;
+    }
+
+    // Claims a set of seats anywhere in the room, all or none. The seats are grouped by word and the words
+    // claimed in ascending order, one CAS each; on the first word holding a taken seat, the words already
+    // claimed are given back. Claiming in a fixed order means that of two overlapping orders at least one
+    // gets through, and orders that share no word never retry.
+    //
+    // Returns the positions in rows and columns of the seats found taken: those in the word that stopped
+    // the claim, and those in the words after it as read right then. Empty if every seat was claimed.
+    public int[] bookAll(int[] rows, int[] columns) {
+        if (rows.length != columns.length) {
+            throw new IllegalArgumentException("Need one column per row");
+        }
+        long[] seats = new long[rows.length];  // word index << 6 | bit, so sorting groups seats by word
+        for (int i = 0; i < seats.length; i++) {
+            seats[i] = ((long) wordIndex(rows[i], columns[i]) << 6) | (columns[i] & 63);
+        }
+        Arrays.sort(seats);
+        int[] words = new int[seats.length];
+        long[] masks = new long[seats.length];
+        int groups = 0;
+        for (int i = 0; i < seats.length; i++) {
+            if (i > 0 && seats[i] == seats[i - 1]) {
+                int word = (int) (seats[i] >>> 6);
+                throw new IllegalArgumentException("Seat (" + word / wordsPerRow + ", "
+                        + ((word % wordsPerRow << 6) + (int) (seats[i] & 63)) + ") requested twice");
+            }
+            int word = (int) (seats[i] >>> 6);
+            if (groups == 0 || words[groups - 1] != word) {
+                words[groups++] = word;
+            }
+            masks[groups - 1] |= 1L << seats[i];
+        }
+        for (int group = 0; group < groups; group++) {
+            while (true) {
+                long current = booked.get(words[group]);
+                if ((current & masks[group]) != 0) {
+                    for (int claimed = 0; claimed < group; claimed++) {
+                        clearBits(words[claimed], masks[claimed]);
+                    }
+                    if (group > 0) {
+                        changed();  // A reader may have copied the words we gave back
+                    }
+                    return takenSeats(rows, columns, words, masks, group, groups, current);
+                }
+                if (booked.compareAndSet(words[group], current, current | masks[group])) {
+                    break;
+                }
+            }
+        }
+        changed();
+        return NO_SEATS;
+    }
+
+    // The conflicting word's taken bits as the failed claim saw them, then one read of each later word
+    private int[] takenSeats(int[] rows, int[] columns, int[] words, long[] masks, int failed, int groups,
+                             long failedWord) {
+        long[] taken = new long[groups];
+        taken[failed] = failedWord & masks[failed];
+        for (int group = failed + 1; group < groups; group++) {
+            taken[group] = booked.get(words[group]) & masks[group];
+        }
+        int[] positions = new int[rows.length];
+        int count = 0;
+        for (int i = 0; i < rows.length; i++) {
+            int group = Arrays.binarySearch(words, 0, groups, wordIndex(rows[i], columns[i]));
+            if ((taken[group] & (1L << columns[i])) != 0) {
+                positions[count++] = i;
+            }
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    // Start column of the run of length free seats in the row that begins closest to nearColumn, or -1
+    // if the row has no such gap. Shifting the free bits onto themselves and ANDing leaves a bit set
+    // exactly where a run of the doubled length starts, so a run of n takes about log2(n) passes over
+    // the row's words.
+    public int findFreeRun(int row, int length, int nearColumn) {
+        checkRange(row, 0, length);
+        long[] starts = new long[wordsPerRow];
+        for (int word = 0; word < wordsPerRow; word++) {
+            starts[word] = getAvailableWord(row, word);
+        }
+        for (int covered = 1; covered < length; ) {
+            int shift = Math.min(covered, length - covered);
+            andShiftedRight(starts, shift);
+            covered += shift;
+        }
+        int near = Math.max(0, Math.min(nearColumn, columns - 1));
+        int after = nextSetBit(starts, near);
+        int before = previousSetBit(starts, near);
+        if (after < 0) {
+            return before;
+        }
+        return before < 0 || after - near <= near - before ? after : before;
+    }
+
+    // Replaces the whole bitmap, laid out like getRowWord, when recovering a screening from a journal;
+    // call before the screening takes bookings
+    public void restore(long[] words) {
+        if (words.length != booked.length()) {
+            throw new IllegalArgumentException("Expected " + booked.length() + " words for a " + rows + "x" + columns + " map");
+        }
+        for (int i = 0; i < words.length; i++) {
+            booked.set(i, words[i]);
+        }
+        changed();
+    }
+
+    // Counted from the words rather than kept in a counter that every booking would have to update exactly
+    public int getBookedCount() {
+        int count = 0;
+        for (int i = 0; i < booked.length(); i++) {
+            count += Long.bitCount(booked.get(i));
+        }
+        return count;
+    }
+
+    public int getAvailableCount() {
+        return rows * columns - getBookedCount();
+    }
+
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    // Booked bits of columns word * 64 to word * 64 + 63 of the row
+    public long getRowWord(int row, int word) {
+        return booked.get(row * wordsPerRow + word);
+    }
+
+    // Free bits of the same columns, with the bits past the last column cleared
+    public long getAvailableWord(int row, int word) {
+        int remaining = columns - (word << 6);
+        long mask = remaining >= 64 ? -1L : (1L << remaining) - 1;
+        return ~booked.get(row * wordsPerRow + word) & mask;
+    }
+
+    // Counts a completed change, once per booking, release or order; readers rebuild their snapshot from it.
+    // The adder spreads contended increments over separate cells, so writers do not meet on one word.
+    private void changed() {
+        changes.increment();
+    }
+
+    // Immutable seat map of a screening at one version
+    public static final class Snapshot {
+        private final long version;
+        private final int rows;
+        private final int columns;
+        private final int wordsPerRow;
+        private final long[] booked;
+        private final int bookedCount;
+
+        private Snapshot(long version, int rows, int columns, long[] booked) {
+            this.version = version;
+            this.rows = rows;
+            this.columns = columns;
+            this.wordsPerRow = (columns + 63) >>> 6;
+            this.booked = booked;
+            int count = 0;
+            for (long word : booked) {
+                count += Long.bitCount(word);
+            }
+            this.bookedCount = count;
+        }
+
+        // Grows with every change and is not reused by a map recreated after a restart, so it can serve as
+        // an ETag for the map
+        public long getVersion() {
+            return version;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getColumns() {
+            return columns;
+        }
+
+        public boolean isBooked(int row, int column) {
+            if (row < 0 || row >= rows || column < 0 || column >= columns) {
+                throw new IndexOutOfBoundsException("Seat (" + row + ", " + column + ") outside " + rows + "x" + columns);
+            }
+            return (booked[row * wordsPerRow + (column >>> 6)] & (1L << column)) != 0;
+        }
+
+        public int getBookedCount() {
+            return bookedCount;
+        }
+
+        public int getAvailableCount() {
+            return rows * columns - bookedCount;
+        }
+
+        public int getWordsPerRow() {
+            return wordsPerRow;
+        }
+
+        // Booked bits of columns word * 64 to word * 64 + 63 of the row
+        public long getRowWord(int row, int word) {
+            return booked[row * wordsPerRow + word];
+        }
+    }
+
+    // bits[i] &= bit i + shift of the whole row, treating bits[] as one long bit string
+    private static void andShiftedRight(long[] bits, int shift) {
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+        for (int word = 0; word < bits.length; word++) {
+            int source = word + wordShift;
+            long low = source < bits.length ? bits[source] : 0;
+            long high = source + 1 < bits.length ? bits[source + 1] : 0;
+            bits[word] &= bitShift == 0 ? low : (low >>> bitShift) | (high << (64 - bitShift));
+        }
+    }
+
+    private static int nextSetBit(long[] bits, int from) {
+        int word = from >>> 6;
+        long current = bits[word] & (-1L << from);
+        while (current == 0) {
+            if (++word == bits.length) {
+                return -1;
+            }
+            current = bits[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(current);
+    }
+
+    private static int previousSetBit(long[] bits, int from) {
+        int word = from >>> 6;
+        long current = bits[word] & (-1L >>> (63 - (from & 63)));
+        while (current == 0) {
+            if (--word < 0) {
+                return -1;
+            }
+            current = bits[word];
+        }
+        return (word << 6) + 63 - Long.numberOfLeadingZeros(current);
+    }
+
+    // Bits of the given word that fall in [fromColumn, fromColumn + count)
+    private static long rangeMask(int word, int fromColumn, int count) {
+        int from = Math.max(fromColumn - (word << 6), 0);
+        int to = Math.min(fromColumn + count - (word << 6), 64);
+        return (to == 64 ? -1L : (1L << to) - 1) & (-1L << from);
+    }
+
+    private void clearBits(int index, long mask) {
+        while (true) {
+            long current = booked.get(index);
+            if (booked.compareAndSet(index, current, current & ~mask)) {
+                return;
+            }
+        }
+    }
+
+    private void checkRange(int row, int fromColumn, int count) {
+        if (row < 0 || row >= rows || count <= 0 || fromColumn < 0 || fromColumn + count > columns) {
+            throw new IndexOutOfBoundsException("Seats (" + row + ", " + fromColumn + ") + " + count
+                    + " outside " + rows + "x" + columns);
+        }
+    }
+
+    private int wordIndex(int row, int column) {
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            throw new IndexOutOfBoundsException("Seat (" + row + ", " + column + ") outside " + rows + "x" + columns);
+        }
+        return row * wordsPerRow + (column >>> 6);
+    }
+}
@@ -0,0 +1,265 @@
+package movie_ticket.simulation;
+
+import movie_ticket.MovieBookingSystem;
+import movie_ticket.location.Seat;
+import movie_ticket.showing.Screening;
+import movie_ticket.showing.SeatAvailability;
+import movie_ticket.ticket.Ticket;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Load generator driving MovieBookingSystem with a crowd of simulated customers.
+//
+// Each customer picks a screening, skewed towards the hot ones by a Zipf distribution, browses the
+// day's programme and the screening's seat map, and holds a seat for each member of the party. A seat
+// that someone else took between the seat map and the hold counts as contention, and the customer
+// tries another one. Holding customers then either abandon the cart, by releasing the seats or by
+// walking away and letting the holds expire, or check out.
+//
+// Customers run as tasks on a fixed pool of platform threads, so the pool size is the number of
+// customers in the middle of a session at any moment, and they go as fast as the system lets them:
+// the run measures where the system saturates rather than replaying real think times. Every ticket is
+// counted per seat as it is sold, and checked against the final ticket lists and seat bitmaps, so a
+// seat sold twice shows up as an oversell violation.
+public class BookingLoadGenerator {
+    private static final int MAX_HOLD_ATTEMPTS = 3;  // Seats tried per party member before giving up
+
+    private final MovieBookingSystem bookingSystem;
+    private final List<Screening> screenings;
+    private final double[] screeningCdf;  // Cumulative Zipf weights, hottest screening first
+    private final double abandonRate;
+    private final int maxPartySize;
+    private final long seed;
+
+    // Screenings are listed hottest first; a skew of 0 spreads customers evenly, 1 or more crowds the first few
+    public BookingLoadGenerator(MovieBookingSystem bookingSystem, List<Screening> screenings, double hotScreeningSkew,
+                                double abandonRate, int maxPartySize, long seed) {
+        if (screenings.isEmpty() || hotScreeningSkew < 0 || abandonRate < 0 || abandonRate > 1 || maxPartySize <= 0) {
+            throw new IllegalArgumentException("Need screenings, a non-negative skew, an abandon rate in [0, 1]"
+                    + " and a positive party size");
+        }
+        this.bookingSystem = bookingSystem;
+        this.screenings = List.copyOf(screenings);
+        this.screeningCdf = new double[screenings.size()];
+        double total = 0;
+        for (int i = 0; i < screeningCdf.length; i++) {
+            total += 1 / Math.pow(i + 1, hotScreeningSkew);
+            screeningCdf[i] = total;
+        }
+        for (int i = 0; i < screeningCdf.length; i++) {
+            screeningCdf[i] /= total;
+        }
+        this.abandonRate = abandonRate;
+        this.maxPartySize = maxPartySize;
+        this.seed = seed;
+    }
+
+    // Runs the given number of customers, concurrentUsers at a time, and waits for all of them to finish
+    public LoadReport run(int users, int concurrentUsers) throws InterruptedException {
+        if (users <= 0 || concurrentUsers <= 0) {
+            throw new IllegalArgumentException("Need at least one user and one concurrent user");
+        }
+        Run run = new Run(users);
+        ExecutorService pool = Executors.newFixedThreadPool(concurrentUsers);
+        long wallStart = System.nanoTime();
+        try {
+            for (int user = 0; user < users; user++) {
+                int id = user;
+                pool.execute(() -> run.simulate(id));
+            }
+            pool.shutdown();
+            if (!pool.awaitTermination(1, TimeUnit.HOURS)) {
+                throw new IllegalStateException("Load run did not finish within an hour");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        Duration wallClock = Duration.ofNanos(System.nanoTime() - wallStart);
+        if (run.failure.sum() > 0) {
+            throw new IllegalStateException(run.failure.sum() + " customers failed with an unexpected exception");
+        }
+        return run.report(wallClock, concurrentUsers);
+    }
+
+    // Counters and latencies of one run; each customer writes only its own latency slots
+    private final class Run {
+        final long[] browseNanos;
+        final long[] holdNanos;
+        final long[] checkoutNanos;
+        final AtomicIntegerArray[] salesPerSeat = new AtomicIntegerArray[screenings.size()];
+        final LongAdder holdAttempts = new LongAdder();
+        final LongAdder holdConflicts = new LongAdder();
+        final LongAdder gaveUp = new LongAdder();
+        final LongAdder soldOut = new LongAdder();
+        final LongAdder released = new LongAdder();
+        final LongAdder walkedAway = new LongAdder();
+        final LongAdder checkedOut = new LongAdder();
+        final LongAdder expiredAtCheckout = new LongAdder();
+        final LongAdder ticketsSold = new LongAdder();
+        final LongAdder failure = new LongAdder();
+
+        Run(int users) {
+            browseNanos = filled(users);
+            holdNanos = filled(users);
+            checkoutNanos = filled(users);
+            for (int i = 0; i < salesPerSeat.length; i++) {
+                SeatAvailability availability = screenings.get(i).getSeatAvailability();
+                salesPerSeat[i] = new AtomicIntegerArray(availability.getRows() * availability.getColumns());
+            }
+        }
+
+        void simulate(int user) {
+            try {
+                session(user);
+            } catch (RuntimeException e) {
+                failure.increment();
+            }
+        }
+
+        private void session(int user) {
+            SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + user);
+            String userId = "user-" + user;
+            int target = pickScreening(random.nextDouble());
+            Screening screening = screenings.get(target);
+
+            long started = System.nanoTime();
+            LocalDateTime day = screening.getStartTime().toLocalDate().atStartOfDay();
+            bookingSystem.getScreeningsBetween(day, day.plusDays(1));
+            SeatAvailability.Snapshot seatMap = bookingSystem.getSeatMap(screening);
+            browseNanos[user] = System.nanoTime() - started;
+
+            started = System.nanoTime();
+            int partySize = 1 + random.nextInt(maxPartySize);
+            Seat[] held = new Seat[partySize];
+            int holding = 0;
+            int attempt = 0;
+            for (; holding < partySize && attempt < MAX_HOLD_ATTEMPTS * partySize; attempt++) {
+                Seat seat = pickFreeSeat(screening, seatMap, random);
+                if (seat == null) {
+                    break;
+                }
+                holdAttempts.increment();
+                if (bookingSystem.holdSeat(screening, seat, userId)) {
+                    held[holding++] = seat;
+                } else {
+                    holdConflicts.increment();
+                    seatMap = bookingSystem.getSeatMap(screening);
+                }
+            }
+            if (attempt > 0) {
+                holdNanos[user] = System.nanoTime() - started;
+            }
+            if (holding < partySize) {
+                for (int i = 0; i < holding; i++) {
+                    bookingSystem.releaseSeat(screening, held[i], userId);
+                }
+                if (seatMap.getAvailableCount() < partySize - holding) {
+                    soldOut.increment();
+                } else {
+                    gaveUp.increment();
+                }
+                return;
+            }
+
+            if (random.nextDouble() < abandonRate) {
+                if (random.nextBoolean()) {
+                    for (Seat seat : held) {
+                        bookingSystem.releaseSeat(screening, seat, userId);
+                    }
+                    released.increment();
+                } else {
+                    walkedAway.increment();  // The holds run out on their own
+                }
+                return;
+            }
+            started = System.nanoTime();
+            int columns = screening.getSeatAvailability().getColumns();
+            for (Seat seat : held) {
+                try {
+                    Ticket ticket = bookingSystem.bookHeldSeat(screening, seat, userId);
+                    salesPerSeat[target].incrementAndGet(ticket.getSeat().getRow() * columns + ticket.getSeat().getColumn());
+                    ticketsSold.increment();
+                } catch (IllegalStateException holdExpired) {
+                    expiredAtCheckout.increment();
+                }
+            }
+            checkoutNanos[user] = System.nanoTime() - started;
+            checkedOut.increment();
+        }
+
+        private int pickScreening(double uniform) {
+            int index = Arrays.binarySearch(screeningCdf, uniform);
+            return Math.min(screeningCdf.length - 1, index >= 0 ? index : -index - 1);
+        }
+
+        // A free seat from the seat map, scanning on from a random position; null if the map shows none
+        private Seat pickFreeSeat(Screening screening, SeatAvailability.Snapshot seatMap, SplittableRandom random) {
+            if (seatMap.getAvailableCount() == 0) {
+                return null;
+            }
+            int rows = seatMap.getRows();
+            int columns = seatMap.getColumns();
+            int start = random.nextInt(rows * columns);
+            for (int i = 0; i < rows * columns; i++) {
+                int index = (start + i) % (rows * columns);
+                if (!seatMap.isBooked(index / columns, index % columns)) {
+                    return screening.getRoom().getLayout().getSeatByPosition(index / columns, index % columns);
+                }
+            }
+            return null;
+        }
+
+        // Seats sold more than once by the counters, plus tickets the final state disagrees with
+        private long countOversells() {
+            long violations = 0;
+            for (int i = 0; i < screenings.size(); i++) {
+                Screening screening = screenings.get(i);
+                AtomicIntegerArray sales = salesPerSeat[i];
+                for (int seat = 0; seat < sales.length(); seat++) {
+                    violations += Math.max(0, sales.get(seat) - 1);
+                }
+                Set<Seat> sold = new HashSet<>();
+                for (Ticket ticket : bookingSystem.getTicketsForScreening(screening)) {
+                    Seat seat = ticket.getSeat();
+                    if (!sold.add(seat) || !screening.getSeatAvailability().isBooked(seat.getRow(), seat.getColumn())) {
+                        violations++;
+                    }
+                }
+            }
+            return violations;
+        }
+
+        LoadReport report(Duration wallClock, int concurrentUsers) {
+            long[] ticketsPerScreening = new long[screenings.size()];
+            for (int i = 0; i < ticketsPerScreening.length; i++) {
+                ticketsPerScreening[i] = bookingSystem.getTicketCount(screenings.get(i));
+            }
+            return new LoadReport(browseNanos.length, concurrentUsers, wallClock, holdAttempts.sum(),
+                    holdConflicts.sum(), checkedOut.sum(), released.sum(), walkedAway.sum(), gaveUp.sum(),
+                    soldOut.sum(), expiredAtCheckout.sum(), ticketsSold.sum(), ticketsPerScreening,
+                    countOversells(), recorded(browseNanos), recorded(holdNanos), recorded(checkoutNanos));
+        }
+    }
+
+    private static long[] filled(int length) {
+        long[] nanos = new long[length];
+        Arrays.fill(nanos, -1);
+        return nanos;
+    }
+
+    // The latencies of the customers who reached the phase
+    private static long[] recorded(long[] nanos) {
+        return Arrays.stream(nanos).filter(n -> n >= 0).toArray();
+    }
+}
@@ -0,0 +1,63 @@
+package movie_ticket.simulation;
+
+import movie_ticket.MovieBookingSystem;
+import movie_ticket.location.Cinema;
+import movie_ticket.location.Layout;
+import movie_ticket.location.Room;
+import movie_ticket.rate.NormalRate;
+import movie_ticket.rate.PremiumRate;
+import movie_ticket.showing.Movie;
+import movie_ticket.showing.Screening;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Fixed-seed rush on a programme of four screenings a day per room; compare its throughput and latency
+// percentiles before and after changes to the booking path
+public class LoadBenchmark {
+    private static final int ROOMS = 8;
+    private static final LocalDateTime OPENING = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    public static void main(String[] args) throws InterruptedException {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int concurrentUsers = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int screenings = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        System.out.println(run(users, concurrentUsers, screenings, 42L));
+    }
+
+    // 200-seat rooms with premium back rows, customers in parties of up to 4, a third of carts abandoned,
+    // and a Zipf skew of 1.1 so the first screenings sell out while the last see little traffic
+    public static LoadReport run(int users, int concurrentUsers, int screeningCount, long seed)
+            throws InterruptedException {
+        MovieBookingSystem bookingSystem = new MovieBookingSystem(Duration.ofMillis(200));
+        Cinema cinema = new Cinema("Load Test Cinema", "Downtown");
+        Layout layout = new Layout(10, 20);
+        for (int row = 0; row < layout.getRows(); row++) {
+            for (int column = 0; column < layout.getColumns(); column++) {
+                layout.setPricingStrategy(row, column,
+                        row >= 7 ? new PremiumRate(BigDecimal.valueOf(15)) : new NormalRate(BigDecimal.TEN));
+            }
+        }
+        for (int i = 0; i < ROOMS; i++) {
+            cinema.addRoom(new Room(String.valueOf(i + 1), layout));
+        }
+        bookingSystem.addCinema(cinema);
+        Movie movie = new Movie("Premiere", "Drama", 120);
+        bookingSystem.addMovie(movie);
+
+        List<Screening> screenings = new ArrayList<>();
+        for (int i = 0; i < screeningCount; i++) {
+            LocalDateTime start = OPENING.plusDays(i / (ROOMS * 4)).plusHours(3L * (i / ROOMS % 4));
+            screenings.add(new Screening(movie, cinema.getRooms().get(i % ROOMS), start, start.plus(movie.getDuration())));
+        }
+        bookingSystem.addScreenings(screenings);
+        try {
+            return new BookingLoadGenerator(bookingSystem, screenings, 1.1, 0.3, 4, seed).run(users, concurrentUsers);
+        } finally {
+            bookingSystem.close();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package movie_ticket.simulation;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+public class LoadReport {
+    private final int users;
+    private final int concurrentUsers;
+    private final Duration wallClockDuration;
+    private final long holdAttempts;
+    private final long holdConflicts;       // Holds lost to another customer who got the seat first
+    private final long checkedOut;
+    private final long released;            // Abandoned carts whose seats were given back
+    private final long walkedAway;          // Abandoned carts left to expire
+    private final long gaveUp;              // Customers who could not hold their seats though some were free
+    private final long soldOut;
+    private final long expiredAtCheckout;   // Held seats whose hold ran out before the sale
+    private final long ticketsSold;
+    private final long[] ticketsPerScreening;  // Hottest screening first
+    private final long oversellViolations;
+    private final long[] browseLatencyNanos;   // Sorted, one per customer
+    private final long[] holdLatencyNanos;     // Sorted; holding the whole party, conflicts included, when any seat was tried
+    private final long[] checkoutLatencyNanos; // Sorted; booking the whole party
+
+    LoadReport(int users, int concurrentUsers, Duration wallClockDuration, long holdAttempts, long holdConflicts,
+               long checkedOut, long released, long walkedAway, long gaveUp, long soldOut, long expiredAtCheckout,
+               long ticketsSold, long[] ticketsPerScreening, long oversellViolations, long[] browseLatencyNanos,
+               long[] holdLatencyNanos, long[] checkoutLatencyNanos) {
+        this.users = users;
+        this.concurrentUsers = concurrentUsers;
+        this.wallClockDuration = wallClockDuration;
+        this.holdAttempts = holdAttempts;
+        this.holdConflicts = holdConflicts;
+        this.checkedOut = checkedOut;
+        this.released = released;
+        this.walkedAway = walkedAway;
+        this.gaveUp = gaveUp;
+        this.soldOut = soldOut;
+        this.expiredAtCheckout = expiredAtCheckout;
+        this.ticketsSold = ticketsSold;
+        this.ticketsPerScreening = ticketsPerScreening;
+        this.oversellViolations = oversellViolations;
+        this.browseLatencyNanos = browseLatencyNanos;
+        this.holdLatencyNanos = holdLatencyNanos;
+        this.checkoutLatencyNanos = checkoutLatencyNanos;
+        Arrays.sort(this.browseLatencyNanos);
+        Arrays.sort(this.holdLatencyNanos);
+        Arrays.sort(this.checkoutLatencyNanos);
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getConcurrentUsers() {
+        return concurrentUsers;
+    }
+
+    public Duration getWallClockDuration() {
+        return wallClockDuration;
+    }
+
+    // Completed customer sessions per second
+    public double getUsersPerSecond() {
+        return users * 1e9 / Math.max(1, wallClockDuration.toNanos());
+    }
+
+    public double getTicketsPerSecond() {
+        return ticketsSold * 1e9 / Math.max(1, wallClockDuration.toNanos());
+    }
+
+    public long getHoldAttempts() {
+        return holdAttempts;
+    }
+
+    public long getHoldConflicts() {
+        return holdConflicts;
+    }
+
+    // Share of hold attempts that lost the seat to another customer
+    public double getContentionRate() {
+        return holdAttempts == 0 ? 0 : (double) holdConflicts / holdAttempts;
+    }
+
+    public long getCheckedOut() {
+        return checkedOut;
+    }
+
+    public long getReleased() {
+        return released;
+    }
+
+    public long getWalkedAway() {
+        return walkedAway;
+    }
+
+    public long getGaveUp() {
+        return gaveUp;
+    }
+
+    public long getSoldOut() {
+        return soldOut;
+    }
+
+    public long getExpiredAtCheckout() {
+        return expiredAtCheckout;
+    }
+
+    public long getTicketsSold() {
+        return ticketsSold;
+    }
+
+    // Tickets sold for the screening at the given rank, 0 being the hottest
+    public long getTicketsSold(int screeningRank) {
+        return ticketsPerScreening[screeningRank];
+    }
+
+    // Seats sold more than once, or tickets the seat bitmap does not show as sold; anything but 0 is a bug
+    public long getOversellViolations() {
+        return oversellViolations;
+    }
+
+    // Nearest-rank percentiles, e.g. 0.99 for p99
+    public long getBrowseLatencyNanos(double percentile) {
+        return percentile(browseLatencyNanos, percentile);
+    }
+
+    public long getHoldLatencyNanos(double percentile) {
+        return percentile(holdLatencyNanos, percentile);
+    }
+
+    public long getCheckoutLatencyNanos(double percentile) {
+        return percentile(checkoutLatencyNanos, percentile);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.min(sorted.length - 1, Math.max(0, rank - 1))];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d users, %d at a time, in %d ms (%.0f users/s, %.0f tickets/s)%n", users,
+                concurrentUsers, wallClockDuration.toMillis(), getUsersPerSecond(), getTicketsPerSecond()));
+        sb.append(String.format("  Checked out=%d released=%d walked away=%d gave up=%d sold out=%d%n",
+                checkedOut, released, walkedAway, gaveUp, soldOut));
+        sb.append(String.format("  Tickets=%d, hottest screening %d, coldest %d%n", ticketsSold,
+                ticketsPerScreening[0], ticketsPerScreening[ticketsPerScreening.length - 1]));
+        sb.append(String.format("  Holds attempted=%d lost to contention=%d (%.2f%%), expired at checkout=%d%n",
+                holdAttempts, holdConflicts, getContentionRate() * 100, expiredAtCheckout));
+        appendLatency(sb, "Browse", browseLatencyNanos);
+        appendLatency(sb, "Hold", holdLatencyNanos);
+        appendLatency(sb, "Checkout", checkoutLatencyNanos);
+        sb.append("  Oversell violations: ").append(oversellViolations);
+        return sb.toString();
+    }
+
+    private static void appendLatency(StringBuilder sb, String phase, long[] sorted) {
+        sb.append(String.format("  %-8s latency p50=%dns p90=%dns p99=%dns p99.9=%dns max=%dns%n", phase,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), percentile(sorted, 1.0)));
+    }
+}
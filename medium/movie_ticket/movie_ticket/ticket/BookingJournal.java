@@ -0,0 +1,417 @@
+package movie_ticket.ticket;
+
+import movie_ticket.showing.Screening;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+// Event-sourced record of every seat change: bookings, holds, releases and cancellations are appended
+// as fixed 32-byte records to a memory-mapped log, which is never rewritten and doubles as the input
+// for analytics (forEachEvent).
+//
+// Appending is a few memory writes under a short lock. Durability uses group commit: a caller that
+// needs its record on disk calls commit, and one caller forces everything appended so far while the
+// others wait and find their records already covered, so a burst of bookings costs one force rather
+// than one each.
+//
+// The journal folds every event into its own copy of each screening's seat bitmaps, and a snapshot
+// writes that copy together with the log offset it reflects. Opening a journal loads the latest
+// snapshot and replays only the log after it, so recovery takes time proportional to the recent
+// traffic, not to the whole history. Seats that were held but not sold when the process stopped are
+// released on recovery.
+//
+// Callers keep the per-seat order of the log equal to the order of the changes: a change that takes
+// a seat is recorded after its bitmap CAS succeeds, and a change that frees a seat is recorded before
+// the bit is cleared, so nobody can take the seat again ahead of the record.
+public class BookingJournal implements AutoCloseable {
+    public enum EventType {
+        BOOK,
+        HOLD,
+        RELEASE,  // A hold given back or expired
+        CANCEL    // A sold ticket cancelled
+    }
+
+    // Receives the log's events in order
+    public interface EventVisitor {
+        void onEvent(EventType type, int screeningId, int row, int column, long timestampMillis, int userHash);
+    }
+
+    static final int RECORD_BYTES = 32;
+    private static final long CHUNK_BYTES = 16L << 20;  // Mapped a chunk at a time; a multiple of RECORD_BYTES
+    private static final String LOG_FILE = "bookings.log";
+    private static final String SNAPSHOT_FILE = "bookings.snapshot";
+    private static final int SNAPSHOT_MAGIC = 0x4D54534E;  // "MTSN"
+    private static final EventType[] TYPES = EventType.values();
+
+    private final Path directory;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();  // Guarded by this
+    private final Map<Integer, SeatState> seatStates = new HashMap<>();  // Guarded by this
+    private long appended;  // End of the last record; guarded by this
+    private volatile long durable;  // Everything below this has been forced to disk
+    private final Object commitLock = new Object();
+    private final Object snapshotLock = new Object();  // One snapshot written at a time
+    private volatile long snapshotOffset;  // Log offset of the latest snapshot
+    private long replayedOnOpen;
+    private volatile Thread snapshotThread;
+    private volatile boolean running;
+    private volatile IOException snapshotFailure;  // From the latest background snapshot, if it failed
+
+    private BookingJournal(Path directory, FileChannel channel) {
+        this.directory = directory;
+        this.channel = channel;
+    }
+
+    // Opens the journal in the directory, creating it if needed, and recovers the seat state it records
+    public static BookingJournal open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel channel = FileChannel.open(directory.resolve(LOG_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        BookingJournal journal = new BookingJournal(directory, channel);
+        journal.recover();
+        return journal;
+    }
+
+    // Records an event and returns the log offset to commit for it to be durable
+    public long append(EventType type, Screening screening, int row, int column, String userId) {
+        int screeningId = screening.getId();
+        int rows = screening.getSeatAvailability().getRows();
+        int columns = screening.getSeatAvailability().getColumns();
+        return append(type, screeningId, row, column, rows, columns, System.currentTimeMillis(),
+                userId == null ? 0 : userId.hashCode());
+    }
+
+    // Returns once every record up to the offset is on disk, forcing the log if nobody else is doing so
+    public void commit(long offset) {
+        if (durable >= offset) {
+            return;
+        }
+        synchronized (commitLock) {
+            if (durable >= offset) {
+                return;  // Covered by the force that just finished
+            }
+            long from = durable;
+            long upTo;
+            List<MappedByteBuffer> mapped;
+            synchronized (this) {
+                upTo = appended;
+                mapped = new ArrayList<>(chunks);
+            }
+            for (long start = from; start < upTo; ) {
+                int chunk = (int) (start / CHUNK_BYTES);
+                long chunkEnd = Math.min(upTo, (chunk + 1) * CHUNK_BYTES);
+                mapped.get(chunk).force((int) (start % CHUNK_BYTES), (int) (chunkEnd - start));
+                start = chunkEnd;
+            }
+            durable = upTo;
+        }
+    }
+
+    // Copies the recovered seat state into the given screenings, matched by id; screenings the journal
+    // has never seen are left alone. Call before the screenings take any bookings. Returns the screenings
+    // restored, whose taken seats are all sales, since holds are released on recovery.
+    public synchronized List<Screening> restore(Collection<Screening> screenings) {
+        List<Screening> restored = new ArrayList<>();
+        for (Screening screening : screenings) {
+            SeatState state = seatStates.get(screening.getId());
+            if (state != null) {
+                screening.getSeatAvailability().restore(state.taken.clone());
+                restored.add(screening);
+            }
+        }
+        return restored;
+    }
+
+    // Seats taken (held or sold) in the screening according to the log, or 0 if it has no events
+    public synchronized int getTakenCount(int screeningId) {
+        SeatState state = seatStates.get(screeningId);
+        int count = 0;
+        if (state != null) {
+            for (long word : state.taken) {
+                count += Long.bitCount(word);
+            }
+        }
+        return count;
+    }
+
+    public synchronized long getAppendedBytes() {
+        return appended;
+    }
+
+    // Log records replayed after the snapshot when the journal was opened
+    public long getReplayedOnOpen() {
+        return replayedOnOpen;
+    }
+
+    // Walks every event in the log, oldest first
+    public void forEachEvent(EventVisitor visitor) {
+        long end;
+        List<MappedByteBuffer> mapped;
+        synchronized (this) {
+            end = appended;
+            mapped = new ArrayList<>(chunks);
+        }
+        for (long offset = 0; offset < end; offset += RECORD_BYTES) {
+            ByteBuffer chunk = mapped.get((int) (offset / CHUNK_BYTES));
+            int at = (int) (offset % CHUNK_BYTES);
+            visitor.onEvent(TYPES[chunk.get(at + 20)], chunk.getInt(at + 8), chunk.getShort(at + 12),
+                    chunk.getShort(at + 14), chunk.getLong(at), chunk.getInt(at + 24));
+        }
+    }
+
+    // Writes the folded seat state and the log offset it reflects, replacing the previous snapshot
+    public void writeSnapshot() throws IOException {
+        synchronized (snapshotLock) {
+            writeSnapshotImage();
+        }
+    }
+
+    private void writeSnapshotImage() throws IOException {
+        ByteBuffer image;
+        synchronized (this) {
+            int size = 4 + 8 + 4;
+            for (SeatState state : seatStates.values()) {
+                size += 4 + 2 + 2 + 16L * state.taken.length;
+            }
+            image = ByteBuffer.allocate(size);
+            image.putInt(SNAPSHOT_MAGIC).putLong(appended).putInt(seatStates.size());
+            for (Map.Entry<Integer, SeatState> entry : seatStates.entrySet()) {
+                SeatState state = entry.getValue();
+                image.putInt(entry.getKey()).putShort((short) state.rows).putShort((short) state.columns);
+                for (long word : state.taken) {
+                    image.putLong(word);
+                }
+                for (long word : state.held) {
+                    image.putLong(word);
+                }
+            }
+            image.flip();
+        }
+        commit(image.getLong(4));  // The snapshot must never be ahead of the durable log
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (image.hasRemaining()) {
+                out.write(image);
+            }
+            out.force(true);
+        }
+        Files.move(temporary, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        snapshotOffset = image.getLong(4);
+    }
+
+    public long getSnapshotOffset() {
+        return snapshotOffset;
+    }
+
+    // The error of the latest background snapshot, or null if it succeeded or none has run
+    public IOException getSnapshotFailure() {
+        return snapshotFailure;
+    }
+
+    // Writes a snapshot on a background thread at the given interval. A failed snapshot does not stop the
+    // thread; it is reported by getSnapshotFailure until one succeeds.
+    public synchronized void startSnapshots(Duration interval) {
+        if (running) {
+            return;
+        }
+        running = true;
+        long intervalNanos = interval.toNanos();
+        Thread thread = new Thread(() -> {
+            while (running) {
+                LockSupport.parkNanos(this, intervalNanos);
+                if (running && getAppendedBytes() != snapshotOffset) {
+                    try {
+                        writeSnapshot();
+                        snapshotFailure = null;
+                    } catch (IOException e) {
+                        snapshotFailure = e;  // Try again next interval; the log alone still recovers everything
+                    }
+                }
+            }
+        }, "booking-journal-snapshots");
+        thread.setDaemon(true);
+        snapshotThread = thread;
+        thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        Thread thread;
+        synchronized (this) {
+            thread = snapshotThread;
+            running = false;
+            snapshotThread = null;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        commit(getAppendedBytes());
+        channel.close();
+    }
+
+    private synchronized long append(EventType type, int screeningId, int row, int column, int rows, int columns,
+                                     long timestampMillis, int userHash) {
+        ByteBuffer chunk = chunkFor(appended);
+        int at = (int) (appended % CHUNK_BYTES);
+        chunk.putLong(at, timestampMillis);
+        chunk.putInt(at + 8, screeningId);
+        chunk.putShort(at + 12, (short) row);
+        chunk.putShort(at + 14, (short) column);
+        chunk.putShort(at + 16, (short) rows);
+        chunk.putShort(at + 18, (short) columns);
+        chunk.put(at + 20, (byte) type.ordinal());
+        chunk.putInt(at + 24, userHash);
+        chunk.putInt(at + 28, checksum(chunk, at));  // Written last: a torn record fails its checksum
+        apply(type, screeningId, row, column, rows, columns);
+        appended += RECORD_BYTES;
+        return appended;
+    }
+
+    private void apply(EventType type, int screeningId, int row, int column, int rows, int columns) {
+        SeatState state = seatStates.computeIfAbsent(screeningId, id -> new SeatState(rows, columns));
+        int word = row * state.wordsPerRow + (column >>> 6);
+        long bit = 1L << column;
+        switch (type) {
+            case HOLD:
+                state.taken[word] |= bit;
+                state.held[word] |= bit;
+                break;
+            case BOOK:
+                state.taken[word] |= bit;
+                state.held[word] &= ~bit;
+                break;
+            default:
+                state.taken[word] &= ~bit;
+                state.held[word] &= ~bit;
+                break;
+        }
+    }
+
+    // Loads the snapshot, replays the valid records after it, then releases seats left held
+    private synchronized void recover() throws IOException {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            ByteBuffer image = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+            if (image.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a booking snapshot: " + snapshot);
+            }
+            snapshotOffset = image.getLong();
+            int screenings = image.getInt();
+            for (int i = 0; i < screenings; i++) {
+                int id = image.getInt();
+                SeatState state = new SeatState(image.getShort(), image.getShort());
+                for (int word = 0; word < state.taken.length; word++) {
+                    state.taken[word] = image.getLong();
+                }
+                for (int word = 0; word < state.held.length; word++) {
+                    state.held[word] = image.getLong();
+                }
+                seatStates.put(id, state);
+            }
+        }
+        long fileSize = channel.size();
+        appended = snapshotOffset;
+        while (appended + RECORD_BYTES <= fileSize) {
+            ByteBuffer chunk = chunkFor(appended);
+            int at = (int) (appended % CHUNK_BYTES);
+            int type = chunk.get(at + 20);
+            if (chunk.getInt(at + 28) != checksum(chunk, at) || type < 0 || type >= TYPES.length) {
+                break;  // End of the log, or a record torn by a crash
+            }
+            apply(TYPES[type], chunk.getInt(at + 8), chunk.getShort(at + 12), chunk.getShort(at + 14),
+                    chunk.getShort(at + 16), chunk.getShort(at + 18));
+            appended += RECORD_BYTES;
+            replayedOnOpen++;
+        }
+        // Records written after a torn one can still have reached the disk. Zero everything past the
+        // last valid record, or they would be replayed once new appends close the gap
+        for (long stale = appended; stale < fileSize; ) {
+            int index = (int) (stale / CHUNK_BYTES);
+            ByteBuffer chunk = chunkFor(stale);
+            int at = (int) (stale % CHUNK_BYTES);
+            int end = (int) Math.min(CHUNK_BYTES, fileSize - index * CHUNK_BYTES);
+            boolean dirty = false;
+            for (; at < end; at += Long.BYTES) {
+                if (chunk.getLong(at) != 0) {
+                    chunk.putLong(at, 0);
+                    dirty = true;
+                }
+            }
+            if (dirty) {
+                chunks.get(index).force();
+            }
+            stale = (index + 1) * CHUNK_BYTES;
+        }
+        durable = appended;
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Integer, SeatState> entry : seatStates.entrySet()) {
+            SeatState state = entry.getValue();
+            for (int word = 0; word < state.held.length; word++) {
+                for (long held = state.held[word]; held != 0; held &= held - 1) {
+                    int column = ((word % state.wordsPerRow) << 6) + Long.numberOfTrailingZeros(held);
+                    append(EventType.RELEASE, entry.getKey(), word / state.wordsPerRow, column,
+                            state.rows, state.columns, now, 0);
+                }
+            }
+        }
+    }
+
+    private ByteBuffer chunkFor(long offset) {
+        int chunk = (int) (offset / CHUNK_BYTES);
+        try {
+            while (chunks.size() <= chunk) {
+                chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, chunks.size() * CHUNK_BYTES, CHUNK_BYTES));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot extend the booking log", e);
+        }
+        return chunks.get(chunk);
+    }
+
+    // Never 0, so the zeroed tail of the mapped file never passes as a record
+    private static int checksum(ByteBuffer chunk, int at) {
+        long hash = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < 28; i += 4) {
+            hash = (hash ^ chunk.getInt(at + i)) * 0xff51afd7ed558ccdL;
+        }
+        return (int) (hash ^ (hash >>> 32)) | 1;
+    }
+
+    // Taken seats (held or sold) and held seats of one screening, laid out like SeatAvailability
+    private static final class SeatState {
+        final int rows;
+        final int columns;
+        final int wordsPerRow;
+        final long[] taken;
+        final long[] held;
+
+        SeatState(int rows, int columns) {
+            this.rows = rows;
+            this.columns = columns;
+            this.wordsPerRow = (columns + 63) >>> 6;
+            this.taken = new long[rows * wordsPerRow];
+            this.held = new long[rows * wordsPerRow];
+        }
+    }
+}
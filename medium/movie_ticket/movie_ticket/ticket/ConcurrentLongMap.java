@@ -0,0 +1,158 @@
+package movie_ticket.ticket;
+
+// Hash map from primitive long keys to values, split into independently locked segments so threads
+// working on different keys rarely meet. Each segment is an open-addressing table with linear
+// probing, so a lookup touches one or two cache lines and no key is ever boxed.
+final class ConcurrentLongMap<V> {
+    private static final int SEGMENT_BITS = 6;  // 64 segments
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Segments hold plain Objects, so the array needs no generic type; only values put as V come back out
+    private final Segment[] segments;
+
+    ConcurrentLongMap() {
+        segments = new Segment[1 << SEGMENT_BITS];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    V get(long key) {
+        long hash = mix(key);
+        return cast(segmentFor(hash).get(key, hash));
+    }
+
+    // Returns the value previously stored under the key, or null
+    V put(long key, V value) {
+        long hash = mix(key);
+        return cast(segmentFor(hash).put(key, hash, value));
+    }
+
+    // Removes the key only if it still maps to the given value
+    boolean remove(long key, V expected) {
+        long hash = mix(key);
+        return segmentFor(hash).remove(key, hash, expected);
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V cast(Object value) {
+        return (V) value;
+    }
+
+    // Murmur3 finalizer: sequential keys (seat indexes) spread over segments and slots
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static final class Segment {
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private Object[] values = new Object[INITIAL_CAPACITY];  // Null marks an empty slot
+        private int size;
+
+        synchronized Object get(long key, long hash) {
+            int slot = find(key, hash);
+            return slot < 0 ? null : values[slot];
+        }
+
+        synchronized Object put(long key, long hash, Object value) {
+            int slot = find(key, hash);
+            if (slot >= 0) {
+                Object previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            if ((size + 1) * 4 > keys.length * 3) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            slot = (int) hash & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+            return null;
+        }
+
+        synchronized boolean remove(long key, long hash, Object expected) {
+            int slot = find(key, hash);
+            if (slot < 0 || values[slot] != expected) {
+                return false;
+            }
+            deleteAt(slot);
+            size--;
+            return true;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private int find(long key, long hash) {
+            int mask = keys.length - 1;
+            for (int slot = (int) hash & mask; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        // Backward-shift deletion: pull later entries of the probe run into the gap so lookups never
+        // need tombstones
+        private void deleteAt(int gap) {
+            int mask = keys.length - 1;
+            int slot = gap;
+            while (true) {
+                slot = (slot + 1) & mask;
+                if (values[slot] == null) {
+                    break;
+                }
+                int home = (int) mix(keys[slot]) & mask;
+                // Move the entry back if its home is not between the gap and its current slot
+                if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                    keys[gap] = keys[slot];
+                    values[gap] = values[slot];
+                    gap = slot;
+                }
+            }
+            values[gap] = null;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Object[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    int slot = (int) mix(oldKeys[i]) & mask;
+                    while (values[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+}
@@ -1,30 +1,92 @@
 package movie_ticket.ticket;
 
+import movie_ticket.location.Cinema;
+import movie_ticket.location.Layout;
+import movie_ticket.location.Room;
 import movie_ticket.location.Seat;
 import movie_ticket.showing.Movie;
 import movie_ticket.showing.Screening;
+import movie_ticket.showing.SeatAvailability;
 
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-// Manages the relationships between movies, screenings, and tickets in the booking system
+// Manages the relationships between movies, screenings, and tickets in the booking system.
+// Safe for concurrent use without a manager-wide lock: a seat is claimed by a CAS on its screening's
+// bitmap, so bookings for different screenings never wait on each other.
 public class ScreeningManager {
     // Maps movies to their scheduled screenings
     private final Map<Movie, List<Screening>> screeningsByMovie;
     // Maps screenings to tickets sold for that screening
-    private final Map<Screening, List<Ticket>> ticketsByScreening;
+    private final Map<Screening, Queue<Ticket>> ticketsByScreening;
+    // All screenings, and each room's screenings, by start time
+    private final ScreeningSchedule schedule;
+    private final Map<Room, ScreeningSchedule> schedulesByRoom;
+    private volatile BookingJournal journal;  // Records every sale and cancellation, if set
 
     public ScreeningManager() {
-        this.screeningsByMovie = new HashMap<>();
-        this.ticketsByScreening = new HashMap<>();
+        this.screeningsByMovie = new ConcurrentHashMap<>();
+        this.ticketsByScreening = new ConcurrentHashMap<>();
+        this.schedule = new ScreeningSchedule();
+        this.schedulesByRoom = new ConcurrentHashMap<>();
     }
 
     public void addScreening(Movie movie, Screening screening) {
         screeningsByMovie
-                .computeIfAbsent(movie, k -> new ArrayList<>())
+                .computeIfAbsent(movie, k -> new CopyOnWriteArrayList<>())
                 .add(screening);
+        schedule.add(screening);
+        schedulesByRoom.computeIfAbsent(screening.getRoom(), k -> new ScreeningSchedule()).add(screening);
+    }
+
+    // Loads a whole programme at once: each movie's list, room and day is updated once rather than once
+    // per screening
+    public void addScreenings(Collection<Screening> screenings) {
+        Map<Movie, List<Screening>> byMovie = new HashMap<>();
+        Map<Room, List<Screening>> byRoom = new HashMap<>();
+        for (Screening screening : screenings) {
+            byMovie.computeIfAbsent(screening.getMovie(), k -> new ArrayList<>()).add(screening);
+            byRoom.computeIfAbsent(screening.getRoom(), k -> new ArrayList<>()).add(screening);
+        }
+        byMovie.forEach((movie, added) -> screeningsByMovie
+                .computeIfAbsent(movie, k -> new CopyOnWriteArrayList<>())
+                .addAll(added));
+        schedule.addAll(screenings);
+        byRoom.forEach((room, added) -> schedulesByRoom
+                .computeIfAbsent(room, k -> new ScreeningSchedule())
+                .addAll(added));
+    }
+
+    // Screenings starting in [from, to) anywhere, in start time order
+    public List<Screening> getScreeningsBetween(LocalDateTime from, LocalDateTime to) {
+        return schedule.between(from, to);
+    }
+
+    // Screenings in the room starting in [from, to), in start time order
+    public List<Screening> getScreeningsInRoom(Room room, LocalDateTime from, LocalDateTime to) {
+        ScreeningSchedule roomSchedule = schedulesByRoom.get(room);
+        return roomSchedule == null ? new ArrayList<>() : roomSchedule.between(from, to);
+    }
+
+    // Screenings in any of the cinema's rooms starting in [from, to), in start time order. Each room's
+    // result is already sorted, so the final sort only merges those runs.
+    public List<Screening> getScreeningsInCinema(Cinema cinema, LocalDateTime from, LocalDateTime to) {
+        List<Screening> screenings = new ArrayList<>();
+        for (Room room : cinema.getRooms()) {
+            screenings.addAll(getScreeningsInRoom(room, from, to));
+        }
+        screenings.sort(ScreeningSchedule.BY_START_TIME);
+        return screenings;
     }
 
     // Returns all screenings for a specific movie
@@ -32,25 +94,249 @@ public class ScreeningManager {
         return screeningsByMovie.getOrDefault(movie, new ArrayList<>());
     }
 
+    // Claims the ticket's seat and records the sale; throws if the seat was already sold
     public void addTicket(Screening screening, Ticket ticket) {
-        ticketsByScreening
-                .computeIfAbsent(screening, k -> new ArrayList<>())
-                .add(ticket);
+        Seat seat = ticket.getSeat();
+        if (!screening.getSeatAvailability().book(seat.getRow(), seat.getColumn())) {
+            throw new IllegalStateException("Seat " + seat.getSeatNumber() + " is already booked");
+        }
+        recordSale(screening, List.of(ticket), null);
+    }
+
+    // Books a seat the user holds: the hold's claim on the bitmap becomes the sale, so nobody can take the
+    // seat in between. Throws IllegalStateException if the hold has expired or belongs to someone else.
+    public Ticket bookHeldSeat(Screening screening, Seat seat, SeatLockManager seatLocks, String userId) {
+        if (!seatLocks.confirmLock(screening, seat, userId)) {
+            throw new IllegalStateException("Seat " + seat.getSeatNumber() + " is not held by " + userId);
+        }
+        Ticket ticket = new Ticket(screening, seat, seat.getPricingStrategy().getPrice());
+        recordSale(screening, List.of(ticket), userId);
+        return ticket;
+    }
+
+    // Cancels a sold ticket and frees its seat; throws IllegalStateException if the ticket is not on sale
+    // record. The cancellation is journaled before the seat is freed, so the log never shows a later
+    // sale of the seat ahead of it.
+    public void cancelTicket(Ticket ticket) {
+        Screening screening = ticket.getScreening();
+        Queue<Ticket> tickets = ticketsByScreening.get(screening);
+        if (tickets == null || !tickets.remove(ticket)) {
+            throw new IllegalStateException("Ticket for seat " + ticket.getSeat().getSeatNumber() + " was not sold here");
+        }
+        Seat seat = ticket.getSeat();
+        BookingJournal log = journal;
+        if (log != null) {
+            log.commit(log.append(BookingJournal.EventType.CANCEL, screening, seat.getRow(), seat.getColumn(), null));
+        }
+        screening.getSeatAvailability().release(seat.getRow(), seat.getColumn());
+    }
+
+    // Journals every sale and cancellation from now on; sales commit to disk before they are confirmed
+    public void setJournal(BookingJournal journal) {
+        this.journal = journal;
+    }
+
+    // Reissues a ticket for every seat booked in the screenings' bitmaps, priced from the layout, after a
+    // journal has restored them; nothing is journaled, as the sales are already in the log. Call before
+    // the screenings take any bookings or holds.
+    public void restoreTickets(Collection<Screening> screenings) {
+        for (Screening screening : screenings) {
+            Layout layout = screening.getRoom().getLayout();
+            SeatAvailability availability = screening.getSeatAvailability();
+            Queue<Ticket> tickets = ticketsByScreening.computeIfAbsent(screening, k -> new ConcurrentLinkedQueue<>());
+            tickets.clear();
+            for (int row = 0; row < availability.getRows(); row++) {
+                for (int word = 0; word < availability.getWordsPerRow(); word++) {
+                    for (long booked = availability.getRowWord(row, word); booked != 0; booked &= booked - 1) {
+                        Seat seat = layout.getSeatByPosition(row, (word << 6) + Long.numberOfTrailingZeros(booked));
+                        tickets.add(new Ticket(screening, seat, seat.getPricingStrategy().getPrice()));
+                    }
+                }
+            }
+        }
+    }
+
+    // All screenings, in no particular order
+    public List<Screening> getAllScreenings() {
+        List<Screening> screenings = new ArrayList<>();
+        screeningsByMovie.values().forEach(screenings::addAll);
+        return screenings;
     }
 
-    // Returns all tickets sold for a specific screening
+    // Adds the sold tickets, journals them and commits once: group commit, which usually finds the records
+    // already forced. If the journal fails at any point, the sale is undone before the error is rethrown,
+    // so the seats are left free: the tickets are taken back, a journaled sale gets its cancellation ahead
+    // of the release as in cancelTicket, and the seat is freed even if that cancellation cannot be written.
+    private void recordSale(Screening screening, List<Ticket> tickets, String userId) {
+        Queue<Ticket> sold = ticketsByScreening.computeIfAbsent(screening, k -> new ConcurrentLinkedQueue<>());
+        sold.addAll(tickets);
+        BookingJournal log = journal;
+        if (log == null) {
+            return;
+        }
+        int journaled = 0;
+        try {
+            long offset = 0;
+            for (Ticket ticket : tickets) {
+                Seat seat = ticket.getSeat();
+                offset = log.append(BookingJournal.EventType.BOOK, screening, seat.getRow(), seat.getColumn(), userId);
+                journaled++;
+            }
+            log.commit(offset);
+        } catch (UncheckedIOException e) {
+            for (int i = 0; i < tickets.size(); i++) {
+                Seat seat = tickets.get(i).getSeat();
+                sold.remove(tickets.get(i));
+                if (i < journaled) {
+                    try {
+                        log.append(BookingJournal.EventType.CANCEL, screening, seat.getRow(), seat.getColumn(), null);
+                    } catch (UncheckedIOException cancelFailure) {
+                        e.addSuppressed(cancelFailure);
+                    }
+                }
+                screening.getSeatAvailability().release(seat.getRow(), seat.getColumn());
+            }
+            throw e;
+        }
+    }
+
+    // Books the seat at its current price; throws IllegalStateException if someone else got it first
+    public Ticket bookSeat(Screening screening, Seat seat) {
+        BigDecimal price = seat.getPricingStrategy().getPrice();
+        Ticket ticket = new Ticket(screening, seat, price);
+        addTicket(screening, ticket);
+        return ticket;
+    }
+
+    // Books all the seats of an order or none of them. Throws SeatsUnavailableException listing the seats
+    // that were taken if any of them was; the rest are left free. Orders for different seats proceed in
+    // parallel, as the claim is a CAS per bitmap word rather than a lock.
+    public Order bookOrder(Screening screening, List<Seat> seats) {
+        int[] rows = new int[seats.size()];
+        int[] columns = new int[seats.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = seats.get(i).getRow();
+            columns[i] = seats.get(i).getColumn();
+        }
+        SeatAvailability availability = screening.getSeatAvailability();
+        int[] taken = availability.bookAll(rows, columns);
+        if (taken.length > 0) {
+            List<Seat> unavailable = new ArrayList<>(taken.length);
+            for (int position : taken) {
+                unavailable.add(seats.get(position));
+            }
+            throw new SeatsUnavailableException(unavailable);
+        }
+        Order order = new Order(LocalDateTime.now());
+        List<Ticket> tickets = new ArrayList<>(seats.size());
+        for (Seat seat : seats) {
+            tickets.add(new Ticket(screening, seat, seat.getPricingStrategy().getPrice()));
+        }
+        recordSale(screening, tickets, null);
+        tickets.forEach(order::addTicket);
+        return order;
+    }
+
+    // Books the best block of count adjacent seats in one row and returns its tickets, or an empty list if
+    // no row has that many free seats side by side. The block is claimed in one go; if another buyer takes
+    // part of it first, the search runs again on the updated bitmap.
+    public List<Ticket> bookBestAvailable(Screening screening, int count) {
+        SeatAvailability availability = screening.getSeatAvailability();
+        while (true) {
+            long block = findBestBlock(availability, count);
+            if (block < 0) {
+                return new ArrayList<>();
+            }
+            int row = (int) (block >>> 32);
+            int fromColumn = (int) block;
+            if (availability.bookRange(row, fromColumn, count)) {
+                Layout layout = screening.getRoom().getLayout();
+                List<Ticket> tickets = new ArrayList<>(count);
+                for (int column = fromColumn; column < fromColumn + count; column++) {
+                    Seat seat = layout.getSeatByPosition(row, column);
+                    tickets.add(new Ticket(screening, seat, seat.getPricingStrategy().getPrice()));
+                }
+                recordSale(screening, tickets, null);
+                return tickets;
+            }
+        }
+    }
+
+    // The seats bookBestAvailable would pick right now, without claiming them
+    public List<Seat> findBestAvailable(Screening screening, int count) {
+        long block = findBestBlock(screening.getSeatAvailability(), count);
+        List<Seat> seats = new ArrayList<>();
+        if (block >= 0) {
+            Layout layout = screening.getRoom().getLayout();
+            for (int column = (int) block; column < (int) block + count; column++) {
+                seats.add(layout.getSeatByPosition((int) (block >>> 32), column));
+            }
+        }
+        return seats;
+    }
+
+    // Packed (row << 32 | first column) of the free block whose middle is closest to the middle of the
+    // room, by squared distance in seats; -1 if there is none. Rows are visited from the middle outwards,
+    // so the search stops as soon as a row is further away than the best block found.
+    private static long findBestBlock(SeatAvailability availability, int count) {
+        int rows = availability.getRows();
+        int columns = availability.getColumns();
+        if (count <= 0 || count > columns) {
+            return -1;
+        }
+        double middleRow = (rows - 1) / 2.0;
+        double middleColumn = (columns - 1) / 2.0;
+        int centredStart = (columns - count) / 2;
+        long best = -1;
+        double bestScore = Double.MAX_VALUE;
+        int front = (int) Math.floor(middleRow);  // Next rows to visit towards the screen and away from it
+        int back = front + 1;
+        while (front >= 0 || back < rows) {
+            int row = back >= rows || (front >= 0 && middleRow - front <= back - middleRow) ? front-- : back++;
+            double rowOffset = row - middleRow;
+            if (rowOffset * rowOffset >= bestScore) {
+                break;
+            }
+            int start = availability.findFreeRun(row, count, centredStart);
+            if (start >= 0) {
+                double columnOffset = start + (count - 1) / 2.0 - middleColumn;
+                double score = rowOffset * rowOffset + columnOffset * columnOffset;
+                if (score < bestScore) {
+                    bestScore = score;
+                    best = ((long) row << 32) | start;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Returns a copy of the tickets sold for a specific screening
     public List<Ticket> getTicketsForScreening(Screening screening) {
-        return ticketsByScreening.getOrDefault(screening, new ArrayList<>());
+        Queue<Ticket> tickets = ticketsByScreening.get(screening);
+        return tickets == null ? new ArrayList<>() : new ArrayList<>(tickets);
     }
 
-    // Calculates which seats are still available for a screening
-    public List<Seat> getAvailableSeats(Screening screening) {
-        List<Seat> allSeats = screening.getRoom().getLayout().getAllSeats();
-        List<Ticket> bookedTickets = getTicketsForScreening(screening);
+    public boolean isSeatAvailable(Screening screening, Seat seat) {
+        return !screening.getSeatAvailability().isBooked(seat.getRow(), seat.getColumn());
+    }
 
-        List<Seat> availableSeats = new ArrayList<>(allSeats);
-        for (Ticket ticket : bookedTickets) {
-            availableSeats.remove(ticket.getSeat());
+    // Walks the free bits of the screening's seat bitmap, row by row
+    public List<Seat> getAvailableSeats(Screening screening) {
+        Layout layout = screening.getRoom().getLayout();
+        SeatAvailability availability = screening.getSeatAvailability();
+        List<Seat> availableSeats = new ArrayList<>(availability.getAvailableCount());
+        for (int row = 0; row < availability.getRows(); row++) {
+            for (int word = 0; word < availability.getWordsPerRow(); word++) {
+                long free = availability.getAvailableWord(row, word);
+                while (free != 0) {
+                    int column = (word << 6) + Long.numberOfTrailingZeros(free);
+                    Seat seat = layout.getSeatByPosition(row, column);
+                    if (seat != null) {
+                        availableSeats.add(seat);
+                    }
+                    free &= free - 1;
+                }
+            }
         }
         return availableSeats;
     }
@@ -0,0 +1,89 @@
+package movie_ticket.ticket;
+
+import movie_ticket.showing.Screening;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Screenings ordered by start time, split by day. Each day is an immutable array sorted by start time
+// that is replaced whole on every change, so a range query is a skip-list walk over the days it covers,
+// then a binary search and a scan, all without locking. A bulk load sorts each day once and merges it
+// in, instead of inserting screenings one at a time.
+final class ScreeningSchedule {
+    static final Comparator<Screening> BY_START_TIME =
+            Comparator.comparing(Screening::getStartTime).thenComparingInt(Screening::getId);
+
+    private final ConcurrentSkipListMap<LocalDate, Screening[]> days = new ConcurrentSkipListMap<>();
+
+    void add(Screening screening) {
+        days.merge(screening.getStartTime().toLocalDate(), new Screening[]{screening}, ScreeningSchedule::merge);
+    }
+
+    void addAll(Collection<Screening> screenings) {
+        Map<LocalDate, List<Screening>> byDay = new HashMap<>();
+        for (Screening screening : screenings) {
+            byDay.computeIfAbsent(screening.getStartTime().toLocalDate(), k -> new ArrayList<>()).add(screening);
+        }
+        for (Map.Entry<LocalDate, List<Screening>> day : byDay.entrySet()) {
+            Screening[] added = day.getValue().toArray(new Screening[0]);
+            Arrays.sort(added, BY_START_TIME);
+            days.merge(day.getKey(), added, ScreeningSchedule::merge);
+        }
+    }
+
+    // Screenings starting in [from, to), in start time order
+    List<Screening> between(LocalDateTime from, LocalDateTime to) {
+        List<Screening> result = new ArrayList<>();
+        if (!from.isBefore(to)) {
+            return result;
+        }
+        for (Screening[] day : days.subMap(from.toLocalDate(), true, to.toLocalDate(), true).values()) {
+            for (int i = firstStartingAt(day, from); i < day.length && day[i].getStartTime().isBefore(to); i++) {
+                result.add(day[i]);
+            }
+        }
+        return result;
+    }
+
+    int size() {
+        int size = 0;
+        for (Screening[] day : days.values()) {
+            size += day.length;
+        }
+        return size;
+    }
+
+    // Index of the first screening starting at or after the given time
+    private static int firstStartingAt(Screening[] day, LocalDateTime time) {
+        int low = 0;
+        int high = day.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (day[middle].getStartTime().isBefore(time)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static Screening[] merge(Screening[] existing, Screening[] added) {
+        Screening[] merged = new Screening[existing.length + added.length];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < merged.length; k++) {
+            merged[k] = j == added.length || (i < existing.length && BY_START_TIME.compare(existing[i], added[j]) <= 0)
+                    ? existing[i++] : added[j++];
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,279 @@
+package movie_ticket.ticket;
+
+import movie_ticket.location.Seat;
+import movie_ticket.showing.Screening;
+import movie_ticket.showing.SeatAvailability;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+// Holds seats for a customer while they pay. A hold claims the seat's bit in the screening's
+// SeatAvailability, so a held seat is unavailable to everyone else, and the bit goes back when the hold
+// is released, confirmed as a sale, or expires. Holds are keyed by a packed (screening id, seat index)
+// long in a striped primitive map; placing one is a CAS, a map insert and a queue append, with no lock
+// shared between screenings.
+//
+// Expiry is a hashed timing wheel: each hold is filed under the tick its deadline falls on, so one tick
+// looks only at the holds due then (plus any parked for a later lap of the wheel). The wheel is advanced
+// by a background thread (start/close) or by whoever calls expireHolds; a hold is released no earlier
+// than its deadline and at most one tick after it.
+public class SeatLockManager implements AutoCloseable {
+    private static final Duration DEFAULT_TICK = Duration.ofMillis(100);
+    private static final int WHEEL_SIZE = 512;  // Slots; a power of two
+
+    private final long lockNanos;
+    private final long tickNanos;
+    private final LongSupplier nanoClock;
+    private final boolean startOnFirstLock;
+    private final ConcurrentLongMap<SeatLock> lockedSeats = new ConcurrentLongMap<>();
+    // New holds wait here until the wheel files them, so placing a hold never touches the wheel
+    private final Queue<SeatLock> newLocks = new ConcurrentLinkedQueue<>();
+    private final SeatLock[] wheel = new SeatLock[WHEEL_SIZE];  // Head of each slot's list; guarded by this
+    private final long startNanos;
+    private long nextTick;  // First tick not yet processed; guarded by this
+    private volatile Thread expiryThread;
+    private volatile boolean running;
+    private volatile boolean closed;  // Set by close, so a later hold does not start the thread again
+    private volatile BookingJournal journal;  // Records holds and releases, if set
+
+    // Holds expire on the system clock; the expiry thread starts with the first hold
+    public SeatLockManager(Duration lockDuration) {
+        this(lockDuration, DEFAULT_TICK, System::nanoTime, true);
+    }
+
+    // Holds expire on the given clock, advanced by calls to expireHolds or by start()
+    public SeatLockManager(Duration lockDuration, Duration tick, LongSupplier nanoClock) {
+        this(lockDuration, tick, nanoClock, false);
+    }
+
+    private SeatLockManager(Duration lockDuration, Duration tick, LongSupplier nanoClock, boolean startOnFirstLock) {
+        if (lockDuration.isNegative() || lockDuration.isZero() || tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("Lock duration and tick must be positive");
+        }
+        this.lockNanos = lockDuration.toNanos();
+        this.tickNanos = tick.toNanos();
+        this.nanoClock = nanoClock;
+        this.startOnFirstLock = startOnFirstLock;
+        this.startNanos = nanoClock.getAsLong();
+    }
+
+    // Holds the seat for the user; false if it is already held or sold. If the hold cannot be journaled,
+    // the seat is freed again before the error is rethrown.
+    public boolean lockSeat(Screening screening, Seat seat, String userId) {
+        SeatAvailability availability = screening.getSeatAvailability();
+        if (!availability.book(seat.getRow(), seat.getColumn())) {
+            return false;
+        }
+        SeatLock lock = new SeatLock(keyOf(screening, seat), screening, seat.getRow(), seat.getColumn(),
+                userId, nanoClock.getAsLong() + lockNanos);
+        BookingJournal log = journal;
+        if (log != null) {
+            try {
+                log.append(BookingJournal.EventType.HOLD, screening, lock.row, lock.column, userId);
+            } catch (UncheckedIOException e) {
+                availability.release(lock.row, lock.column);
+                throw e;
+            }
+        }
+        lockedSeats.put(lock.key, lock);
+        newLocks.add(lock);
+        if (startOnFirstLock && !running && !closed) {
+            start();
+        }
+        return true;
+    }
+
+    // True while someone holds the seat; a sold seat is not held
+    public boolean isLocked(Screening screening, Seat seat) {
+        SeatLock lock = lockedSeats.get(keyOf(screening, seat));
+        return lock != null && lock.state == SeatLock.ACTIVE;
+    }
+
+    // Gives a held seat back before its hold expires; false if the user does not hold it
+    public boolean unlockSeat(Screening screening, Seat seat, String userId) {
+        SeatLock lock = end(screening, seat, userId, SeatLock.RELEASED);
+        if (lock == null) {
+            return false;
+        }
+        release(lock);
+        return true;
+    }
+
+    // Ends the user's hold without freeing the seat, so its claim on the bitmap becomes the sale.
+    // False if the hold has expired or belongs to someone else.
+    public boolean confirmLock(Screening screening, Seat seat, String userId) {
+        return end(screening, seat, userId, SeatLock.CONFIRMED) != null;
+    }
+
+    // Journals holds and releases from now on. They are not committed on their own: a lost hold only
+    // matters until recovery, which frees held seats anyway.
+    public void setJournal(BookingJournal journal) {
+        this.journal = journal;
+    }
+
+    public int getLockedSeatCount() {
+        return lockedSeats.size();
+    }
+
+    // Releases every hold whose deadline has passed, processing each wheel tick up to the given time.
+    // Returns the number of seats released.
+    public synchronized int expireHolds(long nowNanos) {
+        long currentTick = Math.floorDiv(nowNanos - startNanos, tickNanos);
+        int expired = 0;
+        while (nextTick <= currentTick) {
+            fileNewLocks();
+            expired += expireSlot((int) (nextTick & (WHEEL_SIZE - 1)));
+            nextTick++;
+        }
+        return expired;
+    }
+
+    // Advance the wheel on a background thread, waking once per tick
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(() -> {
+            while (running) {
+                long now = nanoClock.getAsLong();
+                expireHolds(now);
+                long nextTickAt = startNanos + Math.floorDiv(now - startNanos, tickNanos) * tickNanos + tickNanos;
+                LockSupport.parkNanos(this, nextTickAt - now);
+            }
+        }, "seat-lock-expiry");
+        thread.setDaemon(true);
+        expiryThread = thread;
+        thread.start();
+    }
+
+    // Stops the expiry thread. The lock is given up before joining, since the thread may be waiting for
+    // it to finish the tick it is on.
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            thread = expiryThread;
+            running = false;
+            closed = true;
+            expiryThread = null;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // The release is journaled before the seat is freed, so no later hold or sale of it can be logged first
+    private void release(SeatLock lock) {
+        BookingJournal log = journal;
+        if (log != null) {
+            log.append(BookingJournal.EventType.RELEASE, lock.screening, lock.row, lock.column, lock.userId);
+        }
+        lock.availability.release(lock.row, lock.column);
+    }
+
+    private SeatLock end(Screening screening, Seat seat, String userId, int endState) {
+        long key = keyOf(screening, seat);
+        SeatLock lock = lockedSeats.get(key);
+        if (lock == null || !lock.userId.equals(userId) || !lock.end(endState)) {
+            return null;
+        }
+        lockedSeats.remove(key, lock);
+        return lock;
+    }
+
+    // Files each new hold under the first tick at or after its deadline; a wheel lap is WHEEL_SIZE ticks,
+    // so later deadlines wait out whole laps in the same slot
+    private void fileNewLocks() {
+        SeatLock lock;
+        while ((lock = newLocks.poll()) != null) {
+            if (lock.state != SeatLock.ACTIVE) {
+                continue;  // Already released or sold
+            }
+            long deadlineTick = -Math.floorDiv(startNanos - lock.deadlineNanos, tickNanos);
+            deadlineTick = Math.max(deadlineTick, nextTick);
+            lock.remainingLaps = (deadlineTick - nextTick) / WHEEL_SIZE;
+            int slot = (int) (deadlineTick & (WHEEL_SIZE - 1));
+            lock.next = wheel[slot];
+            wheel[slot] = lock;
+        }
+    }
+
+    private int expireSlot(int slot) {
+        int expired = 0;
+        SeatLock previous = null;
+        SeatLock lock = wheel[slot];
+        while (lock != null) {
+            SeatLock next = lock.next;
+            boolean due = lock.remainingLaps-- <= 0;
+            if (lock.state != SeatLock.ACTIVE || due) {
+                if (previous == null) {
+                    wheel[slot] = next;
+                } else {
+                    previous.next = next;
+                }
+                lock.next = null;
+                if (due && lock.end(SeatLock.EXPIRED)) {
+                    lockedSeats.remove(lock.key, lock);
+                    release(lock);
+                    expired++;
+                }
+            } else {
+                previous = lock;
+            }
+            lock = next;
+        }
+        return expired;
+    }
+
+    // Screening id in the high half, seat index within the room's layout in the low half
+    private static long keyOf(Screening screening, Seat seat) {
+        int seatIndex = seat.getRow() * screening.getSeatAvailability().getColumns() + seat.getColumn();
+        return ((long) screening.getId() << 32) | (seatIndex & 0xFFFFFFFFL);
+    }
+
+    private static final class SeatLock {
+        static final int ACTIVE = 0;
+        static final int RELEASED = 1;
+        static final int CONFIRMED = 2;
+        static final int EXPIRED = 3;
+        private static final AtomicIntegerFieldUpdater<SeatLock> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(SeatLock.class, "state");
+
+        final long key;
+        final Screening screening;
+        final SeatAvailability availability;
+        final int row;
+        final int column;
+        final String userId;
+        final long deadlineNanos;
+        // Exactly one of release, confirm and expiry moves the hold out of ACTIVE
+        volatile int state = ACTIVE;
+        long remainingLaps;  // Wheel fields, touched only by the thread advancing the wheel
+        SeatLock next;
+
+        SeatLock(long key, Screening screening, int row, int column, String userId, long deadlineNanos) {
+            this.key = key;
+            this.screening = screening;
+            this.availability = screening.getSeatAvailability();
+            this.row = row;
+            this.column = column;
+            this.userId = userId;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        boolean end(int endState) {
+            return STATE.compareAndSet(this, ACTIVE, endState);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package movie_ticket.ticket;
+
+import movie_ticket.location.Seat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Thrown when an order cannot be booked because some of its seats are taken; none of the order's seats
+// were booked. Carries the seats that were taken so the customer can pick replacements; the message
+// names them too, since seats are not serializable and the list does not survive serialization.
+public class SeatsUnavailableException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<Seat> unavailableSeats;
+
+    public SeatsUnavailableException(List<Seat> unavailableSeats) {
+        super("Seats " + unavailableSeats.stream().map(Seat::getSeatNumber).collect(Collectors.joining(", "))
+                + " are already booked");
+        this.unavailableSeats = List.copyOf(unavailableSeats);
+    }
+
+    public List<Seat> getUnavailableSeats() {
+        return unavailableSeats;
+    }
+}
@@ -0,0 +1,209 @@
+package movie_ticket.ticket;
+
+import movie_ticket.showing.Screening;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Admission control in front of the booking flow. Each screening has its own line: customers join,
+// wait their turn in strict arrival order, and are admitted while fewer than sessionsPerScreening
+// admitted sessions are active. Joining returns a token that identifies the place in line and, once
+// admitted, the booking session; a session ends when the customer leaves or its lifetime runs out, which
+// admits the next one in line.
+//
+// While waiting, customers get their position and an estimated wait, from the average session length
+// seen so far, so a rush on one premiere turns into a visible queue instead of failed bookings. Lines
+// are locked one at a time, so a hot screening never slows down the others.
+public class WaitingRoom {
+    public enum Status {
+        ADMITTED,
+        WAITING,
+        EXPIRED  // Unknown token, or the session has ended
+    }
+
+    private static final double SESSION_SMOOTHING = 0.1;  // Weight of the latest session in the average length
+
+    private final int sessionsPerScreening;
+    private final long sessionNanos;
+    private final LongSupplier nanoClock;
+    private final Map<Screening, Line> lines = new ConcurrentHashMap<>();
+
+    public WaitingRoom(int sessionsPerScreening, Duration sessionLifetime) {
+        this(sessionsPerScreening, sessionLifetime, System::nanoTime);
+    }
+
+    public WaitingRoom(int sessionsPerScreening, Duration sessionLifetime, LongSupplier nanoClock) {
+        if (sessionsPerScreening <= 0 || sessionLifetime.isNegative() || sessionLifetime.isZero()) {
+            throw new IllegalArgumentException("Need at least one session per screening and a positive lifetime");
+        }
+        this.sessionsPerScreening = sessionsPerScreening;
+        this.sessionNanos = sessionLifetime.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    // Joins the screening's line; admitted straight away if a session is free
+    public Admission join(Screening screening) {
+        Line line = lines.computeIfAbsent(screening, k -> new Line());
+        synchronized (line) {
+            long now = nanoClock.getAsLong();
+            Session session = new Session(UUID.randomUUID().toString(), line.joined++);
+            line.waiting.add(session);
+            line.waitingByToken.put(session.token, session);
+            line.admitNext(now);
+            return line.statusOf(session);
+        }
+    }
+
+    // Current place in line for the token, or its session if it has been admitted
+    public Admission check(Screening screening, String token) {
+        Line line = lines.get(screening);
+        if (line == null) {
+            return Admission.EXPIRED_ADMISSION;
+        }
+        synchronized (line) {
+            line.admitNext(nanoClock.getAsLong());
+            Session session = line.admitted.get(token);
+            if (session == null) {
+                session = line.waitingByToken.get(token);
+            }
+            return session == null ? Admission.EXPIRED_ADMISSION : line.statusOf(session);
+        }
+    }
+
+    public boolean isAdmitted(Screening screening, String token) {
+        return check(screening, token).getStatus() == Status.ADMITTED;
+    }
+
+    // Ends the session, or gives up the place in line; the next customer is admitted at once
+    public void leave(Screening screening, String token) {
+        Line line = lines.get(screening);
+        if (line == null) {
+            return;
+        }
+        synchronized (line) {
+            long now = nanoClock.getAsLong();
+            Session session = line.admitted.remove(token);
+            if (session != null) {
+                line.recordSessionLength(now - session.admittedAt);
+            } else {
+                session = line.waitingByToken.remove(token);
+                if (session != null) {
+                    session.left = true;  // Skipped when its turn comes
+                }
+            }
+            line.admitNext(now);
+        }
+    }
+
+    // Customers still waiting for the screening, including any who gave up but have not yet been passed over
+    public int getWaitingCount(Screening screening) {
+        Line line = lines.get(screening);
+        if (line == null) {
+            return 0;
+        }
+        synchronized (line) {
+            line.admitNext(nanoClock.getAsLong());
+            return line.waiting.size();
+        }
+    }
+
+    // What a customer sees: admitted with a token, or waiting with a position and an estimated wait
+    public static final class Admission {
+        private static final Admission EXPIRED_ADMISSION = new Admission(Status.EXPIRED, null, 0, Duration.ZERO);
+
+        private final Status status;
+        private final String token;
+        private final long position;
+        private final Duration estimatedWait;
+
+        private Admission(Status status, String token, long position, Duration estimatedWait) {
+            this.status = status;
+            this.token = token;
+            this.position = position;
+            this.estimatedWait = estimatedWait;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        // 1 for the next customer to be admitted; 0 once admitted. Counts everyone who joined earlier and
+        // has not been admitted, so it may include customers who have since given up.
+        public long getPosition() {
+            return position;
+        }
+
+        public Duration getEstimatedWait() {
+            return estimatedWait;
+        }
+    }
+
+    private static final class Session {
+        final String token;
+        final long sequence;  // Order of joining the line
+        long admittedAt;
+        boolean left;
+
+        Session(String token, long sequence) {
+            this.token = token;
+            this.sequence = sequence;
+        }
+    }
+
+    // Guarded by its own monitor
+    private final class Line {
+        final ArrayDeque<Session> waiting = new ArrayDeque<>();
+        final Map<String, Session> waitingByToken = new HashMap<>();
+        // Admitted sessions in admission order, which is also expiry order as every session lives as long
+        final LinkedHashMap<String, Session> admitted = new LinkedHashMap<>();
+        long joined;
+        long admittedThrough;  // Every sequence below this has been admitted or passed over
+        double meanSessionNanos = sessionNanos;
+
+        // Ends expired sessions, then fills free sessions from the front of the line
+        void admitNext(long now) {
+            Iterator<Session> oldest = admitted.values().iterator();
+            while (oldest.hasNext()) {
+                Session session = oldest.next();
+                if (now - session.admittedAt < sessionNanos) {
+                    break;
+                }
+                oldest.remove();
+                recordSessionLength(sessionNanos);
+            }
+            while (admitted.size() < sessionsPerScreening && !waiting.isEmpty()) {
+                Session next = waiting.poll();
+                admittedThrough = next.sequence + 1;
+                if (!next.left) {
+                    waitingByToken.remove(next.token);
+                    next.admittedAt = now;
+                    admitted.put(next.token, next);
+                }
+            }
+        }
+
+        void recordSessionLength(long nanos) {
+            meanSessionNanos += SESSION_SMOOTHING * (nanos - meanSessionNanos);
+        }
+
+        Admission statusOf(Session session) {
+            if (admitted.containsKey(session.token)) {
+                return new Admission(Status.ADMITTED, session.token, 0, Duration.ZERO);
+            }
+            long position = session.sequence - admittedThrough + 1;
+            long waitNanos = (long) (position * meanSessionNanos / sessionsPerScreening);
+            return new Admission(Status.WAITING, session.token, position, Duration.ofNanos(waitNanos));
+        }
+    }
+}
@@ -2,54 +2,121 @@ package parkinglot;
 
 import parkinglot.fare.FareCalculator;
 import parkinglot.fare.Ticket;
+import parkinglot.journal.ParkingJournal;
+import parkinglot.reservation.Reservation;
 import parkinglot.spot.ParkingManager;
 import parkinglot.spot.ParkingSpot;
 import parkinglot.vehicle.Vehicle;
+import parkinglot.vehicle.VehicleSize;
 
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ParkingLot {
     private final ParkingManager parkingManager; // Manages parking spots and vehicle assignments
     private final FareCalculator fareCalculator; // Calculates fare for parking sessions
+    private final ParkingJournal journal;        // Persists park/unpark events (null when running in memory only)
+    private final Map<String, Ticket> activeTickets; // Open tickets by ticket ID
+    private final Clock clock;                   // Source of entry/exit times; simulations pass a virtual clock
+    private final AtomicLong ticketCounter = new AtomicLong();
 
     public ParkingLot(ParkingManager parkingManager, FareCalculator fareCalculator) {
+        this(parkingManager, fareCalculator, null, Clock.systemDefaultZone());
+    }
+
+    // Durable parking lot: spot occupancy and open tickets recorded in the journal are restored on construction
+    public ParkingLot(ParkingManager parkingManager, FareCalculator fareCalculator, ParkingJournal journal) {
+        this(parkingManager, fareCalculator, journal, Clock.systemDefaultZone());
+    }
+
+    public ParkingLot(ParkingManager parkingManager, FareCalculator fareCalculator, ParkingJournal journal,
+                      Clock clock) {
         this.parkingManager = parkingManager;
         this.fareCalculator = fareCalculator;
+        this.journal = journal;
+        this.clock = clock;
+        this.activeTickets = journal != null ? journal.recover(parkingManager) : new HashMap<>();
     }
 
     // Method to handle vehicle entry into the parking lot
     public Ticket enterVehicle(Vehicle vehicle) {
         // Delegate parking logic to ParkingManager
-        ParkingSpot spot = parkingManager.parkVehicle(vehicle);
+        ParkingSpot spot = parkingManager.parkVehicle(vehicle, LocalDateTime.now(clock));
         
         if (spot != null) {
-            // Create ticket with entry time
-            Ticket ticket = new Ticket(generateTicketId(), vehicle, spot, LocalDateTime.now());
-            return ticket;
+            return issueTicket(vehicle, spot);
         } else {
             return null;  // No spot available
         }
     }
 
-    // Method to handle vehicle exit from the parking lot using the parkinglot.fare.Ticket object
-    public void leaveVehicle(Ticket ticket) {
+    // Entry for a vehicle holding a pre-booked spot; the reservation must be current and not yet used
+    public Ticket enterVehicle(Vehicle vehicle, Reservation reservation) {
+        ParkingSpot spot = parkingManager.parkReservedVehicle(vehicle, reservation, LocalDateTime.now(clock));
+        if (spot != null) {
+            return issueTicket(vehicle, spot);
+        } else {
+            return null;  // Reserved spot is still occupied
+        }
+    }
+
+    // Book a spot for [start, end) as of the lot's clock; null if every suitable spot is taken then
+    public Reservation reserveSpot(VehicleSize vehicleSize, LocalDateTime start, LocalDateTime end) {
+        return parkingManager.reserveSpot(vehicleSize, start, end, LocalDateTime.now(clock));
+    }
+
+    // Method to handle vehicle exit from the parking lot using the parkinglot.fare.Ticket object.
+    // Returns the fare, or null if the ticket is invalid or already closed.
+    public BigDecimal leaveVehicle(Ticket ticket) {
         if (ticket != null && ticket.getExitTime() == null) {  // Ensure the ticket is valid and the vehicle hasn't already left
+            // Journal first: if the write fails the vehicle is still parked and the ticket still open
+            if (journal != null) {
+                journal.recordUnpark(ticket);
+            }
+
             // Set exit time
-            ticket.setExitTime(LocalDateTime.now());
+            ticket.setExitTime(LocalDateTime.now(clock));
             
             // Delegate unparking logic to ParkingManager
             parkingManager.unparkVehicle(ticket.getVehicle());
+            activeTickets.remove(ticket.getTicketId());
 
             // Calculate the fare
-            BigDecimal fare = fareCalculator.calculateFare(ticket);
+            return fareCalculator.calculateFare(ticket);
         } else {
             // Invalid ticket or vehicle already exited. 
+            return null;
+        }
+    }
+
+    private Ticket issueTicket(Vehicle vehicle, ParkingSpot spot) {
+        // Create ticket with entry time
+        Ticket ticket = new Ticket(generateTicketId(), vehicle, spot, LocalDateTime.now(clock));
+        if (journal != null) {
+            try {
+                journal.recordPark(ticket);  // Durable before the ticket is handed out
+            } catch (UncheckedIOException e) {
+                parkingManager.unparkVehicle(vehicle);
+                throw e;
+            }
         }
+        activeTickets.put(ticket.getTicketId(), ticket);
+        return ticket;
+    }
+
+    // Look up an open ticket, e.g. one issued before a restart
+    public Ticket getActiveTicket(String ticketId) {
+        return activeTickets.get(ticketId);
     }
 
     // Helper method to generate a unique ticket ID
     private String generateTicketId() {
-        return "TICKET-" + System.currentTimeMillis();
+        // The counter keeps IDs unique when several vehicles enter within the same millisecond
+        return "TICKET-" + System.currentTimeMillis() + "-" + ticketCounter.incrementAndGet();
     }
 }
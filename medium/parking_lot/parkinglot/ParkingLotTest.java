@@ -2,17 +2,38 @@ package parkinglot;
 
 import org.junit.jupiter.api.Test;
 import parkinglot.fare.*;
+import parkinglot.journal.ParkingJournal;
+import parkinglot.reservation.Reservation;
+import parkinglot.simulation.GarageBenchmark;
+import parkinglot.simulation.SimulationClock;
+import parkinglot.simulation.SimulationReport;
+import parkinglot.spot.CompactSpot;
 import parkinglot.spot.ParkingManager;
 import parkinglot.spot.ParkingSpot;
 import parkinglot.spot.RegularSpot;
 import parkinglot.vehicle.Car;
+import parkinglot.vehicle.Motorcycle;
 import parkinglot.vehicle.Vehicle;
 import parkinglot.vehicle.VehicleSize;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -76,4 +97,217 @@ class ParkingLotTest {
         System.out.println("  - Parking spot is now available for other vehicles");
         System.out.println("=== Parking Lot Vehicle Journey Test Completed Successfully ===\n");
     }
+
+    @Test
+    public void testJournalRecoveryAfterRestart() throws IOException {
+        System.out.println("\n=== Testing Parking Lot System: Journal Recovery After Restart ===");
+        Path journalDir = Files.createTempDirectory("parking-journal");
+        try {
+            checkJournalRecovery(journalDir);
+        } finally {
+            try (Stream<Path> files = Files.walk(journalDir)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+        System.out.println("=== Parking Lot Journal Recovery Test Completed Successfully ===\n");
+    }
+
+    private void checkJournalRecovery(Path journalDir) {
+        List<FareStrategy> strategies = new ArrayList<>(List.of(new BaseFareStrategy()));
+        int spotCount = 20_000;
+
+        // Snapshot every 5,000 events so recovery exercises both the snapshot and the journal tail
+        ParkingJournal journal = new ParkingJournal(journalDir, 5_000);
+        ParkingLot parkingLot = new ParkingLot(new ParkingManager(createSpots(spotCount)),
+                new FareCalculator(strategies), journal);
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < spotCount; i++) {
+            Vehicle vehicle = i % 2 == 0 ? new Motorcycle("M-" + i) : new Car("C-" + i);
+            tickets.add(parkingLot.enterVehicle(vehicle));
+        }
+        for (int i = 0; i < spotCount; i += 4) {
+            parkingLot.leaveVehicle(tickets.get(i));
+        }
+        journal.close();
+        System.out.println("✓ Parked " + spotCount + " vehicles and released every fourth one");
+
+        System.out.println("\n--- Restarting Controller ---");
+        ParkingManager recoveredManager = new ParkingManager(createSpots(spotCount));
+        long start = System.nanoTime();  // Only the snapshot load, the journal replay and the re-occupation
+        ParkingJournal recoveredJournal = new ParkingJournal(journalDir, 5_000);
+        ParkingLot recoveredLot = new ParkingLot(recoveredManager, new FareCalculator(strategies), recoveredJournal);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("✓ Recovered " + spotCount + "-spot lot in " + elapsedMillis + " ms (target: under 1 s)");
+
+        for (int i = 0; i < spotCount; i++) {
+            Ticket original = tickets.get(i);
+            Ticket recovered = recoveredLot.getActiveTicket(original.getTicketId());
+            if (i % 4 == 0) {
+                assertNull(recovered, "Released vehicle should not have an open ticket");
+            } else {
+                assertNotNull(recovered, "Parked vehicle should have an open ticket after restart");
+                assertEquals(original.getVehicle().getLicensePlate(), recovered.getVehicle().getLicensePlate());
+                assertEquals(original.getParkingSpot().getSpotNumber(), recovered.getParkingSpot().getSpotNumber());
+                assertEquals(original.getEntryTime(), recovered.getEntryTime());
+                assertFalse(recovered.getParkingSpot().isAvailable(), "Recovered spot should be occupied");
+            }
+        }
+
+        // A recovered ticket can be priced and closed like any other
+        Ticket recovered = recoveredLot.getActiveTicket(tickets.get(1).getTicketId());
+        recoveredLot.leaveVehicle(recovered);
+        assertTrue(recovered.getParkingSpot().isAvailable(), "Spot should be free after the recovered vehicle leaves");
+        assertNull(recoveredManager.findVehicleSpot(recovered.getVehicle()));
+        recoveredJournal.close();
+        System.out.println("✓ Open tickets, entry times and spot occupancy survived the restart");
+    }
+
+    @Test
+    public void testTimeSlotReservations() {
+        System.out.println("\n=== Testing Parking Lot System: Time-Slot Reservations ===");
+        Map<VehicleSize, List<ParkingSpot>> availableSpots = new HashMap<>();
+        availableSpots.put(VehicleSize.SMALL, new ArrayList<>());
+        availableSpots.put(VehicleSize.MEDIUM, new ArrayList<>(List.of(new RegularSpot(1), new RegularSpot(2))));
+        availableSpots.put(VehicleSize.LARGE, new ArrayList<>());
+        ParkingManager parkingManager = new ParkingManager(availableSpots);
+
+        LocalDate eventDay = LocalDate.now().plusDays(1);
+        LocalDateTime evening = LocalDateTime.of(eventDay, LocalTime.of(18, 0));
+        LocalDateTime lateNight = LocalDateTime.of(eventDay, LocalTime.of(23, 0));
+        // The guest arrives half an hour into the booked window
+        Clock arrivalClock = Clock.fixed(evening.plusMinutes(30).atZone(ZoneId.systemDefault()).toInstant(),
+                ZoneId.systemDefault());
+        ParkingLot parkingLot = new ParkingLot(parkingManager, new FareCalculator(List.of(new BaseFareStrategy())),
+                null, arrivalClock);
+
+        System.out.println("\n--- Booking MEDIUM Spots From 18:00 To 23:00 ---");
+        Reservation first = parkingLot.reserveSpot(VehicleSize.MEDIUM, evening, lateNight);
+        Reservation second = parkingLot.reserveSpot(VehicleSize.MEDIUM, evening, lateNight);
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNotEquals(first.getParkingSpot(), second.getParkingSpot(), "Overlapping bookings need different spots");
+        assertNull(parkingLot.reserveSpot(VehicleSize.MEDIUM, evening.plusHours(1), lateNight),
+                "No spot should be free for an overlapping window");
+        Reservation afterShow = parkingLot.reserveSpot(VehicleSize.MEDIUM, lateNight, lateNight.plusHours(2));
+        assertNotNull(afterShow, "A window starting when another ends does not overlap it");
+        System.out.println("✓ Two spots booked, third overlapping booking rejected, back-to-back booking accepted");
+
+        System.out.println("\n--- Walk-Ins Around Reserved Windows ---");
+        assertNull(parkingManager.findSpotForVehicle(new Car("WALK-1"), evening.minusMinutes(30)),
+                "Walk-ins should not get spots reserved to start soon");
+        assertNotNull(parkingManager.findSpotForVehicle(new Car("WALK-2"), evening.minusHours(5)),
+                "Walk-ins well before the booked window can still use the spot");
+        System.out.println("✓ Walk-ins are kept off spots that are reserved soon");
+
+        System.out.println("\n--- Reserved Vehicle Arrives ---");
+        Vehicle guest = new Car("GUEST-1");
+        Ticket ticket = parkingLot.enterVehicle(guest, first);
+        assertNotNull(ticket);
+        assertEquals(first.getParkingSpot(), ticket.getParkingSpot(), "Guest should be parked in the booked spot");
+        parkingLot.leaveVehicle(ticket);
+        assertThrows(IllegalStateException.class, () -> parkingLot.enterVehicle(new Car("GUEST-2"), first),
+                "A reservation can only be used once");
+        assertThrows(IllegalStateException.class, () -> parkingLot.enterVehicle(new Car("GUEST-3"), afterShow),
+                "A reservation cannot be used before its window starts");
+
+        parkingManager.cancelReservation(second);
+        assertThrows(IllegalStateException.class, () -> parkingLot.enterVehicle(new Car("GUEST-4"), second),
+                "A cancelled reservation cannot be used");
+        assertNotNull(parkingLot.reserveSpot(VehicleSize.MEDIUM, evening, lateNight),
+                "Cancelled window should be bookable again");
+        System.out.println("✓ Reserved vehicle parked in its spot; reused, early and cancelled reservations rejected");
+        System.out.println("✓ Cancelled window is bookable again");
+
+        System.out.println("\n--- Bookings Follow The Lot's Clock ---");
+        Map<VehicleSize, List<ParkingSpot>> oneSpot = new HashMap<>();
+        oneSpot.put(VehicleSize.MEDIUM, new ArrayList<>(List.of(new RegularSpot(1))));
+        ParkingLot clockedLot = new ParkingLot(new ParkingManager(oneSpot),
+                new FareCalculator(List.of(new BaseFareStrategy())), null, arrivalClock);
+        assertNotNull(clockedLot.enterVehicle(new Car("WALK-3")));
+        LocalDateTime arrival = evening.plusMinutes(30);
+        assertNull(clockedLot.reserveSpot(VehicleSize.MEDIUM, arrival.plusHours(1), arrival.plusHours(2)),
+                "A booking starting soon by the lot's clock cannot take the occupied spot");
+        assertNotNull(clockedLot.reserveSpot(VehicleSize.MEDIUM, arrival.plusHours(3), arrival.plusHours(4)),
+                "A booking starting after the walk-in buffer can");
+        System.out.println("✓ Whether a booking starts soon is judged by the lot's clock, not the system's");
+
+        System.out.println("\n--- Random Bookings And Cancellations Against A Brute-Force Check ---");
+        checkReservationsAgainstBruteForce(eventDay.plusDays(1));
+        System.out.println("✓ Every booking is accepted exactly when some spot is free for the whole window");
+        System.out.println("=== Parking Lot Reservation Test Completed Successfully ===\n");
+    }
+
+    @Test
+    public void testGarageSimulation() {
+        System.out.println("\n=== Testing Parking Lot System: Discrete-Event Garage Simulation ===");
+        SimulationReport report = GarageBenchmark.run(500, Duration.ofDays(2), 7L);
+        System.out.println(report);
+
+        assertTrue(report.getArrivals() > 0, "Simulation should generate traffic");
+        assertEquals(report.getArrivals(), report.getDepartures() + report.getRejections(),
+                "Every arrival is either rejected or parks and later pays");
+        assertTrue(report.getRevenue().signum() > 0, "Departing vehicles should pay fares");
+        assertTrue(report.getAllocationLatencyNanos(0.5) <= report.getAllocationLatencyNanos(0.99));
+
+        SimulationReport rerun = GarageBenchmark.run(500, Duration.ofDays(2), 7L);
+        assertEquals(report.getArrivals(), rerun.getArrivals(), "Same seed should replay the same traffic");
+        assertEquals(report.getRejections(), rerun.getRejections());
+        assertEquals(report.getRevenue(), rerun.getRevenue());
+        System.out.println("✓ Arrivals, rejections and revenue are consistent and reproducible from the seed");
+
+        SimulationClock clock = new SimulationClock(Instant.parse("2024-01-01T00:00:00Z"));
+        Clock tokyo = clock.withZone(ZoneId.of("Asia/Tokyo"));
+        clock.advance(Duration.ofHours(1));
+        assertEquals(clock.instant(), tokyo.instant(), "A zoned view should follow the simulated time");
+        assertEquals(LocalDateTime.parse("2024-01-01T10:00"), LocalDateTime.now(tokyo));
+        System.out.println("✓ Zoned views of the simulation clock follow its time");
+        System.out.println("=== Garage Simulation Test Completed Successfully ===\n");
+    }
+
+    // Books and cancels random windows on six spots, checking each answer against every booking made so far
+    private void checkReservationsAgainstBruteForce(LocalDate day) {
+        Map<VehicleSize, List<ParkingSpot>> spots = new HashMap<>();
+        spots.put(VehicleSize.MEDIUM, new ArrayList<>());
+        for (int i = 0; i < 6; i++) {
+            spots.get(VehicleSize.MEDIUM).add(new RegularSpot(i));
+        }
+        ParkingManager parkingManager = new ParkingManager(spots);
+        LocalDateTime opening = day.atStartOfDay();
+        List<Reservation> booked = new ArrayList<>();
+        Random random = new Random(27);
+        for (int step = 0; step < 2_000; step++) {
+            if (!booked.isEmpty() && random.nextInt(3) == 0) {
+                parkingManager.cancelReservation(booked.remove(random.nextInt(booked.size())));
+                continue;
+            }
+            LocalDateTime start = opening.plusMinutes(15L * random.nextInt(96));
+            LocalDateTime end = start.plusMinutes(15L * (1 + random.nextInt(16)));
+            boolean anyFree = spots.get(VehicleSize.MEDIUM).stream().anyMatch(spot -> booked.stream().noneMatch(
+                    r -> r.getParkingSpot() == spot && r.getStartTime().isBefore(end) && start.isBefore(r.getEndTime())));
+            Reservation reservation = parkingManager.reserveSpot(VehicleSize.MEDIUM, start, end);
+            assertEquals(anyFree, reservation != null, "Booking " + start + " to " + end + " at step " + step);
+            if (reservation != null) {
+                assertTrue(booked.stream().noneMatch(r -> r.getParkingSpot() == reservation.getParkingSpot()
+                        && r.getStartTime().isBefore(end) && start.isBefore(r.getEndTime())),
+                        "Booked spot must be free for the whole window");
+                booked.add(reservation);
+            }
+        }
+    }
+
+    // Half compact spots, half regular spots, numbered 0..count-1
+    private Map<VehicleSize, List<ParkingSpot>> createSpots(int count) {
+        Map<VehicleSize, List<ParkingSpot>> spots = new HashMap<>();
+        spots.put(VehicleSize.SMALL, new ArrayList<>());
+        spots.put(VehicleSize.MEDIUM, new ArrayList<>());
+        spots.put(VehicleSize.LARGE, new ArrayList<>());
+        for (int i = 0; i < count; i++) {
+            if (i < count / 2) {
+                spots.get(VehicleSize.SMALL).add(new CompactSpot(i));
+            } else {
+                spots.get(VehicleSize.MEDIUM).add(new RegularSpot(i));
+            }
+        }
+        return spots;
+    }
 }
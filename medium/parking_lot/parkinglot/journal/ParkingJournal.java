@@ -0,0 +1,280 @@
+package parkinglot.journal;
+
+import parkinglot.fare.Ticket;
+import parkinglot.spot.ParkingManager;
+import parkinglot.spot.ParkingSpot;
+import parkinglot.vehicle.Vehicle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of park/unpark events plus periodic snapshots of the occupied spots.
+ *
+ * Every event is appended to the journal and forced to disk before the caller continues, so each event
+ * costs one force. There is no group commit: ParkingLot and ParkingManager are single-threaded, so no
+ * second caller is ever waiting to share a force. The methods are synchronized only so a snapshot cannot
+ * interleave with an append. An event whose force fails is cut from the journal and never reaches the
+ * in-memory state, so a later snapshot cannot persist it. Every snapshotInterval events
+ * the current occupancy is written to a snapshot file and the journal is truncated, so a restart reads
+ * at most one snapshot plus a short journal tail. A snapshot that fails after an event has been forced
+ * does not fail that event: the journal still holds it, so the failure is kept for inspection and the
+ * snapshot is tried again after another snapshotInterval events.
+ */
+public class ParkingJournal implements Closeable {
+    private static final String JOURNAL_FILE = "parking.journal";
+    private static final String SNAPSHOT_FILE = "parking.snapshot";
+    private static final int SNAPSHOT_MAGIC = 0x50534E31;  // "PSN1"
+    private static final byte PARK = 1;
+    private static final byte UNPARK = 2;
+    private static final int DEFAULT_SNAPSHOT_INTERVAL = 10_000;
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final int snapshotInterval;
+    private final Map<Integer, ParkingRecord> occupiedSpots;  // Spot number -> record, the state being journaled
+    private final FileChannel channel;
+
+    private int eventsSinceSnapshot;         // Guarded by this
+    private UncheckedIOException snapshotFailure;  // Last failed automatic snapshot, or null; guarded by this
+
+    public ParkingJournal(Path directory) {
+        this(directory, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    // Opening the journal loads the last snapshot and replays the journal tail on top of it
+    public ParkingJournal(Path directory, int snapshotInterval) {
+        if (snapshotInterval <= 0) {
+            throw new IllegalArgumentException("Snapshot interval must be positive");
+        }
+        this.snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        this.journalFile = directory.resolve(JOURNAL_FILE);
+        this.snapshotInterval = snapshotInterval;
+        this.occupiedSpots = new HashMap<>();
+        try {
+            Files.createDirectories(directory);
+            loadSnapshot();
+            long validLength = replayJournal();
+            this.channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            // Drop a torn record left behind by a crash in the middle of a write
+            channel.truncate(validLength);
+            channel.position(validLength);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open parking journal in " + directory, e);
+        }
+    }
+
+    // Re-occupy the recovered spots in the given manager and rebuild the open tickets, keyed by ticket id
+    public synchronized Map<String, Ticket> recover(ParkingManager parkingManager) {
+        Map<Integer, Vehicle> vehiclesBySpot = new HashMap<>();
+        for (ParkingRecord record : occupiedSpots.values()) {
+            vehiclesBySpot.put(record.getSpotNumber(), record.toVehicle());
+        }
+        parkingManager.restoreOccupancy(vehiclesBySpot);
+
+        Map<String, Ticket> openTickets = new HashMap<>();
+        for (ParkingRecord record : occupiedSpots.values()) {
+            Vehicle vehicle = vehiclesBySpot.get(record.getSpotNumber());
+            ParkingSpot spot = parkingManager.findVehicleSpot(vehicle);
+            if (spot != null) {  // The spot may have been removed from the lot since the event was written
+                openTickets.put(record.getTicketId(),
+                        new Ticket(record.getTicketId(), vehicle, spot, record.getEntryTime()));
+            }
+        }
+        return openTickets;
+    }
+
+    public void recordPark(Ticket ticket) {
+        ParkingRecord record = new ParkingRecord(ticket.getTicketId(), ticket.getVehicle().getLicensePlate(),
+                ticket.getVehicle().getSize(), ticket.getParkingSpot().getSpotNumber(), ticket.getEntryTime());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(PARK);
+            record.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        write(bytes.toByteArray(), record.getSpotNumber(), record);
+    }
+
+    public void recordUnpark(Ticket ticket) {
+        int spotNumber = ticket.getParkingSpot().getSpotNumber();
+        ByteBuffer payload = ByteBuffer.allocate(5).put(UNPARK).putInt(spotNumber);
+        write(payload.array(), spotNumber, null);
+    }
+
+    // Write the current occupancy to a new snapshot and start an empty journal
+    public synchronized void snapshot() {
+        Path tempFile = snapshotFile.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        try {
+            try (FileChannel snapshotChannel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                         Channels.newOutputStream(snapshotChannel)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(occupiedSpots.size());
+                for (ParkingRecord record : occupiedSpots.values()) {
+                    record.writeTo(out);
+                }
+                out.flush();
+                snapshotChannel.force(true);
+            }
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            // A crash before this truncate is harmless: replaying the old journal over the new
+            // snapshot ends with the same per-spot state, because each event overwrites its spot
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write parking snapshot", e);
+        }
+        eventsSinceSnapshot = 0;
+        snapshotFailure = null;
+    }
+
+    // The last automatic snapshot that failed since one succeeded, or null; the events are safe in the journal
+    public synchronized UncheckedIOException getSnapshotFailure() {
+        return snapshotFailure;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Appends and forces the event, and only then applies it to the journaled state. Only a failed append
+    // reaches the caller; once the event is durable, a failed snapshot must not look like a failed event.
+    private synchronized void write(byte[] payload, int spotNumber, ParkingRecord record) {
+        append(payload);
+        apply(spotNumber, record);
+        if (++eventsSinceSnapshot >= snapshotInterval) {
+            try {
+                snapshot();
+            } catch (UncheckedIOException e) {
+                snapshotFailure = e;
+                eventsSinceSnapshot = 0;  // Retry after another interval rather than on every event
+            }
+        }
+    }
+
+    // Frame: [int payload length][payload][int CRC32 of payload]. If the frame cannot be written and
+    // forced, it is cut off again so a later event or a restart never sees it.
+    private void append(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer frame = ByteBuffer.allocate(payload.length + 8);
+        frame.putInt(payload.length).put(payload).putInt((int) crc.getValue()).flip();
+        long start;
+        try {
+            start = channel.position();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to parking journal", e);
+        }
+        try {
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            try {
+                channel.truncate(start);
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            throw new UncheckedIOException("Failed to append to parking journal", e);
+        }
+    }
+
+    private void apply(int spotNumber, ParkingRecord record) {
+        if (record != null) {
+            occupiedSpots.put(spotNumber, record);
+        } else {
+            occupiedSpots.remove(spotNumber);
+        }
+    }
+
+    private void loadSnapshot() throws IOException {
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a parking snapshot: " + snapshotFile);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                ParkingRecord record = ParkingRecord.readFrom(in);
+                occupiedSpots.put(record.getSpotNumber(), record);
+            }
+        }
+    }
+
+    // Returns the length of the valid prefix; replay stops at the first truncated or corrupt frame
+    private long replayJournal() throws IOException {
+        if (!Files.exists(journalFile)) {
+            return 0;
+        }
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalFile)))) {
+            while (true) {
+                byte[] payload = readFrame(in);
+                if (payload == null) {
+                    break;
+                }
+                DataInputStream event = new DataInputStream(new ByteArrayInputStream(payload));
+                byte type = event.readByte();
+                if (type == PARK) {
+                    ParkingRecord record = ParkingRecord.readFrom(event);
+                    apply(record.getSpotNumber(), record);
+                } else if (type == UNPARK) {
+                    apply(event.readInt(), null);
+                } else {
+                    break;
+                }
+                validLength += payload.length + 8;
+            }
+        }
+        return validLength;
+    }
+
+    private static byte[] readFrame(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length <= 0 || length > 1 << 16) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            int expectedCrc = in.readInt();
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (int) crc.getValue() == expectedCrc ? payload : null;
+        } catch (EOFException e) {
+            return null;  // Torn write at the end of the journal
+        }
+    }
+}
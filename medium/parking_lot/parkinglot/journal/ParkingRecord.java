@@ -0,0 +1,84 @@
+package parkinglot.journal;
+
+import parkinglot.vehicle.Car;
+import parkinglot.vehicle.Motorcycle;
+import parkinglot.vehicle.Truck;
+import parkinglot.vehicle.Vehicle;
+import parkinglot.vehicle.VehicleSize;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Durable description of one occupied spot: everything needed to rebuild the open ticket after a restart
+class ParkingRecord {
+    private final String ticketId;
+    private final String licensePlate;
+    private final VehicleSize vehicleSize;
+    private final int spotNumber;
+    private final LocalDateTime entryTime;
+
+    ParkingRecord(String ticketId, String licensePlate, VehicleSize vehicleSize, int spotNumber,
+                  LocalDateTime entryTime) {
+        this.ticketId = ticketId;
+        this.licensePlate = licensePlate;
+        this.vehicleSize = vehicleSize;
+        this.spotNumber = spotNumber;
+        this.entryTime = entryTime;
+    }
+
+    String getTicketId() {
+        return ticketId;
+    }
+
+    int getSpotNumber() {
+        return spotNumber;
+    }
+
+    LocalDateTime getEntryTime() {
+        return entryTime;
+    }
+
+    // The original vehicle object is gone after a restart, so recreate one of the matching size
+    Vehicle toVehicle() {
+        switch (vehicleSize) {
+            case SMALL:
+                return new Motorcycle(licensePlate);
+            case LARGE:
+                return new Truck(licensePlate);
+            default:
+                return new Car(licensePlate);
+        }
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(ticketId);
+        out.writeUTF(licensePlate);
+        out.writeByte(vehicleSize.ordinal());
+        out.writeInt(spotNumber);
+        writeTime(out, entryTime);
+    }
+
+    static ParkingRecord readFrom(DataInput in) throws IOException {
+        String ticketId = in.readUTF();
+        String licensePlate = in.readUTF();
+        VehicleSize vehicleSize = VehicleSize.values()[in.readByte()];
+        int spotNumber = in.readInt();
+        LocalDateTime entryTime = readTime(in);
+        return new ParkingRecord(ticketId, licensePlate, vehicleSize, spotNumber, entryTime);
+    }
+
+    // LocalDateTime is stored zone-free as (seconds, nanos); UTC is only used as a fixed encoding offset
+    static void writeTime(DataOutput out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    static LocalDateTime readTime(DataInput in) throws IOException {
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
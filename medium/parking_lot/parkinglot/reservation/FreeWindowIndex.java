@@ -0,0 +1,167 @@
+package parkinglot.reservation;
+
+import parkinglot.spot.ParkingSpot;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * The free windows of a group of spots, for finding a spot free over a whole booking window.
+ *
+ * Each spot contributes the gaps between its bookings, with LocalDateTime.MIN and MAX standing for
+ * "since forever" and "from then on". A spot can take [start, end) exactly when one of its gaps starts
+ * at or before start and ends at or after end. Gaps live in a treap ordered by start time, and each node
+ * also records the latest gap end in its subtree. A lookup walks a single path: among the gaps that
+ * start early enough, it follows the subtree whose latest end reaches far enough. Lookups and updates
+ * are O(log n) expected, for n gaps.
+ */
+public class FreeWindowIndex {
+    private final SplittableRandom priorities = new SplittableRandom(0x5EED);
+    private Node root;
+    private int size;
+
+    // Records that the spot is free over [from, until); a spot's gaps never share a start time
+    public void add(ParkingSpot spot, LocalDateTime from, LocalDateTime until) {
+        root = insert(root, new Node(spot, from, until, priorities.nextInt()));
+        size++;
+    }
+
+    // Forgets the spot's gap starting at from; false if there is none
+    public boolean remove(ParkingSpot spot, LocalDateTime from) {
+        int before = size;
+        root = delete(root, spot, from);
+        return size < before;
+    }
+
+    // A spot with a gap covering all of [start, end), or null if none has one
+    public ParkingSpot find(LocalDateTime start, LocalDateTime end) {
+        Node node = root;
+        while (node != null && !node.maxUntil.isBefore(end)) {
+            if (node.from.isAfter(start)) {
+                node = node.left;  // This gap and everything to its right start too late
+            } else if (node.left != null && !node.left.maxUntil.isBefore(end)) {
+                return anyReaching(node.left, end);  // The whole left subtree starts early enough
+            } else if (!node.until.isBefore(end)) {
+                return node.spot;
+            } else {
+                node = node.right;
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Any gap in the subtree ending at or after end; the caller has checked that one exists
+    private static ParkingSpot anyReaching(Node node, LocalDateTime end) {
+        while (node.until.isBefore(end)) {
+            node = node.left != null && !node.left.maxUntil.isBefore(end) ? node.left : node.right;
+        }
+        return node.spot;
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.from, added.spot, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private Node delete(Node node, ParkingSpot spot, LocalDateTime from) {
+        if (node == null) {
+            return null;
+        }
+        int order = compare(from, spot, node);
+        if (order < 0) {
+            node.left = delete(node.left, spot, from);
+        } else if (order > 0) {
+            node.right = delete(node.right, spot, from);
+        } else {
+            size--;
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.update();
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.update();
+        return pivot;
+    }
+
+    // Gaps are ordered by start, then by spot number, which is unique across the lot
+    private static int compare(LocalDateTime from, ParkingSpot spot, Node node) {
+        int order = from.compareTo(node.from);
+        return order != 0 ? order : Integer.compare(spot.getSpotNumber(), node.spot.getSpotNumber());
+    }
+
+    private static final class Node {
+        final ParkingSpot spot;
+        final LocalDateTime from;
+        final LocalDateTime until;
+        final int priority;
+        LocalDateTime maxUntil;  // Latest gap end in this subtree
+        Node left;
+        Node right;
+
+        Node(ParkingSpot spot, LocalDateTime from, LocalDateTime until, int priority) {
+            this.spot = spot;
+            this.from = from;
+            this.until = until;
+            this.priority = priority;
+            this.maxUntil = until;
+        }
+
+        void update() {
+            maxUntil = until;
+            if (left != null && left.maxUntil.isAfter(maxUntil)) {
+                maxUntil = left.maxUntil;
+            }
+            if (right != null && right.maxUntil.isAfter(maxUntil)) {
+                maxUntil = right.maxUntil;
+            }
+        }
+    }
+}
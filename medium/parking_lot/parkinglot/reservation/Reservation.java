@@ -0,0 +1,52 @@
+package parkinglot.reservation;
+
+import parkinglot.spot.ParkingSpot;
+
+import java.time.LocalDateTime;
+
+// A pre-booked spot for the half-open window [startTime, endTime)
+public class Reservation {
+    private final String reservationId;
+    private final ParkingSpot parkingSpot;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private boolean redeemed;  // Set once a vehicle has parked on this reservation
+
+    public Reservation(String reservationId, ParkingSpot parkingSpot, LocalDateTime startTime, LocalDateTime endTime) {
+        if (!startTime.isBefore(endTime)) {
+            throw new IllegalArgumentException("Reservation must end after it starts");
+        }
+        this.reservationId = reservationId;
+        this.parkingSpot = parkingSpot;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public ParkingSpot getParkingSpot() {
+        return parkingSpot;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public boolean isRedeemed() {
+        return redeemed;
+    }
+
+    // Marks the reservation as used; throws IllegalStateException if it already was
+    public void redeem() {
+        if (redeemed) {
+            throw new IllegalStateException("Reservation " + reservationId + " has already been used");
+        }
+        redeemed = true;
+    }
+}
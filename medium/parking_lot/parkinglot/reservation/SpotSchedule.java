@@ -0,0 +1,74 @@
+package parkinglot.reservation;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Bookings for a single spot, sorted by start time.
+ *
+ * Bookings on one spot never overlap, so the only one that can collide with [start, end) is the
+ * booking with the latest start before end. That makes overlap checks a single TreeMap lookup.
+ */
+public class SpotSchedule {
+    private final TreeMap<LocalDateTime, Reservation> bookings = new TreeMap<>();
+
+    public boolean isFree(LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, Reservation> candidate = bookings.lowerEntry(end);
+        return candidate == null || !candidate.getValue().getEndTime().isAfter(start);
+    }
+
+    public boolean book(Reservation reservation) {
+        if (!isFree(reservation.getStartTime(), reservation.getEndTime())) {
+            return false;
+        }
+        bookings.put(reservation.getStartTime(), reservation);
+        return true;
+    }
+
+    public boolean cancel(Reservation reservation) {
+        return bookings.remove(reservation.getStartTime(), reservation);
+    }
+
+    // Drop bookings that finished at or before the given time
+    public void removeEndedBefore(LocalDateTime time) {
+        while (!bookings.isEmpty() && !bookings.firstEntry().getValue().getEndTime().isAfter(time)) {
+            bookings.pollFirstEntry();
+        }
+    }
+
+    public boolean contains(Reservation reservation) {
+        return bookings.get(reservation.getStartTime()) == reservation;
+    }
+
+    // End of the last booking starting before the time, or LocalDateTime.MIN if there is none
+    public LocalDateTime freeSince(LocalDateTime time) {
+        Map.Entry<LocalDateTime, Reservation> previous = bookings.lowerEntry(time);
+        return previous == null ? LocalDateTime.MIN : previous.getValue().getEndTime();
+    }
+
+    // Start of the first booking starting at or after the time, or LocalDateTime.MAX if there is none
+    public LocalDateTime freeUntil(LocalDateTime time) {
+        LocalDateTime next = bookings.ceilingKey(time);
+        return next == null ? LocalDateTime.MAX : next;
+    }
+
+    // Passes each gap between bookings, as [from, until), to the action in time order
+    public void forEachFreeWindow(BiConsumer<LocalDateTime, LocalDateTime> action) {
+        LocalDateTime from = LocalDateTime.MIN;
+        for (Reservation booking : bookings.values()) {
+            if (from.isBefore(booking.getStartTime())) {
+                action.accept(from, booking.getStartTime());
+            }
+            from = booking.getEndTime();
+        }
+        if (from.isBefore(LocalDateTime.MAX)) {
+            action.accept(from, LocalDateTime.MAX);
+        }
+    }
+
+    public boolean isEmpty() {
+        return bookings.isEmpty();
+    }
+}
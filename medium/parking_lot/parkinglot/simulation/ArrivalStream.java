@@ -0,0 +1,31 @@
+package parkinglot.simulation;
+
+import parkinglot.vehicle.VehicleSize;
+
+// Poisson arrivals of one vehicle size, each staying for a time drawn from the dwell distribution
+public class ArrivalStream {
+    private final VehicleSize vehicleSize;
+    private final double arrivalsPerHour;
+    private final DwellTimeDistribution dwellTime;
+
+    public ArrivalStream(VehicleSize vehicleSize, double arrivalsPerHour, DwellTimeDistribution dwellTime) {
+        if (arrivalsPerHour <= 0) {
+            throw new IllegalArgumentException("Arrival rate must be positive");
+        }
+        this.vehicleSize = vehicleSize;
+        this.arrivalsPerHour = arrivalsPerHour;
+        this.dwellTime = dwellTime;
+    }
+
+    public VehicleSize getVehicleSize() {
+        return vehicleSize;
+    }
+
+    public double getArrivalsPerHour() {
+        return arrivalsPerHour;
+    }
+
+    public DwellTimeDistribution getDwellTime() {
+        return dwellTime;
+    }
+}
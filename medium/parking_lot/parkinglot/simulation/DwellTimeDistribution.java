@@ -0,0 +1,24 @@
+package parkinglot.simulation;
+
+import java.time.Duration;
+import java.util.Random;
+
+// How long a vehicle stays parked once it has a spot
+public interface DwellTimeDistribution {
+    Duration sample(Random random);
+
+    static DwellTimeDistribution fixed(Duration dwell) {
+        return random -> dwell;
+    }
+
+    static DwellTimeDistribution uniform(Duration min, Duration max) {
+        long range = max.toMillis() - min.toMillis();
+        return random -> min.plusMillis((long) (random.nextDouble() * range));
+    }
+
+    // Memoryless stays: most visits are short with a long tail, typical for retail garages
+    static DwellTimeDistribution exponential(Duration mean) {
+        double meanMillis = mean.toMillis();
+        return random -> Duration.ofMillis((long) (-meanMillis * Math.log(1 - random.nextDouble())));
+    }
+}
@@ -0,0 +1,57 @@
+package parkinglot.simulation;
+
+import parkinglot.ParkingLot;
+import parkinglot.fare.BaseFareStrategy;
+import parkinglot.fare.FareCalculator;
+import parkinglot.fare.PeakHoursFareStrategy;
+import parkinglot.spot.CompactSpot;
+import parkinglot.spot.OversizedSpot;
+import parkinglot.spot.ParkingManager;
+import parkinglot.spot.ParkingSpot;
+import parkinglot.spot.RegularSpot;
+import parkinglot.vehicle.VehicleSize;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Fixed-seed garage scenario; compare its allocation latency percentiles before and after allocator changes
+public class GarageBenchmark {
+    public static void main(String[] args) {
+        int spotCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+        System.out.println(run(spotCount, Duration.ofDays(days), 42L));
+    }
+
+    // 20% compact, 70% regular, 10% oversized spots, with traffic sized to keep the garage near capacity
+    public static SimulationReport run(int spotCount, Duration duration, long seed) {
+        Map<VehicleSize, List<ParkingSpot>> spots = new HashMap<>();
+        spots.put(VehicleSize.SMALL, new ArrayList<>());
+        spots.put(VehicleSize.MEDIUM, new ArrayList<>());
+        spots.put(VehicleSize.LARGE, new ArrayList<>());
+        for (int i = 0; i < spotCount; i++) {
+            if (i < spotCount / 5) {
+                spots.get(VehicleSize.SMALL).add(new CompactSpot(i));
+            } else if (i < spotCount * 9 / 10) {
+                spots.get(VehicleSize.MEDIUM).add(new RegularSpot(i));
+            } else {
+                spots.get(VehicleSize.LARGE).add(new OversizedSpot(i));
+            }
+        }
+        SimulationClock clock = new SimulationClock(Instant.parse("2024-01-01T00:00:00Z"));
+        FareCalculator fareCalculator = new FareCalculator(List.of(new BaseFareStrategy(), new PeakHoursFareStrategy()));
+        ParkingLot parkingLot = new ParkingLot(new ParkingManager(spots), fareCalculator, null, clock);
+
+        Duration meanStay = Duration.ofHours(3);
+        double hourlyCapacity = spotCount / 3.0;  // Little's law: capacity / mean stay
+        List<ArrivalStream> streams = List.of(
+                new ArrivalStream(VehicleSize.SMALL, hourlyCapacity * 0.2, DwellTimeDistribution.exponential(meanStay)),
+                new ArrivalStream(VehicleSize.MEDIUM, hourlyCapacity * 0.7, DwellTimeDistribution.exponential(meanStay)),
+                new ArrivalStream(VehicleSize.LARGE, hourlyCapacity * 0.1, DwellTimeDistribution.exponential(meanStay)));
+        int gateCount = Math.max(1, spotCount / 500);
+        return new GarageSimulator(parkingLot, clock, streams, gateCount, Duration.ofSeconds(6), seed).run(duration);
+    }
+}
@@ -0,0 +1,168 @@
+package parkinglot.simulation;
+
+import parkinglot.ParkingLot;
+import parkinglot.fare.Ticket;
+import parkinglot.vehicle.Car;
+import parkinglot.vehicle.Motorcycle;
+import parkinglot.vehicle.Truck;
+import parkinglot.vehicle.Vehicle;
+import parkinglot.vehicle.VehicleSize;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Discrete-event simulation of a garage driving ParkingLot.enterVehicle/leaveVehicle.
+ *
+ * Time only moves when the next event is taken off the queue, so a week of traffic runs in seconds
+ * rather than days. Arriving vehicles queue at the gate that frees up first; each gate admits one
+ * vehicle per gateServiceTime. The lot must be built with the simulator's clock so tickets are
+ * priced in simulated time. The wall-clock cost of every enterVehicle call is recorded, which makes
+ * the same scenario usable as a regression benchmark for the spot allocator.
+ */
+public class GarageSimulator {
+    private static final int ARRIVAL = 0;
+    private static final int ENTRY = 1;
+    private static final int DEPARTURE = 2;
+
+    private final ParkingLot parkingLot;
+    private final SimulationClock clock;
+    private final List<ArrivalStream> arrivalStreams;
+    private final long[] gateFreeAtMillis;
+    private final long gateServiceMillis;
+    private final Random random;
+
+    public GarageSimulator(ParkingLot parkingLot, SimulationClock clock, List<ArrivalStream> arrivalStreams,
+                           int gateCount, Duration gateServiceTime, long seed) {
+        if (gateCount <= 0) {
+            throw new IllegalArgumentException("A garage needs at least one gate");
+        }
+        this.parkingLot = parkingLot;
+        this.clock = clock;
+        this.arrivalStreams = arrivalStreams;
+        this.gateFreeAtMillis = new long[gateCount];
+        this.gateServiceMillis = gateServiceTime.toMillis();
+        this.random = new Random(seed);
+    }
+
+    // Generate arrivals for the given simulated duration, then drain the lot so every admitted vehicle pays
+    public SimulationReport run(Duration simulatedDuration) {
+        Instant start = clock.instant();
+        long endMillis = simulatedDuration.toMillis();
+        PriorityQueue<Event> events = new PriorityQueue<>();
+        long sequence = 0;
+        int sizes = VehicleSize.values().length;
+        long[] arrivals = new long[sizes];
+        long[] rejections = new long[sizes];
+        long[] latencies = new long[1024];
+        int latencyCount = 0;
+        long totalGateWaitMillis = 0;
+        long maxGateWaitMillis = 0;
+        long departures = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+
+        for (ArrivalStream stream : arrivalStreams) {
+            events.add(new Event(nextArrivalDelay(stream), sequence++, ARRIVAL, stream, null));
+        }
+
+        long wallStart = System.nanoTime();
+        while (!events.isEmpty()) {
+            Event event = events.poll();
+            if (event.type == ARRIVAL && event.timeMillis >= endMillis) {
+                continue;  // Stop generating traffic, but let queued entries and departures finish
+            }
+            clock.advanceTo(start.plusMillis(event.timeMillis));
+
+            if (event.type == ARRIVAL) {
+                ArrivalStream stream = event.stream;
+                arrivals[stream.getVehicleSize().ordinal()]++;
+                events.add(new Event(event.timeMillis + nextArrivalDelay(stream), sequence++, ARRIVAL, stream, null));
+
+                int gate = 0;
+                for (int i = 1; i < gateFreeAtMillis.length; i++) {
+                    if (gateFreeAtMillis[i] < gateFreeAtMillis[gate]) {
+                        gate = i;
+                    }
+                }
+                long entryMillis = Math.max(event.timeMillis, gateFreeAtMillis[gate]);
+                gateFreeAtMillis[gate] = entryMillis + gateServiceMillis;
+                long waitMillis = entryMillis - event.timeMillis;
+                totalGateWaitMillis += waitMillis;
+                maxGateWaitMillis = Math.max(maxGateWaitMillis, waitMillis);
+                events.add(new Event(entryMillis, sequence++, ENTRY, stream, null));
+            } else if (event.type == ENTRY) {
+                Vehicle vehicle = createVehicle(event.stream.getVehicleSize(), sequence);
+                long callStart = System.nanoTime();
+                Ticket ticket = parkingLot.enterVehicle(vehicle);
+                long latency = System.nanoTime() - callStart;
+                if (latencyCount == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, latencyCount * 2);
+                }
+                latencies[latencyCount++] = latency;
+
+                if (ticket == null) {
+                    rejections[vehicle.getSize().ordinal()]++;
+                } else {
+                    long dwellMillis = Math.max(1, event.stream.getDwellTime().sample(random).toMillis());
+                    events.add(new Event(event.timeMillis + dwellMillis, sequence++, DEPARTURE, null, ticket));
+                }
+            } else {
+                BigDecimal fare = parkingLot.leaveVehicle(event.ticket);
+                if (fare != null) {
+                    revenue = revenue.add(fare);
+                    departures++;
+                }
+            }
+        }
+        long wallNanos = System.nanoTime() - wallStart;
+
+        long totalArrivals = Arrays.stream(arrivals).sum();
+        return new SimulationReport(simulatedDuration, Duration.ofNanos(wallNanos), arrivals, rejections,
+                departures, revenue, Arrays.copyOf(latencies, latencyCount),
+                totalArrivals == 0 ? 0 : (double) totalGateWaitMillis / totalArrivals, maxGateWaitMillis);
+    }
+
+    // Exponential inter-arrival times give a Poisson arrival process
+    private long nextArrivalDelay(ArrivalStream stream) {
+        double meanMillis = 3_600_000.0 / stream.getArrivalsPerHour();
+        return Math.max(1, (long) (-meanMillis * Math.log(1 - random.nextDouble())));
+    }
+
+    private static Vehicle createVehicle(VehicleSize size, long id) {
+        switch (size) {
+            case SMALL:
+                return new Motorcycle("SIM-" + id);
+            case LARGE:
+                return new Truck("SIM-" + id);
+            default:
+                return new Car("SIM-" + id);
+        }
+    }
+
+    private static final class Event implements Comparable<Event> {
+        private final long timeMillis;      // Simulated milliseconds since the start of the run
+        private final long sequence;        // Tie-breaker so equal-time events keep insertion order
+        private final int type;
+        private final ArrivalStream stream;
+        private final Ticket ticket;
+
+        private Event(long timeMillis, long sequence, int type, ArrivalStream stream, Ticket ticket) {
+            this.timeMillis = timeMillis;
+            this.sequence = sequence;
+            this.type = type;
+            this.stream = stream;
+            this.ticket = ticket;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(timeMillis, other.timeMillis);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
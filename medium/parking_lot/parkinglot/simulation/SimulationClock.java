@@ -0,0 +1,68 @@
+package parkinglot.simulation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+// Virtual clock advanced by the simulator, so tickets carry simulated entry and exit times
+public class SimulationClock extends Clock {
+    private Instant now;
+
+    public SimulationClock(Instant start) {
+        this.now = start;
+    }
+
+    public void advanceTo(Instant time) {
+        if (time.isBefore(now)) {
+            throw new IllegalArgumentException("Simulation time cannot move backwards");
+        }
+        this.now = time;
+    }
+
+    public void advance(Duration duration) {
+        advanceTo(now.plus(duration));
+    }
+
+    @Override
+    public Instant instant() {
+        return now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    // A view in another zone that keeps following this clock as the simulator advances it
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return zone.equals(getZone()) ? this : new ZonedView(this, zone);
+    }
+
+    private static final class ZonedView extends Clock {
+        private final SimulationClock source;
+        private final ZoneId zone;
+
+        private ZonedView(SimulationClock source, ZoneId zone) {
+            this.source = source;
+            this.zone = zone;
+        }
+
+        @Override
+        public Instant instant() {
+            return source.instant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return source.withZone(zone);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package parkinglot.simulation;
+
+import parkinglot.vehicle.VehicleSize;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+
+public class SimulationReport {
+    private final Duration simulatedDuration;
+    private final Duration wallClockDuration;
+    private final long[] arrivals;           // Indexed by VehicleSize ordinal
+    private final long[] rejections;         // Indexed by VehicleSize ordinal
+    private final long departures;
+    private final BigDecimal revenue;
+    private final long[] allocationLatencyNanos;  // Sorted wall-clock cost of each enterVehicle call
+    private final double meanGateWaitMillis;
+    private final long maxGateWaitMillis;
+
+    SimulationReport(Duration simulatedDuration, Duration wallClockDuration, long[] arrivals, long[] rejections,
+                     long departures, BigDecimal revenue, long[] allocationLatencyNanos,
+                     double meanGateWaitMillis, long maxGateWaitMillis) {
+        this.simulatedDuration = simulatedDuration;
+        this.wallClockDuration = wallClockDuration;
+        this.arrivals = arrivals;
+        this.rejections = rejections;
+        this.departures = departures;
+        this.revenue = revenue;
+        this.allocationLatencyNanos = allocationLatencyNanos;
+        Arrays.sort(this.allocationLatencyNanos);
+        this.meanGateWaitMillis = meanGateWaitMillis;
+        this.maxGateWaitMillis = maxGateWaitMillis;
+    }
+
+    public long getArrivals() {
+        return Arrays.stream(arrivals).sum();
+    }
+
+    public long getArrivals(VehicleSize size) {
+        return arrivals[size.ordinal()];
+    }
+
+    public long getRejections() {
+        return Arrays.stream(rejections).sum();
+    }
+
+    public long getRejections(VehicleSize size) {
+        return rejections[size.ordinal()];
+    }
+
+    public double getRejectionRate() {
+        long total = getArrivals();
+        return total == 0 ? 0 : (double) getRejections() / total;
+    }
+
+    public long getDepartures() {
+        return departures;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    // Nearest-rank percentile, e.g. 0.99 for p99
+    public long getAllocationLatencyNanos(double percentile) {
+        if (allocationLatencyNanos.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * allocationLatencyNanos.length);
+        return allocationLatencyNanos[Math.min(allocationLatencyNanos.length - 1, Math.max(0, rank - 1))];
+    }
+
+    public double getMeanGateWaitMillis() {
+        return meanGateWaitMillis;
+    }
+
+    public long getMaxGateWaitMillis() {
+        return maxGateWaitMillis;
+    }
+
+    public Duration getSimulatedDuration() {
+        return simulatedDuration;
+    }
+
+    public Duration getWallClockDuration() {
+        return wallClockDuration;
+    }
+
+    // How many times faster than real time the run was
+    public double getSpeedup() {
+        long wallNanos = Math.max(1, wallClockDuration.toNanos());
+        return (double) simulatedDuration.toNanos() / wallNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Simulated %s in %d ms (%.0fx real time)%n", simulatedDuration,
+                wallClockDuration.toMillis(), getSpeedup()));
+        for (VehicleSize size : VehicleSize.values()) {
+            sb.append(String.format("  %-6s arrivals=%d rejected=%d%n", size, getArrivals(size), getRejections(size)));
+        }
+        sb.append(String.format("  Rejection rate: %.2f%%%n", getRejectionRate() * 100));
+        sb.append(String.format("  Revenue: %s from %d departures%n", revenue, departures));
+        sb.append(String.format("  Allocation latency p50=%dns p90=%dns p99=%dns max=%dns%n",
+                getAllocationLatencyNanos(0.50), getAllocationLatencyNanos(0.90),
+                getAllocationLatencyNanos(0.99), getAllocationLatencyNanos(1.0)));
+        sb.append(String.format("  Gate wait mean=%.0fms max=%dms", meanGateWaitMillis, maxGateWaitMillis));
+        return sb.toString();
+    }
+}
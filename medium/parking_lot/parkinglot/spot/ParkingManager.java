@@ -1,32 +1,68 @@
 package parkinglot.spot;
 
+import parkinglot.reservation.FreeWindowIndex;
+import parkinglot.reservation.Reservation;
+import parkinglot.reservation.SpotSchedule;
 import parkinglot.vehicle.Vehicle;
 import parkinglot.vehicle.VehicleSize;
 
-import java.util.ArrayList;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 public class ParkingManager {
+    private static final Duration DEFAULT_WALK_IN_BUFFER = Duration.ofHours(2);
+
     private final Map<VehicleSize, List<ParkingSpot>> availableSpots;
+    // Free windows of every spot, and of the spots free right now, per size bucket
+    private final Map<VehicleSize, FreeWindowIndex> allWindows;
+    private final Map<VehicleSize, FreeWindowIndex> availableWindows;
     private final Map<Vehicle, ParkingSpot> vehicleToSpotMap;
+    private final Map<ParkingSpot, SpotSchedule> spotSchedules;    // Only spots with current bookings
+    private final Duration walkInBuffer;  // Walk-ins are not given spots booked to start within this window
+    private int reservationCounter;
 
     // Create Parking Manager based on a given map of available spots
     public ParkingManager(Map<VehicleSize, List<ParkingSpot>> availableSpots) {
+        this(availableSpots, DEFAULT_WALK_IN_BUFFER);
+    }
+
+    public ParkingManager(Map<VehicleSize, List<ParkingSpot>> availableSpots, Duration walkInBuffer) {
         this.availableSpots = availableSpots;
+        this.allWindows = new HashMap<>();
+        this.availableWindows = new HashMap<>();
+        for (Map.Entry<VehicleSize, List<ParkingSpot>> entry : availableSpots.entrySet()) {
+            FreeWindowIndex all = allWindows.computeIfAbsent(entry.getKey(), size -> new FreeWindowIndex());
+            FreeWindowIndex available = availableWindows.computeIfAbsent(entry.getKey(), size -> new FreeWindowIndex());
+            for (ParkingSpot spot : entry.getValue()) {
+                all.add(spot, LocalDateTime.MIN, LocalDateTime.MAX);
+                if (spot.isAvailable()) {
+                    available.add(spot, LocalDateTime.MIN, LocalDateTime.MAX);
+                }
+            }
+        }
         this.vehicleToSpotMap = new HashMap<>();
+        this.spotSchedules = new HashMap<>();
+        this.walkInBuffer = walkInBuffer;
     }
 
     public ParkingSpot findSpotForVehicle(Vehicle vehicle) {
+        return findSpotForVehicle(vehicle, LocalDateTime.now());
+    }
+
+    public ParkingSpot findSpotForVehicle(Vehicle vehicle, LocalDateTime arrivalTime) {
         VehicleSize vehicleSize = vehicle.getSize();
+        LocalDateTime protectedUntil = arrivalTime.plus(walkInBuffer);
 
         // Start looking from the smallest spot that can fit the vehicle
         for (VehicleSize size : VehicleSize.values()) {
             if (size.ordinal() >= vehicleSize.ordinal()) {
                 List<ParkingSpot> spots = availableSpots.get(size);
                 for (ParkingSpot spot : spots) {
-                    if (spot.isAvailable()) {
+                    if (spot.isAvailable() && isFreeBetween(spot, arrivalTime, protectedUntil)) {
                         return spot;  // Return the first available spot
                     }
                 }
@@ -36,11 +72,13 @@ public class ParkingManager {
     }
 
     public ParkingSpot parkVehicle(Vehicle vehicle) {
-        ParkingSpot spot = findSpotForVehicle(vehicle);
+        return parkVehicle(vehicle, LocalDateTime.now());
+    }
+
+    public ParkingSpot parkVehicle(Vehicle vehicle, LocalDateTime arrivalTime) {
+        ParkingSpot spot = findSpotForVehicle(vehicle, arrivalTime);
         if (spot != null) {
-            spot.occupy(vehicle);
-            // Record the parking spot for the vehicle
-            vehicleToSpotMap.put(vehicle, spot);  
+            occupy(spot, vehicle);
             // Remove the spot from the available list
             availableSpots.get(spot.getSize()).remove(spot);
             return spot;  // Parking successful
@@ -48,11 +86,159 @@ public class ParkingManager {
         return null;  // No spot found for this vehicle
     }
 
+    // Park a vehicle in the spot held by its reservation; returns null if the spot is still occupied or too
+    // small. Throws IllegalStateException if the arrival is outside the booked window, or the reservation
+    // has been cancelled or already used.
+    public ParkingSpot parkReservedVehicle(Vehicle vehicle, Reservation reservation, LocalDateTime arrivalTime) {
+        if (arrivalTime.isBefore(reservation.getStartTime()) || !arrivalTime.isBefore(reservation.getEndTime())) {
+            throw new IllegalStateException("Reservation " + reservation.getReservationId() + " is for "
+                    + reservation.getStartTime() + " to " + reservation.getEndTime() + ", not " + arrivalTime);
+        }
+        SpotSchedule schedule = spotSchedules.get(reservation.getParkingSpot());
+        if (schedule == null || !schedule.contains(reservation)) {
+            throw new IllegalStateException("Reservation " + reservation.getReservationId() + " has been cancelled");
+        }
+        if (reservation.isRedeemed()) {
+            throw new IllegalStateException("Reservation " + reservation.getReservationId() + " has already been used");
+        }
+        ParkingSpot spot = reservation.getParkingSpot();
+        if (!spot.isAvailable() || spot.getSize().ordinal() < vehicle.getSize().ordinal()) {
+            return null;
+        }
+        reservation.redeem();
+        occupy(spot, vehicle);
+        availableSpots.get(spot.getSize()).remove(spot);
+        return spot;
+    }
+
+    public Reservation reserveSpot(VehicleSize vehicleSize, LocalDateTime start, LocalDateTime end) {
+        return reserveSpot(vehicleSize, start, end, LocalDateTime.now());
+    }
+
+    // Book a spot of the smallest fitting size that is free for the whole window [start, end), as of the
+    // given time. Each size bucket costs one O(log n) lookup in its index of free windows.
+    public Reservation reserveSpot(VehicleSize vehicleSize, LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        // A vehicle parked now may still be there when a booking that starts soon begins
+        boolean startsSoon = start.isBefore(now.plus(walkInBuffer));
+        Map<VehicleSize, FreeWindowIndex> windows = startsSoon ? availableWindows : allWindows;
+        for (VehicleSize size : VehicleSize.values()) {
+            if (size.ordinal() >= vehicleSize.ordinal() && windows.containsKey(size)) {
+                ParkingSpot spot = windows.get(size).find(start, end);
+                if (spot != null) {
+                    Reservation reservation = new Reservation("RES-" + (++reservationCounter), spot, start, end);
+                    book(reservation);
+                    return reservation;
+                }
+            }
+        }
+        return null;  // Every suitable spot is booked during the window
+    }
+
+    public void cancelReservation(Reservation reservation) {
+        ParkingSpot spot = reservation.getParkingSpot();
+        SpotSchedule schedule = spotSchedules.get(spot);
+        if (schedule == null || !schedule.cancel(reservation)) {
+            return;
+        }
+        // The gaps on either side of the booking merge into one
+        LocalDateTime from = schedule.freeSince(reservation.getStartTime());
+        LocalDateTime until = schedule.freeUntil(reservation.getStartTime());
+        if (from.isBefore(reservation.getStartTime())) {
+            removeWindow(spot, from);
+        }
+        if (reservation.getEndTime().isBefore(until)) {
+            removeWindow(spot, reservation.getEndTime());
+        }
+        addWindow(spot, from, until);
+        if (schedule.isEmpty()) {
+            spotSchedules.remove(spot);
+        }
+    }
+
+    // Forget bookings that are over, so schedules only hold current and future windows
+    public void purgeReservationsBefore(LocalDateTime time) {
+        spotSchedules.entrySet().removeIf(entry -> {
+            ParkingSpot spot = entry.getKey();
+            SpotSchedule schedule = entry.getValue();
+            schedule.forEachFreeWindow((from, until) -> removeWindow(spot, from));
+            schedule.removeEndedBefore(time);
+            schedule.forEachFreeWindow((from, until) -> addWindow(spot, from, until));
+            return schedule.isEmpty();
+        });
+    }
+
+    private boolean isFreeBetween(ParkingSpot spot, LocalDateTime start, LocalDateTime end) {
+        SpotSchedule schedule = spotSchedules.get(spot);
+        return schedule == null || schedule.isFree(start, end);
+    }
+
+    // Splits the gap the booking falls in; the caller has checked that the spot is free for it
+    private void book(Reservation reservation) {
+        ParkingSpot spot = reservation.getParkingSpot();
+        SpotSchedule schedule = spotSchedules.computeIfAbsent(spot, s -> new SpotSchedule());
+        LocalDateTime from = schedule.freeSince(reservation.getStartTime());
+        LocalDateTime until = schedule.freeUntil(reservation.getStartTime());
+        schedule.book(reservation);
+        removeWindow(spot, from);
+        if (from.isBefore(reservation.getStartTime())) {
+            addWindow(spot, from, reservation.getStartTime());
+        }
+        if (reservation.getEndTime().isBefore(until)) {
+            addWindow(spot, reservation.getEndTime(), until);
+        }
+    }
+
+    private void addWindow(ParkingSpot spot, LocalDateTime from, LocalDateTime until) {
+        allWindows.get(spot.getSize()).add(spot, from, until);
+        if (spot.isAvailable()) {
+            availableWindows.get(spot.getSize()).add(spot, from, until);
+        }
+    }
+
+    private void removeWindow(ParkingSpot spot, LocalDateTime from) {
+        allWindows.get(spot.getSize()).remove(spot, from);
+        availableWindows.get(spot.getSize()).remove(spot, from);
+    }
+
+    // Occupies the spot and takes its windows out of the index used for bookings that start soon
+    private void occupy(ParkingSpot spot, Vehicle vehicle) {
+        spot.occupy(vehicle);
+        vehicleToSpotMap.put(vehicle, spot);
+        FreeWindowIndex available = availableWindows.get(spot.getSize());
+        forEachWindow(spot, (from, until) -> available.remove(spot, from));
+    }
+
+    private void forEachWindow(ParkingSpot spot, BiConsumer<LocalDateTime, LocalDateTime> action) {
+        SpotSchedule schedule = spotSchedules.get(spot);
+        if (schedule == null) {
+            action.accept(LocalDateTime.MIN, LocalDateTime.MAX);
+        } else {
+            schedule.forEachFreeWindow(action);
+        }
+    }
+
     public void unparkVehicle(Vehicle vehicle) {
         ParkingSpot spot = vehicleToSpotMap.remove(vehicle);
         if (spot != null) {
             spot.vacate();
             availableSpots.get(spot.getSize()).add(spot);
+            FreeWindowIndex available = availableWindows.get(spot.getSize());
+            forEachWindow(spot, (from, until) -> available.add(spot, from, until));
+        }
+    }
+
+    // Re-occupy spots after a restart, e.g. from a journal; spot numbers must be unique across the lot.
+    // A single pass over the available lists keeps this linear in the number of spots.
+    public void restoreOccupancy(Map<Integer, Vehicle> vehiclesBySpotNumber) {
+        for (List<ParkingSpot> spots : availableSpots.values()) {
+            spots.removeIf(spot -> {
+                Vehicle vehicle = vehiclesBySpotNumber.get(spot.getSpotNumber());
+                if (vehicle == null) {
+                    return false;
+                }
+                occupy(spot, vehicle);
+                return true;
+            });
         }
     }
 
@@ -8,6 +8,7 @@ import restaurant.reservation.Reservation;
 import restaurant.reservation.ReservationManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 // Main restaurant class that manages reservations, orders and tables
@@ -29,11 +30,23 @@ public class Restaurant {
         return reservationManager.findAvailableTimeSlots(rangeStart, rangeEnd, partySize);
     }
 
+    // Finds possible reservation times within a time range at which a table is free for the whole duration
+    public LocalDateTime[] findAvailableTimeSlots(LocalDateTime rangeStart, LocalDateTime rangeEnd, int partySize,
+                                                  Duration duration) {
+        return reservationManager.findAvailableTimeSlots(rangeStart, rangeEnd, partySize, duration);
+    }
+
     // Creates a reservation for a party at the specified time
     public Reservation createScheduledReservation(String partyName, int partySize, LocalDateTime time) {
         return reservationManager.createReservation(partyName, partySize, time);
     }
 
+    // Creates a reservation for a party at the specified time, holding the table for the given duration
+    public Reservation createScheduledReservation(String partyName, int partySize, LocalDateTime time,
+                                                  Duration duration) {
+        return reservationManager.createReservation(partyName, partySize, time, duration);
+    }
+
     // Removes an existing reservation
     public void removeReservation(String partyName, int partySize, LocalDateTime reservationTime) {
         reservationManager.removeReservation(partyName, partySize, reservationTime);
@@ -9,8 +9,12 @@ import restaurant.table.Layout;
 import restaurant.table.Table;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -117,4 +121,66 @@ public class RestaurantTest {
         System.out.println("  - 4 Burgers × $10.00 = $40.00");
         System.out.println("=== Restaurant Walk-In Test Completed Successfully ===\n");
     }
+
+    /*
+    * Test that reservations hold a table for their whole duration, so overlapping requests go elsewhere.
+    */
+    @Test
+    public void testVariableDurationReservations() {
+        System.out.println("\n=== Testing Variable-Duration Reservations ===");
+        Layout layout = new Layout(List.of(4, 6));
+        Restaurant testRestaurant = new Restaurant("BurgerShack", new Menu(), layout);
+        LocalDateTime seven = LocalDateTime.now().plusDays(1).withHour(19).truncatedTo(ChronoUnit.HOURS);
+
+        System.out.println("\n--- Overlapping Requests ---");
+        Reservation dinner = testRestaurant.createScheduledReservation("Dinner", 4, seven, Duration.ofHours(2));
+        Table fourTop = dinner.getAssignedTable();
+        assertEquals(4, fourTop.getCapacity());
+        assertEquals(seven.plusHours(2), dinner.getEndTime());
+        assertFalse(fourTop.isAvailableAt(seven.plusHours(1)), "A 7:00 two-hour booking blocks 8:00");
+        assertTrue(fourTop.isAvailableAt(seven.plusHours(2)), "The table is free again when the booking ends");
+        Reservation late = testRestaurant.createScheduledReservation("Late", 4, seven.plusHours(1), Duration.ofHours(1));
+        assertEquals(6, late.getAssignedTable().getCapacity(), "8:00 goes to the next larger table");
+        assertThrows(IllegalStateException.class,
+                () -> testRestaurant.createScheduledReservation("Squeeze", 2, seven.plusMinutes(90), Duration.ofMinutes(30)));
+        Reservation after = testRestaurant.createScheduledReservation("After", 4, seven.plusHours(2), Duration.ofHours(1));
+        assertSame(fourTop, after.getAssignedTable(), "Back-to-back bookings share a table");
+        System.out.println("✓ Bookings block their table from start to end, and back-to-back bookings fit");
+
+        System.out.println("\n--- Times Are Not Rounded ---");
+        LocalDateTime quarterPast = seven.plusHours(4).plusMinutes(15);
+        Reservation brunch = testRestaurant.createScheduledReservation("Quarter", 2, quarterPast, Duration.ofMinutes(45));
+        assertEquals(quarterPast, brunch.getTime());
+        assertTrue(fourTop.isAvailableAt(quarterPast.plusMinutes(45)));
+        assertFalse(fourTop.isAvailable(seven.plusHours(4), seven.plusHours(4).plusMinutes(16)));
+        assertEquals(List.of(seven.plusHours(2)),
+                List.of(testRestaurant.findAvailableTimeSlots(seven, seven.plusHours(2), 5, Duration.ofMinutes(90))),
+                "Slots are offered only if the 6-seat table is free for the whole 90 minutes");
+        testRestaurant.removeReservation("Dinner", 4, seven);
+        assertTrue(fourTop.isAvailable(seven, seven.plusHours(2)), "Removing a reservation frees its interval");
+        System.out.println("✓ Reservations keep their exact minutes and durations");
+
+        System.out.println("\n--- Overlap Queries Against a Full Scan ---");
+        Table table = new Table(99, 4);
+        Random random = new Random(42);
+        List<Reservation> booked = new ArrayList<>();
+        LocalDateTime cursor = seven;
+        for (int i = 0; i < 1000; i++) {
+            cursor = cursor.plusMinutes(random.nextInt(60));
+            Reservation reservation = new Reservation("P" + i, 2, cursor, Duration.ofMinutes(15 + random.nextInt(180)), table);
+            table.addReservation(reservation);
+            booked.add(reservation);
+            cursor = reservation.getEndTime();
+        }
+        for (int i = 0; i < 10_000; i++) {
+            LocalDateTime start = seven.plusMinutes(random.nextInt((int) Duration.between(seven, cursor).toMinutes()));
+            LocalDateTime end = start.plusMinutes(1 + random.nextInt(240));
+            boolean free = booked.stream().noneMatch(r -> r.getTime().isBefore(end) && r.getEndTime().isAfter(start));
+            assertEquals(free, table.isAvailable(start, end));
+        }
+        assertThrows(IllegalStateException.class,
+                () -> table.addReservation(new Reservation("Clash", 2, booked.get(500).getTime(), table)));
+        System.out.println("✓ 10,000 interval queries agree with a full scan of 1,000 reservations");
+        System.out.println("=== Variable-Duration Reservation Test Completed Successfully ===\n");
+    }
 }
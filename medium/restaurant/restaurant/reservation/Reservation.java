@@ -2,19 +2,33 @@ package restaurant.reservation;
 
 import restaurant.table.Table;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 
-// Represents a reservation made at the restaurant for a specific party, time and table
+// Represents a reservation made at the restaurant for a specific party, time and table.
+// The table is held for [time, time + duration).
 public class Reservation {
+    // How long a table is held when no duration is given
+    public static final Duration DEFAULT_DURATION = Duration.ofHours(2);
+
     private final String partyName;
     private final int partySize;
     private final LocalDateTime time;
+    private final Duration duration;
     private final Table assignedTable;
 
     public Reservation(String partyName, int partySize, LocalDateTime time, Table assignedTable) {
+        this(partyName, partySize, time, DEFAULT_DURATION, assignedTable);
+    }
+
+    public Reservation(String partyName, int partySize, LocalDateTime time, Duration duration, Table assignedTable) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Reservation duration must be positive");
+        }
         this.partyName = partyName;
         this.partySize = partySize;
         this.time = time;
+        this.duration = duration;
         this.assignedTable = assignedTable;
     }
 
@@ -30,6 +44,15 @@ public class Reservation {
         return time;
     }
 
+    public Duration getDuration() {
+        return duration;
+    }
+
+    // When the table is free again; exclusive
+    public LocalDateTime getEndTime() {
+        return time.plus(duration);
+    }
+
     public Table getAssignedTable() {
         return assignedTable;
     }
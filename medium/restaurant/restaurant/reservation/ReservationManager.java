@@ -3,8 +3,8 @@ package restaurant.reservation;
 import restaurant.table.Layout;
 import restaurant.table.Table;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -22,11 +22,17 @@ public class ReservationManager {
 
     // Finds potential time slots for a reservation within the given time range and party size
     public LocalDateTime[] findAvailableTimeSlots(LocalDateTime rangeStart, LocalDateTime rangeEnd, int partySize) {
+        return findAvailableTimeSlots(rangeStart, rangeEnd, partySize, Reservation.DEFAULT_DURATION);
+    }
+
+    // Finds the start times, hourly from rangeStart, at which a table is free for the whole duration
+    public LocalDateTime[] findAvailableTimeSlots(LocalDateTime rangeStart, LocalDateTime rangeEnd, int partySize,
+                                                  Duration duration) {
         // checking every hour in the time range
         LocalDateTime current = rangeStart;
         List<LocalDateTime> possibleReservations = new ArrayList<>();
         while (!current.isAfter(rangeEnd)) {
-            Table availableTable = layout.findAvailableTable(partySize, current);
+            Table availableTable = layout.findAvailableTable(partySize, current, duration);
             if (availableTable != null) {
                 possibleReservations.add(current);
             }
@@ -35,11 +41,23 @@ public class ReservationManager {
         return possibleReservations.toArray(new LocalDateTime[0]);
     }
 
-    // Creates a reservation for a specific time, party size and name
+    // Creates a reservation of the default length for a specific time, party size and name
     public Reservation createReservation(String partyName, int partySize, LocalDateTime desiredTime) {
-        desiredTime = desiredTime.truncatedTo(ChronoUnit.HOURS);
-        Table table = layout.findAvailableTable(partySize, desiredTime);
-        Reservation reservation = new Reservation(partyName, partySize, desiredTime, table);
+        return createReservation(partyName, partySize, desiredTime, Reservation.DEFAULT_DURATION);
+    }
+
+    // Creates a reservation holding a table from the desired time for the given duration; throws
+    // IllegalStateException if no table large enough is free for all of it
+    public Reservation createReservation(String partyName, int partySize, LocalDateTime desiredTime, Duration duration) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Reservation duration must be positive");
+        }
+        Table table = layout.findAvailableTable(partySize, desiredTime, duration);
+        if (table == null) {
+            throw new IllegalStateException("No table for " + partySize + " is free from " + desiredTime
+                    + " for " + duration);
+        }
+        Reservation reservation = new Reservation(partyName, partySize, desiredTime, duration, table);
         table.addReservation(reservation);
         reservations.add(reservation);
         return reservation;
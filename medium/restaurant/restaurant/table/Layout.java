@@ -1,5 +1,8 @@
 package restaurant.table;
 
+import restaurant.reservation.Reservation;
+
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -18,11 +21,19 @@ public class Layout {
         }
     }
 
-    // Finds the smallest available table that can accommodate a party of the given size at the given time
+    // Finds the smallest available table that can accommodate a party of the given size for a reservation
+    // of the default length starting at the given time
     public Table findAvailableTable(int partySize, LocalDateTime reservationTime) {
+        return findAvailableTable(partySize, reservationTime, Reservation.DEFAULT_DURATION);
+    }
+
+    // Finds the smallest table that can accommodate the party and is free for the whole duration; each
+    // table is checked with one O(log n) overlap query on its reservations
+    public Table findAvailableTable(int partySize, LocalDateTime reservationTime, Duration duration) {
+        LocalDateTime end = reservationTime.plus(duration);
         for (Set<Table> tables : tablesByCapacity.tailMap(partySize).values()) {
             for (Table table : tables) {
-                if (table.isAvailableAt(reservationTime)) {
+                if (table.isAvailable(reservationTime, end)) {
                     return table;
                 }
             }
@@ -10,6 +10,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 // Represents a table in the restaurant with its properties and current state
 public class Table {
@@ -18,7 +20,9 @@ public class Table {
     private final int capacity;
 
     // current state
-    private final Map<LocalDateTime, Reservation> reservations = new HashMap<>();
+    // Reservations by start time. They never overlap, so ordering by start also orders them by end, and
+    // the only one that can overlap [start, end) is the last one starting before end.
+    private final NavigableMap<LocalDateTime, Reservation> reservations = new TreeMap<>();
     private final Map<MenuItem, List<OrderItem>> orderedItems = new HashMap<>();
 
     public Table(int tableId, int capacity) {
@@ -65,17 +69,28 @@ public class Table {
         }
     }
 
-    // Checks if the table is available at a specific time
-    public boolean isAvailableAt(LocalDateTime reservationTime) {
-        return !reservations.containsKey(reservationTime);
+    // Checks if the table is free at a specific time, i.e. no reservation's [start, end) contains it
+    public boolean isAvailableAt(LocalDateTime time) {
+        Map.Entry<LocalDateTime, Reservation> latest = reservations.floorEntry(time);
+        return latest == null || !latest.getValue().getEndTime().isAfter(time);
     }
 
-    // Adds a reservation to this table
+    // Checks if the table is free for the whole of [start, end), in O(log n)
+    public boolean isAvailable(LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, Reservation> latest = reservations.lowerEntry(end);
+        return latest == null || !latest.getValue().getEndTime().isAfter(start);
+    }
+
+    // Adds a reservation to this table; throws IllegalStateException if it overlaps another one
     public void addReservation(Reservation reservation) {
+        if (!isAvailable(reservation.getTime(), reservation.getEndTime())) {
+            throw new IllegalStateException(this + " is already reserved between " + reservation.getTime()
+                    + " and " + reservation.getEndTime());
+        }
         reservations.put(reservation.getTime(), reservation);
     }
 
-    // Removes a reservation from this table for a specific time
+    // Removes the reservation starting at a specific time from this table
     public void removeReservation(LocalDateTime reservationTime) {
         reservations.remove(reservationTime);
     }